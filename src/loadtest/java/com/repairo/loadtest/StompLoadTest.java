@@ -0,0 +1,303 @@
+package com.repairo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fan-out load test for the STOMP endpoint. Opens N concurrent sessions on /ws-native (one virtual
+ * thread per session), subscribes each to the admin topics, then triggers status changes through
+ * /admin/update-status as a logged-in admin and measures how long each STATUS_CHANGE takes to reach
+ * every session. Server heap and thread counts are sampled from /actuator/metrics while it runs.
+ *
+ * Run against a local instance with rate limiting off, e.g.
+ *   ./gradlew bootRun --args='--app.rate-limit.enabled=false'
+ *   ./gradlew stompLoadTest -PloadtestArgs="--clients=2000 --events=100"
+ *
+ * Options (all --key=value): url, endpoint, clients, events, interval-ms, connect-concurrency,
+ * user, password, settle-ms.
+ */
+public final class StompLoadTest {
+
+    private static final List<String> TOPICS = List.of("/topic/admin/status-updates", "/topic/admin/new-messages");
+    private static final Pattern LOGIN_CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"|value=\"([^\"]+)\"\\s+name=\"_csrf\"");
+    private static final Pattern META_CSRF = Pattern.compile("<meta name=\"_csrf\" content=\"([^\"]+)\"");
+    private static final Pattern META_CSRF_HEADER = Pattern.compile("<meta name=\"_csrf_header\" content=\"([^\"]+)\"");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, String> options;
+    private final URI base;
+    private final HttpClient http;
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    // customerId -> expected new status and the nanoTime the update was sent
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong deliveries = new AtomicLong();
+    private long[] latenciesNanos;
+    private final AtomicInteger latencyCount = new AtomicInteger();
+
+    private String csrfToken;
+    private String csrfHeader = "X-CSRF-TOKEN";
+
+    private record Pending(String status, long sentNanos) {}
+
+    private StompLoadTest(Map<String, String> options) {
+        this.options = options;
+        this.base = URI.create(option("url", "http://localhost:8080"));
+        this.http = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(virtualThreads)
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        new StompLoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        int clients = intOption("clients", 1000);
+        int events = intOption("events", 50);
+        long intervalMs = intOption("interval-ms", 200);
+        latenciesNanos = new long[clients * events];
+
+        login();
+        List<String> customerIds = customerIds();
+        if (customerIds.isEmpty()) {
+            throw new IllegalStateException("No customers found; create at least one before running the load test");
+        }
+        System.out.printf("Logged in, %d customers available%n", customerIds.size());
+
+        ServerSampler sampler = new ServerSampler();
+        sampler.sample();
+        System.out.printf("Server before: heap %s, threads %d%n", mb(sampler.heapUsed), sampler.threads);
+
+        List<StompSession> sessions = connect(clients);
+        sampler.sample();
+        System.out.printf("Server with %d sessions: heap %s, threads %d, ws sessions %d%n",
+            sessions.size(), mb(sampler.heapUsed), sampler.threads, sampler.wsSessions);
+
+        Thread samplerThread = Thread.ofVirtual().start(sampler::loop);
+        int rejected = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            String customerId = customerIds.get(i % customerIds.size());
+            String status = (i / customerIds.size()) % 2 == 0 ? "IN_PROGRESS" : "PENDING";
+            pending.put(customerId, new Pending(status, System.nanoTime()));
+            int code = updateStatus(customerId, status);
+            if (code != 200) {
+                rejected++;
+                if (code == 429) System.err.println("Rate limited on /admin/update-status; start the app with app.rate-limit.enabled=false");
+            }
+            Thread.sleep(intervalMs);
+        }
+        Thread.sleep(intOption("settle-ms", 3000));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        samplerThread.interrupt();
+
+        report(sessions.size(), events - rejected, elapsedMs, sampler);
+        sessions.forEach(StompSession::close);
+        virtualThreads.shutdownNow();
+    }
+
+    private List<StompSession> connect(int clients) throws InterruptedException {
+        URI endpoint = URI.create(base.toString().replaceFirst("^http", "ws") + option("endpoint", "/ws-native"));
+        Semaphore handshakes = new Semaphore(intOption("connect-concurrency", 200));
+        List<StompSession> sessions = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService connectors = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int index = i;
+                connectors.submit(() -> {
+                    StompSession session = new StompSession(index, this::onMessage);
+                    try {
+                        handshakes.acquire();
+                        session.open(http, endpoint, TOPICS, Duration.ofSeconds(30));
+                        sessions.add(session);
+                    } catch (Exception e) {
+                        if (failures.incrementAndGet() <= 5) System.err.println("Session " + index + " failed: " + e.getMessage());
+                    } finally {
+                        handshakes.release();
+                    }
+                    return null;
+                });
+            }
+        }
+        System.out.printf("Connected %d/%d sessions in %d ms (%d failed)%n", sessions.size(), clients,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failures.get());
+        return sessions;
+    }
+
+    private void onMessage(String destination, String body) {
+        long now = System.nanoTime();
+        if (!"/topic/admin/status-updates".equals(destination)) return;
+        try {
+            JsonNode event = mapper.readTree(body);
+            Pending expected = pending.get(event.path("customerId").asText());
+            if (expected == null || !expected.status().equals(event.path("newStatus").asText())) return;
+            deliveries.incrementAndGet();
+            int slot = latencyCount.getAndIncrement();
+            if (slot < latenciesNanos.length) latenciesNanos[slot] = now - expected.sentNanos();
+        } catch (Exception ignored) {
+            // not a status event we triggered
+        }
+    }
+
+    private void report(int sessions, int triggered, long elapsedMs, ServerSampler sampler) {
+        int n = Math.min(latencyCount.get(), latenciesNanos.length);
+        long[] sorted = Arrays.copyOf(latenciesNanos, n);
+        Arrays.sort(sorted);
+        long expected = (long) sessions * triggered;
+        System.out.println();
+        System.out.println("=== STOMP fan-out results ===");
+        System.out.printf("sessions %d, status changes %d, run %d ms%n", sessions, triggered, elapsedMs);
+        System.out.printf("deliveries %d of %d expected (%.2f%%)%n", deliveries.get(), expected,
+            expected == 0 ? 0.0 : deliveries.get() * 100.0 / expected);
+        if (n > 0) {
+            System.out.printf("latency ms  p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+                ms(percentile(sorted, 50)), ms(percentile(sorted, 90)), ms(percentile(sorted, 99)),
+                ms(percentile(sorted, 99.9)), ms(sorted[n - 1]));
+        }
+        System.out.printf("server peak heap %s, peak threads %d%n", mb(sampler.peakHeap), sampler.peakThreads);
+    }
+
+    private void login() throws Exception {
+        HttpResponse<String> loginPage = get("/login");
+        Matcher m = LOGIN_CSRF.matcher(loginPage.body());
+        String loginCsrf = m.find() ? (m.group(1) != null ? m.group(1) : m.group(2)) : "";
+        String form = "username=" + enc(option("user", "admin")) + "&password=" + enc(option("password", "admin"))
+            + "&_csrf=" + enc(loginCsrf);
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(base.resolve("/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)).build(),
+            HttpResponse.BodyHandlers.ofString());
+        String location = response.headers().firstValue("Location").orElse("");
+        if (response.statusCode() != 302 || location.contains("error")) {
+            throw new IllegalStateException("Login failed (" + response.statusCode() + " " + location + ")");
+        }
+        // The session CSRF token changes at login; the dashboard exposes the new one in meta tags
+        String dashboard = get("/admin/dashboard").body();
+        Matcher token = META_CSRF.matcher(dashboard);
+        if (!token.find()) throw new IllegalStateException("No CSRF token on /admin/dashboard");
+        csrfToken = token.group(1);
+        Matcher header = META_CSRF_HEADER.matcher(dashboard);
+        if (header.find()) csrfHeader = header.group(1);
+    }
+
+    private List<String> customerIds() throws Exception {
+        JsonNode root = mapper.readTree(get("/admin/check-new-messages").body());
+        List<String> ids = new ArrayList<>();
+        for (JsonNode customer : root.path("data").path("customers")) {
+            if (customer.hasNonNull("customerId")) ids.add(customer.get("customerId").asText());
+        }
+        return ids;
+    }
+
+    private int updateStatus(String customerId, String status) throws Exception {
+        String json = mapper.writeValueAsString(Map.of("customerId", customerId, "status", status));
+        return http.send(HttpRequest.newBuilder(base.resolve("/admin/update-status"))
+                .header("Content-Type", "application/json")
+                .header(csrfHeader, csrfToken)
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build(),
+            HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return http.send(HttpRequest.newBuilder(base.resolve(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Polls JVM heap / thread and WebSocket session gauges from the actuator (needs the admin session).
+     */
+    private final class ServerSampler {
+        volatile double heapUsed;
+        volatile double peakHeap;
+        volatile long threads;
+        volatile long peakThreads;
+        volatile long wsSessions;
+
+        void loop() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    sample();
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        void sample() {
+            heapUsed = metric("jvm.memory.used?tag=area:heap");
+            threads = (long) metric("jvm.threads.live");
+            wsSessions = (long) metric("repairo.websocket.sessions");
+            peakHeap = Math.max(peakHeap, heapUsed);
+            peakThreads = Math.max(peakThreads, threads);
+        }
+
+        private double metric(String nameAndQuery) {
+            try {
+                JsonNode root = mapper.readTree(get("/actuator/metrics/" + nameAndQuery).body());
+                return root.path("measurements").path(0).path("value").asDouble(-1);
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String mb(double bytes) {
+        return bytes < 0 ? "n/a" : String.format("%.1f MB", bytes / (1024 * 1024));
+    }
+
+    private static String enc(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    private int intOption(String key, int defaultValue) {
+        return options.containsKey(key) ? Integer.parseInt(options.get(key)) : defaultValue;
+    }
+}
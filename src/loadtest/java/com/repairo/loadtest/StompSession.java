@@ -0,0 +1,110 @@
+package com.repairo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Minimal STOMP 1.2 client over the JDK WebSocket API: CONNECT, SUBSCRIBE and MESSAGE frames only,
+ * which is all the load test needs from /ws-native. Heart-beats are disabled (0,0).
+ */
+final class StompSession implements WebSocket.Listener {
+
+    private final int index;
+    private final BiConsumer<String, String> onMessage; // destination, body
+    private final CompletableFuture<Void> connected = new CompletableFuture<>();
+    private final StringBuilder partial = new StringBuilder();
+    private WebSocket socket;
+
+    StompSession(int index, BiConsumer<String, String> onMessage) {
+        this.index = index;
+        this.onMessage = onMessage;
+    }
+
+    /**
+     * Opens the socket, sends CONNECT and waits for CONNECTED, then subscribes to the destinations.
+     */
+    void open(HttpClient client, URI endpoint, List<String> destinations, Duration timeout) throws Exception {
+        socket = client.newWebSocketBuilder()
+            .connectTimeout(timeout)
+            .buildAsync(endpoint, this)
+            .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        send("CONNECT\naccept-version:1.2\nhost:" + endpoint.getHost() + "\nheart-beat:0,0\n\n");
+        connected.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        for (int i = 0; i < destinations.size(); i++) {
+            send("SUBSCRIBE\nid:sub-" + index + "-" + i + "\ndestination:" + destinations.get(i) + "\nack:auto\n\n");
+        }
+    }
+
+    void close() {
+        if (socket == null) return;
+        try {
+            send("DISCONNECT\n\n");
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "done").get(2, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+            socket.abort();
+        }
+    }
+
+    private synchronized void send(String frameWithoutNull) throws Exception {
+        // The JDK client allows one outstanding send per socket, so frames are sent one after another
+        socket.sendText(frameWithoutNull + "\0", true).get(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        partial.append(data);
+        if (last) {
+            String text = partial.toString();
+            partial.setLength(0);
+            int start = 0;
+            int end;
+            while ((end = text.indexOf('\0', start)) >= 0) {
+                handleFrame(text.substring(start, end));
+                start = end + 1;
+            }
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        connected.completeExceptionally(new IllegalStateException("Closed " + statusCode + " " + reason));
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        connected.completeExceptionally(error);
+    }
+
+    private void handleFrame(String frame) {
+        frame = frame.stripLeading(); // server heart-beats are bare newlines
+        if (frame.isEmpty()) return;
+        int headerEnd = frame.indexOf("\n\n");
+        String head = headerEnd >= 0 ? frame.substring(0, headerEnd) : frame;
+        String body = headerEnd >= 0 ? frame.substring(headerEnd + 2) : "";
+        String[] lines = head.split("\n");
+        String command = lines[0].trim();
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) headers.putIfAbsent(lines[i].substring(0, colon), lines[i].substring(colon + 1));
+        }
+        switch (command) {
+            case "CONNECTED" -> connected.complete(null);
+            case "MESSAGE" -> onMessage.accept(headers.get("destination"), body);
+            case "ERROR" -> connected.completeExceptionally(new IllegalStateException("STOMP ERROR: " + headers.get("message")));
+            default -> { }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.repairo.analytics;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Fixed, roughly logarithmic buckets for time-in-status, from one minute to a month. Rollup documents
+ * store one counter per bucket ({@code durationHistogram.<index>}), so a sample is a single {@code $inc}
+ * and histograms of any number of buckets add up by summing counters. Percentiles are interpolated
+ * within the bucket they fall into, which is plenty for charts.
+ */
+public final class DurationHistogram {
+
+    /** Upper bounds in milliseconds; the last bucket is open ended. */
+    static final long[] BOUNDS_MS = {
+        Duration.ofMinutes(1).toMillis(),
+        Duration.ofMinutes(5).toMillis(),
+        Duration.ofMinutes(15).toMillis(),
+        Duration.ofMinutes(30).toMillis(),
+        Duration.ofHours(1).toMillis(),
+        Duration.ofHours(2).toMillis(),
+        Duration.ofHours(4).toMillis(),
+        Duration.ofHours(8).toMillis(),
+        Duration.ofHours(12).toMillis(),
+        Duration.ofDays(1).toMillis(),
+        Duration.ofDays(2).toMillis(),
+        Duration.ofDays(3).toMillis(),
+        Duration.ofDays(5).toMillis(),
+        Duration.ofDays(7).toMillis(),
+        Duration.ofDays(14).toMillis(),
+        Duration.ofDays(30).toMillis()
+    };
+
+    public static final int BUCKETS = BOUNDS_MS.length + 1;
+
+    private DurationHistogram() {}
+
+    public static int bucketOf(long durationMs) {
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            if (durationMs <= BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS_MS.length;
+    }
+
+    /**
+     * Estimated {@code p}-th percentile (0..100) of a histogram keyed by bucket index, as stored in a
+     * rollup. The open-ended last bucket is capped at {@code maxMs}, the largest sample seen. Returns
+     * null for an empty histogram.
+     */
+    public static Long percentile(Map<String, Long> histogram, double p, long maxMs) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        if (histogram != null) {
+            for (Map.Entry<String, Long> entry : histogram.entrySet()) {
+                int index = Integer.parseInt(entry.getKey());
+                if (index >= 0 && index < BUCKETS && entry.getValue() != null) {
+                    counts[index] += entry.getValue();
+                    total += entry.getValue();
+                }
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        double rank = Math.max(1, Math.ceil(p / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] == 0) continue;
+            if (seen + counts[i] >= rank) {
+                long lower = i == 0 ? 0 : BOUNDS_MS[i - 1];
+                long upper = i < BOUNDS_MS.length ? Math.min(BOUNDS_MS[i], Math.max(maxMs, lower)) : Math.max(maxMs, lower);
+                double fraction = (rank - seen) / counts[i];
+                return lower + Math.round((upper - lower) * fraction);
+            }
+            seen += counts[i];
+        }
+        return maxMs;
+    }
+}
@@ -0,0 +1,110 @@
+package com.repairo.analytics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable quantile sketch with a relative error guarantee (the DDSketch scheme): values are
+ * counted in logarithmic bins whose width grows with the value, so any quantile is returned within
+ * {@code relativeAccuracy} of the true value, using a few hundred bins for durations from
+ * milliseconds to months. Two sketches with the same accuracy merge by adding bin counts, so
+ * per-model sketches add up to exactly the per-status one.
+ *
+ * Thread-safe; all methods synchronize on the sketch.
+ */
+public final class QuantileSketch {
+
+    private static final double MIN_INDEXABLE = 1.0; // values below 1 (ms) are counted as zero
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final TreeMap<Integer, Long> bins = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be within (0, 1)");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public synchronized void add(double value) {
+        if (value < 0 || Double.isNaN(value)) {
+            throw new IllegalArgumentException("Only non-negative values can be added: " + value);
+        }
+        if (value < MIN_INDEXABLE) {
+            zeroCount++;
+        } else {
+            bins.merge((int) Math.ceil(Math.log(value) / logGamma), 1L, Long::sum);
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /** Adds all values of {@code other}, which must have been created with the same accuracy. */
+    public void merge(QuantileSketch other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge a sketch into itself");
+        }
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Sketches with different accuracy cannot be merged");
+        }
+        TreeMap<Integer, Long> otherBins;
+        long otherZero, otherCount;
+        double otherMin, otherMax;
+        synchronized (other) {
+            otherBins = new TreeMap<>(other.bins);
+            otherZero = other.zeroCount;
+            otherCount = other.count;
+            otherMin = other.min;
+            otherMax = other.max;
+        }
+        synchronized (this) {
+            otherBins.forEach((index, binCount) -> bins.merge(index, binCount, Long::sum));
+            zeroCount += otherZero;
+            count += otherCount;
+            min = Math.min(min, otherMin);
+            max = Math.max(max, otherMax);
+        }
+    }
+
+    /**
+     * Estimated value at quantile {@code q} (0..1), or NaN when the sketch is empty.
+     */
+    public synchronized double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be within [0, 1]: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(q * (count - 1)); // zero-based rank of the wanted value
+        if (rank < zeroCount) {
+            return Math.max(min, 0);
+        }
+        long seen = zeroCount;
+        for (Map.Entry<Integer, Long> bin : bins.entrySet()) {
+            seen += bin.getValue();
+            if (seen > rank) {
+                double estimate = 2 * Math.pow(gamma, bin.getKey()) / (gamma + 1);
+                return Math.max(min, Math.min(max, estimate));
+            }
+        }
+        return max;
+    }
+
+    public synchronized long count() { return count; }
+    public synchronized double min() { return count == 0 ? Double.NaN : min; }
+    public synchronized double max() { return count == 0 ? Double.NaN : max; }
+    public double relativeAccuracy() { return relativeAccuracy; }
+
+    /** Number of non-empty bins, i.e. the memory the sketch currently uses. */
+    public synchronized int binCount() { return bins.size(); }
+}
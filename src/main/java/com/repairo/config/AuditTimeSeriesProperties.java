@@ -0,0 +1,32 @@
+package com.repairo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Storage of the repair status audit log as a MongoDB time-series collection (app.audit.time-series.*).
+ * Needs MongoDB 5.0+, and 6.0+ for the secondary indexes on customerId.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.audit.time-series")
+public class AuditTimeSeriesProperties {
+    private boolean enabled = false;
+    private String granularity = "minutes"; // seconds, minutes or hours: typical gap between changes by one user
+    private int retentionDays = 0; // records older than this expire automatically; 0 keeps them forever
+    private boolean migrateOnStartup = false; // convert an existing regular collection after startup
+    private int migrationBatchSize = 1000;
+    private boolean dropLegacyAfterMigration = false;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+    public int getRetentionDays() { return retentionDays; }
+    public void setRetentionDays(int retentionDays) { this.retentionDays = retentionDays; }
+    public boolean isMigrateOnStartup() { return migrateOnStartup; }
+    public void setMigrateOnStartup(boolean migrateOnStartup) { this.migrateOnStartup = migrateOnStartup; }
+    public int getMigrationBatchSize() { return migrationBatchSize; }
+    public void setMigrationBatchSize(int migrationBatchSize) { this.migrationBatchSize = migrationBatchSize; }
+    public boolean isDropLegacyAfterMigration() { return dropLegacyAfterMigration; }
+    public void setDropLegacyAfterMigration(boolean dropLegacyAfterMigration) { this.dropLegacyAfterMigration = dropLegacyAfterMigration; }
+}
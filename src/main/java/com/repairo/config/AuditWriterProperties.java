@@ -0,0 +1,35 @@
+package com.repairo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Asynchronous audit log writer (app.audit.writer.*). Disabling it writes every audit record on the
+ * request thread.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.audit.writer")
+public class AuditWriterProperties {
+    private boolean enabled = true;
+    private int bufferCapacity = 10_000; // records waiting for a flush; beyond this they are spilled (or written inline)
+    private int batchSize = 500; // a flush starts as soon as this many records are waiting
+    private long flushIntervalMs = 1000; // ... or when the oldest waiting record is this old
+    private long retryIntervalMs = 5000; // after a failed flush, batches go straight to the spill file this long
+    private boolean spillEnabled = true;
+    private String spillFile = "data/audit-spill.ndjson";
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getBufferCapacity() { return bufferCapacity; }
+    public void setBufferCapacity(int bufferCapacity) { this.bufferCapacity = bufferCapacity; }
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public long getFlushIntervalMs() { return flushIntervalMs; }
+    public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+    public long getRetryIntervalMs() { return retryIntervalMs; }
+    public void setRetryIntervalMs(long retryIntervalMs) { this.retryIntervalMs = retryIntervalMs; }
+    public boolean isSpillEnabled() { return spillEnabled; }
+    public void setSpillEnabled(boolean spillEnabled) { this.spillEnabled = spillEnabled; }
+    public String getSpillFile() { return spillFile; }
+    public void setSpillFile(String spillFile) { this.spillFile = spillFile; }
+}
@@ -0,0 +1,34 @@
+package com.repairo.config;
+
+import com.repairo.service.CustomerSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings the blind index tokens up to date at startup: customers saved before the blind index existed,
+ * or tokenized under a previous app.encryption.blind-index.key-id, are re-tokenized.
+ */
+@Component
+@Order(3)
+public class BlindIndexBackfillRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BlindIndexBackfillRunner.class);
+    private final CustomerSearchService customerSearchService;
+
+    public BlindIndexBackfillRunner(CustomerSearchService customerSearchService) {
+        this.customerSearchService = customerSearchService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            customerSearchService.rebuildBlindTokens();
+        } catch (Exception e) {
+            log.error("Blind index backfill failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.repairo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HMAC key for the blind index tokens stored next to encrypted customer fields. Changing the key
+ * requires a new keyId; customers tokenized under another id are re-tokenized at startup.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.encryption.blind-index")
+public class BlindIndexProperties {
+    private String key = "defaultDevBlindIndexKey"; // keep separate from app.encryption.key
+    private String keyId = "dev-1";
+    private int minPhoneSuffix = 4; // shortest searchable phone number suffix
+    private int maxIssueKeywords = 40;
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    public String getKeyId() { return keyId; }
+    public void setKeyId(String keyId) { this.keyId = keyId; }
+    public int getMinPhoneSuffix() { return minPhoneSuffix; }
+    public void setMinPhoneSuffix(int minPhoneSuffix) { this.minPhoneSuffix = minPhoneSuffix; }
+    public int getMaxIssueKeywords() { return maxIssueKeywords; }
+    public void setMaxIssueKeywords(int maxIssueKeywords) { this.maxIssueKeywords = maxIssueKeywords; }
+}
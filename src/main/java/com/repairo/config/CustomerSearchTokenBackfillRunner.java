@@ -0,0 +1,78 @@
+package com.repairo.config;
+
+import com.repairo.model.Customer;
+import com.repairo.search.NameTokenizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Fills in the name search tokens for customers saved before they existed (the {@code name_tokens}
+ * index itself comes from IndexCatalog). Idempotent: only named customers without tokens are
+ * touched, in bulk writes of {@link #BATCH_SIZE}.
+ */
+@Component
+@Order(2)
+public class CustomerSearchTokenBackfillRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerSearchTokenBackfillRunner.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final AtomicBoolean executed = new AtomicBoolean(false);
+
+    public CustomerSearchTokenBackfillRunner(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!executed.compareAndSet(false, true)) {
+            return; // ensure single execution
+        }
+        try {
+            Query missingTokens = new Query(Criteria.where("name").type(2).and("nameTokens").exists(false));
+            missingTokens.fields().include("name");
+            long updated = 0;
+            BulkOperations ops = null;
+            int pending = 0;
+            try (Stream<Customer> customers = mongoTemplate.stream(missingTokens, Customer.class)) {
+                for (Customer customer : (Iterable<Customer>) customers::iterator) {
+                    if (ops == null) {
+                        ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class);
+                    }
+                    // Derived fields only, so the version is left alone and no concurrent save conflicts
+                    ops.updateOne(Query.query(Criteria.where("_id").is(customer.getCustomerId()).and("name").is(customer.getName())),
+                        new Update().set("nameNormalized", NameTokenizer.normalize(customer.getName()))
+                            .set("nameTokens", NameTokenizer.indexTokens(customer.getName())));
+                    if (++pending == BATCH_SIZE) {
+                        updated += ops.execute().getModifiedCount();
+                        ops = null;
+                        pending = 0;
+                    }
+                }
+            }
+            if (ops != null) {
+                updated += ops.execute().getModifiedCount();
+            }
+            if (updated > 0) {
+                log.info("Search token backfill: tokenized the names of {} customer document(s)", updated);
+            } else {
+                log.debug("Search token backfill: no customer documents missing name tokens.");
+            }
+        } catch (Exception e) {
+            log.error("Search token backfill failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.repairo.config;
+
+import com.repairo.model.Customer;
+import com.repairo.model.NotificationJob;
+import com.repairo.model.OutboundMessage;
+import com.repairo.model.RepairStatusChange;
+import com.repairo.model.StatusTransitionRollup;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Every index the application relies on. Indexes are declared on the entities with {@code @Indexed} and
+ * {@code @CompoundIndex} and resolved here, since Spring Boot leaves auto-index creation off;
+ * IndexProvisioningService compares them with the live database. The probes are the shapes of the
+ * repository queries, explained to check that each is served by an index.
+ */
+@Component
+public class IndexCatalog {
+
+    static final List<Class<?>> ENTITIES = List.of(Customer.class, RepairStatusChange.class,
+        StatusTransitionRollup.class, OutboundMessage.class, NotificationJob.class);
+
+    /**
+     * An index an earlier version declared and a wider declared index now covers (a key prefix of it).
+     * Provisioning drops it by name once the replacement exists, so it stops costing on every write.
+     */
+    public record Superseded(Class<?> entity, String name, Document keys) {}
+
+    static final List<Superseded> SUPERSEDED = List.of(
+        new Superseded(RepairStatusChange.class, "customer_changed_at", new Document("customerId", 1).append("changedAt", -1)),
+        new Superseded(RepairStatusChange.class, "changed_by_changed_at", new Document("changedBy", 1).append("changedAt", -1)),
+        new Superseded(RepairStatusChange.class, "changed_at", new Document("changedAt", 1)));
+
+    /** One query shape: filter and sort in stored form (enums as strings, times as dates). */
+    public static final class Probe {
+        private final String name;
+        private final Class<?> entity;
+        private final Document filter;
+        private final Document sort;
+
+        Probe(String name, Class<?> entity, Document filter, Document sort) {
+            this.name = name;
+            this.entity = entity;
+            this.filter = filter;
+            this.sort = sort;
+        }
+
+        public String getName() { return name; }
+        public Class<?> getEntity() { return entity; }
+        public Document getFilter() { return filter; }
+        public Document getSort() { return sort; }
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    public IndexCatalog(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public List<Class<?>> entities() {
+        return ENTITIES;
+    }
+
+    public String collectionOf(Class<?> entity) {
+        return mongoTemplate.getCollectionName(entity);
+    }
+
+    public List<IndexDefinition> declared(Class<?> entity) {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        List<IndexDefinition> definitions = new ArrayList<>();
+        resolver.resolveIndexFor(entity).forEach(definitions::add);
+        return definitions;
+    }
+
+    public List<Superseded> superseded(Class<?> entity) {
+        return SUPERSEDED.stream().filter(index -> index.entity() == entity).toList();
+    }
+
+    public List<Probe> probes() {
+        Date now = Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant());
+        Date dayAgo = new Date(now.getTime() - 24 * 3600_000L);
+        return List.of(
+            new Probe("customers.findByPhone", Customer.class, new Document("phone", "probe"), null),
+            new Probe("customers.list", Customer.class, new Document(),
+                new Document("lastInteraction", -1).append("_id", -1)),
+            new Probe("customers.repairColumn", Customer.class, new Document("repairStatus", "PENDING"),
+                new Document("lastInteraction", -1).append("_id", -1)),
+            new Probe("customers.countByRepairStatus", Customer.class, new Document("repairStatus", "PENDING"), null),
+            new Probe("customers.searchByName", Customer.class, new Document("nameTokens", "p:probe"), null),
+            new Probe("customers.searchByPhoneSuffix", Customer.class, new Document("phoneTokens", "probe"), null),
+            new Probe("customers.searchByIssue", Customer.class, new Document("issueTokens", "probe"), null),
+            new Probe("repairStatusChanges.findFirstByCustomerIdOrderByChangedAtDesc", RepairStatusChange.class,
+                new Document("customerId", "probe"), new Document("changedAt", -1)),
+            new Probe("repairStatusChanges.auditByCustomer", RepairStatusChange.class,
+                new Document("customerId", "probe"), new Document("changedAt", -1).append("_id", -1)),
+            new Probe("repairStatusChanges.auditByUser", RepairStatusChange.class,
+                new Document("changedBy", "probe"), new Document("changedAt", -1).append("_id", -1)),
+            new Probe("repairStatusChanges.auditByRange", RepairStatusChange.class,
+                new Document("changedAt", new Document("$gte", dayAgo).append("$lt", now)), new Document("changedAt", -1).append("_id", -1)),
+            new Probe("statusTransitionRollups.range", StatusTransitionRollup.class,
+                new Document("granularity", "DAY").append("bucketStart", new Document("$gte", dayAgo).append("$lt", now)),
+                new Document("bucketStart", 1)),
+            new Probe("outboundMessages.due", OutboundMessage.class,
+                new Document("status", new Document("$in", List.of("PENDING", "FAILED"))).append("nextAttemptAt", new Document("$lte", now)),
+                new Document("nextAttemptAt", 1)),
+            new Probe("outboundMessages.findByCustomerIdOrderByCreatedAtDesc", OutboundMessage.class,
+                new Document("customerId", "probe"), new Document("createdAt", -1)),
+            new Probe("outboundMessages.findByStatusOrderByCreatedAtDesc", OutboundMessage.class,
+                new Document("status", "FAILED"), new Document("createdAt", -1)));
+    }
+}
@@ -0,0 +1,26 @@
+package com.repairo.config;
+
+import com.repairo.onboarding.OnboardingFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OnboardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(OnboardingConfig.class);
+
+    /**
+     * Compiled once at startup, so a typo in a placeholder or capture fails the boot instead of a
+     * customer conversation.
+     */
+    @Bean
+    public OnboardingFlow onboardingFlow(OnboardingProperties properties) {
+        if (properties.getStates().isEmpty()) {
+            logger.info("No app.onboarding.states configured, using the built-in onboarding flow");
+            return OnboardingFlow.DEFAULT;
+        }
+        return OnboardingFlow.compile(properties.getStates());
+    }
+}
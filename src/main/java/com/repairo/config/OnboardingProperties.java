@@ -0,0 +1,44 @@
+package com.repairo.config;
+
+import com.repairo.model.OnboardingState;
+import com.repairo.model.RepairStatus;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WhatsApp onboarding conversation (app.onboarding.states). Each state lists rules tried in order;
+ * the first whose keywords occur in the message (or that has none) fires. Left empty, the built-in
+ * flow ({@code OnboardingFlow.DEFAULT}) is used.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.onboarding")
+public class OnboardingProperties {
+    private Map<OnboardingState, List<Rule>> states = new LinkedHashMap<>();
+
+    public Map<OnboardingState, List<Rule>> getStates() { return states; }
+    public void setStates(Map<OnboardingState, List<Rule>> states) { this.states = states; }
+
+    public static class Rule {
+        private List<String> keywords = new ArrayList<>(); // empty = any message
+        private String capture; // store the message as "name", "issue" or "phoneModel"
+        private String reply; // may use {message}, {name}, {phoneModel}, {status}
+        private OnboardingState next;
+        private RepairStatus repairStatus;
+
+        public List<String> getKeywords() { return keywords; }
+        public void setKeywords(List<String> keywords) { this.keywords = keywords; }
+        public String getCapture() { return capture; }
+        public void setCapture(String capture) { this.capture = capture; }
+        public String getReply() { return reply; }
+        public void setReply(String reply) { this.reply = reply; }
+        public OnboardingState getNext() { return next; }
+        public void setNext(OnboardingState next) { this.next = next; }
+        public RepairStatus getRepairStatus() { return repairStatus; }
+        public void setRepairStatus(RepairStatus repairStatus) { this.repairStatus = repairStatus; }
+    }
+}
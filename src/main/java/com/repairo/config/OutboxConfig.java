@@ -0,0 +1,37 @@
+package com.repairo.config;
+
+import com.repairo.ratelimit.OutboundThrottle;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor outboxExecutor(OutboxProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getWorkers());
+        executor.setMaxPoolSize(properties.getWorkers());
+        // Deliveries are bounded by the dispatcher's permits; the queue only absorbs wake-ups
+        executor.setQueueCapacity(properties.getWorkers() * 4);
+        executor.setThreadNamePrefix("outbox-");
+        return executor;
+    }
+
+    @Bean
+    public OutboundThrottle outboundThrottle(OutboxProperties properties) {
+        return new OutboundThrottle(properties.getThrottle());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.outbox", name = "transactional", havingValue = "true")
+    public MongoTransactionManager mongoTransactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
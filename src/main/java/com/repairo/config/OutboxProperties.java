@@ -0,0 +1,76 @@
+package com.repairo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Outbound WhatsApp delivery (app.outbox.*). Disabling the outbox falls back to sending on the
+ * request thread.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+    private boolean enabled = true;
+    private boolean transactional = false; // write customer + outbox in one Mongo transaction (replica set required)
+    private int workers = 4;
+    private int batchSize = 20; // max messages claimed per poll
+    private long pollIntervalMs = 1000;
+    private int maxAttempts = 8; // after this many failed attempts a message is dead-lettered
+    private long initialBackoffMs = 2000;
+    private long maxBackoffMs = 600_000;
+    private long leaseMs = 60_000; // a SENDING claim older than this is considered abandoned and retried
+    private Throttle throttle = new Throttle();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public boolean isTransactional() { return transactional; }
+    public void setTransactional(boolean transactional) { this.transactional = transactional; }
+    public int getWorkers() { return workers; }
+    public void setWorkers(int workers) { this.workers = workers; }
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public long getPollIntervalMs() { return pollIntervalMs; }
+    public void setPollIntervalMs(long pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+    public long getInitialBackoffMs() { return initialBackoffMs; }
+    public void setInitialBackoffMs(long initialBackoffMs) { this.initialBackoffMs = initialBackoffMs; }
+    public long getMaxBackoffMs() { return maxBackoffMs; }
+    public void setMaxBackoffMs(long maxBackoffMs) { this.maxBackoffMs = maxBackoffMs; }
+    public long getLeaseMs() { return leaseMs; }
+    public void setLeaseMs(long leaseMs) { this.leaseMs = leaseMs; }
+    public Throttle getThrottle() { return throttle; }
+    public void setThrottle(Throttle throttle) { this.throttle = throttle; }
+
+    /** Graph API messaging limits, see OutboundThrottle. */
+    public static class Throttle {
+        private boolean enabled = true;
+        private double numberRatePerSecond = 80; // per phoneNumberId throughput ceiling
+        private int numberBurst = 80;
+        private double recipientRatePerMinute = 10; // pair rate limit: ~1 message per 6s to the same user
+        private int recipientBurst = 5;
+        private double decreaseFactor = 0.5; // rate multiplier on 429 / throughput errors
+        private double minRateFraction = 0.1; // never go below this share of numberRatePerSecond
+        private double recoveryStep = 0.02; // share of the ceiling regained per successful send
+        private long pairCooldownMs = 60_000; // recipient pause after error 131056
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public double getNumberRatePerSecond() { return numberRatePerSecond; }
+        public void setNumberRatePerSecond(double numberRatePerSecond) { this.numberRatePerSecond = numberRatePerSecond; }
+        public int getNumberBurst() { return numberBurst; }
+        public void setNumberBurst(int numberBurst) { this.numberBurst = numberBurst; }
+        public double getRecipientRatePerMinute() { return recipientRatePerMinute; }
+        public void setRecipientRatePerMinute(double recipientRatePerMinute) { this.recipientRatePerMinute = recipientRatePerMinute; }
+        public int getRecipientBurst() { return recipientBurst; }
+        public void setRecipientBurst(int recipientBurst) { this.recipientBurst = recipientBurst; }
+        public double getDecreaseFactor() { return decreaseFactor; }
+        public void setDecreaseFactor(double decreaseFactor) { this.decreaseFactor = decreaseFactor; }
+        public double getMinRateFraction() { return minRateFraction; }
+        public void setMinRateFraction(double minRateFraction) { this.minRateFraction = minRateFraction; }
+        public double getRecoveryStep() { return recoveryStep; }
+        public void setRecoveryStep(double recoveryStep) { this.recoveryStep = recoveryStep; }
+        public long getPairCooldownMs() { return pairCooldownMs; }
+        public void setPairCooldownMs(long pairCooldownMs) { this.pairCooldownMs = pairCooldownMs; }
+    }
+}
@@ -34,6 +34,8 @@ public class SecurityConfig {
             )
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/admin/**").authenticated()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").authenticated()
                 .requestMatchers("/webhook/**", "/api/**", "/login", "/error", "/css/**", "/js/**", "/images/**").permitAll()
                 .anyRequest().permitAll()
             )
@@ -1,17 +1,24 @@
 package com.repairo.config;
 
+import com.repairo.websocket.SlowConsumerGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -29,6 +36,14 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${app.websocket.heartbeat.outbound-ms:10000}")
     private long outboundHeartbeat;
 
+    private final WebSocketProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public WebSocketConfig(WebSocketProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue")
@@ -36,6 +51,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
               .setTaskScheduler(websocketTaskScheduler());
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        config.setPreservePublishOrder(properties.isPreservePublishOrder());
         log.info("WebSocket STOMP broker configured: /topic, /queue with heartbeats out:{}ms in:{}ms", outboundHeartbeat, inboundHeartbeat);
     }
 
@@ -47,6 +63,56 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         log.info("WebSocket STOMP endpoints registered at /ws (SockJS) and /ws-native; allowed origins: {}", (Object)patterns);
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(websocketInboundExecutor());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(websocketOutboundExecutor()).interceptors(slowConsumerGuard());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        WebSocketProperties.Transport transport = properties.getTransport();
+        registration.setSendTimeLimit(transport.getSendTimeLimitMs())
+                    .setSendBufferSizeLimit(transport.getSendBufferSizeLimit())
+                    .setMessageSizeLimit(transport.getMessageSizeLimit())
+                    .setTimeToFirstMessage(transport.getTimeToFirstMessageMs())
+                    .addDecoratorFactory(slowConsumerGuard()::decorate);
+        log.info("WebSocket transport limits: sendTime={}ms sendBuffer={}B messageSize={}B; slow consumer policy {} at {} queued",
+                transport.getSendTimeLimitMs(), transport.getSendBufferSizeLimit(), transport.getMessageSizeLimit(),
+                properties.getSlowConsumer().getPolicy(), properties.getSlowConsumer().getMaxQueuedMessages());
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor websocketInboundExecutor() {
+        return channelExecutor(properties.getInbound(), "ws-inbound-");
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor websocketOutboundExecutor() {
+        return channelExecutor(properties.getOutbound(), "ws-outbound-");
+    }
+
+    @Bean
+    public SlowConsumerGuard slowConsumerGuard() {
+        return new SlowConsumerGuard(properties.getSlowConsumer(), meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    private ThreadPoolTaskExecutor channelExecutor(WebSocketProperties.Channel channel, String threadNamePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(channel.getCorePoolSize());
+        executor.setMaxPoolSize(channel.getMaxPoolSize());
+        executor.setQueueCapacity(channel.getQueueCapacity());
+        executor.setKeepAliveSeconds(channel.getKeepAliveSeconds());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setVirtualThreads(channel.isVirtualThreads());
+        executor.setThreadNamePrefix(threadNamePrefix);
+        return executor;
+    }
+
     @Bean
     public TaskScheduler websocketTaskScheduler() {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
@@ -0,0 +1,96 @@
+package com.repairo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Broker channel, transport and slow-consumer settings under app.websocket.*.
+ * (enabled / allowed-origins / heartbeat are still read directly by WebSocketConfig.)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.websocket")
+public class WebSocketProperties {
+
+    /** Executor for messages coming from clients (STOMP SEND/SUBSCRIBE/...). */
+    private Channel inbound = new Channel();
+    /** Executor fanning broker messages out to client sessions. */
+    private Channel outbound = new Channel();
+    private Transport transport = new Transport();
+    private SlowConsumer slowConsumer = new SlowConsumer();
+    /** Keep per-session publish order when the outbound channel has more than one thread. */
+    private boolean preservePublishOrder = true;
+
+    public Channel getInbound() { return inbound; }
+    public void setInbound(Channel inbound) { this.inbound = inbound; }
+    public Channel getOutbound() { return outbound; }
+    public void setOutbound(Channel outbound) { this.outbound = outbound; }
+    public Transport getTransport() { return transport; }
+    public void setTransport(Transport transport) { this.transport = transport; }
+    public SlowConsumer getSlowConsumer() { return slowConsumer; }
+    public void setSlowConsumer(SlowConsumer slowConsumer) { this.slowConsumer = slowConsumer; }
+    public boolean isPreservePublishOrder() { return preservePublishOrder; }
+    public void setPreservePublishOrder(boolean preservePublishOrder) { this.preservePublishOrder = preservePublishOrder; }
+
+    public static class Channel {
+        private int corePoolSize = 4;
+        private int maxPoolSize = 16;
+        /** Bounded so a stalled channel rejects work instead of growing without limit. */
+        private int queueCapacity = 2000;
+        private int keepAliveSeconds = 60;
+        /** Run channel tasks on virtual threads (requires Java 21+ at runtime). */
+        private boolean virtualThreads = false;
+
+        public int getCorePoolSize() { return corePoolSize; }
+        public void setCorePoolSize(int corePoolSize) { this.corePoolSize = corePoolSize; }
+        public int getMaxPoolSize() { return maxPoolSize; }
+        public void setMaxPoolSize(int maxPoolSize) { this.maxPoolSize = maxPoolSize; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        public int getKeepAliveSeconds() { return keepAliveSeconds; }
+        public void setKeepAliveSeconds(int keepAliveSeconds) { this.keepAliveSeconds = keepAliveSeconds; }
+        public boolean isVirtualThreads() { return virtualThreads; }
+        public void setVirtualThreads(boolean virtualThreads) { this.virtualThreads = virtualThreads; }
+    }
+
+    public static class Transport {
+        /** Max time a single send to a client may take before the session is closed. */
+        private int sendTimeLimitMs = 10_000;
+        /** Max bytes buffered for a session while a previous send is still in progress. */
+        private int sendBufferSizeLimit = 512 * 1024;
+        /** Max size of an inbound STOMP message. */
+        private int messageSizeLimit = 64 * 1024;
+        /** Close connections that do not send a first (CONNECT) frame within this time. */
+        private int timeToFirstMessageMs = 60_000;
+
+        public int getSendTimeLimitMs() { return sendTimeLimitMs; }
+        public void setSendTimeLimitMs(int sendTimeLimitMs) { this.sendTimeLimitMs = sendTimeLimitMs; }
+        public int getSendBufferSizeLimit() { return sendBufferSizeLimit; }
+        public void setSendBufferSizeLimit(int sendBufferSizeLimit) { this.sendBufferSizeLimit = sendBufferSizeLimit; }
+        public int getMessageSizeLimit() { return messageSizeLimit; }
+        public void setMessageSizeLimit(int messageSizeLimit) { this.messageSizeLimit = messageSizeLimit; }
+        public int getTimeToFirstMessageMs() { return timeToFirstMessageMs; }
+        public void setTimeToFirstMessageMs(int timeToFirstMessageMs) { this.timeToFirstMessageMs = timeToFirstMessageMs; }
+    }
+
+    public static class SlowConsumer {
+        /**
+         * What to do once a session's outbound backlog reaches maxQueuedMessages:
+         * TERMINATE closes it, DROP discards further broadcasts until it catches up (the client can
+         * fill the gap from the replay buffer), NONE relies on the transport limits only.
+         */
+        private Policy policy = Policy.TERMINATE;
+        /** Outbound messages queued for one session but not yet written to its socket. */
+        private int maxQueuedMessages = 500;
+
+        public Policy getPolicy() { return policy; }
+        public void setPolicy(Policy policy) { this.policy = policy; }
+        public int getMaxQueuedMessages() { return maxQueuedMessages; }
+        public void setMaxQueuedMessages(int maxQueuedMessages) { this.maxQueuedMessages = maxQueuedMessages; }
+    }
+
+    public enum Policy {
+        TERMINATE,
+        DROP,
+        NONE
+    }
+}
@@ -0,0 +1,71 @@
+package com.repairo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single RestTemplate used for every Graph API call. Built on the JDK HttpClient (HTTP/2,
+ * connection reuse, connect + read timeouts) through Boot's RestTemplateBuilder, so requests are
+ * timed in the http.client.requests metric (tagged by status, outcome and uri).
+ */
+@Configuration
+public class WhatsAppClientConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(WhatsAppClientConfig.class);
+
+    @Bean
+    public RestTemplate whatsAppRestTemplate(RestTemplateBuilder builder, WhatsAppClientProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(properties.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(properties.getReadTimeoutMs()));
+
+        log.info("WhatsApp HTTP client: {} connectTimeout={}ms readTimeout={}ms maxConcurrent={}",
+            properties.isHttp2() ? "HTTP/2" : "HTTP/1.1", properties.getConnectTimeoutMs(),
+            properties.getReadTimeoutMs(), properties.getMaxConcurrentRequests());
+        return builder
+            .requestFactory(() -> requestFactory)
+            .additionalInterceptors(concurrencyLimit(properties))
+            .build();
+    }
+
+    /**
+     * Caps in-flight Graph API requests; a caller that cannot get a slot in time fails like an I/O
+     * error, which the outbox treats as retryable.
+     */
+    private static ClientHttpRequestInterceptor concurrencyLimit(WhatsAppClientProperties properties) {
+        Semaphore slots = new Semaphore(Math.max(1, properties.getMaxConcurrentRequests()));
+        return (request, body, execution) -> {
+            boolean acquired;
+            try {
+                acquired = slots.tryAcquire(properties.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResourceAccessException("Interrupted waiting for a WhatsApp API slot");
+            }
+            if (!acquired) {
+                throw new ResourceAccessException("Too many concurrent WhatsApp API requests");
+            }
+            try {
+                return execution.execute(request, body);
+            } finally {
+                slots.release();
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.repairo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP client settings for Graph API calls (whatsapp.client.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "whatsapp.client")
+public class WhatsAppClientProperties {
+    private long connectTimeoutMs = 5000;
+    private long readTimeoutMs = 15000; // per request, so a hung call cannot pin a thread
+    private boolean http2 = true; // HTTP/2 multiplexes requests over one reused connection
+    private int maxConcurrentRequests = 32; // in-flight cap (replaces a connection pool size with HTTP/2)
+    private long acquireTimeoutMs = 5000; // wait for a free slot before failing the send as retryable
+
+    public long getConnectTimeoutMs() { return connectTimeoutMs; }
+    public void setConnectTimeoutMs(long connectTimeoutMs) { this.connectTimeoutMs = connectTimeoutMs; }
+    public long getReadTimeoutMs() { return readTimeoutMs; }
+    public void setReadTimeoutMs(long readTimeoutMs) { this.readTimeoutMs = readTimeoutMs; }
+    public boolean isHttp2() { return http2; }
+    public void setHttp2(boolean http2) { this.http2 = http2; }
+    public int getMaxConcurrentRequests() { return maxConcurrentRequests; }
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) { this.maxConcurrentRequests = maxConcurrentRequests; }
+    public long getAcquireTimeoutMs() { return acquireTimeoutMs; }
+    public void setAcquireTimeoutMs(long acquireTimeoutMs) { this.acquireTimeoutMs = acquireTimeoutMs; }
+}
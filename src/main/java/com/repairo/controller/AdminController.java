@@ -5,11 +5,14 @@ import com.repairo.dto.*;
 import com.repairo.model.Customer;
 import com.repairo.model.Message;
 import com.repairo.model.RepairStatus;
-import com.repairo.model.RepairStatusChange;
 import com.repairo.repository.CustomerRepository;
+import com.repairo.repository.CustomerSortField;
 import com.repairo.config.FeatureProperties;
-import com.repairo.repository.RepairStatusChangeRepository;
+import com.repairo.service.BulkStatusService;
 import com.repairo.service.MessageService;
+import com.repairo.service.StatusAuditService;
+import com.repairo.service.StatusCounterService;
+import com.repairo.service.StatusRollupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,7 +31,9 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Controller
@@ -42,8 +47,11 @@ public class AdminController {
     private CustomerRepository customerRepository;
     
     @Autowired
-    private RepairStatusChangeRepository repairStatusChangeRepository;
+    private StatusAuditService statusAuditService;
     
+    @Autowired
+    private BulkStatusService bulkStatusService;
+
     @Autowired
     private MessageService messageService;
     
@@ -59,40 +67,63 @@ public class AdminController {
     @Autowired(required = false)
     private FeatureProperties featureProperties;
 
+    @Autowired(required = false)
+    private StatusCounterService statusCounters;
+
+    @Autowired(required = false)
+    private StatusRollupService statusRollups;
+
+    private static final int RECENT_CUSTOMERS_LIMIT = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int REPAIR_COLUMN_PAGE_SIZE = 20;
+
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
-        // Add statistics to the dashboard
-        long totalCustomers = customerRepository.count();
-        long activeRepairs = customerRepository.countByRepairStatus(RepairStatus.IN_PROGRESS);
-        long pendingMessages = customerRepository.countCustomersWithPendingMessages();
-        long completedToday = customerRepository.findByLastInteractionAfter(
-            LocalDateTime.now().minusDays(1)).stream()
-            .mapToLong(c -> c.getRepairStatus() == RepairStatus.COMPLETED ? 1 : 0)
-            .sum();
-        
-        model.addAttribute("totalCustomers", totalCustomers);
-        model.addAttribute("activeRepairs", activeRepairs);
-        model.addAttribute("pendingMessages", pendingMessages);
-        model.addAttribute("completedToday", completedToday);
-        
-        // Handle potential null return from repository
-        Long pendingCount = customerRepository.countCustomersWithPendingMessages();
-        model.addAttribute("pendingMessages", pendingCount != null ? pendingCount : 0L);
-        
-        // Recent customers
-        List<Customer> recentCustomers = customerRepository.findByLastInteractionAfter(
-            LocalDateTime.now().minusDays(7));
-        
-        // Decrypt sensitive fields for recent customers
-        recentCustomers.forEach(customer -> {
-            customer.setPhone(encryptionConfig.decryptSensitiveField(customer.getPhone(), "phone"));
-            customer.setIssue(encryptionConfig.decryptSensitiveField(customer.getIssue(), "issue"));
-        });
-        
-        model.addAttribute("recentCustomers", recentCustomers);
-        
+        DashboardStats stats = loadDashboardStats();
+        model.addAttribute("totalCustomers", stats.getTotalCustomers());
+        model.addAttribute("activeRepairs", stats.getActiveRepairs());
+        model.addAttribute("pendingMessages", stats.getPendingMessages());
+        model.addAttribute("completedToday", stats.getCompletedToday());
+        model.addAttribute("recentCustomers", stats.getRecentCustomers());
         return "admin/dashboard";
     }
+
+    /**
+     * Dashboard counters and recent activity as JSON, polled by the dashboard instead of
+     * check-new-messages.
+     */
+    @GetMapping(value = "/stats", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<DashboardStats>> stats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(loadDashboardStats()));
+        } catch (Exception e) {
+            logger.error("Error loading dashboard stats: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to load stats"));
+        }
+    }
+
+    private DashboardStats loadDashboardStats() {
+        LocalDateTime now = LocalDateTime.now();
+        // One $facet aggregation: counters plus a projected, limited recent list. With the maintained
+        // status counters only "completed today" and the recent list still need the query.
+        boolean countInDatabase = statusCounters == null;
+        DashboardStats stats = customerRepository.dashboardStats(now.minusDays(1), now.minusDays(7),
+            RECENT_CUSTOMERS_LIMIT, countInDatabase);
+        if (!countInDatabase) {
+            stats.setTotalCustomers(statusCounters.total());
+            stats.setActiveRepairs(statusCounters.count(RepairStatus.IN_PROGRESS));
+            stats.setPendingMessages(statusCounters.pendingConversations());
+        }
+        if (statusRollups != null) {
+            // Actual transitions into COMPLETED today rather than completed customers touched in the last 24h
+            stats.setCompletedToday(statusRollups.completedOn(now.toLocalDate()));
+        }
+        stats.getRecentCustomers().forEach(customer ->
+            customer.setPhone(encryptionConfig.decryptSensitiveField(customer.getPhone(), "phone")));
+        stats.setTimestamp(now.toString());
+        return stats;
+    }
     
     @GetMapping("/dashboard-test")
     public String dashboardTest() {
@@ -105,36 +136,56 @@ public class AdminController {
                            @RequestParam(defaultValue = "0") int page,
                            @RequestParam(defaultValue = "20") int size,
                            @RequestParam(defaultValue = "lastInteraction") String sortBy,
-                           @RequestParam(defaultValue = "desc") String sortDir) {
+                           @RequestParam(defaultValue = "desc") String sortDir,
+                           @RequestParam(required = false) String after,
+                           @RequestParam(required = false) String before,
+                           @RequestParam(defaultValue = "true") boolean withTotal) {
         
-        // Create pageable with sorting
-        Sort sort = sortDir.equalsIgnoreCase("desc") 
-            ? Sort.by(sortBy).descending() 
-            : Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        // Only indexed fields are sortable; anything else falls back to the default order
+        CustomerSortField sortField = CustomerSortField.fromParam(sortBy);
+        if (sortField == null) {
+            logger.debug("Ignoring unsupported customer sort field '{}'", sortBy);
+            sortField = CustomerSortField.LAST_INTERACTION;
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
         
-        Page<Customer> customerPage;
+        List<Customer> customers;
         if (search != null && !search.isEmpty()) {
-            customerPage = customerRepository.findByNameContainingIgnoreCase(search, pageable);
+            // Ranked, served from the name token index; offset paging because rank is not a seekable key
+            Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField.field()));
+            Page<Customer> customerPage = customerRepository.searchByName(search, pageable);
+            customers = customerPage.getContent();
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", customerPage.getTotalPages());
+            model.addAttribute("totalElements", customerPage.getTotalElements());
         } else {
-            customerPage = customerRepository.findAll(pageable);
+            CursorPage<Customer> cursorPage;
+            try {
+                cursorPage = customerRepository.findPage(sortField, direction, after, before, size);
+            } catch (IllegalArgumentException e) {
+                logger.debug("Ignoring page cursor: {}", e.getMessage());
+                cursorPage = customerRepository.findPage(sortField, direction, null, null, size);
+            }
+            if (withTotal) {
+                cursorPage.setEstimatedTotal(customerRepository.estimatedTotal());
+            }
+            customers = cursorPage.getContent();
+            model.addAttribute("cursorPage", cursorPage);
+            model.addAttribute("totalElements", cursorPage.getEstimatedTotal());
         }
         
         // Decrypt sensitive fields for display
-        customerPage.getContent().forEach(customer -> {
+        customers.forEach(customer -> {
             customer.setPhone(encryptionConfig.decryptSensitiveField(customer.getPhone(), "phone"));
             customer.setIssue(encryptionConfig.decryptSensitiveField(customer.getIssue(), "issue"));
         });
         
-        model.addAttribute("customersPage", customerPage);
-        model.addAttribute("customers", customerPage.getContent());
+        model.addAttribute("customers", customers);
         model.addAttribute("search", search);
-        model.addAttribute("currentPage", page);
         model.addAttribute("pageSize", size);
-        model.addAttribute("sortBy", sortBy);
-        model.addAttribute("sortDir", sortDir);
-        model.addAttribute("totalPages", customerPage.getTotalPages());
-        model.addAttribute("totalElements", customerPage.getTotalElements());
+        model.addAttribute("sortBy", sortField.field());
+        model.addAttribute("sortDir", direction.isAscending() ? "asc" : "desc");
         
         return "admin/customers";
     }
@@ -202,49 +253,68 @@ public class AdminController {
 
     @GetMapping("/repairs")
     public String repairs(Model model) {
-        List<Customer> customers = customerRepository.findAll();
-        
-        // Decrypt sensitive fields for display
-        customers.forEach(customer -> {
-            customer.setPhone(encryptionConfig.decryptSensitiveField(customer.getPhone(), "phone"));
-            customer.setIssue(encryptionConfig.decryptSensitiveField(customer.getIssue(), "issue"));
-        });
-        
-        model.addAttribute("customers", customers);
+        // Only the column counts are rendered here; cards are loaded per column as the admin scrolls
+        Map<RepairStatus, Long> statusCounts = new EnumMap<>(RepairStatus.class);
+        for (RepairStatus status : RepairStatus.values()) {
+            statusCounts.put(status, statusCounters != null
+                ? statusCounters.count(status)
+                : customerRepository.countByRepairStatus(status));
+        }
         model.addAttribute("repairStatuses", RepairStatus.values());
+        model.addAttribute("statusCounts", statusCounts);
+        model.addAttribute("columnPageSize", REPAIR_COLUMN_PAGE_SIZE);
         return "admin/repairs";
     }
+
+    @GetMapping(value = "/repairs/column", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<CursorPage<RepairCard>>> repairColumn(@RequestParam RepairStatus status,
+                                                                           @RequestParam(required = false) String after,
+                                                                           @RequestParam(defaultValue = "20") int size) {
+        CursorPage<Customer> page;
+        try {
+            page = customerRepository.findByRepairStatus(status, after, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+        // Only this page's issues are decrypted
+        List<RepairCard> cards = page.getContent().stream()
+            .map(customer -> RepairCard.of(customer, encryptionConfig.decryptSensitiveField(customer.getIssue(), "issue")))
+            .toList();
+        return ResponseEntity.ok(ApiResponse.success(new CursorPage<>(cards, page.getNextCursor(), page.getPrevCursor())));
+    }
     
     @PostMapping(value = "/update-status", consumes = "application/json", produces = "application/json")
     @ResponseBody
-    public ResponseEntity<ApiResponse<String>> updateRepairStatus(@Valid @RequestBody UpdateStatusRequest request,
+    public ResponseEntity<ApiResponse<Long>> updateRepairStatus(@Valid @RequestBody UpdateStatusRequest request,
                                                                   Authentication authentication) {
         try {
-            Optional<Customer> customerOpt = customerRepository.findById(request.getCustomerId());
-            if (customerOpt.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            // Atomic check-and-set; only the previous status fields come back, never the messages
+            Optional<Customer> previous = customerRepository.updateRepairStatus(
+                request.getCustomerId(), request.getVersion(), request.getStatus(), now);
+            if (previous.isEmpty()) {
                 return ResponseEntity.badRequest().body(ApiResponse.error("Customer not found"));
             }
-            
-            Customer customer = customerOpt.get();
-            
-            // Check version for optimistic locking if provided
-            if (request.getVersion() != null && customer.getVersion() != null && !customer.getVersion().equals(request.getVersion())) {
+
+            Customer customer = previous.get();
+            Long version = customer.getVersion();
+            if (request.getVersion() != null && version != null && !version.equals(request.getVersion())) {
+                // The update left the document alone
                 return ResponseEntity.status(409).body(ApiResponse.error("Customer was modified by another user. Please refresh and try again."));
             }
-            
             RepairStatus oldStatus = customer.getRepairStatus();
+            StatusCounterService.Snapshot before = StatusCounterService.Snapshot.of(customer);
+            LocalDateTime statusSince = statusAuditService.statusSince(customer);
             customer.setRepairStatus(request.getStatus());
-            customer.setLastInteraction(LocalDateTime.now());
-            customerRepository.save(customer);
+            if (statusCounters != null) {
+                // Fields that were not loaded are equal on both sides, so only the status moves
+                statusCounters.record(before, StatusCounterService.Snapshot.of(customer));
+            }
             
-            // Record status change in audit log
+            // Record status change in audit log (and the analytics rollups)
             String username = authentication != null ? authentication.getName() : "system";
-            if (featureProperties == null || featureProperties.isAuditStatus()) {
-                RepairStatusChange statusChange = new RepairStatusChange(
-                    request.getCustomerId(), oldStatus, request.getStatus(), username
-                );
-                repairStatusChangeRepository.save(statusChange);
-            }
+            statusAuditService.record(customer, oldStatus, username, statusSince, now);
 
             logger.info("Status updated for customer {} from {} to {} by {}", 
                        request.getCustomerId(), oldStatus, request.getStatus(), username);
@@ -252,7 +322,8 @@ public class AdminController {
             if ((featureProperties == null || featureProperties.isWebsockets()) && webSocketEventPublisher != null) {
                 webSocketEventPublisher.publishStatusChange(request.getCustomerId(), oldStatus.name(), request.getStatus().name());
             }
-            return ResponseEntity.ok(ApiResponse.success("Status updated successfully"));
+            // The version the update stored, so the client can send it with its next change
+            return ResponseEntity.ok(ApiResponse.success("Status updated successfully", version != null ? version + 1 : 1L));
             
         } catch (Exception e) {
             logger.error("Error updating status for customer {}: {}", request.getCustomerId(), e.getMessage());
@@ -260,16 +331,30 @@ public class AdminController {
         }
     }
     
+    /**
+     * Moves many customers to one status with a single bulk write. Per-customer outcomes are in the
+     * result; conflicts do not fail the request.
+     */
+    @PostMapping(value = "/update-status/bulk", consumes = "application/json", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<BulkStatusResult>> bulkUpdateRepairStatus(@Valid @RequestBody BulkStatusUpdateRequest request,
+                                                                                Authentication authentication) {
+        try {
+            String username = authentication != null ? authentication.getName() : "system";
+            BulkStatusResult result = bulkStatusService.apply(request.getStatus(), request.getItems(), username);
+            return ResponseEntity.ok(ApiResponse.success(result.getUpdated() + " customers updated", result));
+        } catch (Exception e) {
+            logger.error("Error in bulk status update to {}: {}", request.getStatus(), e.getMessage());
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to update statuses: " + e.getMessage()));
+        }
+    }
+
     @PostMapping(value = "/send-message", consumes = "application/json", produces = "application/json")
     @ResponseBody
     public ResponseEntity<ApiResponse<String>> sendMessage(@Valid @RequestBody SendMessageRequest request) {
         try {
+            // MessageService publishes the conversation delta (and preview) once the reply is stored
             messageService.sendReplyMessage(request.getCustomerId(), request.getMessage());
-            if ((featureProperties == null || featureProperties.isWebsockets()) && webSocketEventPublisher != null) {
-                String preview = request.getMessage();
-                if (preview.length() > 40) preview = preview.substring(0, 40) + "...";
-                webSocketEventPublisher.publishNewMessage(request.getCustomerId(), preview);
-            }
             return ResponseEntity.ok(ApiResponse.success("Message sent successfully"));
         } catch (Exception e) {
             logger.error("Error sending message to customer {}: {}", request.getCustomerId(), e.getMessage());
@@ -277,6 +362,18 @@ public class AdminController {
         }
     }
     
+    @GetMapping("/conversations/{customerId}/messages")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<List<ConversationMessage>>> conversationMessages(@PathVariable String customerId,
+                                                                                      @RequestParam(name = "after", defaultValue = "0") int after) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(messageService.getConversation(customerId, after)));
+        } catch (Exception e) {
+            logger.error("Error loading conversation for customer {}: {}", customerId, e.getMessage());
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to load conversation: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/check-new-messages")
     @ResponseBody
     public ResponseEntity<ApiResponse<CheckNewMessagesResponse>> checkNewMessages(@RequestParam(required = false) String lastChecked,
@@ -0,0 +1,66 @@
+package com.repairo.controller;
+
+import com.repairo.dto.ApiResponse;
+import com.repairo.dto.StatusTransitionPoint;
+import com.repairo.model.RepairStatus;
+import com.repairo.model.StatusTransitionRollup.Granularity;
+import com.repairo.service.StatusRollupService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chart data for repair status transitions, served from the hourly/daily rollups.
+ */
+@RestController
+@RequestMapping("/admin/analytics")
+@ConditionalOnProperty(prefix = "app.analytics.rollups", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AnalyticsController {
+
+    private final StatusRollupService statusRollups;
+
+    public AnalyticsController(StatusRollupService statusRollups) {
+        this.statusRollups = statusRollups;
+    }
+
+    /**
+     * Buckets in [from, to). Defaults: the last 24 hours for HOUR, the last 30 days for DAY.
+     */
+    @GetMapping(value = "/status-transitions", produces = "application/json")
+    public ResponseEntity<ApiResponse<List<StatusTransitionPoint>>> statusTransitions(
+            @RequestParam(defaultValue = "DAY") Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) RepairStatus fromStatus,
+            @RequestParam(required = false) RepairStatus toStatus) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from
+            : granularity == Granularity.HOUR ? end.minusHours(24) : end.minusDays(30);
+        try {
+            return ResponseEntity.ok(ApiResponse.success(statusRollups.range(granularity, start, end, fromStatus, toStatus)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Recomputes the rollups of all days before today from the audit log.
+     */
+    @PostMapping(value = "/status-transitions/rebuild", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuild() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Rollups rebuilt", statusRollups.rebuild(LocalDateTime.now())));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.repairo.controller;
+
+import com.repairo.dto.ApiResponse;
+import com.repairo.dto.CursorPage;
+import com.repairo.model.RepairStatusChange;
+import com.repairo.repository.AuditFilter;
+import com.repairo.repository.RepairStatusChangeRepository;
+import com.repairo.service.AuditExportService;
+import com.repairo.service.AuditTimeSeriesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * The repair status audit trail, filterable by customer, user and [from, to) time range: keyset pages
+ * for browsing and a streamed CSV/NDJSON export of the whole selection. {@code /storage} reports and
+ * migrates the collection's time-series storage.
+ */
+@RestController
+@RequestMapping("/admin/audit")
+public class AuditController {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditController.class);
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final RepairStatusChangeRepository repairStatusChangeRepository;
+    private final AuditExportService exportService;
+    private final AuditTimeSeriesService timeSeriesService;
+
+    public AuditController(RepairStatusChangeRepository repairStatusChangeRepository, AuditExportService exportService,
+                           AuditTimeSeriesService timeSeriesService) {
+        this.repairStatusChangeRepository = repairStatusChangeRepository;
+        this.exportService = exportService;
+        this.timeSeriesService = timeSeriesService;
+    }
+
+    @GetMapping(produces = "application/json")
+    public ResponseEntity<ApiResponse<CursorPage<RepairStatusChange>>> page(
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) String changedBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            AuditFilter filter = new AuditFilter(customerId, changedBy, from, to);
+            int bounded = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            return ResponseEntity.ok(ApiResponse.success(repairStatusChangeRepository.findAuditPage(filter, after, bounded)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Streams every matching record, newest first, as a file download. Rows are written while the
+     * cursor is read, so the export starts at once and does not buffer the range.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> export(
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) String changedBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format) {
+        AuditFilter filter;
+        AuditExportService.Format exportFormat;
+        try {
+            filter = new AuditFilter(customerId, changedBy, from, to);
+            exportFormat = AuditExportService.Format.fromParam(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                exportService.export(filter, exportFormat, out);
+            } catch (Exception e) {
+                log.warn("Audit export aborted: {}", e.getMessage()); // usually the client went away
+                throw e;
+            }
+        };
+        String fileName = "audit-" + LocalDateTime.now().format(FILE_STAMP) + "." + exportFormat.extension();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+            .body(body);
+    }
+
+    @GetMapping(value = "/storage", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> storage() {
+        return ResponseEntity.ok(ApiResponse.success(timeSeriesService.status()));
+    }
+
+    /** Converts the audit collection to time-series storage, or resumes an interrupted copy. */
+    @PostMapping(value = "/storage/migrate", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> migrate() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Audit log migrated", timeSeriesService.migrate()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
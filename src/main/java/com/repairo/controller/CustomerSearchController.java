@@ -0,0 +1,49 @@
+package com.repairo.controller;
+
+import com.repairo.dto.ApiResponse;
+import com.repairo.dto.CustomerSearchResult;
+import com.repairo.service.CustomerSearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search by phone number suffix or issue keywords, answered from the blind index without decrypting
+ * non-matching customers.
+ */
+@RestController
+@RequestMapping("/admin/search")
+public class CustomerSearchController {
+
+    private final CustomerSearchService customerSearchService;
+
+    public CustomerSearchController(CustomerSearchService customerSearchService) {
+        this.customerSearchService = customerSearchService;
+    }
+
+    @GetMapping(value = "/customers", produces = "application/json")
+    public ResponseEntity<ApiResponse<List<CustomerSearchResult>>> customers(@RequestParam(required = false) String phone,
+                                                                             @RequestParam(required = false) String issue,
+                                                                             @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(customerSearchService.search(phone, issue, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/blind-index/rebuild", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuild() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Blind index rebuilt", customerSearchService.rebuildBlindTokens()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.repairo.controller;
+
+import com.repairo.dto.ApiResponse;
+import com.repairo.dto.CycleTimeStats;
+import com.repairo.model.RepairStatus;
+import com.repairo.service.CycleTimeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Repair cycle times (time spent per status, overall and by phone model), served from memory.
+ */
+@RestController
+@RequestMapping("/admin/analytics/cycle-times")
+@ConditionalOnProperty(prefix = "app.analytics.cycle-times", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CycleTimeController {
+
+    private static final int MAX_MODELS = 200;
+
+    private final CycleTimeService cycleTimes;
+
+    public CycleTimeController(CycleTimeService cycleTimes) {
+        this.cycleTimes = cycleTimes;
+    }
+
+    @GetMapping(produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> byStatus() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("byStatus", cycleTimes.byStatus());
+        body.put("relativeAccuracy", cycleTimes.getRelativeAccuracy());
+        body.put("rebuiltAt", cycleTimes.getRebuiltAt());
+        return ResponseEntity.ok(ApiResponse.success(body));
+    }
+
+    @GetMapping(value = "/models", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, CycleTimeStats>>> byPhoneModel(
+            @RequestParam(defaultValue = "PENDING") RepairStatus status,
+            @RequestParam(defaultValue = "20") int limit) {
+        int bounded = Math.max(1, Math.min(limit, MAX_MODELS));
+        return ResponseEntity.ok(ApiResponse.success(cycleTimes.byPhoneModel(status, bounded)));
+    }
+
+    @PostMapping(value = "/rebuild", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuild() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Cycle times rebuilt", cycleTimes.rebuild()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -4,8 +4,11 @@ import com.repairo.dto.ApiResponse;
 import com.repairo.model.Customer;
 import com.repairo.model.RepairStatus;
 import com.repairo.repository.CustomerRepository;
+import com.repairo.service.AuditLogWriter;
+import com.repairo.service.StatusCounterService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,18 +24,35 @@ import java.util.List;
 public class DevDiagnosticsController {
     private static final Logger log = LoggerFactory.getLogger(DevDiagnosticsController.class);
     private final CustomerRepository customerRepository;
+    private final StatusCounterService statusCounters; // null with app.counters.enabled=false
+    private final AuditLogWriter auditWriter; // null with app.audit.writer.enabled=false
 
-    public DevDiagnosticsController(CustomerRepository customerRepository) {
+    public DevDiagnosticsController(CustomerRepository customerRepository,
+                                    ObjectProvider<StatusCounterService> statusCounters,
+                                    ObjectProvider<AuditLogWriter> auditWriter) {
         this.customerRepository = customerRepository;
+        this.statusCounters = statusCounters.getIfAvailable();
+        this.auditWriter = auditWriter.getIfAvailable();
     }
 
     @GetMapping(value = "/db-health", produces = "application/json")
     public ResponseEntity<ApiResponse<?>> dbHealth() {
         try {
-            long total = customerRepository.count();
-            long pending = customerRepository.countByRepairStatus(RepairStatus.PENDING);
-            long inProgress = customerRepository.countByRepairStatus(RepairStatus.IN_PROGRESS);
-            long completed = customerRepository.countByRepairStatus(RepairStatus.COMPLETED);
+            long total;
+            long pending;
+            long inProgress;
+            long completed;
+            if (statusCounters != null) {
+                total = statusCounters.total();
+                pending = statusCounters.count(RepairStatus.PENDING);
+                inProgress = statusCounters.count(RepairStatus.IN_PROGRESS);
+                completed = statusCounters.count(RepairStatus.COMPLETED);
+            } else {
+                total = customerRepository.count();
+                pending = customerRepository.countByRepairStatus(RepairStatus.PENDING);
+                inProgress = customerRepository.countByRepairStatus(RepairStatus.IN_PROGRESS);
+                completed = customerRepository.countByRepairStatus(RepairStatus.COMPLETED);
+            }
 
             List<Customer> sample = customerRepository.findAll().stream().limit(3).toList();
             record SampleCustomer(String customerId, RepairStatus repairStatus, Long version) {}
@@ -46,6 +66,15 @@ public class DevDiagnosticsController {
             payload.put("pending", pending);
             payload.put("inProgress", inProgress);
             payload.put("completed", completed);
+            if (statusCounters != null) {
+                payload.put("counters", statusCounters.snapshot());
+                payload.put("countersReconciledAt", statusCounters.getLastReconciledAt());
+                payload.put("countersLastDrift", statusCounters.getLastDrift());
+            }
+            if (auditWriter != null) {
+                payload.put("auditBuffered", auditWriter.buffered());
+                payload.put("auditSpillPending", auditWriter.spillPending());
+            }
             payload.put("sample", sampleView);
             payload.put("timestamp", java.time.Instant.now().toString());
             return ResponseEntity.ok(ApiResponse.success(payload));
@@ -0,0 +1,66 @@
+package com.repairo.controller;
+
+import com.repairo.dto.ApiResponse;
+import com.repairo.service.EventReplayBuffer;
+import com.repairo.service.WebSocketEventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resume support for STOMP clients: after a reconnect the client sends its last seen sequence and
+ * epoch and gets only the missed events, or {@code resyncRequired=true} when the gap is no longer
+ * covered by the replay buffer. {@code /position} gives a fresh client its resume point on first
+ * connect, so it can resume even if no event reached it before the connection dropped.
+ */
+@RestController
+@RequestMapping("/admin/events")
+public class EventReplayController {
+
+    private static final Logger log = LoggerFactory.getLogger(EventReplayController.class);
+    private final WebSocketEventPublisher publisher;
+
+    public EventReplayController(WebSocketEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @GetMapping(value = "/position", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> position() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("epoch", publisher.getEpoch());
+        payload.put("latestSequence", publisher.latestSequence());
+        return ResponseEntity.ok(ApiResponse.success(payload));
+    }
+
+    @GetMapping(value = "/replay", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> replay(@RequestParam(name = "since") long since,
+                                                                   @RequestParam(name = "epoch", required = false) String epoch) {
+        EventReplayBuffer.ReplayResult result = publisher.replaySince(since, epoch);
+        List<Map<String, Object>> events = new ArrayList<>(result.events().size());
+        for (EventReplayBuffer.BufferedEvent event : result.events()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("seq", event.seq());
+            item.put("destination", event.destination());
+            item.put("payload", event.payload());
+            events.add(item);
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("epoch", publisher.getEpoch());
+        payload.put("latestSequence", result.latestSequence());
+        payload.put("resyncRequired", result.resyncRequired());
+        payload.put("events", events);
+        if (result.resyncRequired()) {
+            log.debug("Replay since {} (epoch {}) not possible, client must resync", since, epoch);
+        }
+        return ResponseEntity.ok(ApiResponse.success(payload));
+    }
+}
@@ -0,0 +1,36 @@
+package com.repairo.controller;
+
+import com.repairo.dto.ApiResponse;
+import com.repairo.dto.IndexReport;
+import com.repairo.service.IndexProvisioningService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Declared versus live indexes, index usage and query plans of the catalog probes.
+ */
+@RestController
+@RequestMapping("/admin/db/indexes")
+public class IndexController {
+
+    private final IndexProvisioningService indexProvisioning;
+
+    public IndexController(IndexProvisioningService indexProvisioning) {
+        this.indexProvisioning = indexProvisioning;
+    }
+
+    @GetMapping(produces = "application/json")
+    public ResponseEntity<ApiResponse<IndexReport>> report() {
+        return ResponseEntity.ok(ApiResponse.success(indexProvisioning.report()));
+    }
+
+    @PostMapping(value = "/provision", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> provision() {
+        return ResponseEntity.ok(ApiResponse.success("Indexes provisioned", indexProvisioning.provision()));
+    }
+}
@@ -0,0 +1,75 @@
+package com.repairo.controller;
+
+import com.repairo.dto.ApiResponse;
+import com.repairo.dto.BulkNotificationRequest;
+import com.repairo.model.NotificationJob;
+import com.repairo.model.OutboundStatus;
+import com.repairo.service.BulkNotificationService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bulk customer notifications: a POST queues the messages and answers 202 with the job id right away,
+ * delivery progress is polled from the job endpoint.
+ */
+@RestController
+@RequestMapping("/admin/notifications")
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationController {
+
+    private final BulkNotificationService notificationService;
+
+    public NotificationController(BulkNotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @PostMapping(value = "/bulk", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> bulk(@Valid @RequestBody BulkNotificationRequest request,
+                                                                  Authentication authentication) {
+        String username = authentication != null ? authentication.getName() : "system";
+        try {
+            NotificationJob job = notificationService.createJob(request, username);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("jobId", job.getId());
+            body.put("queued", job.getQueued());
+            body.put("missingCustomerIds", job.getMissingCustomerIds());
+            return ResponseEntity.accepted().body(ApiResponse.success("Notifications queued", body));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/jobs/{jobId}", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> job(@PathVariable String jobId) {
+        Optional<NotificationJob> job = notificationService.findJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(404).body(ApiResponse.error("Notification job not found"));
+        }
+        Map<OutboundStatus, Long> counts = notificationService.deliveryCounts(jobId);
+        long inFlight = counts.get(OutboundStatus.PENDING) + counts.get(OutboundStatus.SENDING)
+            + counts.get(OutboundStatus.FAILED);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("jobId", job.get().getId());
+        body.put("filter", job.get().getFilter());
+        body.put("createdBy", job.get().getCreatedBy());
+        body.put("createdAt", job.get().getCreatedAt());
+        body.put("queued", job.get().getQueued());
+        body.put("missingCustomerIds", job.get().getMissingCustomerIds());
+        body.put("delivery", counts);
+        body.put("complete", inFlight == 0);
+        return ResponseEntity.ok(ApiResponse.success(body));
+    }
+}
@@ -0,0 +1,72 @@
+package com.repairo.controller;
+
+import com.repairo.dto.ApiResponse;
+import com.repairo.model.OutboundMessage;
+import com.repairo.model.OutboundStatus;
+import com.repairo.service.OutboxService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivery visibility for the outbound WhatsApp outbox: per-customer delivery state, queue totals and
+ * manual retry of dead-lettered messages. Message text and phone stay encrypted and are not returned.
+ */
+@RestController
+@RequestMapping("/admin/outbox")
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxController {
+
+    private final OutboxService outboxService;
+
+    public OutboxController(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    @GetMapping(produces = "application/json")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> forCustomer(@RequestParam(name = "customerId") String customerId) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (OutboundMessage message : outboxService.findForCustomer(customerId)) {
+            items.add(view(message));
+        }
+        return ResponseEntity.ok(ApiResponse.success(items));
+    }
+
+    @GetMapping(value = "/stats", produces = "application/json")
+    public ResponseEntity<ApiResponse<Map<OutboundStatus, Long>>> stats() {
+        return ResponseEntity.ok(ApiResponse.success(outboxService.countsByStatus()));
+    }
+
+    @PostMapping(value = "/{id}/retry", produces = "application/json")
+    public ResponseEntity<ApiResponse<String>> retry(@PathVariable String id) {
+        if (!outboxService.retry(id)) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Message not found or not dead-lettered"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Message re-queued"));
+    }
+
+    private static Map<String, Object> view(OutboundMessage message) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", message.getId());
+        item.put("messageId", message.getMessageId());
+        item.put("source", message.getSource());
+        item.put("status", message.getStatus());
+        item.put("attempts", message.getAttempts());
+        item.put("lastError", message.getLastError());
+        item.put("nextAttemptAt", message.getNextAttemptAt());
+        item.put("createdAt", message.getCreatedAt());
+        item.put("sentAt", message.getSentAt());
+        item.put("providerMessageId", message.getProviderMessageId());
+        return item;
+    }
+}
@@ -0,0 +1,47 @@
+package com.repairo.dto;
+
+import com.repairo.model.RepairStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Recipients are either explicit customer ids or every customer in a repair status. The template may
+ * use {name}, {phoneModel} and {status}.
+ */
+public class BulkNotificationRequest {
+    private List<String> customerIds;
+
+    private RepairStatus status;
+
+    @NotBlank(message = "Message template is required")
+    @Size(max = 4096, message = "Message template is too long")
+    private String template;
+
+    public BulkNotificationRequest() {}
+
+    public List<String> getCustomerIds() {
+        return customerIds;
+    }
+
+    public void setCustomerIds(List<String> customerIds) {
+        this.customerIds = customerIds;
+    }
+
+    public RepairStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RepairStatus status) {
+        this.status = status;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+}
@@ -0,0 +1,84 @@
+package com.repairo.dto;
+
+import com.repairo.model.RepairStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk status update, one item per requested customer in request order. {@code version}
+ * is the customer's version after the update, so the client can keep editing without a reload.
+ */
+public class BulkStatusResult {
+
+    public enum Outcome { UPDATED, UNCHANGED, CONFLICT, NOT_FOUND }
+
+    private RepairStatus status;
+    private int updated;
+    private int unchanged;
+    private int conflicts;
+    private int notFound;
+    private List<Item> items = new ArrayList<>();
+
+    public BulkStatusResult() {}
+
+    public BulkStatusResult(RepairStatus status) {
+        this.status = status;
+    }
+
+    public void add(Item item) {
+        items.add(item);
+        switch (item.getOutcome()) {
+            case UPDATED -> updated++;
+            case UNCHANGED -> unchanged++;
+            case CONFLICT -> conflicts++;
+            case NOT_FOUND -> notFound++;
+        }
+    }
+
+    public RepairStatus getStatus() { return status; }
+    public void setStatus(RepairStatus status) { this.status = status; }
+
+    public int getUpdated() { return updated; }
+    public void setUpdated(int updated) { this.updated = updated; }
+
+    public int getUnchanged() { return unchanged; }
+    public void setUnchanged(int unchanged) { this.unchanged = unchanged; }
+
+    public int getConflicts() { return conflicts; }
+    public void setConflicts(int conflicts) { this.conflicts = conflicts; }
+
+    public int getNotFound() { return notFound; }
+    public void setNotFound(int notFound) { this.notFound = notFound; }
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    public static class Item {
+        private String customerId;
+        private Outcome outcome;
+        private RepairStatus oldStatus;
+        private Long version;
+
+        public Item() {}
+
+        public Item(String customerId, Outcome outcome, RepairStatus oldStatus, Long version) {
+            this.customerId = customerId;
+            this.outcome = outcome;
+            this.oldStatus = oldStatus;
+            this.version = version;
+        }
+
+        public String getCustomerId() { return customerId; }
+        public void setCustomerId(String customerId) { this.customerId = customerId; }
+
+        public Outcome getOutcome() { return outcome; }
+        public void setOutcome(Outcome outcome) { this.outcome = outcome; }
+
+        public RepairStatus getOldStatus() { return oldStatus; }
+        public void setOldStatus(RepairStatus oldStatus) { this.oldStatus = oldStatus; }
+
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
+    }
+}
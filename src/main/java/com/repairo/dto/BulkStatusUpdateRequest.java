@@ -0,0 +1,58 @@
+package com.repairo.dto;
+
+import com.repairo.model.RepairStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Moves many customers to one repair status. Each item may carry the version the client last saw; a
+ * customer changed since then is reported as a conflict instead of being overwritten.
+ */
+public class BulkStatusUpdateRequest {
+    public static final int MAX_ITEMS = 500;
+
+    @NotNull(message = "Repair status is required")
+    private RepairStatus status;
+
+    @NotEmpty(message = "At least one customer is required")
+    @Size(max = MAX_ITEMS, message = "At most " + MAX_ITEMS + " customers per request")
+    private List<@Valid Item> items;
+
+    public BulkStatusUpdateRequest() {}
+
+    public BulkStatusUpdateRequest(RepairStatus status, List<Item> items) {
+        this.status = status;
+        this.items = items;
+    }
+
+    public RepairStatus getStatus() { return status; }
+    public void setStatus(RepairStatus status) { this.status = status; }
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    public static class Item {
+        @NotBlank(message = "Customer ID is required")
+        private String customerId;
+
+        private Long version; // For optimistic locking
+
+        public Item() {}
+
+        public Item(String customerId, Long version) {
+            this.customerId = customerId;
+            this.version = version;
+        }
+
+        public String getCustomerId() { return customerId; }
+        public void setCustomerId(String customerId) { this.customerId = customerId; }
+
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
+    }
+}
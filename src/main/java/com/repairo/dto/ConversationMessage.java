@@ -0,0 +1,90 @@
+package com.repairo.dto;
+
+import com.repairo.model.Message;
+
+/**
+ * Decrypted view of a single conversation message, as pushed on /topic/conversations/{customerId}
+ * and returned by the conversation endpoint. Sequence is the 1-based position in the conversation so
+ * clients can append locally and detect gaps.
+ */
+public class ConversationMessage {
+    private String id;
+    private String from;
+    private String text;
+    private String timestamp;
+    private int sequence;
+    private String deliveryStatus; // admin replies only, see Message#deliveryStatus
+
+    public ConversationMessage() {}
+
+    public ConversationMessage(String id, String from, String text, String timestamp, int sequence) {
+        this.id = id;
+        this.from = from;
+        this.text = text;
+        this.timestamp = timestamp;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Builds the view from a stored message; the caller supplies the already decrypted text.
+     */
+    public static ConversationMessage of(Message message, String plainText, int sequence) {
+        ConversationMessage view = new ConversationMessage(
+            message.getMessageId(),
+            message.getFrom(),
+            plainText,
+            message.getTimestamp() != null ? message.getTimestamp().toString() : null,
+            sequence
+        );
+        view.setDeliveryStatus(message.getDeliveryStatus());
+        return view;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(String timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(int sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getDeliveryStatus() {
+        return deliveryStatus;
+    }
+
+    public void setDeliveryStatus(String deliveryStatus) {
+        this.deliveryStatus = deliveryStatus;
+    }
+}
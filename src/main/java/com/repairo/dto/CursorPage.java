@@ -0,0 +1,38 @@
+package com.repairo.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page: the rows plus opaque cursors for the neighbouring pages (null when there is none).
+ * No count is run; {@code estimatedTotal} is filled from collection metadata only when asked for.
+ */
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private String prevCursor;
+    private Long estimatedTotal;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> content, String nextCursor, String prevCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public String getPrevCursor() { return prevCursor; }
+    public void setPrevCursor(String prevCursor) { this.prevCursor = prevCursor; }
+
+    public Long getEstimatedTotal() { return estimatedTotal; }
+    public void setEstimatedTotal(Long estimatedTotal) { this.estimatedTotal = estimatedTotal; }
+
+    public boolean hasNext() { return nextCursor != null; }
+    public boolean hasPrevious() { return prevCursor != null; }
+}
@@ -0,0 +1,36 @@
+package com.repairo.dto;
+
+import com.repairo.model.RepairStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer found through the blind index search, with the phone decrypted for display. Issue text
+ * and message history are not returned.
+ */
+public class CustomerSearchResult {
+    private String customerId;
+    private String name;
+    private String phone;
+    private String phoneModel;
+    private RepairStatus repairStatus;
+    private LocalDateTime lastInteraction;
+
+    public String getCustomerId() { return customerId; }
+    public void setCustomerId(String customerId) { this.customerId = customerId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getPhoneModel() { return phoneModel; }
+    public void setPhoneModel(String phoneModel) { this.phoneModel = phoneModel; }
+
+    public RepairStatus getRepairStatus() { return repairStatus; }
+    public void setRepairStatus(RepairStatus repairStatus) { this.repairStatus = repairStatus; }
+
+    public LocalDateTime getLastInteraction() { return lastInteraction; }
+    public void setLastInteraction(LocalDateTime lastInteraction) { this.lastInteraction = lastInteraction; }
+}
@@ -0,0 +1,42 @@
+package com.repairo.dto;
+
+import com.repairo.analytics.QuantileSketch;
+
+/**
+ * Time spent in one repair status (optionally for one phone model), from the in-memory cycle-time
+ * sketches. Durations are in milliseconds and accurate to the sketch's relative accuracy.
+ */
+public class CycleTimeStats {
+    private long count;
+    private Long p50Ms;
+    private Long p90Ms;
+    private Long p99Ms;
+    private Long maxMs;
+
+    public static CycleTimeStats of(QuantileSketch sketch) {
+        CycleTimeStats stats = new CycleTimeStats();
+        stats.count = sketch.count();
+        if (stats.count > 0) {
+            stats.p50Ms = Math.round(sketch.quantile(0.5));
+            stats.p90Ms = Math.round(sketch.quantile(0.9));
+            stats.p99Ms = Math.round(sketch.quantile(0.99));
+            stats.maxMs = Math.round(sketch.max());
+        }
+        return stats;
+    }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public Long getP50Ms() { return p50Ms; }
+    public void setP50Ms(Long p50Ms) { this.p50Ms = p50Ms; }
+
+    public Long getP90Ms() { return p90Ms; }
+    public void setP90Ms(Long p90Ms) { this.p90Ms = p90Ms; }
+
+    public Long getP99Ms() { return p99Ms; }
+    public void setP99Ms(Long p99Ms) { this.p99Ms = p99Ms; }
+
+    public Long getMaxMs() { return maxMs; }
+    public void setMaxMs(Long maxMs) { this.maxMs = maxMs; }
+}
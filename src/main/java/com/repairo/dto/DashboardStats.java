@@ -0,0 +1,63 @@
+package com.repairo.dto;
+
+import com.repairo.model.RepairStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dashboard counters and the recent activity list, produced by one $facet aggregation
+ * (see CustomerRepositoryCustom#dashboardStats). Served to the dashboard template and as JSON
+ * from /admin/stats.
+ */
+public class DashboardStats {
+    private long totalCustomers;
+    private long activeRepairs;
+    private long pendingMessages; // customers whose last message is from them, i.e. awaiting a reply
+    private long completedToday;
+    private List<RecentCustomer> recentCustomers = new ArrayList<>();
+    private String timestamp;
+
+    public long getTotalCustomers() { return totalCustomers; }
+    public void setTotalCustomers(long totalCustomers) { this.totalCustomers = totalCustomers; }
+
+    public long getActiveRepairs() { return activeRepairs; }
+    public void setActiveRepairs(long activeRepairs) { this.activeRepairs = activeRepairs; }
+
+    public long getPendingMessages() { return pendingMessages; }
+    public void setPendingMessages(long pendingMessages) { this.pendingMessages = pendingMessages; }
+
+    public long getCompletedToday() { return completedToday; }
+    public void setCompletedToday(long completedToday) { this.completedToday = completedToday; }
+
+    public List<RecentCustomer> getRecentCustomers() { return recentCustomers; }
+    public void setRecentCustomers(List<RecentCustomer> recentCustomers) { this.recentCustomers = recentCustomers; }
+
+    public String getTimestamp() { return timestamp; }
+    public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+
+    /** Projected customer for the activity list; no issue text or message history. */
+    public static class RecentCustomer {
+        private String customerId;
+        private String name;
+        private String phone; // Encrypted as read, decrypted by the controller for display
+        private RepairStatus repairStatus;
+        private LocalDateTime lastInteraction;
+
+        public String getCustomerId() { return customerId; }
+        public void setCustomerId(String customerId) { this.customerId = customerId; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getPhone() { return phone; }
+        public void setPhone(String phone) { this.phone = phone; }
+
+        public RepairStatus getRepairStatus() { return repairStatus; }
+        public void setRepairStatus(RepairStatus repairStatus) { this.repairStatus = repairStatus; }
+
+        public LocalDateTime getLastInteraction() { return lastInteraction; }
+        public void setLastInteraction(LocalDateTime lastInteraction) { this.lastInteraction = lastInteraction; }
+    }
+}
@@ -0,0 +1,85 @@
+package com.repairo.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declared versus live indexes per collection, index usage from {@code $indexStats}, and the query plan
+ * of every catalog probe. Usage counters restart with the server, see {@code statsSince}.
+ */
+public class IndexReport {
+    private LocalDateTime generatedAt = LocalDateTime.now();
+    private List<CollectionIndexes> collections = new ArrayList<>();
+    private List<QueryPlan> plans = new ArrayList<>();
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+
+    public List<CollectionIndexes> getCollections() { return collections; }
+    public void setCollections(List<CollectionIndexes> collections) { this.collections = collections; }
+
+    public List<QueryPlan> getPlans() { return plans; }
+    public void setPlans(List<QueryPlan> plans) { this.plans = plans; }
+
+    public static class CollectionIndexes {
+        private String collection;
+        private List<String> missing = new ArrayList<>(); // declared but not in the database
+        private List<String> undeclared = new ArrayList<>(); // in the database but not declared
+        private List<String> unused = new ArrayList<>(); // no operations since statsSince
+        private Map<String, Long> operations = new LinkedHashMap<>();
+        private Date statsSince;
+        private String statsError;
+
+        public String getCollection() { return collection; }
+        public void setCollection(String collection) { this.collection = collection; }
+
+        public List<String> getMissing() { return missing; }
+        public void setMissing(List<String> missing) { this.missing = missing; }
+
+        public List<String> getUndeclared() { return undeclared; }
+        public void setUndeclared(List<String> undeclared) { this.undeclared = undeclared; }
+
+        public List<String> getUnused() { return unused; }
+        public void setUnused(List<String> unused) { this.unused = unused; }
+
+        public Map<String, Long> getOperations() { return operations; }
+        public void setOperations(Map<String, Long> operations) { this.operations = operations; }
+
+        public Date getStatsSince() { return statsSince; }
+        public void setStatsSince(Date statsSince) { this.statsSince = statsSince; }
+
+        public String getStatsError() { return statsError; }
+        public void setStatsError(String statsError) { this.statsError = statsError; }
+    }
+
+    public static class QueryPlan {
+        private String probe;
+        private String collection;
+        private List<String> stages = new ArrayList<>();
+        private boolean collectionScan;
+        private boolean inMemorySort;
+        private String error;
+
+        public String getProbe() { return probe; }
+        public void setProbe(String probe) { this.probe = probe; }
+
+        public String getCollection() { return collection; }
+        public void setCollection(String collection) { this.collection = collection; }
+
+        public List<String> getStages() { return stages; }
+        public void setStages(List<String> stages) { this.stages = stages; }
+
+        public boolean isCollectionScan() { return collectionScan; }
+        public void setCollectionScan(boolean collectionScan) { this.collectionScan = collectionScan; }
+
+        public boolean isInMemorySort() { return inMemorySort; }
+        public void setInMemorySort(boolean inMemorySort) { this.inMemorySort = inMemorySort; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
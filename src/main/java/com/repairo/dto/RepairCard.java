@@ -0,0 +1,53 @@
+package com.repairo.dto;
+
+import com.repairo.model.Customer;
+import com.repairo.model.RepairStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * One card on the repairs board. The issue is decrypted; the phone number is not loaded.
+ */
+public class RepairCard {
+    private String customerId;
+    private String name;
+    private String phoneModel;
+    private String issue;
+    private RepairStatus repairStatus;
+    private LocalDateTime lastInteraction;
+    private Long version;
+
+    /** Card for a customer read with the board projection, given its decrypted issue. */
+    public static RepairCard of(Customer customer, String issue) {
+        RepairCard card = new RepairCard();
+        card.customerId = customer.getCustomerId();
+        card.name = customer.getName();
+        card.phoneModel = customer.getPhoneModel();
+        card.issue = issue;
+        card.repairStatus = customer.getRepairStatus();
+        card.lastInteraction = customer.getLastInteraction();
+        card.version = customer.getVersion();
+        return card;
+    }
+
+    public String getCustomerId() { return customerId; }
+    public void setCustomerId(String customerId) { this.customerId = customerId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getPhoneModel() { return phoneModel; }
+    public void setPhoneModel(String phoneModel) { this.phoneModel = phoneModel; }
+
+    public String getIssue() { return issue; }
+    public void setIssue(String issue) { this.issue = issue; }
+
+    public RepairStatus getRepairStatus() { return repairStatus; }
+    public void setRepairStatus(RepairStatus repairStatus) { this.repairStatus = repairStatus; }
+
+    public LocalDateTime getLastInteraction() { return lastInteraction; }
+    public void setLastInteraction(LocalDateTime lastInteraction) { this.lastInteraction = lastInteraction; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
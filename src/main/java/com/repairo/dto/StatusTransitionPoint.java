@@ -0,0 +1,73 @@
+package com.repairo.dto;
+
+import com.repairo.analytics.DurationHistogram;
+import com.repairo.model.RepairStatus;
+import com.repairo.model.StatusTransitionRollup;
+
+import java.time.LocalDateTime;
+
+/**
+ * One chart point from /admin/analytics/status-transitions: how many customers moved from one status
+ * to another within the bucket, and how long they had spent in the previous status. Durations are in
+ * milliseconds and null when no transition in the bucket had a known start.
+ */
+public class StatusTransitionPoint {
+    private LocalDateTime bucketStart;
+    private RepairStatus fromStatus;
+    private RepairStatus toStatus;
+    private long count;
+    private long timedCount;
+    private Long meanMs;
+    private Long p50Ms;
+    private Long p90Ms;
+    private Long p99Ms;
+    private Long maxMs;
+
+    public static StatusTransitionPoint of(StatusTransitionRollup rollup) {
+        StatusTransitionPoint point = new StatusTransitionPoint();
+        point.bucketStart = rollup.getBucketStart();
+        point.fromStatus = rollup.getFromStatus();
+        point.toStatus = rollup.getToStatus();
+        point.count = rollup.getCount();
+        point.timedCount = rollup.getTimedCount();
+        if (rollup.getTimedCount() > 0) {
+            long max = rollup.getDurationMaxMs();
+            point.meanMs = rollup.getDurationSumMs() / rollup.getTimedCount();
+            point.p50Ms = DurationHistogram.percentile(rollup.getDurationHistogram(), 50, max);
+            point.p90Ms = DurationHistogram.percentile(rollup.getDurationHistogram(), 90, max);
+            point.p99Ms = DurationHistogram.percentile(rollup.getDurationHistogram(), 99, max);
+            point.maxMs = max;
+        }
+        return point;
+    }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public RepairStatus getFromStatus() { return fromStatus; }
+    public void setFromStatus(RepairStatus fromStatus) { this.fromStatus = fromStatus; }
+
+    public RepairStatus getToStatus() { return toStatus; }
+    public void setToStatus(RepairStatus toStatus) { this.toStatus = toStatus; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getTimedCount() { return timedCount; }
+    public void setTimedCount(long timedCount) { this.timedCount = timedCount; }
+
+    public Long getMeanMs() { return meanMs; }
+    public void setMeanMs(Long meanMs) { this.meanMs = meanMs; }
+
+    public Long getP50Ms() { return p50Ms; }
+    public void setP50Ms(Long p50Ms) { this.p50Ms = p50Ms; }
+
+    public Long getP90Ms() { return p90Ms; }
+    public void setP90Ms(Long p90Ms) { this.p90Ms = p90Ms; }
+
+    public Long getP99Ms() { return p99Ms; }
+    public void setP99Ms(Long p99Ms) { this.p99Ms = p99Ms; }
+
+    public Long getMaxMs() { return maxMs; }
+    public void setMaxMs(Long maxMs) { this.maxMs = maxMs; }
+}
@@ -4,12 +4,23 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
 import org.springframework.data.domain.Persistable;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Document(collection = "customers")
+// One (field, _id) index per sortable field (CustomerSortField) for keyset paging; each also serves
+// equality and range queries on its field. Provisioned from IndexCatalog at startup.
+@CompoundIndexes({
+    @CompoundIndex(name = "sort_lastInteraction", def = "{'lastInteraction': 1, '_id': 1}"),
+    @CompoundIndex(name = "sort_name", def = "{'name': 1, '_id': 1}"),
+    @CompoundIndex(name = "sort_repairStatus", def = "{'repairStatus': 1, '_id': 1}"),
+    @CompoundIndex(name = "status_last_interaction", def = "{'repairStatus': 1, 'lastInteraction': -1, '_id': -1}") // repairs board columns
+})
 public class Customer implements Persistable<String> {
     @Id
     private String customerId;
@@ -20,16 +31,28 @@ public class Customer implements Persistable<String> {
     // Plaintext fields for filtering and display
     private String name;
     private String phoneModel;
-    @Indexed
     private RepairStatus repairStatus;
     private OnboardingState onboardingState;
-    @Indexed
     private LocalDateTime lastInteraction;
+    private LocalDateTime statusChangedAt; // when repairStatus last changed; null until the first change
+    
+    // Derived from name on every save (CustomerSearchTokenListener), see NameTokenizer
+    private String nameNormalized;
+    @Indexed(name = "name_tokens")
+    private List<String> nameTokens;
     
     // Encrypted fields (sensitive data)
+    @Indexed(name = "phone") // findByPhone on every inbound message; encryption is deterministic
     private String phone; // Encrypted
     private String issue; // Encrypted
     
+    // Blind index: HMAC tokens of phone suffixes and issue keywords (see BlindIndex), never plaintext
+    @Indexed(name = "phone_tokens")
+    private List<String> phoneTokens;
+    @Indexed(name = "issue_tokens")
+    private List<String> issueTokens;
+    private String blindKeyId;
+    
     private List<Message> messages;
     
     public Customer() {
@@ -58,6 +81,15 @@ public class Customer implements Persistable<String> {
     public String getIssue() { return issue; }
     public void setIssue(String issue) { this.issue = issue; }
     
+    public List<String> getPhoneTokens() { return phoneTokens; }
+    public void setPhoneTokens(List<String> phoneTokens) { this.phoneTokens = phoneTokens; }
+    
+    public List<String> getIssueTokens() { return issueTokens; }
+    public void setIssueTokens(List<String> issueTokens) { this.issueTokens = issueTokens; }
+    
+    public String getBlindKeyId() { return blindKeyId; }
+    public void setBlindKeyId(String blindKeyId) { this.blindKeyId = blindKeyId; }
+    
     public String getPhoneModel() { return phoneModel; }
     public void setPhoneModel(String phoneModel) { this.phoneModel = phoneModel; }
     
@@ -70,10 +102,22 @@ public class Customer implements Persistable<String> {
     public LocalDateTime getLastInteraction() { return lastInteraction; }
     public void setLastInteraction(LocalDateTime lastInteraction) { this.lastInteraction = lastInteraction; }
     
+    public LocalDateTime getStatusChangedAt() { return statusChangedAt; }
+    public void setStatusChangedAt(LocalDateTime statusChangedAt) { this.statusChangedAt = statusChangedAt; }
+    
+    public String getNameNormalized() { return nameNormalized; }
+    public void setNameNormalized(String nameNormalized) { this.nameNormalized = nameNormalized; }
+    
+    public List<String> getNameTokens() { return nameTokens; }
+    public void setNameTokens(List<String> nameTokens) { this.nameTokens = nameTokens; }
+    
     public void addMessage(Message message) {
         if (this.messages == null) {
             this.messages = new ArrayList<>();
         }
+        if (message.getMessageId() == null) {
+            message.setMessageId(UUID.randomUUID().toString()); // stable id for realtime deltas
+        }
         this.messages.add(message);
         this.lastInteraction = LocalDateTime.now();
     }
@@ -11,6 +11,7 @@ public class Message {
     private String from; // "customer" or "admin"
     private LocalDateTime timestamp;
     private String status; // "pending" or "replied"
+    private String deliveryStatus; // outbound only: mirrors the outbox state (pending, sending, sent, failed, dead)
     
     public Message() {
         this.timestamp = LocalDateTime.now();
@@ -38,4 +39,7 @@ public class Message {
     
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+
+    public String getDeliveryStatus() { return deliveryStatus; }
+    public void setDeliveryStatus(String deliveryStatus) { this.deliveryStatus = deliveryStatus; }
 }
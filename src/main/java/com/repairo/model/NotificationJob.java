@@ -0,0 +1,51 @@
+package com.repairo.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One bulk notification run. Delivery progress is not stored here but aggregated from the outbox
+ * entries carrying the job id.
+ */
+@Document(collection = "notification_jobs")
+public class NotificationJob {
+    @Id
+    private String id;
+
+    private String template;
+    private String filter; // human readable recipient selection, e.g. "status=COMPLETED" or "12 ids"
+    private int queued;
+    private List<String> missingCustomerIds = new ArrayList<>(); // requested ids that do not exist
+    private String createdBy;
+    private LocalDateTime createdAt;
+
+    public NotificationJob() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTemplate() { return template; }
+    public void setTemplate(String template) { this.template = template; }
+
+    public String getFilter() { return filter; }
+    public void setFilter(String filter) { this.filter = filter; }
+
+    public int getQueued() { return queued; }
+    public void setQueued(int queued) { this.queued = queued; }
+
+    public List<String> getMissingCustomerIds() { return missingCustomerIds; }
+    public void setMissingCustomerIds(List<String> missingCustomerIds) { this.missingCustomerIds = missingCustomerIds; }
+
+    public String getCreatedBy() { return createdBy; }
+    public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,103 @@
+package com.repairo.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox entry for one WhatsApp message. Written together with the customer update that produced it
+ * and delivered asynchronously by the outbox dispatcher.
+ */
+@Document(collection = "outbound_messages")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}"),
+    @CompoundIndex(name = "status_created_at", def = "{'status': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "customer_created_at", def = "{'customerId': 1, 'createdAt': -1}")
+})
+public class OutboundMessage {
+    @Id
+    private String id;
+
+    private String customerId;
+    private String messageId; // conversation Message id, null for automated onboarding replies
+    private String phone; // Encrypted
+    private String text; // Encrypted
+    private String source; // "reply", "onboarding" or "bulk"
+    @Indexed(sparse = true)
+    private String jobId; // bulk notification job, null otherwise
+
+    private OutboundStatus status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime lockedUntil; // lease of the worker currently sending (status SENDING)
+    private String lastError;
+    private String providerMessageId; // wamid returned by the Graph API
+
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    public OutboundMessage() {
+        this.status = OutboundStatus.PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    public OutboundMessage(String customerId, String messageId, String phone, String text, String source) {
+        this();
+        this.customerId = customerId;
+        this.messageId = messageId;
+        this.phone = phone;
+        this.text = text;
+        this.source = source;
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getCustomerId() { return customerId; }
+    public void setCustomerId(String customerId) { this.customerId = customerId; }
+
+    public String getMessageId() { return messageId; }
+    public void setMessageId(String messageId) { this.messageId = messageId; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public OutboundStatus getStatus() { return status; }
+    public void setStatus(OutboundStatus status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(LocalDateTime lockedUntil) { this.lockedUntil = lockedUntil; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public String getProviderMessageId() { return providerMessageId; }
+    public void setProviderMessageId(String providerMessageId) { this.providerMessageId = providerMessageId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
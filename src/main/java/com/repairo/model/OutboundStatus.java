@@ -0,0 +1,9 @@
+package com.repairo.model;
+
+public enum OutboundStatus {
+    PENDING,  // waiting for its first attempt
+    SENDING,  // claimed by a worker
+    SENT,
+    FAILED,   // last attempt failed, retry scheduled at nextAttemptAt
+    DEAD      // gave up (non-retryable error or attempts exhausted)
+}
@@ -1,10 +1,18 @@
 package com.repairo.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 @Document(collection = "repair_status_changes")
+// _id breaks changedAt ties so audit pages can seek on (changedAt, _id) without an in-memory sort
+@CompoundIndexes({
+    @CompoundIndex(name = "customer_changed_at_id", def = "{'customerId': 1, 'changedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "changed_by_changed_at_id", def = "{'changedBy': 1, 'changedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "changed_at_id", def = "{'changedAt': -1, '_id': -1}")
+})
 public class RepairStatusChange {
     @Id
     private String id;
@@ -15,6 +23,8 @@ public class RepairStatusChange {
     private String changedBy;
     private LocalDateTime changedAt;
     private String notes; // Optional field for additional context
+    private Long durationMs; // time spent in fromStatus, null when unknown
+    private String phoneModel; // customer's device at the time of the change, for cycle-time breakdowns
     
     public RepairStatusChange() {
         this.changedAt = LocalDateTime.now();
@@ -89,4 +99,20 @@ public class RepairStatusChange {
     public void setNotes(String notes) {
         this.notes = notes;
     }
+    
+    public Long getDurationMs() {
+        return durationMs;
+    }
+    
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+    
+    public String getPhoneModel() {
+        return phoneModel;
+    }
+    
+    public void setPhoneModel(String phoneModel) {
+        this.phoneModel = phoneModel;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.repairo.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts and time-in-status for one status transition (e.g. PENDING to IN_PROGRESS) within one hour
+ * or day. Maintained with {@code $inc} as audit records are written and rebuilt from
+ * {@code repair_status_changes} on demand; see StatusRollupService.
+ */
+@Document(collection = "status_transition_rollups")
+@CompoundIndex(name = "granularity_bucket", def = "{'granularity': 1, 'bucketStart': 1}")
+public class StatusTransitionRollup {
+
+    public enum Granularity { HOUR, DAY }
+
+    @Id
+    private String id; // granularity:bucketStart:from:to, so increments can upsert by _id
+
+    private Granularity granularity;
+    private LocalDateTime bucketStart; // server local time, truncated to the hour or day
+    private RepairStatus fromStatus;
+    private RepairStatus toStatus;
+    private long count;
+    private long timedCount; // transitions with a known time in fromStatus
+    private long durationSumMs;
+    private long durationMaxMs;
+    private Map<String, Long> durationHistogram = new HashMap<>(); // DurationHistogram bucket index -> count
+
+    public static String idOf(Granularity granularity, LocalDateTime bucketStart, RepairStatus from, RepairStatus to) {
+        return granularity + ":" + bucketStart + ":" + from + ":" + to;
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Granularity getGranularity() { return granularity; }
+    public void setGranularity(Granularity granularity) { this.granularity = granularity; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public RepairStatus getFromStatus() { return fromStatus; }
+    public void setFromStatus(RepairStatus fromStatus) { this.fromStatus = fromStatus; }
+
+    public RepairStatus getToStatus() { return toStatus; }
+    public void setToStatus(RepairStatus toStatus) { this.toStatus = toStatus; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getTimedCount() { return timedCount; }
+    public void setTimedCount(long timedCount) { this.timedCount = timedCount; }
+
+    public long getDurationSumMs() { return durationSumMs; }
+    public void setDurationSumMs(long durationSumMs) { this.durationSumMs = durationSumMs; }
+
+    public long getDurationMaxMs() { return durationMaxMs; }
+    public void setDurationMaxMs(long durationMaxMs) { this.durationMaxMs = durationMaxMs; }
+
+    public Map<String, Long> getDurationHistogram() { return durationHistogram; }
+    public void setDurationHistogram(Map<String, Long> durationHistogram) { this.durationHistogram = durationHistogram; }
+}
@@ -0,0 +1,113 @@
+package com.repairo.onboarding;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed keyword list: one pass over the text finds every keyword that
+ * occurs anywhere in it (substring semantics, like {@code String.contains}), case-insensitively and
+ * without allocating a lowercased copy. Immutable and thread-safe once built.
+ */
+public final class KeywordMatcher {
+
+    private static final KeywordMatcher EMPTY = new KeywordMatcher(List.of());
+
+    private final Map<Character, Integer>[] transitions;
+    private final int[] failure;
+    private final BitSet[] outputs; // keyword ids ending at each node, including via failure links
+    private final int keywordCount;
+
+    public static KeywordMatcher of(List<String> keywords) {
+        return keywords.isEmpty() ? EMPTY : new KeywordMatcher(keywords);
+    }
+
+    @SuppressWarnings("unchecked")
+    private KeywordMatcher(List<String> keywords) {
+        this.keywordCount = keywords.size();
+        int maxNodes = 1;
+        for (String keyword : keywords) {
+            maxNodes += keyword.length();
+        }
+        Map<Character, Integer>[] trie = new Map[maxNodes];
+        BitSet[] out = new BitSet[maxNodes];
+        trie[0] = new HashMap<>();
+        out[0] = new BitSet();
+        int nodes = 1;
+
+        for (int id = 0; id < keywords.size(); id++) {
+            String keyword = keywords.get(id);
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keywords must not be empty");
+            }
+            int node = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = Character.toLowerCase(keyword.charAt(i));
+                Integer next = trie[node].get(c);
+                if (next == null) {
+                    next = nodes++;
+                    trie[next] = new HashMap<>();
+                    out[next] = new BitSet();
+                    trie[node].put(c, next);
+                }
+                node = next;
+            }
+            out[node].set(id);
+        }
+
+        // Breadth-first failure links; outputs inherit those of the failure target
+        int[] fail = new int[nodes];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : trie[0].values()) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> edge : trie[node].entrySet()) {
+                int child = edge.getValue();
+                int f = fail[node];
+                while (f != 0 && !trie[f].containsKey(edge.getKey())) {
+                    f = fail[f];
+                }
+                Integer target = trie[f].get(edge.getKey());
+                fail[child] = target != null && target != child ? target : 0;
+                out[child].or(out[fail[child]]);
+                queue.add(child);
+            }
+        }
+
+        this.transitions = Arrays.copyOf(trie, nodes);
+        this.failure = fail;
+        this.outputs = Arrays.copyOf(out, nodes);
+    }
+
+    /** Ids (positions in the keyword list) of all keywords found in the text. */
+    public BitSet match(CharSequence text) {
+        BitSet found = new BitSet(keywordCount);
+        if (keywordCount == 0 || text == null) {
+            return found;
+        }
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            Integer next = transitions[node].get(c);
+            while (next == null && node != 0) {
+                node = failure[node];
+                next = transitions[node].get(c);
+            }
+            node = next != null ? next : 0;
+            if (!outputs[node].isEmpty()) {
+                found.or(outputs[node]);
+            }
+        }
+        return found;
+    }
+
+    public int size() {
+        return keywordCount;
+    }
+}
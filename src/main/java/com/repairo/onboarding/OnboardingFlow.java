@@ -0,0 +1,159 @@
+package com.repairo.onboarding;
+
+import com.repairo.config.OnboardingProperties;
+import com.repairo.model.Customer;
+import com.repairo.model.OnboardingState;
+import com.repairo.model.RepairStatus;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Onboarding state machine compiled into a transition table: per state one {@link KeywordMatcher}
+ * over the keywords of all its rules and the rules in order, each with the keyword ids that trigger
+ * it. Picking the transition for a message is one pass over the text plus a few bit tests.
+ */
+public final class OnboardingFlow {
+
+    public static final Set<String> VARIABLES = Set.of("message", "name", "phoneModel", "status");
+
+    /** What a transition stores from the message before replying. */
+    public enum Capture { NAME, ISSUE, PHONE_MODEL }
+
+    /** The flow the service has always had; used when app.onboarding.states is not configured. */
+    public static final OnboardingFlow DEFAULT = compile(defaultStates());
+
+    private final Map<OnboardingState, CompiledState> table;
+
+    private OnboardingFlow(Map<OnboardingState, CompiledState> table) {
+        this.table = table;
+    }
+
+    /**
+     * The transition to take for a message in the given state, or null when the message triggers
+     * nothing (the customer stays where they are and gets no reply).
+     */
+    public Transition next(OnboardingState state, String message) {
+        CompiledState compiled = table.get(state != null ? state : OnboardingState.NEW);
+        if (compiled == null) {
+            return null;
+        }
+        BitSet found = compiled.matcher.match(message);
+        for (Transition transition : compiled.transitions) {
+            if (transition.keywords == null || transition.keywords.intersects(found)) {
+                return transition;
+            }
+        }
+        return null;
+    }
+
+    public static OnboardingFlow compile(Map<OnboardingState, List<OnboardingProperties.Rule>> states) {
+        Map<OnboardingState, CompiledState> table = new EnumMap<>(OnboardingState.class);
+        for (Map.Entry<OnboardingState, List<OnboardingProperties.Rule>> entry : states.entrySet()) {
+            List<String> keywords = new ArrayList<>();
+            List<Transition> transitions = new ArrayList<>();
+            for (OnboardingProperties.Rule rule : entry.getValue()) {
+                BitSet ids = null;
+                if (rule.getKeywords() != null && !rule.getKeywords().isEmpty()) {
+                    ids = new BitSet();
+                    for (String keyword : rule.getKeywords()) {
+                        ids.set(keywords.size());
+                        keywords.add(keyword);
+                    }
+                }
+                transitions.add(new Transition(ids, capture(entry.getKey(), rule.getCapture()),
+                    rule.getReply() != null && !rule.getReply().isBlank() ? ReplyTemplate.compile(rule.getReply(), VARIABLES) : null,
+                    rule.getNext(), rule.getRepairStatus()));
+            }
+            table.put(entry.getKey(), new CompiledState(KeywordMatcher.of(keywords), transitions));
+        }
+        return new OnboardingFlow(table);
+    }
+
+    private static Capture capture(OnboardingState state, String capture) {
+        if (capture == null || capture.isBlank()) {
+            return null;
+        }
+        return switch (capture) {
+            case "name" -> Capture.NAME;
+            case "issue" -> Capture.ISSUE;
+            case "phoneModel" -> Capture.PHONE_MODEL;
+            default -> throw new IllegalArgumentException("Unknown capture \"" + capture + "\" in onboarding state "
+                + state + "; allowed: name, issue, phoneModel");
+        };
+    }
+
+    private static Map<OnboardingState, List<OnboardingProperties.Rule>> defaultStates() {
+        Map<OnboardingState, List<OnboardingProperties.Rule>> states = new LinkedHashMap<>();
+        states.put(OnboardingState.NEW, List.of(rule(List.of("hi", "hello"), null,
+            "Hello! Welcome to our repair service. What's your name?", OnboardingState.AWAITING_NAME, null)));
+        states.put(OnboardingState.AWAITING_NAME, List.of(rule(List.of(), "name",
+            "Nice to meet you, {name}! Please describe the issue with your device.", OnboardingState.AWAITING_ISSUE, null)));
+        states.put(OnboardingState.AWAITING_ISSUE, List.of(rule(List.of(), "issue",
+            "Got it! What's your phone model?", OnboardingState.AWAITING_PHONE_MODEL, null)));
+        states.put(OnboardingState.AWAITING_PHONE_MODEL, List.of(rule(List.of(), "phoneModel",
+            "Thank you! We've received your repair request. You can check your status anytime by typing 'status'.",
+            OnboardingState.COMPLETED, RepairStatus.PENDING)));
+        states.put(OnboardingState.COMPLETED, List.of(rule(List.of("status"), null,
+            "Your repair status: {status}", null, null)));
+        return states;
+    }
+
+    private static OnboardingProperties.Rule rule(List<String> keywords, String capture, String reply,
+                                                  OnboardingState next, RepairStatus repairStatus) {
+        OnboardingProperties.Rule rule = new OnboardingProperties.Rule();
+        rule.setKeywords(keywords);
+        rule.setCapture(capture);
+        rule.setReply(reply);
+        rule.setNext(next);
+        rule.setRepairStatus(repairStatus);
+        return rule;
+    }
+
+    private static final class CompiledState {
+        private final KeywordMatcher matcher;
+        private final List<Transition> transitions;
+
+        CompiledState(KeywordMatcher matcher, List<Transition> transitions) {
+            this.matcher = matcher;
+            this.transitions = List.copyOf(transitions);
+        }
+    }
+
+    public static final class Transition {
+        private final BitSet keywords; // null = matches any message
+        private final Capture capture;
+        private final ReplyTemplate reply;
+        private final OnboardingState next;
+        private final RepairStatus repairStatus;
+
+        Transition(BitSet keywords, Capture capture, ReplyTemplate reply, OnboardingState next, RepairStatus repairStatus) {
+            this.keywords = keywords;
+            this.capture = capture;
+            this.reply = reply;
+            this.next = next;
+            this.repairStatus = repairStatus;
+        }
+
+        public Capture getCapture() { return capture; }
+        public OnboardingState getNext() { return next; }
+        public RepairStatus getRepairStatus() { return repairStatus; }
+        public boolean hasReply() { return reply != null; }
+
+        /** Reply text for the customer as updated by this transition. */
+        public String renderReply(Customer customer, String message) {
+            return reply.render(name -> switch (name) {
+                case "message" -> message;
+                case "name" -> customer.getName();
+                case "phoneModel" -> customer.getPhoneModel();
+                case "status" -> customer.getRepairStatus() != null ? customer.getRepairStatus().name() : null;
+                default -> null;
+            });
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.repairo.onboarding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reply text with {@code {placeholder}} variables, split once at startup into literal and variable
+ * segments so rendering is a single StringBuilder pass. Unknown placeholders fail at compile time
+ * rather than showing up verbatim in a customer's chat.
+ */
+public final class ReplyTemplate {
+
+    private final String[] literals;  // literals[i] precedes variables[i]; one more literal than variables
+    private final String[] variables;
+    private final int literalLength;
+
+    private ReplyTemplate(List<String> literals, List<String> variables) {
+        this.literals = literals.toArray(new String[0]);
+        this.variables = variables.toArray(new String[0]);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static ReplyTemplate compile(String template, Set<String> allowedVariables) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = template.indexOf('{', start)) >= 0) {
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                break; // a lone brace is literal text
+            }
+            String name = template.substring(open + 1, close);
+            if (!allowedVariables.contains(name)) {
+                throw new IllegalArgumentException("Unknown placeholder {" + name + "} in reply \"" + template
+                    + "\"; allowed: " + allowedVariables);
+            }
+            literals.add(template.substring(start, open));
+            variables.add(name);
+            start = close + 1;
+        }
+        literals.add(template.substring(start));
+        return new ReplyTemplate(literals, variables);
+    }
+
+    public String render(Function<String, String> values) {
+        if (variables.length == 0) {
+            return literals[0];
+        }
+        StringBuilder text = new StringBuilder(literalLength + variables.length * 16);
+        for (int i = 0; i < variables.length; i++) {
+            text.append(literals[i]);
+            String value = values.apply(variables[i]);
+            text.append(value != null ? value : "");
+        }
+        return text.append(literals[variables.length]).toString();
+    }
+}
@@ -0,0 +1,161 @@
+package com.repairo.ratelimit;
+
+import com.repairo.config.OutboxProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for outbound WhatsApp traffic: one per sending phoneNumberId (throughput limit) and
+ * one per recipient (pair rate limit). {@link #reserve} either takes a token from both or says how
+ * long to wait, so the outbox can reschedule instead of sending into a limit.
+ *
+ * The per-number rate adapts AIMD style: halved on throughput errors (429 / 130429 / 80007), then
+ * raised a little with every successful send up to the configured ceiling. A pair rate limit error
+ * (131056) puts only that recipient on cooldown.
+ *
+ * Not distributed (single node local memory), like {@link RateLimitInterceptor}.
+ */
+public class OutboundThrottle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboundThrottle.class);
+
+    public static final int PAIR_RATE_LIMIT = 131056;
+
+    private static final int MAX_TRACKED_RECIPIENTS = 10_000;
+    private static final long IDLE_RECIPIENT_MS = 10 * 60_000;
+
+    private final OutboxProperties.Throttle settings;
+    private final LongSupplier clock;
+    private final Map<String, Bucket> numbers = new HashMap<>();
+    private final Map<String, Bucket> recipients = new HashMap<>();
+
+    public OutboundThrottle(OutboxProperties.Throttle settings) {
+        this(settings, System::currentTimeMillis);
+    }
+
+    OutboundThrottle(OutboxProperties.Throttle settings, LongSupplier clock) {
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one token for the pair, or returns the milliseconds until both buckets allow a send
+     * (nothing is consumed in that case).
+     */
+    public synchronized long reserve(String phoneNumberId, String recipient) {
+        if (!settings.isEnabled()) return 0;
+        long now = clock.getAsLong();
+        Bucket number = numberBucket(phoneNumberId, now);
+        Bucket pair = recipientBucket(recipient, now);
+        long wait = Math.max(number.waitMs(now), pair.waitMs(now));
+        if (wait > 0) {
+            return wait;
+        }
+        number.tokens -= 1;
+        pair.tokens -= 1;
+        pair.lastUsed = now;
+        return 0;
+    }
+
+    /**
+     * Additive increase of the sender's rate after a successful send.
+     */
+    public synchronized void onSuccess(String phoneNumberId) {
+        if (!settings.isEnabled()) return;
+        Bucket number = numbers.get(phoneNumberId);
+        if (number == null) return;
+        double max = settings.getNumberRatePerSecond() / 1000.0;
+        number.ratePerMs = Math.min(max, number.ratePerMs + max * settings.getRecoveryStep());
+    }
+
+    /**
+     * Reacts to a rate limit response: pair limit (131056) cools down the recipient, anything else
+     * halves the sender's rate. Returns how long the rejected message should wait before its retry.
+     */
+    public synchronized long onThrottled(String phoneNumberId, String recipient, Integer errorCode) {
+        long now = clock.getAsLong();
+        if (errorCode != null && errorCode == PAIR_RATE_LIMIT) {
+            Bucket pair = recipientBucket(recipient, now);
+            pair.tokens = 0;
+            pair.blockedUntil = now + settings.getPairCooldownMs();
+            log.warn("Pair rate limit hit for a recipient of {}, cooling down for {} ms", phoneNumberId, settings.getPairCooldownMs());
+            return settings.getPairCooldownMs();
+        }
+        Bucket number = numberBucket(phoneNumberId, now);
+        double min = settings.getNumberRatePerSecond() * settings.getMinRateFraction() / 1000.0;
+        number.ratePerMs = Math.max(min, number.ratePerMs * settings.getDecreaseFactor());
+        number.tokens = 0;
+        log.warn("Throughput limit hit for {} (code {}), outbound rate lowered to {}/s",
+            phoneNumberId, errorCode, String.format("%.1f", number.ratePerMs * 1000));
+        return number.waitMs(now);
+    }
+
+    /** Current per-second rate for a sender (for diagnostics and tests). */
+    public synchronized double currentRate(String phoneNumberId) {
+        Bucket number = numbers.get(phoneNumberId);
+        return number != null ? number.ratePerMs * 1000 : settings.getNumberRatePerSecond();
+    }
+
+    private Bucket numberBucket(String phoneNumberId, long now) {
+        Bucket bucket = numbers.computeIfAbsent(String.valueOf(phoneNumberId),
+            k -> new Bucket(settings.getNumberBurst(), settings.getNumberRatePerSecond() / 1000.0, now));
+        bucket.refill(now);
+        return bucket;
+    }
+
+    private Bucket recipientBucket(String recipient, long now) {
+        if (recipients.size() > MAX_TRACKED_RECIPIENTS) {
+            pruneIdleRecipients(now);
+        }
+        Bucket bucket = recipients.computeIfAbsent(String.valueOf(recipient),
+            k -> new Bucket(settings.getRecipientBurst(), settings.getRecipientRatePerMinute() / 60_000.0, now));
+        bucket.refill(now);
+        return bucket;
+    }
+
+    private void pruneIdleRecipients(long now) {
+        Iterator<Bucket> it = recipients.values().iterator();
+        while (it.hasNext()) {
+            Bucket bucket = it.next();
+            if (now - bucket.lastUsed > IDLE_RECIPIENT_MS && bucket.blockedUntil <= now) {
+                it.remove();
+            }
+        }
+    }
+
+    /** Token bucket with continuous refill and an optional hard block (cooldown). */
+    private static class Bucket {
+        private final double capacity;
+        private double ratePerMs;
+        private double tokens;
+        private long lastRefill;
+        private long lastUsed;
+        private long blockedUntil;
+
+        Bucket(double capacity, double ratePerMs, long now) {
+            this.capacity = Math.max(1, capacity);
+            this.ratePerMs = ratePerMs;
+            this.tokens = this.capacity;
+            this.lastRefill = now;
+            this.lastUsed = now;
+        }
+
+        void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed <= 0) return;
+            tokens = Math.min(capacity, tokens + elapsed * ratePerMs);
+            lastRefill = now;
+        }
+
+        long waitMs(long now) {
+            if (blockedUntil > now) return blockedUntil - now;
+            if (tokens >= 1) return 0;
+            return (long) Math.ceil((1 - tokens) / ratePerMs);
+        }
+    }
+}
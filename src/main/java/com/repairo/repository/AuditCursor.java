@@ -0,0 +1,57 @@
+package com.repairo.repository;
+
+import com.repairo.model.RepairStatusChange;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position in the audit log, newest first: {@code changedAt} and {@code _id} of the last row of a
+ * page, encoded like {@link PageCursor} as opaque base64url extended JSON.
+ */
+public final class AuditCursor {
+
+    private final Date changedAt;
+    private final ObjectId id;
+
+    AuditCursor(Date changedAt, ObjectId id) {
+        this.changedAt = changedAt;
+        this.id = id;
+    }
+
+    static AuditCursor at(RepairStatusChange change) {
+        return new AuditCursor(Date.from(change.getChangedAt().atZone(ZoneId.systemDefault()).toInstant()),
+            new ObjectId(change.getId()));
+    }
+
+    public String encode() {
+        Document doc = new Document("t", changedAt).append("id", id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(doc.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Throws IllegalArgumentException for malformed cursors. */
+    public static AuditCursor decode(String token) {
+        Document doc;
+        try {
+            doc = Document.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed page cursor");
+        }
+        if (!(doc.get("t") instanceof Date changedAt) || !(doc.get("id") instanceof ObjectId id)) {
+            throw new IllegalArgumentException("Malformed page cursor");
+        }
+        return new AuditCursor(changedAt, id);
+    }
+
+    /** Rows strictly after this cursor in {@code (changedAt, _id)} descending order. */
+    Criteria seek() {
+        return new Criteria().orOperator(
+            Criteria.where("changedAt").lt(changedAt),
+            Criteria.where("changedAt").is(changedAt).and("_id").lt(id));
+    }
+}
@@ -0,0 +1,30 @@
+package com.repairo.repository;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit log selection: any combination of customer, user and [from, to) time range; null parts
+ * are not filtered on.
+ */
+public record AuditFilter(String customerId, String changedBy, LocalDateTime from, LocalDateTime to) {
+
+    public AuditFilter {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+    }
+
+    Criteria criteria() {
+        Criteria criteria = new Criteria();
+        if (customerId != null && !customerId.isBlank()) criteria.and("customerId").is(customerId);
+        if (changedBy != null && !changedBy.isBlank()) criteria.and("changedBy").is(changedBy);
+        if (from != null || to != null) {
+            Criteria changedAt = criteria.and("changedAt");
+            if (from != null) changedAt.gte(from);
+            if (to != null) changedAt.lt(to);
+        }
+        return criteria;
+    }
+}
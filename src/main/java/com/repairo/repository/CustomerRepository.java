@@ -13,7 +13,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends MongoRepository<Customer, String> {
+public interface CustomerRepository extends MongoRepository<Customer, String>, CustomerRepositoryCustom {
     Optional<Customer> findByPhone(String phone);
     
     List<Customer> findByRepairStatus(RepairStatus repairStatus);
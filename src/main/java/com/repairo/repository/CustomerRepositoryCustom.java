@@ -0,0 +1,64 @@
+package com.repairo.repository;
+
+import com.repairo.dto.CursorPage;
+import com.repairo.dto.DashboardStats;
+import com.repairo.model.Customer;
+import com.repairo.model.RepairStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Customer queries that need the aggregation framework rather than derived queries.
+ */
+public interface CustomerRepositoryCustom {
+
+    /**
+     * All dashboard counters plus the {@code recentLimit} most recently active customers since
+     * {@code recentSince}, in one round trip. "Completed today" counts COMPLETED customers active
+     * since {@code completedSince}. With {@code includeTotals} false the total, in-progress and
+     * awaiting-reply facets are skipped (the caller has maintained counters for them).
+     */
+    DashboardStats dashboardStats(LocalDateTime completedSince, LocalDateTime recentSince, int recentLimit,
+                                  boolean includeTotals);
+
+    /**
+     * Customers whose name matches every word of {@code query} as a word prefix or (for three
+     * characters or more) anywhere in a word, best matches first: whole words, then prefixes, then
+     * infixes, then the pageable's sort. Served from the {@code nameTokens} index; the page and the
+     * total come from one aggregation. Message history is not loaded.
+     */
+    Page<Customer> searchByName(String query, Pageable pageable);
+
+    /**
+     * One page of customers in {@code sort} order (ties broken by {@code _id}): the first page, the
+     * page after the {@code after} cursor, or the page before the {@code before} cursor. Pages are
+     * found by seeking the {@code (field, _id)} index rather than skipping, so every page costs the
+     * same, and no count is run. Message history is not loaded. Throws IllegalArgumentException for
+     * a cursor that is malformed or was issued for another sort order.
+     */
+    CursorPage<Customer> findPage(CustomerSortField sort, Sort.Direction direction, String after, String before, int size);
+
+    /**
+     * One page of the repairs board column for {@code status}, most recently active first, continuing
+     * after the {@code after} cursor. Seeks the {@code (repairStatus, lastInteraction, _id)} index and
+     * loads only the fields a board card shows.
+     */
+    CursorPage<Customer> findByRepairStatus(RepairStatus status, String after, int size);
+
+    /**
+     * Sets {@code repairStatus} and {@code lastInteraction} (and {@code statusChangedAt} when the status
+     * changes) and bumps the version in one atomic findAndModify on {@code _id}. When
+     * {@code expectedVersion} is given and the stored version differs, nothing is changed. Returns the
+     * state before the update with only {@code repairStatus}, {@code statusChangedAt}, {@code phoneModel}
+     * and {@code version} loaded, so a stale version shows as a different {@code version}; empty when the
+     * customer does not exist.
+     */
+    Optional<Customer> updateRepairStatus(String customerId, Long expectedVersion, RepairStatus status, LocalDateTime now);
+
+    /** Customer count from collection metadata: no scan, but approximate after unclean shutdowns. */
+    long estimatedTotal();
+}
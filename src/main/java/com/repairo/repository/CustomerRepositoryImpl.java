@@ -0,0 +1,226 @@
+package com.repairo.repository;
+
+import com.repairo.dto.CursorPage;
+import com.repairo.dto.DashboardStats;
+import com.repairo.model.Customer;
+import com.repairo.model.RepairStatus;
+import com.repairo.search.NameTokenizer;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public DashboardStats dashboardStats(LocalDateTime completedSince, LocalDateTime recentSince, int recentLimit,
+                                         boolean includeTotals) {
+        FacetOperation facets = Aggregation.facet(Aggregation.match(Criteria.where("repairStatus").is(RepairStatus.COMPLETED)
+                    .and("lastInteraction").gte(completedSince)),
+                Aggregation.count().as("n")).as("completedToday")
+            .and(Aggregation.match(Criteria.where("lastInteraction").gte(recentSince)),
+                Aggregation.sort(Sort.Direction.DESC, "lastInteraction"),
+                Aggregation.limit(recentLimit)).as("recent");
+        if (includeTotals) {
+            facets = facets.and(Aggregation.count().as("n")).as("total")
+                .and(Aggregation.match(Criteria.where("repairStatus").is(RepairStatus.IN_PROGRESS)),
+                    Aggregation.count().as("n")).as("active")
+                .and(Aggregation.match(Criteria.where("lastFrom").is("customer")),
+                    Aggregation.count().as("n")).as("pending");
+        }
+        // Slim every document down first so the facets never carry issue text or message arrays
+        TypedAggregation<Customer> aggregation = Aggregation.newAggregation(Customer.class,
+            Aggregation.project("name", "phone", "repairStatus", "lastInteraction")
+                .and(ArrayOperators.ArrayElemAt.arrayOf("messages.from").elementAt(-1)).as("lastFrom"),
+            facets);
+
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        DashboardStats stats = new DashboardStats();
+        if (result == null) {
+            return stats;
+        }
+        stats.setTotalCustomers(count(result, "total"));
+        stats.setActiveRepairs(count(result, "active"));
+        stats.setPendingMessages(count(result, "pending"));
+        stats.setCompletedToday(count(result, "completedToday"));
+        for (Document doc : result.getList("recent", Document.class, List.of())) {
+            DashboardStats.RecentCustomer customer = new DashboardStats.RecentCustomer();
+            customer.setCustomerId(String.valueOf(doc.get("_id")));
+            customer.setName(doc.getString("name"));
+            customer.setPhone(doc.getString("phone"));
+            String status = doc.getString("repairStatus");
+            customer.setRepairStatus(status != null ? RepairStatus.valueOf(status) : null);
+            Date lastInteraction = doc.getDate("lastInteraction");
+            customer.setLastInteraction(lastInteraction != null
+                ? LocalDateTime.ofInstant(lastInteraction.toInstant(), ZoneId.systemDefault()) : null);
+            stats.getRecentCustomers().add(customer);
+        }
+        return stats;
+    }
+
+    @Override
+    public Page<Customer> searchByName(String query, Pageable pageable) {
+        List<String> terms = NameTokenizer.words(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        List<Criteria> conditions = new ArrayList<>();
+        List<String> rankTokens = new ArrayList<>();
+        for (String term : terms) {
+            // Index lookup: the term is a word prefix, or all its trigrams occur (verified below)
+            Criteria prefix = Criteria.where("nameTokens").is(NameTokenizer.PREFIX + term);
+            conditions.add(term.length() < 3 ? prefix
+                : new Criteria().orOperator(prefix, Criteria.where("nameTokens").all(NameTokenizer.trigrams(term))));
+            // Terms are letters and digits only after normalization, so they need no regex escaping
+            conditions.add(Criteria.where("nameNormalized").regex(term));
+            rankTokens.add(NameTokenizer.WORD + term);
+            rankTokens.add(NameTokenizer.PREFIX + term);
+        }
+        AggregationOperation rank = context -> new Document("$addFields", new Document("searchRank",
+            new Document("$size", new Document("$setIntersection", List.of("$nameTokens", rankTokens)))));
+        // _id last, so equal ranks and sort values still page in a stable order
+        Sort order = Sort.by(Sort.Direction.DESC, "searchRank").and(pageable.getSort()).and(Sort.by("_id"));
+
+        // Slim the matches to the list columns before $facet, which sorts them in memory as one document
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(new Criteria().andOperator(conditions)),
+            rank,
+            Aggregation.project("name", "phone", "phoneModel", "issue", "repairStatus", "onboardingState",
+                "lastInteraction", "statusChangedAt", "version", "searchRank"),
+            Aggregation.facet(Aggregation.sort(order),
+                    Aggregation.skip(pageable.getOffset()),
+                    Aggregation.limit(pageable.getPageSize()),
+                    Aggregation.project().andExclude("searchRank")).as("page")
+                .and(Aggregation.count().as("n")).as("total"));
+        Document result = mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Customer.class), Document.class)
+            .getUniqueMappedResult();
+        if (result == null) {
+            return Page.empty(pageable);
+        }
+        List<Customer> customers = result.getList("page", Document.class, List.of()).stream()
+            .map(doc -> mongoTemplate.getConverter().read(Customer.class, doc))
+            .toList();
+        return new PageImpl<>(customers, pageable, count(result, "total"));
+    }
+
+    @Override
+    public CursorPage<Customer> findPage(CustomerSortField sort, Sort.Direction direction, String after, String before, int size) {
+        return seekPage(null, sort, direction, after, before, size,
+            fields -> fields.exclude("messages", "nameTokens", "phoneTokens", "issueTokens"));
+    }
+
+    @Override
+    public CursorPage<Customer> findByRepairStatus(RepairStatus status, String after, int size) {
+        return seekPage(Criteria.where("repairStatus").is(status), CustomerSortField.LAST_INTERACTION, Sort.Direction.DESC,
+            after, null, size,
+            fields -> fields.include("name", "phoneModel", "issue", "repairStatus", "lastInteraction", "version"));
+    }
+
+    private CursorPage<Customer> seekPage(Criteria filter, CustomerSortField sort, Sort.Direction direction,
+                                          String after, String before, int size, Consumer<Field> projection) {
+        boolean backward = before != null;
+        PageCursor cursor = backward ? PageCursor.decode(before, sort, direction)
+            : after != null ? PageCursor.decode(after, sort, direction) : null;
+        // Backward pages are read in reverse order from the cursor and flipped afterwards
+        Sort.Direction scan = backward ? (direction.isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC) : direction;
+        Criteria criteria = cursor == null ? filter
+            : filter == null ? cursor.seek(scan) : new Criteria().andOperator(filter, cursor.seek(scan));
+        Query query = criteria != null ? Query.query(criteria) : new Query();
+        query.with(Sort.by(scan, sort.field(), "_id")).limit(size + 1);
+        projection.accept(query.fields());
+
+        List<Customer> rows = new ArrayList<>(mongoTemplate.find(query, Customer.class));
+        boolean more = rows.size() > size; // one extra row tells whether another page exists, without a count
+        if (more) {
+            rows.remove(size);
+        }
+        if (backward) {
+            Collections.reverse(rows);
+        }
+        if (rows.isEmpty()) {
+            return new CursorPage<>(rows, null, null);
+        }
+        boolean hasNext = backward || more;
+        boolean hasPrevious = backward ? more : cursor != null;
+        return new CursorPage<>(rows,
+            hasNext ? PageCursor.at(sort, direction, rows.get(rows.size() - 1)).encode() : null,
+            hasPrevious ? PageCursor.at(sort, direction, rows.get(0)).encode() : null);
+    }
+
+    @Override
+    public Optional<Customer> updateRepairStatus(String customerId, Long expectedVersion, RepairStatus status, LocalDateTime now) {
+        // Matched on _id alone: the pre-image tells an unknown customer from a stale version in one round trip
+        Query query = Query.query(Criteria.where("_id").is(customerId));
+        query.fields().include("repairStatus", "statusChangedAt", "phoneModel", "version");
+
+        // A pipeline update, so statusChangedAt is only moved when the stored status actually changes, and
+        // every field keeps its value when the version is stale. Each $set is its own stage; the version
+        // is bumped last, so the earlier stages all compare against the stored one.
+        Date at = Date.from(now.atZone(ZoneId.systemDefault()).toInstant());
+        AggregationUpdate update = AggregationUpdate.update()
+            .set("statusChangedAt").toValue(unlessStale(expectedVersion, "statusChangedAt", ConditionalOperators
+                .when(ComparisonOperators.valueOf("repairStatus").notEqualToValue(status.name()))
+                .then(at)
+                .otherwiseValueOf("statusChangedAt")))
+            .set("repairStatus").toValue(unlessStale(expectedVersion, "repairStatus", status.name()))
+            .set("lastInteraction").toValue(unlessStale(expectedVersion, "lastInteraction", at))
+            .set("version").toValue(unlessStale(expectedVersion, "version",
+                ArithmeticOperators.valueOf(ConditionalOperators.ifNull("version").then(0L)).add(1)));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(false), Customer.class));
+    }
+
+    /**
+     * {@code value} when the stored version is {@code expectedVersion}, otherwise the field's current
+     * value. Customers saved before versioning have no version to compare, as in the old Java check.
+     */
+    private static Object unlessStale(Long expectedVersion, String field, Object value) {
+        if (expectedVersion == null) {
+            return value;
+        }
+        var current = ConditionalOperators
+            .when(ComparisonOperators.valueOf(ConditionalOperators.ifNull("version").then(expectedVersion))
+                .equalToValue(expectedVersion));
+        return (value instanceof AggregationExpression expression ? current.thenValueOf(expression) : current.then(value))
+            .otherwiseValueOf(field);
+    }
+
+    @Override
+    public long estimatedTotal() {
+        return mongoTemplate.estimatedCount(Customer.class);
+    }
+
+    private static long count(Document result, String facet) {
+        List<Document> rows = result.getList(facet, Document.class, List.of());
+        return rows.isEmpty() ? 0 : ((Number) rows.get(0).get("n")).longValue();
+    }
+}
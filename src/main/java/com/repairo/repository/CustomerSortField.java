@@ -0,0 +1,54 @@
+package com.repairo.repository;
+
+import com.repairo.model.Customer;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * The customer list's sortable fields. Each is backed by a {@code (field, _id)} index declared on
+ * {@link Customer}, so sorting and keyset paging never fall back to an in-memory sort.
+ */
+public enum CustomerSortField {
+    LAST_INTERACTION("lastInteraction"),
+    NAME("name"),
+    REPAIR_STATUS("repairStatus");
+
+    private final String field;
+
+    CustomerSortField(String field) {
+        this.field = field;
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public String indexName() {
+        return "sort_" + field;
+    }
+
+    /** The field named by a {@code sortBy} request parameter, or null when it is not sortable. */
+    public static CustomerSortField fromParam(String sortBy) {
+        for (CustomerSortField sort : values()) {
+            if (sort.field.equals(sortBy)) {
+                return sort;
+            }
+        }
+        return null;
+    }
+
+    /** The customer's value for this field as stored in MongoDB, for building a cursor. */
+    Object storedValue(Customer customer) {
+        return switch (this) {
+            case LAST_INTERACTION -> toDate(customer.getLastInteraction());
+            case NAME -> customer.getName();
+            case REPAIR_STATUS -> customer.getRepairStatus() != null ? customer.getRepairStatus().name() : null;
+        };
+    }
+
+    private static Date toDate(LocalDateTime time) {
+        return time != null ? Date.from(time.atZone(ZoneId.systemDefault()).toInstant()) : null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.repairo.repository;
+
+import com.repairo.model.OutboundMessage;
+import com.repairo.model.OutboundStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboundMessageRepository extends MongoRepository<OutboundMessage, String> {
+
+    List<OutboundMessage> findByCustomerIdOrderByCreatedAtDesc(String customerId);
+
+    Page<OutboundMessage> findByStatusOrderByCreatedAtDesc(OutboundStatus status, Pageable pageable);
+
+    long countByStatus(OutboundStatus status);
+}
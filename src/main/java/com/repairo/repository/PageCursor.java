@@ -0,0 +1,75 @@
+package com.repairo.repository;
+
+import com.repairo.model.Customer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the customer list for keyset paging: the sort value and {@code _id} of a boundary row.
+ * Encoded as opaque base64url extended JSON so dates and ObjectIds survive the round trip. A cursor
+ * only applies to the sort field and direction it was created for.
+ */
+public final class PageCursor {
+
+    private final CustomerSortField sort;
+    private final Sort.Direction direction;
+    private final Object value;
+    private final ObjectId id;
+
+    PageCursor(CustomerSortField sort, Sort.Direction direction, Object value, ObjectId id) {
+        this.sort = sort;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    /** Cursor positioned on {@code customer}, which must have been read with its sort field. */
+    static PageCursor at(CustomerSortField sort, Sort.Direction direction, Customer customer) {
+        return new PageCursor(sort, direction, sort.storedValue(customer), new ObjectId(customer.getCustomerId()));
+    }
+
+    public Object value() { return value; }
+    public ObjectId id() { return id; }
+
+    public String encode() {
+        Document doc = new Document("s", sort.field()).append("d", direction.name()).append("v", value).append("id", id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(doc.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Throws IllegalArgumentException for malformed cursors and cursors of another sort order. */
+    public static PageCursor decode(String token, CustomerSortField sort, Sort.Direction direction) {
+        Document doc;
+        try {
+            doc = Document.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed page cursor");
+        }
+        if (!sort.field().equals(doc.get("s")) || !direction.name().equals(doc.get("d"))
+                || !(doc.get("id") instanceof ObjectId id)) {
+            throw new IllegalArgumentException("Page cursor does not match the requested sort order");
+        }
+        return new PageCursor(sort, direction, doc.get("v"), id);
+    }
+
+    /**
+     * Rows strictly after this cursor when scanning in {@code scan} order on {@code (field, _id)}.
+     * Nulls sort first ascending and last descending, as in MongoDB, so they get their own branches.
+     */
+    Criteria seek(Sort.Direction scan) {
+        String field = sort.field();
+        if (scan.isAscending()) {
+            return value == null
+                ? new Criteria().orOperator(Criteria.where(field).is(null).and("_id").gt(id), Criteria.where(field).ne(null))
+                : new Criteria().orOperator(Criteria.where(field).gt(value), Criteria.where(field).is(value).and("_id").gt(id));
+        }
+        return value == null
+            ? Criteria.where(field).is(null).and("_id").lt(id)
+            : new Criteria().orOperator(Criteria.where(field).lt(value), Criteria.where(field).is(value).and("_id").lt(id),
+                Criteria.where(field).is(null));
+    }
+}
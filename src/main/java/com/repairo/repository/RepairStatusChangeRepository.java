@@ -7,21 +7,22 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Optional;
 
+/**
+ * Audit log access. Unbounded reads go through {@link RepairStatusChangeRepositoryCustom}, which pages
+ * by keyset or streams from a cursor; there are deliberately no list-returning finders.
+ */
 @Repository
-public interface RepairStatusChangeRepository extends MongoRepository<RepairStatusChange, String> {
+public interface RepairStatusChangeRepository extends MongoRepository<RepairStatusChange, String>, RepairStatusChangeRepositoryCustom {
     
-    List<RepairStatusChange> findByCustomerId(String customerId);
     Page<RepairStatusChange> findByCustomerId(String customerId, Pageable pageable);
     
-    List<RepairStatusChange> findByChangedBy(String changedBy);
     Page<RepairStatusChange> findByChangedBy(String changedBy, Pageable pageable);
     
-    List<RepairStatusChange> findByChangedAtBetween(LocalDateTime start, LocalDateTime end);
     Page<RepairStatusChange> findByChangedAtBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
     
-    List<RepairStatusChange> findByCustomerIdOrderByChangedAtDesc(String customerId);
+    Optional<RepairStatusChange> findFirstByCustomerIdOrderByChangedAtDesc(String customerId);
     
     Page<RepairStatusChange> findAllByOrderByChangedAtDesc(Pageable pageable);
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.repairo.repository;
+
+import com.repairo.dto.CursorPage;
+import com.repairo.model.RepairStatusChange;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Audit log reads for the admin API, newest first on {@code (changedAt, _id)}.
+ */
+public interface RepairStatusChangeRepositoryCustom {
+
+    /**
+     * One page of matching audit records after the {@code after} cursor. Seeks the
+     * {@code (…, changedAt, _id)} indexes rather than skipping, and runs no count. Throws
+     * IllegalArgumentException for a malformed cursor.
+     */
+    CursorPage<RepairStatusChange> findAuditPage(AuditFilter filter, String after, int size);
+
+    /**
+     * All matching audit records from one server-side cursor, fetched in batches as the stream is
+     * consumed. The caller must close the stream.
+     */
+    Stream<RepairStatusChange> streamAudit(AuditFilter filter);
+
+    /**
+     * Time of the newest audit record per customer, for all given customers in one aggregation.
+     * Customers without records are absent from the result.
+     */
+    Map<String, LocalDateTime> findLatestChangedAt(Collection<String> customerIds);
+}
@@ -0,0 +1,71 @@
+package com.repairo.repository;
+
+import com.repairo.dto.CursorPage;
+import com.repairo.model.RepairStatusChange;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class RepairStatusChangeRepositoryImpl implements RepairStatusChangeRepositoryCustom {
+
+    static final int EXPORT_BATCH_SIZE = 500;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "changedAt", "_id");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public CursorPage<RepairStatusChange> findAuditPage(AuditFilter filter, String after, int size) {
+        Criteria criteria = filter.criteria();
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, AuditCursor.decode(after).seek());
+        }
+        Query query = Query.query(criteria).with(NEWEST_FIRST).limit(size + 1);
+        List<RepairStatusChange> rows = new ArrayList<>(mongoTemplate.find(query, RepairStatusChange.class));
+        boolean more = rows.size() > size; // one extra row tells whether another page exists, without a count
+        if (more) {
+            rows.remove(size);
+        }
+        return new CursorPage<>(rows, more ? AuditCursor.at(rows.get(rows.size() - 1)).encode() : null, null);
+    }
+
+    @Override
+    public Stream<RepairStatusChange> streamAudit(AuditFilter filter) {
+        Query query = Query.query(filter.criteria()).with(NEWEST_FIRST).cursorBatchSize(EXPORT_BATCH_SIZE);
+        return mongoTemplate.stream(query, RepairStatusChange.class);
+    }
+
+    @Override
+    public Map<String, LocalDateTime> findLatestChangedAt(Collection<String> customerIds) {
+        Map<String, LocalDateTime> latest = new HashMap<>();
+        if (customerIds.isEmpty()) {
+            return latest;
+        }
+        // The sort follows the (customerId, changedAt, _id) index, so $first is the newest record
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("customerId").in(customerIds)),
+            Aggregation.sort(Sort.by(Sort.Order.asc("customerId"), Sort.Order.desc("changedAt"), Sort.Order.desc("_id"))),
+            Aggregation.group("customerId").first("changedAt").as("changedAt"));
+        for (Document row : mongoTemplate.aggregate(aggregation, RepairStatusChange.class, Document.class)) {
+            Date changedAt = row.getDate("changedAt");
+            if (changedAt != null) {
+                latest.put(row.getString("_id"), LocalDateTime.ofInstant(changedAt.toInstant(), ZoneId.systemDefault()));
+            }
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,173 @@
+package com.repairo.search;
+
+import com.repairo.config.BlindIndexProperties;
+import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.model.Customer;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Blind index for the encrypted customer fields: searchable pieces of the plaintext (phone number
+ * suffixes, stemmed issue keywords) are stored only as truncated HMAC-SHA256 tokens, so MongoDB can
+ * match them through an index without ever seeing the plaintext. Queries are tokenized the same way.
+ *
+ * Tokens depend on the key, so every customer records the {@code blindKeyId} it was tokenized with;
+ * see CustomerSearchService#rebuildBlindTokens for key rotation.
+ */
+@Component
+public class BlindIndex {
+
+    private static final String PHONE_DOMAIN = "phone:";
+    private static final String ISSUE_DOMAIN = "issue:";
+    private static final int TOKEN_BYTES = 12; // 96 bits: collisions are negligible, tokens stay short
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "the", "and", "for", "with", "not", "but", "has", "have", "had", "was", "are", "its", "it's", "this",
+        "that", "from", "after", "when", "then", "there", "very", "just", "also", "some", "any", "all",
+        "my", "your", "our", "you", "can", "cant", "dont", "doesnt", "isnt", "wont", "phone", "please");
+
+    private final BlindIndexProperties properties;
+    private final MongoEncryptionConfig encryptionConfig;
+    private final SecretKeySpec key;
+
+    public BlindIndex(BlindIndexProperties properties, MongoEncryptionConfig encryptionConfig) {
+        this.properties = properties;
+        this.encryptionConfig = encryptionConfig;
+        this.key = new SecretKeySpec(properties.getKey().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public String keyId() {
+        return properties.getKeyId();
+    }
+
+    public int minPhoneSuffix() {
+        return properties.getMinPhoneSuffix();
+    }
+
+    /** Tokens for every suffix of the phone number's digits from {@code min-phone-suffix} digits up. */
+    public List<String> phoneTokens(String plainPhone) {
+        String digits = digits(plainPhone);
+        List<String> tokens = new ArrayList<>();
+        for (int length = properties.getMinPhoneSuffix(); length <= digits.length(); length++) {
+            tokens.add(token(PHONE_DOMAIN, digits.substring(digits.length() - length)));
+        }
+        return tokens;
+    }
+
+    /** Token to look up a phone number ending in {@code suffix}, or null if it is too short to be indexed. */
+    public String phoneQueryToken(String suffix) {
+        String digits = digits(suffix);
+        return digits.length() < properties.getMinPhoneSuffix() ? null : token(PHONE_DOMAIN, digits);
+    }
+
+    public List<String> issueTokens(String plainIssue) {
+        List<String> tokens = new ArrayList<>();
+        for (String keyword : keywords(plainIssue)) {
+            if (tokens.size() == properties.getMaxIssueKeywords()) break;
+            tokens.add(token(ISSUE_DOMAIN, keyword));
+        }
+        return tokens;
+    }
+
+    /** One token per keyword of the query; a customer must carry all of them. */
+    public List<String> issueQueryTokens(String query) {
+        return keywords(query).stream().map(keyword -> token(ISSUE_DOMAIN, keyword)).toList();
+    }
+
+    /**
+     * Sets the phone tokens from the plaintext about to be encrypted into {@code customer.phone}.
+     * A customer still tokenized under an older key is re-tokenized entirely, so one document never
+     * mixes keys.
+     */
+    public void applyPhone(Customer customer, String plainPhone) {
+        if (!keyId().equals(customer.getBlindKeyId()) && customer.getIssue() != null) {
+            customer.setIssueTokens(issueTokens(encryptionConfig.decryptSensitiveField(customer.getIssue(), "issue")));
+        }
+        customer.setPhoneTokens(phoneTokens(plainPhone));
+        customer.setBlindKeyId(keyId());
+    }
+
+    /** Same as {@link #applyPhone} for the issue description. */
+    public void applyIssue(Customer customer, String plainIssue) {
+        if (!keyId().equals(customer.getBlindKeyId()) && customer.getPhone() != null) {
+            customer.setPhoneTokens(phoneTokens(encryptionConfig.decryptSensitiveField(customer.getPhone(), "phone")));
+        }
+        customer.setIssueTokens(issueTokens(plainIssue));
+        customer.setBlindKeyId(keyId());
+    }
+
+    private String token(String domain, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            byte[] digest = mac.doFinal((domain + value).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, TOKEN_BYTES));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    static String digits(String phone) {
+        return phone == null ? "" : phone.replaceAll("\\D", "");
+    }
+
+    /** Distinct stemmed keywords: normalized words of three letters or more, without stopwords. */
+    static List<String> keywords(String text) {
+        Set<String> keywords = new LinkedHashSet<>();
+        String normalized = NameTokenizer.normalize(text);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        for (String word : normalized.split(" ")) {
+            if (word.length() < 3 || STOPWORDS.contains(word)) continue;
+            keywords.add(stem(word));
+        }
+        return new ArrayList<>(keywords);
+    }
+
+    /**
+     * Light suffix stripping so "cracked", "cracks" and "cracking" index alike. Deliberately simple:
+     * query and document go through the same function, so consistency matters more than linguistics.
+     */
+    static String stem(String word) {
+        String stem = word;
+        int length = stem.length();
+        if (stem.endsWith("ing") && length >= 6) {
+            stem = undouble(stem.substring(0, length - 3));
+        } else if (stem.endsWith("ed") && length >= 5) {
+            stem = undouble(stem.substring(0, length - 2));
+        } else if (stem.endsWith("ies") && length >= 5) {
+            stem = stem.substring(0, length - 3) + "y";
+        } else if (stem.endsWith("es") && length >= 5 && endsWithSibilant(stem.substring(0, length - 2))) {
+            stem = stem.substring(0, length - 2);
+        } else if (stem.endsWith("ly") && length >= 5) {
+            stem = stem.substring(0, length - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && length >= 4) {
+            stem = stem.substring(0, length - 1);
+        }
+        if (stem.endsWith("e") && stem.length() > 3) {
+            stem = stem.substring(0, stem.length() - 1); // "charge", "charged", "charging" -> "charg"
+        }
+        return stem;
+    }
+
+    private static String undouble(String stem) {
+        int n = stem.length();
+        return n > 3 && stem.charAt(n - 1) == stem.charAt(n - 2) && stem.charAt(n - 1) != 's'
+            ? stem.substring(0, n - 1) : stem; // "stopped" -> "stop", but "pressed" -> "press"
+    }
+
+    private static boolean endsWithSibilant(String stem) {
+        return stem.endsWith("s") || stem.endsWith("x") || stem.endsWith("z") || stem.endsWith("ch") || stem.endsWith("sh");
+    }
+}
@@ -0,0 +1,30 @@
+package com.repairo.search;
+
+import com.repairo.model.Customer;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@code nameNormalized} and {@code nameTokens} in step with {@code name} on every customer
+ * save, so no write path has to remember it. Partial updates that {@code $set} the name must set
+ * both fields themselves.
+ */
+@Component
+public class CustomerSearchTokenListener extends AbstractMongoEventListener<Customer> {
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Customer> event) {
+        apply(event.getSource());
+    }
+
+    public static void apply(Customer customer) {
+        if (customer.getName() == null || customer.getName().isBlank()) {
+            customer.setNameNormalized(null);
+            customer.setNameTokens(null);
+        } else {
+            customer.setNameNormalized(NameTokenizer.normalize(customer.getName()));
+            customer.setNameTokens(NameTokenizer.indexTokens(customer.getName()));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.repairo.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns customer names into the index tokens stored in {@code Customer.nameTokens}, and search input
+ * into the tokens to look up. Names are normalized (accents stripped, lowercased, punctuation to
+ * spaces) and split into words; each word contributes
+ * <ul>
+ *   <li>{@code w:<word>} for whole-word matches,</li>
+ *   <li>{@code p:<prefix>} edge n-grams, so any prefix is one index lookup,</li>
+ *   <li>{@code t:<trigram>} for infix matches of three characters or more.</li>
+ * </ul>
+ * Words are capped at {@link #MAX_WORD_LENGTH} characters, which bounds a name to a few dozen tokens.
+ */
+public final class NameTokenizer {
+
+    public static final String WORD = "w:";
+    public static final String PREFIX = "p:";
+    public static final String TRIGRAM = "t:";
+
+    static final int MAX_WORD_LENGTH = 20;
+    static final int MAX_WORDS = 6;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private NameTokenizer() {}
+
+    /** Lowercase, accent-free, single-spaced form of the name; also what infix matches are checked against. */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public static List<String> words(String text) {
+        String normalized = normalize(text);
+        List<String> words = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return words;
+        }
+        for (String word : normalized.split(" ")) {
+            if (words.size() == MAX_WORDS) break;
+            words.add(word.length() > MAX_WORD_LENGTH ? word.substring(0, MAX_WORD_LENGTH) : word);
+        }
+        return words;
+    }
+
+    /** Tokens to store for a name. */
+    public static List<String> indexTokens(String name) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : words(name)) {
+            tokens.add(WORD + word);
+            for (int end = 1; end <= word.length(); end++) {
+                tokens.add(PREFIX + word.substring(0, end));
+            }
+            for (int start = 0; start + 3 <= word.length(); start++) {
+                tokens.add(TRIGRAM + word.substring(start, start + 3));
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /** Trigram tokens a word must all have for {@code term} to occur inside it. */
+    public static List<String> trigrams(String term) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int start = 0; start + 3 <= term.length(); start++) {
+            trigrams.add(TRIGRAM + term.substring(start, start + 3));
+        }
+        return new ArrayList<>(trigrams);
+    }
+}
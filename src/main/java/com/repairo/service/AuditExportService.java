@@ -0,0 +1,127 @@
+package com.repairo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repairo.model.RepairStatusChange;
+import com.repairo.repository.AuditFilter;
+import com.repairo.repository.RepairStatusChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes the audit log as CSV or NDJSON straight from a MongoDB cursor to an output stream. Rows are
+ * formatted one at a time and the writer is flushed every {@link #FLUSH_EVERY} rows, so memory stays
+ * constant whatever the range; a client that disconnects ends the export and closes the cursor.
+ */
+@Service
+public class AuditExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditExportService.class);
+    private static final ObjectMapper JSON = new ObjectMapper();
+    static final int FLUSH_EVERY = 500;
+    static final List<String> COLUMNS = List.of(
+        "id", "changedAt", "customerId", "fromStatus", "toStatus", "changedBy", "durationMs", "phoneModel", "notes");
+
+    public enum Format {
+        CSV("text/csv", "csv"), NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() { return contentType; }
+        public String extension() { return extension; }
+
+        /** Throws IllegalArgumentException for unknown formats. */
+        public static Format fromParam(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Unknown export format '" + value + "' (csv or ndjson)");
+            }
+        }
+    }
+
+    @Autowired
+    private RepairStatusChangeRepository repairStatusChangeRepository;
+
+    /** Streams every matching record, newest first, and returns how many rows were written. */
+    public long export(AuditFilter filter, Format format, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+        try (Stream<RepairStatusChange> changes = repairStatusChangeRepository.streamAudit(filter)) {
+            Iterator<RepairStatusChange> iterator = changes.iterator();
+            while (iterator.hasNext()) {
+                Map<String, Object> row = row(iterator.next());
+                if (format == Format.CSV) {
+                    writer.write(csvLine(row.values()));
+                } else {
+                    writer.write(JSON.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                if (++rows % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        logger.info("Exported {} audit records as {}", rows, format);
+        return rows;
+    }
+
+    static Map<String, Object> row(RepairStatusChange change) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", change.getId());
+        row.put("changedAt", change.getChangedAt() != null ? change.getChangedAt().toString() : null);
+        row.put("customerId", change.getCustomerId());
+        row.put("fromStatus", change.getFromStatus() != null ? change.getFromStatus().name() : null);
+        row.put("toStatus", change.getToStatus() != null ? change.getToStatus().name() : null);
+        row.put("changedBy", change.getChangedBy());
+        row.put("durationMs", change.getDurationMs());
+        row.put("phoneModel", change.getPhoneModel());
+        row.put("notes", change.getNotes());
+        return row;
+    }
+
+    /**
+     * RFC 4180 line: fields with commas, quotes or line breaks are quoted, quotes doubled. Text that a
+     * spreadsheet would run as a formula (customer-supplied phone models, notes) gets a leading quote.
+     */
+    static String csvLine(Iterable<Object> values) {
+        List<String> fields = new ArrayList<>();
+        for (Object value : values) {
+            String field = value == null ? "" : value.toString();
+            if (value instanceof String && !field.isEmpty() && "=+-@\t".indexOf(field.charAt(0)) >= 0) {
+                field = "'" + field;
+            }
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                field = '"' + field.replace("\"", "\"\"") + '"';
+            }
+            fields.add(field);
+        }
+        return String.join(",", fields) + "\r\n";
+    }
+}
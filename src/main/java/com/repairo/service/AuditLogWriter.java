@@ -0,0 +1,320 @@
+package com.repairo.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.repairo.config.AuditWriterProperties;
+import com.repairo.model.RepairStatusChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Takes audit records off the request path: {@link #submit} only queues the record in a bounded
+ * buffer, and one background thread inserts the buffer with {@code insertMany} as soon as
+ * app.audit.writer.batch-size records are waiting or the oldest has waited flush-interval-ms.
+ *
+ * When an insert fails, the batch is appended to a local spill file ({@link AuditSpillFile}) and for
+ * retry-interval-ms further batches go straight there instead of waiting on MongoDB. The first
+ * successful flush after that replays the file. Ids are assigned on submit, so a batch written twice
+ * (a replay after a partial failure) only produces duplicate-key errors, which are ignored. A
+ * time-series collection has no unique {@code _id} index, so there replayed batches are first checked
+ * for records already stored ({@link AuditTimeSeriesService#withoutStored}). A full
+ * buffer spills the record on the caller's thread, or writes it there when spilling is off.
+ *
+ * Every stored batch is passed to the listener (the analytics, see {@link StatusAuditService}).
+ * Metrics: repairo.audit.writer.buffer (records waiting), .flush (insert latency), .batch (records
+ * per flush), .records by outcome and .spill.pending.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.audit.writer", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+    private static final int DUPLICATE_KEY = 11000;
+    private static final long SHUTDOWN_GRACE_MS = 5000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AuditWriterProperties properties;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired(required = false)
+    private AuditTimeSeriesService timeSeries;
+
+    private BlockingQueue<RepairStatusChange> buffer;
+    private AuditSpillFile spill; // null when spilling is disabled
+    private volatile Consumer<List<RepairStatusChange>> listener = changes -> {};
+    private volatile long mongoRetryAt = System.nanoTime(); // until then batches are spilled without trying MongoDB
+    private volatile boolean running;
+    private Thread flusher;
+
+    private Timer flushTimer;
+    private DistributionSummary batchSizes;
+    private Counter written;
+    private Counter spilled;
+    private Counter replayed;
+    private Counter dropped;
+
+    @PostConstruct
+    void start() {
+        buffer = new ArrayBlockingQueue<>(Math.max(1, properties.getBufferCapacity()));
+        spill = properties.isSpillEnabled() ? new AuditSpillFile(Path.of(properties.getSpillFile())) : null;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("repairo.audit.writer.buffer", buffer, Collection::size)
+            .description("Audit records waiting for a flush (capacity app.audit.writer.buffer-capacity)")
+            .register(registry);
+        Gauge.builder("repairo.audit.writer.spill.pending", this, writer -> writer.spill != null ? writer.spill.pending() : 0)
+            .description("Audit records in the spill file waiting for replay")
+            .register(registry);
+        flushTimer = Timer.builder("repairo.audit.writer.flush")
+            .description("Time to insert one batch of audit records")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+        batchSizes = DistributionSummary.builder("repairo.audit.writer.batch")
+            .description("Audit records per flush")
+            .register(registry);
+        written = recordCounter(registry, "written");
+        spilled = recordCounter(registry, "spilled");
+        replayed = recordCounter(registry, "replayed");
+        dropped = recordCounter(registry, "dropped");
+
+        running = true;
+        flusher = new Thread(this::run, "audit-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private static Counter recordCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("repairo.audit.writer.records")
+            .tag("outcome", outcome)
+            .description("Audit records handled by the writer")
+            .register(registry);
+    }
+
+    /** Receives every batch once it is stored (live or replayed), on the writer's thread. */
+    public void onWritten(Consumer<List<RepairStatusChange>> listener) {
+        this.listener = listener;
+    }
+
+    public void submit(RepairStatusChange change) {
+        if (change.getId() == null) {
+            change.setId(new ObjectId().toHexString()); // fixed up front, so a second insert is a duplicate
+        }
+        if (!buffer.offer(change)) {
+            logger.warn("Audit buffer full ({} records), {} on the request thread", properties.getBufferCapacity(),
+                spill != null ? "spilling" : "writing");
+            if (spill != null) {
+                spill(List.of(change));
+            } else {
+                flush(List.of(change));
+            }
+        }
+    }
+
+    public void submitAll(List<RepairStatusChange> changes) {
+        changes.forEach(this::submit);
+    }
+
+    private void run() {
+        List<RepairStatusChange> batch = new ArrayList<>();
+        while (running) {
+            try {
+                RepairStatusChange first = buffer.poll(properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replayIfDue();
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+                while (batch.size() < properties.getBatchSize()) {
+                    buffer.drainTo(batch, properties.getBatchSize() - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getBatchSize() || wait <= 0) {
+                        break;
+                    }
+                    RepairStatusChange next = buffer.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                replayIfDue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Audit writer loop failed: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<RepairStatusChange> batch) {
+        if (spill != null && System.nanoTime() - mongoRetryAt < 0) {
+            spill(batch); // MongoDB failed moments ago; don't make every batch wait for it
+            return;
+        }
+        List<RepairStatusChange> inserted;
+        long start = System.nanoTime();
+        try {
+            inserted = insert(batch.stream().map(this::toDocument).toList(), batch);
+        } catch (Exception e) {
+            mongoRetryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getRetryIntervalMs());
+            logger.warn("Failed to write {} audit records: {}", batch.size(), e.getMessage());
+            spill(batch);
+            return;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        batchSizes.record(batch.size());
+        written.increment(inserted.size());
+        notifyListener(inserted);
+    }
+
+    private void spill(List<RepairStatusChange> batch) {
+        if (spill == null) {
+            dropped.increment(batch.size());
+            logger.error("Dropped {} audit records: MongoDB unavailable and app.audit.writer.spill-enabled is false", batch.size());
+            return;
+        }
+        try {
+            spill.append(batch.stream().map(this::toDocument).toList());
+            spilled.increment(batch.size());
+        } catch (Exception e) {
+            dropped.increment(batch.size());
+            logger.error("Dropped {} audit records: could not append to {}: {}", batch.size(), properties.getSpillFile(), e.getMessage());
+        }
+    }
+
+    private void replayIfDue() {
+        if (spill == null || System.nanoTime() - mongoRetryAt < 0 || !spill.hasPending()) {
+            return;
+        }
+        try {
+            long count = spill.replay(properties.getBatchSize(), batch -> {
+                List<Document> documents = timeSeries != null && timeSeries.isTimeSeries()
+                    ? timeSeries.withoutStored(batch) : batch;
+                if (documents.isEmpty()) {
+                    return;
+                }
+                List<RepairStatusChange> changes = documents.stream()
+                    .map(document -> mongoTemplate.getConverter().read(RepairStatusChange.class, document))
+                    .toList();
+                List<RepairStatusChange> inserted = insert(documents, changes);
+                replayed.increment(inserted.size());
+                notifyListener(inserted);
+            });
+            logger.info("Replayed {} spilled audit records", count);
+        } catch (Exception e) {
+            mongoRetryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getRetryIntervalMs());
+            logger.warn("Replay of spilled audit records failed, retrying later: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One unordered insertMany. Returns the records actually inserted: duplicate-key errors mean the
+     * record was stored by an earlier attempt, any other error fails the batch.
+     */
+    private List<RepairStatusChange> insert(List<Document> documents, List<RepairStatusChange> changes) {
+        try {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(RepairStatusChange.class))
+                .insertMany(documents, new InsertManyOptions().ordered(false));
+            return changes;
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null
+                    || e.getWriteErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+            Set<Integer> duplicates = e.getWriteErrors().stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+            return IntStream.range(0, changes.size())
+                .filter(i -> !duplicates.contains(i))
+                .mapToObj(changes::get)
+                .toList();
+        }
+    }
+
+    private Document toDocument(RepairStatusChange change) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(change, document);
+        return document;
+    }
+
+    private void notifyListener(List<RepairStatusChange> stored) {
+        if (stored.isEmpty()) {
+            return;
+        }
+        try {
+            listener.accept(stored);
+        } catch (Exception e) {
+            logger.warn("Audit listener failed for {} records: {}", stored.size(), e.getMessage());
+        }
+    }
+
+    /** Records waiting in the buffer. */
+    public int buffered() {
+        return buffer.size();
+    }
+
+    /** Records in the spill file waiting for replay (0 when spilling is off). */
+    public long spillPending() {
+        return spill != null ? spill.pending() : 0;
+    }
+
+    /**
+     * Stops the flusher and writes (or spills) whatever is still buffered, so a normal shutdown loses
+     * nothing.
+     */
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                flusher.join(properties.getFlushIntervalMs() + SHUTDOWN_GRACE_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<RepairStatusChange> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += properties.getBatchSize()) {
+            flush(rest.subList(from, Math.min(rest.size(), from + properties.getBatchSize())));
+        }
+        if (!rest.isEmpty()) {
+            logger.info("Flushed {} buffered audit records on shutdown", rest.size());
+        }
+    }
+}
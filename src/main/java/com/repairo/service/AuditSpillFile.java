@@ -0,0 +1,125 @@
+package com.repairo.service;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Local append-only file of audit records that could not be written to MongoDB: one extended-JSON
+ * document per line, so dates, ids and longs read back exactly. Appends are synced to disk before
+ * they return.
+ *
+ * {@link #replay} first moves the file aside, so records spilled meanwhile start a new file, and
+ * deletes the moved file only after every line was written. A failed replay leaves it for the next
+ * attempt, which writes its first batches again; the writer has to ignore records it already has.
+ */
+class AuditSpillFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSpillFile.class);
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    @FunctionalInterface
+    interface BatchWriter {
+        void write(List<Document> batch) throws Exception;
+    }
+
+    private final Path file;
+    private final Path replaying;
+    private final AtomicLong pending = new AtomicLong();
+
+    AuditSpillFile(Path file) {
+        this.file = file;
+        this.replaying = file.resolveSibling(file.getFileName() + ".replaying");
+        pending.set(countLines(file) + countLines(replaying)); // left over from before a restart
+    }
+
+    synchronized void append(List<Document> records) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        StringBuilder lines = new StringBuilder();
+        records.forEach(record -> lines.append(record.toJson(JSON)).append('\n'));
+        Files.writeString(file, lines, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+        pending.addAndGet(records.size());
+    }
+
+    /** Records spilled and not yet replayed. */
+    long pending() {
+        return pending.get();
+    }
+
+    boolean hasPending() {
+        return Files.exists(replaying) || Files.exists(file);
+    }
+
+    /** Feeds the spilled records to {@code writer} in batches and returns how many were replayed. */
+    long replay(int batchSize, BatchWriter writer) throws Exception {
+        synchronized (this) {
+            if (!Files.exists(replaying)) {
+                if (!Files.exists(file)) {
+                    return 0;
+                }
+                Files.move(file, replaying, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        long lines = 0;
+        long replayed = 0;
+        List<Document> batch = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                lines++;
+                try {
+                    batch.add(Document.parse(line));
+                } catch (Exception e) {
+                    // e.g. a line torn by a crash during the append
+                    logger.warn("Skipping unreadable spilled audit record: {}", e.getMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    writer.write(batch);
+                    replayed += batch.size();
+                    batch = new ArrayList<>();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writer.write(batch);
+            replayed += batch.size();
+        }
+        Files.delete(replaying);
+        pending.addAndGet(-lines);
+        return replayed;
+    }
+
+    private static long countLines(Path path) {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.isBlank()).count();
+        } catch (IOException e) {
+            logger.warn("Could not read audit spill file {}: {}", path, e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.repairo.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import com.repairo.config.AuditTimeSeriesProperties;
+import com.repairo.model.RepairStatusChange;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps {@code repair_status_changes} as a MongoDB time-series collection when
+ * app.audit.time-series.enabled is set: timeField {@code changedAt}, metaField {@code changedBy}, and
+ * automatic expiry after retention-days. Records are grouped into compressed buckets per user and time
+ * span, and range scans only open the buckets that overlap the range. The metaField is the user and
+ * not the customer: a customer has a handful of changes, so per-customer buckets would stay nearly
+ * empty. Customer lookups use the secondary index instead.
+ *
+ * {@link #migrate} converts an existing regular collection. It renames it to
+ * {@code repair_status_changes_legacy}, creates the time-series collection under the original name
+ * (new records go there from then on) and copies the legacy records in {@code _id} order. Progress is
+ * checkpointed in {@code migrations}, so an interrupted copy resumes where it stopped. The same document
+ * carries a lease (owner and expiry, renewed with every batch), so only one node migrates at a time
+ * and a node that lost its lease stops before writing another batch. Time-series
+ * collections have no unique {@code _id} index, so the batch after the checkpoint is checked for
+ * records that were already copied.
+ */
+@Service
+public class AuditTimeSeriesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditTimeSeriesService.class);
+
+    static final String TIME_FIELD = "changedAt";
+    static final String META_FIELD = "changedBy";
+    static final String LEGACY_SUFFIX = "_legacy";
+    static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final int NAMESPACE_EXISTS = 48;
+    private static final int CREATE_ATTEMPTS = 3;
+    private static final Duration LEASE = Duration.ofMinutes(5); // renewed with every copied batch
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AuditTimeSeriesProperties properties;
+
+    @Autowired(required = false)
+    private IndexProvisioningService indexProvisioning;
+
+    private final AtomicBoolean migrating = new AtomicBoolean(false);
+    private final String leaseOwner = UUID.randomUUID().toString();
+    private volatile boolean timeSeries; // only a positive answer is cached, a migration elsewhere can flip it
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepare() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            String name = collectionName();
+            Document info = collectionInfo(name);
+            if (info == null) {
+                createTimeSeries(name);
+                logger.info("Created time-series collection {}", name);
+            } else if (isTimeSeries(info)) {
+                applyRetention(name, info);
+            }
+            boolean unfinished = (info != null && !isTimeSeries(info))
+                || (collectionInfo(name + LEGACY_SUFFIX) != null && !migrationFinished(name));
+            if (unfinished && properties.isMigrateOnStartup()) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        migrate();
+                    } catch (Exception e) {
+                        logger.warn("Audit time-series migration failed: {}", e.getMessage());
+                    }
+                }, "audit-timeseries-migration");
+                thread.setDaemon(true);
+                thread.start();
+            } else if (unfinished) {
+                logger.warn("{} is not fully migrated to a time-series collection; POST /admin/audit/storage/migrate converts it", name);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not prepare the audit time-series collection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the audit collection currently is a time-series collection. Once true the answer is
+     * cached; until then every call asks the server (one listCollections), so a collection migrated
+     * by another node is noticed on the next spill replay.
+     */
+    public boolean isTimeSeries() {
+        if (!timeSeries && isTimeSeries(collectionInfo(collectionName()))) {
+            timeSeries = true;
+        }
+        return timeSeries;
+    }
+
+    /**
+     * Converts the regular audit collection and copies its records, or resumes an interrupted copy.
+     * Throws IllegalStateException when time-series storage is off or a migration is already running.
+     */
+    public Map<String, Object> migrate() {
+        if (!properties.isEnabled()) {
+            throw new IllegalStateException("app.audit.time-series.enabled is false");
+        }
+        if (!migrating.compareAndSet(false, true)) {
+            throw new IllegalStateException("An audit migration is already running");
+        }
+        String name = collectionName();
+        MongoCollection<Document> migrations = mongoTemplate.getCollection(MIGRATIONS_COLLECTION);
+        try {
+            if (!acquireLease(migrations, migrationId(name))) {
+                throw new IllegalStateException("An audit migration is running on another node");
+            }
+            String legacy = name + LEGACY_SUFFIX;
+            Document info = collectionInfo(name);
+            if (info != null && !isTimeSeries(info)) {
+                if (collectionInfo(legacy) != null) {
+                    throw new IllegalStateException(legacy + " already exists; drop or rename it before migrating");
+                }
+                rename(name, legacy);
+                createTimeSeries(name);
+                logger.info("Renamed {} to {} and created it as a time-series collection", name, legacy);
+            } else if (info == null) {
+                createTimeSeries(name);
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("collection", name);
+            if (collectionInfo(legacy) == null) {
+                result.put("copied", 0L);
+                result.put("message", "Nothing to migrate");
+                return result;
+            }
+            long started = System.currentTimeMillis();
+            CopyResult copy = copy(legacy, name);
+            result.put("copied", copy.copied());
+            result.put("skippedWithoutChangedAt", copy.skipped());
+            result.put("legacyCollection", legacy);
+            result.put("durationMs", System.currentTimeMillis() - started);
+            if (properties.isDropLegacyAfterMigration() && copy.skipped() > 0) {
+                result.put("legacyDropped", false);
+                result.put("message", copy.skipped() + " legacy records have no changedAt date and were not copied; "
+                    + legacy + " is kept");
+                logger.warn("Not dropping {}: {} records without a changedAt date were not copied", legacy, copy.skipped());
+            } else if (properties.isDropLegacyAfterMigration()) {
+                mongoTemplate.getCollection(legacy).drop();
+                migrations.deleteOne(Filters.and(Filters.eq("_id", migrationId(name)), Filters.eq("owner", leaseOwner)));
+                result.put("legacyDropped", true);
+            }
+            logger.info("Copied {} audit records from {} to time-series {} ({} without changedAt skipped)",
+                copy.copied(), legacy, name, copy.skipped());
+            return result;
+        } finally {
+            releaseLease(migrations, migrationId(name));
+            migrating.set(false);
+        }
+    }
+
+    /**
+     * Takes the migration lease on the checkpoint document (findAndModify), unless another node holds
+     * an unexpired one.
+     */
+    private boolean acquireLease(MongoCollection<Document> migrations, String migrationId) {
+        Date now = new Date();
+        migrations.updateOne(Filters.eq("_id", migrationId), Updates.setOnInsert("createdAt", now), new UpdateOptions().upsert(true));
+        Document lease = migrations.findOneAndUpdate(
+            Filters.and(Filters.eq("_id", migrationId), Filters.or(
+                Filters.exists("leaseUntil", false), Filters.lt("leaseUntil", now), Filters.eq("owner", leaseOwner))),
+            Updates.combine(Updates.set("owner", leaseOwner), Updates.set("leaseUntil", leaseUntil())));
+        return lease != null;
+    }
+
+    private void releaseLease(MongoCollection<Document> migrations, String migrationId) {
+        try {
+            migrations.updateOne(Filters.and(Filters.eq("_id", migrationId), Filters.eq("owner", leaseOwner)),
+                Updates.combine(Updates.unset("owner"), Updates.unset("leaseUntil")));
+        } catch (Exception e) {
+            logger.warn("Could not release the audit migration lease, it expires by itself: {}", e.getMessage());
+        }
+    }
+
+    private boolean migrationFinished(String name) {
+        Document checkpoint = mongoTemplate.getCollection(MIGRATIONS_COLLECTION).find(Filters.eq("_id", migrationId(name))).first();
+        return checkpoint != null && checkpoint.get("finishedAt") != null;
+    }
+
+    private static Date leaseUntil() {
+        return new Date(System.currentTimeMillis() + LEASE.toMillis());
+    }
+
+    /** Collection type, retention, sizes of the live and legacy collections and the migration checkpoint. */
+    public Map<String, Object> status() {
+        String name = collectionName();
+        Document info = collectionInfo(name);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", properties.isEnabled());
+        status.put("collection", name);
+        status.put("timeSeries", isTimeSeries(info));
+        if (info != null) {
+            Document options = info.get("options", new Document());
+            status.put("timeseries", options.get("timeseries"));
+            status.put("expireAfterSeconds", options.get("expireAfterSeconds"));
+        }
+        status.put("stats", stats(name));
+        if (collectionInfo(name + LEGACY_SUFFIX) != null) {
+            status.put("legacyStats", stats(name + LEGACY_SUFFIX));
+        }
+        status.put("migration", mongoTemplate.getCollection(MIGRATIONS_COLLECTION).find(Filters.eq("_id", migrationId(name))).first());
+        status.put("migrating", migrating.get());
+        return status;
+    }
+
+    /**
+     * The records of {@code documents} not yet stored, for re-inserting into a time-series collection
+     * where a duplicate {@code _id} is not rejected. One query, bounded to the batch's time range so
+     * only the overlapping buckets are opened.
+     */
+    public List<Document> withoutStored(List<Document> documents) {
+        return withoutStored(mongoTemplate.getCollection(collectionName()), documents);
+    }
+
+    /** Records copied in total (across resumed runs) and legacy records left behind for lack of a changedAt date. */
+    record CopyResult(long copied, long skipped) {}
+
+    /**
+     * Copies the legacy records after the checkpoint in {@code _id} order. Records without a
+     * {@code changedAt} date cannot go into the time-series collection; they are counted, not copied.
+     */
+    CopyResult copy(String legacy, String name) {
+        MongoCollection<Document> source = mongoTemplate.getCollection(legacy);
+        MongoCollection<Document> target = mongoTemplate.getCollection(name);
+        MongoCollection<Document> migrations = mongoTemplate.getCollection(MIGRATIONS_COLLECTION);
+        String migrationId = migrationId(name);
+        Document checkpoint = migrations.find(Filters.eq("_id", migrationId)).first();
+        Object lastId = checkpoint != null ? checkpoint.get("lastId") : null;
+        long copied = checkpoint != null ? checkpoint.get("copied", Number.class).longValue() : 0L;
+
+        List<Bson> filters = new ArrayList<>();
+        filters.add(Filters.type(TIME_FIELD, "date")); // the timeField is required
+        if (lastId != null) {
+            filters.add(Filters.gt("_id", lastId));
+        }
+        if (properties.getRetentionDays() > 0) {
+            // Older records would expire right away
+            filters.add(Filters.gte(TIME_FIELD, new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(properties.getRetentionDays()))));
+        }
+        int batchSize = Math.max(1, properties.getMigrationBatchSize());
+        boolean resumed = lastId != null;
+        List<Document> batch = new ArrayList<>(batchSize);
+        try (MongoCursor<Document> cursor = source.find(Filters.and(filters)).sort(Sorts.ascending("_id")).batchSize(batchSize).iterator()) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize || !cursor.hasNext()) {
+                    Object batchLastId = batch.get(batch.size() - 1).get("_id");
+                    // The batch after a checkpoint may have been inserted just before an interruption
+                    List<Document> toInsert = resumed ? withoutStored(target, batch) : batch;
+                    resumed = false;
+                    if (!toInsert.isEmpty()) {
+                        target.insertMany(toInsert, new InsertManyOptions().ordered(false));
+                    }
+                    copied += toInsert.size();
+                    // Checkpoint and lease renewal in one write, only while we still own the lease
+                    UpdateResult renewed = migrations.updateOne(
+                        Filters.and(Filters.eq("_id", migrationId), Filters.eq("owner", leaseOwner)),
+                        Updates.combine(Updates.set("lastId", batchLastId), Updates.set("copied", copied),
+                            Updates.set("source", legacy), Updates.set("updatedAt", new Date()),
+                            Updates.set("leaseUntil", leaseUntil())));
+                    if (renewed.getMatchedCount() == 0) {
+                        throw new IllegalStateException("Lost the audit migration lease after " + copied + " records");
+                    }
+                    batch.clear();
+                }
+            }
+        }
+        long skipped = source.countDocuments(Filters.not(Filters.type(TIME_FIELD, "date")));
+        migrations.updateOne(Filters.and(Filters.eq("_id", migrationId), Filters.eq("owner", leaseOwner)),
+            Updates.combine(Updates.set("copied", copied), Updates.set("skippedWithoutChangedAt", skipped),
+                Updates.set("finishedAt", new Date())));
+        return new CopyResult(copied, skipped);
+    }
+
+    static List<Document> withoutStored(MongoCollection<Document> target, List<Document> documents) {
+        if (documents.isEmpty()) {
+            return documents;
+        }
+        List<Object> ids = new ArrayList<>();
+        Date from = null;
+        Date to = null;
+        for (Document document : documents) {
+            ids.add(document.get("_id"));
+            Date at = document.getDate(TIME_FIELD);
+            if (at != null) {
+                from = from == null || at.before(from) ? at : from;
+                to = to == null || at.after(to) ? at : to;
+            }
+        }
+        Bson filter = from != null
+            ? Filters.and(Filters.gte(TIME_FIELD, from), Filters.lte(TIME_FIELD, to), Filters.in("_id", ids))
+            : Filters.in("_id", ids);
+        Set<Object> stored = new HashSet<>();
+        for (Document document : target.find(filter).projection(Projections.include("_id")).into(new ArrayList<>())) {
+            stored.add(document.get("_id"));
+        }
+        if (stored.isEmpty()) {
+            return documents;
+        }
+        return documents.stream().filter(document -> !stored.contains(document.get("_id"))).toList();
+    }
+
+    /**
+     * Creates the time-series collection. An audit insert that arrives between a rename and this call
+     * implicitly creates a regular collection; its records are moved to the legacy collection and the
+     * creation retried.
+     */
+    void createTimeSeries(String name) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                mongoTemplate.getDb().createCollection(name, createOptions(properties));
+                timeSeries = true;
+                if (indexProvisioning != null) {
+                    indexProvisioning.provision(); // the secondary indexes stayed on the renamed collection
+                }
+                return;
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() != NAMESPACE_EXISTS || attempt >= CREATE_ATTEMPTS) {
+                    throw e;
+                }
+                if (isTimeSeries(collectionInfo(name))) {
+                    timeSeries = true;
+                    return; // created concurrently, e.g. by another node
+                }
+                MongoCollection<Document> stray = mongoTemplate.getCollection(name);
+                List<Document> records = stray.find().into(new ArrayList<>());
+                if (!records.isEmpty()) {
+                    mongoTemplate.getCollection(name + LEGACY_SUFFIX).insertMany(records, new InsertManyOptions().ordered(false));
+                }
+                stray.drop();
+                logger.info("Moved {} audit records written during the rename to {}{}", records.size(), name, LEGACY_SUFFIX);
+            }
+        }
+    }
+
+    static CreateCollectionOptions createOptions(AuditTimeSeriesProperties properties) {
+        CreateCollectionOptions options = new CreateCollectionOptions().timeSeriesOptions(
+            new TimeSeriesOptions(TIME_FIELD).metaField(META_FIELD).granularity(granularity(properties.getGranularity())));
+        if (properties.getRetentionDays() > 0) {
+            options.expireAfter(properties.getRetentionDays(), TimeUnit.DAYS);
+        }
+        return options;
+    }
+
+    static TimeSeriesGranularity granularity(String value) {
+        try {
+            return TimeSeriesGranularity.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("app.audit.time-series.granularity must be seconds, minutes or hours, not '" + value + "'");
+        }
+    }
+
+    /** Brings the collection's expiry in line with retention-days (collMod), e.g. after a config change. */
+    private void applyRetention(String name, Document info) {
+        Object current = info.get("options", new Document()).get("expireAfterSeconds");
+        long wanted = TimeUnit.DAYS.toSeconds(properties.getRetentionDays());
+        long existing = current instanceof Number number ? number.longValue() : 0L;
+        if (existing == wanted) {
+            return;
+        }
+        mongoTemplate.getDb().runCommand(new Document("collMod", name)
+            .append("expireAfterSeconds", wanted > 0 ? (Object) wanted : "off"));
+        logger.info("Audit retention on {} changed from {}s to {}", name, existing, wanted > 0 ? wanted + "s" : "off");
+    }
+
+    private void rename(String from, String to) {
+        mongoTemplate.getCollection(from).renameCollection(new MongoNamespace(mongoTemplate.getDb().getName(), to));
+    }
+
+    private Map<String, Object> stats(String name) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        try {
+            Document result = mongoTemplate.getDb().runCommand(new Document("collStats", name));
+            for (String key : List.of("count", "size", "storageSize", "totalIndexSize")) {
+                stats.put(key, result.get(key));
+            }
+        } catch (Exception e) {
+            stats.put("error", e.getMessage());
+        }
+        return stats;
+    }
+
+    private Document collectionInfo(String name) {
+        return mongoTemplate.getDb().listCollections().filter(new Document("name", name)).first();
+    }
+
+    static boolean isTimeSeries(Document info) {
+        return info != null && "timeseries".equals(info.getString("type"));
+    }
+
+    /** Whether the audit collection is a time-series collection, for callers without this service. */
+    static boolean isTimeSeries(MongoTemplate mongoTemplate) {
+        String name = mongoTemplate.getCollectionName(RepairStatusChange.class);
+        return isTimeSeries(mongoTemplate.getDb().listCollections().filter(new Document("name", name)).first());
+    }
+
+    private String collectionName() {
+        return mongoTemplate.getCollectionName(RepairStatusChange.class);
+    }
+
+    private static String migrationId(String name) {
+        return name + ".timeseries";
+    }
+}
@@ -0,0 +1,255 @@
+package com.repairo.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.repairo.config.FeatureProperties;
+import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.dto.BulkNotificationRequest;
+import com.repairo.dto.ConversationMessage;
+import com.repairo.model.Customer;
+import com.repairo.model.Message;
+import com.repairo.model.NotificationJob;
+import com.repairo.model.OutboundMessage;
+import com.repairo.model.OutboundStatus;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sends one templated WhatsApp message to many customers. Recipients are read with a single projected
+ * aggregation, their conversations updated with one unordered bulk write and the deliveries queued with
+ * one insertMany into the outbox; the outbox workers and the outbound throttle bound how fast they go
+ * out. Progress of a job is read back from the outbox entries tagged with its id.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BulkNotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkNotificationService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private MongoEncryptionConfig encryptionConfig;
+
+    @Autowired(required = false)
+    private WebSocketEventPublisher webSocketEventPublisher;
+
+    @Autowired(required = false)
+    private FeatureProperties featureProperties;
+
+    @Autowired(required = false)
+    private StatusCounterService statusCounters;
+
+    @Value("${app.notifications.max-recipients:1000}")
+    private int maxRecipients = 1000;
+
+    /**
+     * Queues the notification for every selected customer and returns the created job. Throws
+     * IllegalArgumentException for an invalid selection or one larger than app.notifications.max-recipients.
+     */
+    public NotificationJob createJob(BulkNotificationRequest request, String createdBy) {
+        List<String> ids = distinctIds(request.getCustomerIds());
+        if (ids.isEmpty() == (request.getStatus() == null)) {
+            throw new IllegalArgumentException("Specify either customerIds or status");
+        }
+        if (ids.size() > maxRecipients) {
+            throw new IllegalArgumentException("Too many recipients (max " + maxRecipients + ")");
+        }
+
+        List<Recipient> recipients = findRecipients(ids, request);
+        if (recipients.size() > maxRecipients) {
+            throw new IllegalArgumentException("Status " + request.getStatus() + " matches more than "
+                + maxRecipients + " customers");
+        }
+
+        NotificationJob job = new NotificationJob();
+        job.setId(new ObjectId().toHexString()); // known up front so the outbox entries can reference it
+        job.setTemplate(request.getTemplate());
+        job.setFilter(!ids.isEmpty() ? ids.size() + " customer id(s)" : "status=" + request.getStatus());
+        job.setCreatedBy(createdBy);
+        job.setQueued(recipients.size());
+        Set<String> found = new LinkedHashSet<>();
+        recipients.forEach(r -> found.add(r.customerId));
+        for (String id : ids) {
+            if (!found.contains(id)) {
+                job.getMissingCustomerIds().add(id);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboundMessage> outbound = new ArrayList<>(recipients.size());
+        for (Recipient recipient : recipients) {
+            recipient.text = render(request.getTemplate(), recipient);
+            recipient.message = new Message(encryptionConfig.encryptSensitiveField(recipient.text, "message"), "admin");
+            recipient.message.setMessageId(UUID.randomUUID().toString());
+            recipient.message.setTimestamp(now);
+            OutboundMessage entry = outboxService.prepare(recipient.customerId, recipient.phone, recipient.message,
+                recipient.text, OutboxService.SOURCE_BULK);
+            entry.setJobId(job.getId());
+            outbound.add(entry);
+        }
+
+        outboxService.writeWithOutbox(() -> {
+            appendMessages(recipients, now);
+            mongoTemplate.insert(job);
+            return null;
+        }, outbound);
+        if (statusCounters != null) {
+            statusCounters.recordAnswered((int) recipients.stream().filter(r -> r.awaitingReply).count());
+        }
+        logger.info("Bulk notification job {} by {} queued {} message(s), {} customer id(s) not found",
+            job.getId(), createdBy, recipients.size(), job.getMissingCustomerIds().size());
+
+        publish(recipients);
+        return job;
+    }
+
+    public Optional<NotificationJob> findJob(String jobId) {
+        return Optional.ofNullable(mongoTemplate.findById(jobId, NotificationJob.class));
+    }
+
+    /**
+     * Delivery state of a job's messages, counted by the database rather than loaded.
+     */
+    public Map<OutboundStatus, Long> deliveryCounts(String jobId) {
+        Map<OutboundStatus, Long> counts = new EnumMap<>(OutboundStatus.class);
+        for (OutboundStatus status : OutboundStatus.values()) {
+            counts.put(status, 0L);
+        }
+        TypedAggregation<OutboundMessage> aggregation = Aggregation.newAggregation(OutboundMessage.class,
+            Aggregation.match(Criteria.where("jobId").is(jobId)),
+            Aggregation.group("status").count().as("count"));
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            Object status = row.get("_id");
+            if (status != null) {
+                counts.put(OutboundStatus.valueOf(status.toString()), ((Number) row.get("count")).longValue());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Only the fields the template and the outbox need, plus the conversation length for the
+     * realtime sequence number; message histories are never loaded.
+     */
+    private List<Recipient> findRecipients(List<String> ids, BulkNotificationRequest request) {
+        Criteria criteria = !ids.isEmpty()
+            ? Criteria.where("customerId").in(ids)
+            : Criteria.where("repairStatus").is(request.getStatus());
+        TypedAggregation<Customer> aggregation = Aggregation.newAggregation(Customer.class,
+            Aggregation.match(criteria),
+            Aggregation.limit(maxRecipients + 1L),
+            Aggregation.project("name", "phone", "phoneModel", "repairStatus")
+                .and(ArrayOperators.Size.lengthOfArray(
+                    ConditionalOperators.ifNull("messages").then(Collections.emptyList()))).as("messageCount")
+                .and(ArrayOperators.ArrayElemAt.arrayOf("messages.from").elementAt(-1)).as("lastFrom"));
+        List<Recipient> recipients = new ArrayList<>();
+        for (Document doc : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            Recipient recipient = new Recipient();
+            recipient.customerId = doc.get("_id").toString();
+            recipient.name = doc.getString("name");
+            recipient.phone = doc.getString("phone");
+            recipient.phoneModel = doc.getString("phoneModel");
+            recipient.repairStatus = doc.getString("repairStatus");
+            recipient.messageCount = doc.get("messageCount") instanceof Number n ? n.intValue() : 0;
+            recipient.awaitingReply = "customer".equals(doc.getString("lastFrom"));
+            recipients.add(recipient);
+        }
+        return recipients;
+    }
+
+    /**
+     * Appends each message with one unordered bulk write. The version is bumped like a whole-document
+     * save would, so an admin editing a stale copy gets the usual optimistic-lock conflict instead of
+     * silently dropping the message.
+     */
+    private void appendMessages(List<Recipient> recipients, LocalDateTime now) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class);
+        for (Recipient recipient : recipients) {
+            ops.updateOne(Query.query(Criteria.where("customerId").is(recipient.customerId)),
+                new Update().push("messages", recipient.message).set("lastInteraction", now).inc("version", 1));
+        }
+        BulkWriteResult result = ops.execute();
+        if (result.getMatchedCount() < recipients.size()) {
+            logger.warn("{} of {} bulk notification recipients were deleted before the write",
+                recipients.size() - result.getMatchedCount(), recipients.size());
+        }
+    }
+
+    private void publish(List<Recipient> recipients) {
+        if (webSocketEventPublisher == null || (featureProperties != null && !featureProperties.isWebsockets())) {
+            return;
+        }
+        for (Recipient recipient : recipients) {
+            try {
+                webSocketEventPublisher.publishConversationMessage(recipient.customerId,
+                    ConversationMessage.of(recipient.message, recipient.text, recipient.messageCount + 1));
+            } catch (Exception e) {
+                logger.warn("Failed to publish bulk notification for customer {}: {}", recipient.customerId, e.getMessage());
+            }
+        }
+    }
+
+    static String render(String template, Recipient recipient) {
+        return template
+            .replace("{name}", recipient.name != null ? recipient.name : "")
+            .replace("{phoneModel}", recipient.phoneModel != null ? recipient.phoneModel : "")
+            .replace("{status}", recipient.repairStatus != null ? recipient.repairStatus.replace('_', ' ').toLowerCase() : "");
+    }
+
+    private static List<String> distinctIds(List<String> ids) {
+        Set<String> result = new LinkedHashSet<>();
+        if (ids != null) {
+            for (String id : ids) {
+                if (id != null && !id.isBlank()) {
+                    result.add(id.trim());
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    static class Recipient {
+        String customerId;
+        String name;
+        String phone; // Encrypted
+        String phoneModel;
+        String repairStatus;
+        int messageCount;
+        boolean awaitingReply; // last message was the customer's, this notification answers it
+        String text;
+        Message message;
+    }
+}
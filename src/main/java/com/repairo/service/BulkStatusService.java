@@ -0,0 +1,181 @@
+package com.repairo.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.repairo.config.FeatureProperties;
+import com.repairo.dto.BulkStatusResult;
+import com.repairo.dto.BulkStatusResult.Outcome;
+import com.repairo.dto.BulkStatusUpdateRequest;
+import com.repairo.model.Customer;
+import com.repairo.model.RepairStatus;
+import com.repairo.model.RepairStatusChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves many customers to one repair status in a fixed number of round trips: one projected read, at
+ * most one audit log aggregation (for customers written before {@code statusChangedAt} existed), one
+ * unordered bulk write of version-checked conditional updates, one insertMany of audit records, one
+ * counter update and one aggregated {@code BULK_STATUS_CHANGE} event. Customers changed by someone else
+ * in the meantime are reported as conflicts and left alone.
+ */
+@Service
+public class BulkStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkStatusService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private StatusAuditService statusAuditService;
+
+    @Autowired(required = false)
+    private StatusCounterService statusCounters;
+
+    @Autowired(required = false)
+    private WebSocketEventPublisher webSocketEventPublisher;
+
+    @Autowired(required = false)
+    private FeatureProperties featureProperties;
+
+    /** A customer that passed the checks and is part of the bulk write. */
+    private record Candidate(Customer customer, RepairStatus oldStatus, Long oldVersion, LocalDateTime statusSince) {
+        Long newVersion() { return oldVersion != null ? oldVersion + 1 : 1L; }
+    }
+
+    public BulkStatusResult apply(RepairStatus status, List<BulkStatusUpdateRequest.Item> items, String changedBy) {
+        // Stored dates have millisecond precision; the re-read below compares statusChangedAt with it
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Map<String, Long> requested = new LinkedHashMap<>();
+        items.forEach(item -> requested.putIfAbsent(item.getCustomerId(), item.getVersion()));
+        Map<String, Customer> customers = load(requested.keySet());
+
+        Map<String, BulkStatusResult.Item> outcomes = new LinkedHashMap<>();
+        List<Customer> eligible = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : requested.entrySet()) {
+            String customerId = entry.getKey();
+            Customer customer = customers.get(customerId);
+            if (customer == null) {
+                outcomes.put(customerId, new BulkStatusResult.Item(customerId, Outcome.NOT_FOUND, null, null));
+                continue;
+            }
+            Long version = customer.getVersion();
+            if (entry.getValue() != null && version != null && !version.equals(entry.getValue())) {
+                outcomes.put(customerId, new BulkStatusResult.Item(customerId, Outcome.CONFLICT, customer.getRepairStatus(), version));
+                continue;
+            }
+            if (customer.getRepairStatus() == status) {
+                outcomes.put(customerId, new BulkStatusResult.Item(customerId, Outcome.UNCHANGED, status, version));
+                continue;
+            }
+            eligible.add(customer);
+        }
+
+        // Customers without statusChangedAt are resolved from the audit log in one aggregation
+        Map<String, LocalDateTime> statusSince = eligible.isEmpty() ? Map.of() : statusAuditService.statusSince(eligible);
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        BulkOperations ops = null;
+        for (Customer customer : eligible) {
+            String customerId = customer.getCustomerId();
+            Long version = customer.getVersion();
+            Candidate candidate = new Candidate(customer, customer.getRepairStatus(), version, statusSince.get(customerId));
+            if (ops == null) {
+                ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class);
+            }
+            ops.updateOne(Query.query(Criteria.where("_id").is(customerId).and("version").is(version)),
+                new Update()
+                    .set("repairStatus", status)
+                    .set("lastInteraction", now)
+                    .set("statusChangedAt", now)
+                    .inc("version", 1));
+            candidates.put(customerId, candidate);
+        }
+
+        if (ops != null) {
+            BulkWriteResult written = ops.execute();
+            if (written.getModifiedCount() < candidates.size()) {
+                resolveConflicts(candidates, outcomes, now);
+            }
+        }
+
+        List<RepairStatusChange> changes = new ArrayList<>();
+        Map<RepairStatus, Integer> moved = new HashMap<>();
+        List<Map<String, String>> events = new ArrayList<>();
+        for (Candidate candidate : candidates.values()) {
+            String customerId = candidate.customer().getCustomerId();
+            if (outcomes.containsKey(customerId)) {
+                continue; // lost a race with another writer
+            }
+            outcomes.put(customerId, new BulkStatusResult.Item(customerId, Outcome.UPDATED, candidate.oldStatus(), candidate.newVersion()));
+            Customer customer = candidate.customer();
+            customer.setRepairStatus(status);
+            changes.add(StatusAuditService.newChange(customer, candidate.oldStatus(), changedBy, candidate.statusSince(), now));
+            moved.merge(candidate.oldStatus(), 1, Integer::sum);
+            Map<String, String> event = new HashMap<>();
+            event.put("customerId", customerId);
+            event.put("oldStatus", candidate.oldStatus() != null ? candidate.oldStatus().name() : null);
+            events.add(event);
+        }
+
+        if (!changes.isEmpty()) {
+            statusAuditService.recordAll(changes);
+            if (statusCounters != null) {
+                statusCounters.recordStatusMoves(moved, status);
+            }
+            if ((featureProperties == null || featureProperties.isWebsockets()) && webSocketEventPublisher != null) {
+                webSocketEventPublisher.publishBulkStatusChange(status.name(), events);
+            }
+        }
+
+        BulkStatusResult result = new BulkStatusResult(status);
+        requested.keySet().forEach(customerId -> result.add(outcomes.get(customerId)));
+        logger.info("Bulk status update to {} by {}: {} updated, {} unchanged, {} conflicts, {} not found",
+            status, changedBy, result.getUpdated(), result.getUnchanged(), result.getConflicts(), result.getNotFound());
+        return result;
+    }
+
+    private Map<String, Customer> load(Set<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("repairStatus", "version", "statusChangedAt", "phoneModel");
+        return mongoTemplate.find(query, Customer.class).stream()
+            .collect(Collectors.toMap(Customer::getCustomerId, Function.identity()));
+    }
+
+    /**
+     * Some conditional updates matched nothing because the customer changed between the read and the
+     * write. Re-reads the candidates: ours are the ones now carrying our version and timestamp, the rest
+     * are reported as conflicts with their current state.
+     */
+    private void resolveConflicts(Map<String, Candidate> candidates, Map<String, BulkStatusResult.Item> outcomes,
+                                  LocalDateTime now) {
+        Map<String, Customer> current = load(new LinkedHashSet<>(candidates.keySet()));
+        candidates.forEach((customerId, candidate) -> {
+            Customer customer = current.get(customerId);
+            if (customer == null) {
+                outcomes.put(customerId, new BulkStatusResult.Item(customerId, Outcome.NOT_FOUND, null, null));
+            } else if (!Objects.equals(customer.getVersion(), candidate.newVersion()) || !now.equals(customer.getStatusChangedAt())) {
+                outcomes.put(customerId, new BulkStatusResult.Item(customerId, Outcome.CONFLICT, customer.getRepairStatus(), customer.getVersion()));
+            }
+        });
+    }
+}
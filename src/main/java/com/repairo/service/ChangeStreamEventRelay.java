@@ -0,0 +1,415 @@
+package com.repairo.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.repairo.config.AuditTimeSeriesProperties;
+import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.dto.ConversationMessage;
+import com.repairo.model.Customer;
+import com.repairo.model.Message;
+import com.repairo.model.OutboundMessage;
+import com.repairo.model.RepairStatusChange;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Cluster-wide fan-out without a message broker: every node tails MongoDB change streams on
+ * {@code customers} and {@code repair_status_changes} (and {@code outbound_messages} for delivery
+ * progress) and re-emits what it sees to its own STOMP clients through {@link WebSocketEventPublisher}.
+ * Resume tokens are checkpointed per node in {@code change_stream_offsets} every
+ * {@value #CHECKPOINT_EVERY} events or {@value #CHECKPOINT_INTERVAL_MS} ms, so a restarted node
+ * continues where it stopped. Delivery is at least once: events after the last checkpoint are relayed
+ * again, and clients drop messages they already have by id.
+ *
+ * Requires a replica set (a single-node one is enough locally). Status changes are taken from the
+ * audit collection, so app.features.audit-status must stay on in cluster mode. MongoDB cannot watch a
+ * time-series collection, so with app.audit.time-series.enabled the audit log is not tailed at all and
+ * status changes are taken from {@code repairStatus} updates on {@code customers} instead, without the
+ * previous status; cycle times are then fed on the writing node only.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cluster.change-streams", name = "enabled", havingValue = "true")
+public class ChangeStreamEventRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamEventRelay.class);
+
+    static final String OFFSETS_COLLECTION = "change_stream_offsets";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int INVALID_RESUME_TOKEN = 260;
+    // Tolerated clock difference between the writing node and the database when classifying messages
+    private static final long CLOCK_SKEW_MS = 5_000;
+    private static final int TRACKED_CUSTOMERS = 10_000;
+    static final int CHECKPOINT_EVERY = 100;
+    static final long CHECKPOINT_INTERVAL_MS = 1_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final WebSocketEventPublisher publisher;
+    private final MongoEncryptionConfig encryptionConfig;
+    private final String nodeId;
+    private final CycleTimeService cycleTimes; // null when cycle-time analytics are off
+
+    private final List<Tailer> tailers = new ArrayList<>();
+    private volatile boolean running = false;
+    private final boolean auditLogWatchable; // false when the audit log is kept as a time-series collection
+    private volatile boolean statusFromAuditLog;
+    // Time of the last checkpointed customers change, or when the stream started from now: messages
+    // of customers not tracked in lastMessageIds written after it have not been relayed yet
+    private volatile Instant unseenCustomersSince = Instant.now();
+
+    // Last message id relayed per customer; only touched by the customers tailer thread
+    private final Map<String, String> lastMessageIds = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > TRACKED_CUSTOMERS;
+        }
+    };
+
+    public ChangeStreamEventRelay(MongoTemplate mongoTemplate,
+                                  WebSocketEventPublisher publisher,
+                                  MongoEncryptionConfig encryptionConfig,
+                                  @Value("${app.cluster.node-id:}") String nodeId,
+                                  ObjectProvider<CycleTimeService> cycleTimes,
+                                  AuditTimeSeriesProperties timeSeriesProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.auditLogWatchable = !timeSeriesProperties.isEnabled();
+        this.statusFromAuditLog = auditLogWatchable;
+        this.publisher = publisher;
+        this.encryptionConfig = encryptionConfig;
+        this.cycleTimes = cycleTimes.getIfAvailable();
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId;
+    }
+
+    @Override
+    public void start() {
+        if (running) return;
+        running = true;
+        // Decided before any tailer runs: the time-series collection may not exist yet at this point
+        statusFromAuditLog = auditLogWatchable;
+        tailers.add(new Tailer("customers", this::onCustomerChange, since -> unseenCustomersSince = since));
+        if (auditLogWatchable) {
+            tailers.add(new Tailer("repair_status_changes", this::onStatusChange, null));
+        }
+        tailers.add(new Tailer("outbound_messages", this::onOutboundChange, null));
+        tailers.forEach(Tailer::start);
+        log.info("Change stream relay started on node {} ({})", nodeId,
+            tailers.stream().map(tailer -> tailer.collection).collect(Collectors.joining(", ")));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        tailers.forEach(Tailer::close);
+        tailers.clear();
+        log.info("Change stream relay stopped on node {}", nodeId);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Whether status changes (and cycle-time samples) reach every node through the audit collection. */
+    public boolean tailsAuditLog() {
+        return running && statusFromAuditLog;
+    }
+
+    private void onCustomerChange(ChangeStreamDocument<Document> change) {
+        Document doc = change.getFullDocument();
+        if (doc == null) {
+            return; // deleted before the lookup ran
+        }
+        Customer customer = mongoTemplate.getConverter().read(Customer.class, doc);
+        if (!statusFromAuditLog && change.getUpdateDescription() != null
+                && change.getUpdateDescription().getUpdatedFields() != null
+                && change.getUpdateDescription().getUpdatedFields().containsKey("repairStatus")) {
+            publisher.emitStatusChange(customer.getCustomerId(), null,
+                customer.getRepairStatus() != null ? customer.getRepairStatus().name() : null);
+        }
+        List<Message> messages = customer.getMessages();
+        for (int i : newMessageIndexes(customer, unseenCustomersSince)) {
+            Message message = messages.get(i);
+            String text = encryptionConfig.decryptSensitiveField(message.getText(), "message");
+            publisher.emitConversationMessage(customer.getCustomerId(), ConversationMessage.of(message, text, i + 1));
+        }
+    }
+
+    private void onStatusChange(ChangeStreamDocument<Document> change) {
+        Document doc = change.getFullDocument();
+        if (doc == null) return;
+        RepairStatusChange statusChange = mongoTemplate.getConverter().read(RepairStatusChange.class, doc);
+        if (cycleTimes != null) {
+            cycleTimes.accept(statusChange);
+        }
+        publisher.emitStatusChange(statusChange.getCustomerId(),
+            statusChange.getFromStatus() != null ? statusChange.getFromStatus().name() : null,
+            statusChange.getToStatus() != null ? statusChange.getToStatus().name() : null);
+    }
+
+    private void onOutboundChange(ChangeStreamDocument<Document> change) {
+        Document doc = change.getFullDocument();
+        if (doc == null) return;
+        OutboundMessage outbound = mongoTemplate.getConverter().read(OutboundMessage.class, doc);
+        if (outbound.getMessageId() == null || outbound.getStatus() == null) return;
+        publisher.emitDeliveryStatus(outbound.getCustomerId(), outbound.getMessageId(),
+            OutboxService.deliveryStatus(outbound.getStatus()));
+    }
+
+    /**
+     * Positions of the messages added by this change. Customers are saved as whole documents, so
+     * new messages are found by remembering the last relayed message id. For a customer this node has
+     * not tracked yet (first change after a restart or resume) every message written after
+     * {@code unseenSince} (the last checkpointed change, less the tolerated clock skew) counts as new, so
+     * messages that arrived during downtime are relayed too. Legacy messages without an id are never
+     * relayed.
+     */
+    List<Integer> newMessageIndexes(Customer customer, Instant unseenSince) {
+        List<Message> messages = customer.getMessages();
+        List<Integer> result = new ArrayList<>();
+        if (messages == null || messages.isEmpty()) {
+            return result;
+        }
+        String lastKnown = lastMessageIds.get(customer.getCustomerId());
+        int start = -1;
+        if (lastKnown != null) {
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                if (lastKnown.equals(messages.get(i).getMessageId())) {
+                    start = i + 1;
+                    break;
+                }
+            }
+        }
+        if (start < 0) {
+            start = messages.size();
+            while (start > 0 && writtenAfter(messages.get(start - 1).getTimestamp(), unseenSince)) {
+                start--;
+            }
+        }
+        for (int i = start; i < messages.size(); i++) {
+            if (messages.get(i).getMessageId() != null) {
+                result.add(i);
+            }
+        }
+        String lastId = messages.get(messages.size() - 1).getMessageId();
+        if (lastId != null) {
+            lastMessageIds.put(customer.getCustomerId(), lastId);
+        }
+        return result;
+    }
+
+    private static boolean writtenAfter(LocalDateTime timestamp, Instant since) {
+        if (timestamp == null) return false;
+        Instant written = timestamp.atZone(ZoneId.systemDefault()).toInstant();
+        return !written.isBefore(since.minusMillis(CLOCK_SKEW_MS));
+    }
+
+    private static String defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node-" + ProcessHandle.current().pid();
+        }
+    }
+
+    /**
+     * One change stream on one collection, consumed on its own daemon thread. Errors are retried with
+     * backoff from the last checkpoint; an expired or invalid token restarts the stream from now.
+     */
+    private final class Tailer implements Runnable {
+        private final String collection;
+        private final String offsetId;
+        private final Consumer<ChangeStreamDocument<Document>> handler;
+        private final Consumer<Instant> resumedFrom; // told the time of the checkpoint the stream continues from
+        private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+        private Thread thread;
+
+        // Newest handled change not yet checkpointed; only touched by the tailer thread
+        private BsonDocument pendingToken;
+        private Instant pendingTime;
+        private int pendingEvents;
+        private long lastCheckpointAt = System.currentTimeMillis();
+
+        Tailer(String collection, Consumer<ChangeStreamDocument<Document>> handler, Consumer<Instant> resumedFrom) {
+            this.collection = collection;
+            this.offsetId = nodeId + ":" + collection;
+            this.handler = handler;
+            this.resumedFrom = resumedFrom;
+        }
+
+        void start() {
+            thread = new Thread(this, "change-stream-" + collection);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void close() {
+            var current = cursor;
+            if (current != null) {
+                try { current.close(); } catch (Exception ignored) { }
+            }
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            long backoffMs = 1_000;
+            while (running) {
+                try {
+                    if (isAuditLog() && AuditTimeSeriesService.isTimeSeries(mongoTemplate)) {
+                        // Converted earlier but app.audit.time-series.enabled is off on this node
+                        statusFromAuditLog = false;
+                        log.warn("{} is a time-series collection and cannot be watched; status changes are relayed from customers", collection);
+                        return;
+                    }
+                    tail();
+                    backoffMs = 1_000;
+                } catch (MongoCommandException e) {
+                    if (!running) break;
+                    if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST || e.getErrorCode() == INVALID_RESUME_TOKEN) {
+                        log.warn("Change stream on {} cannot resume ({}); restarting from now, events in between are lost",
+                                 collection, e.getErrorCodeName());
+                        clearResumeToken();
+                        continue;
+                    }
+                    log.error("Change stream on {} failed: {}", collection, e.getMessage());
+                    backoffMs = sleep(backoffMs);
+                } catch (Exception e) {
+                    if (!running) break;
+                    log.error("Change stream on {} failed: {}", collection, e.getMessage());
+                    backoffMs = sleep(backoffMs);
+                }
+            }
+        }
+
+        private void tail() {
+            MongoCollection<Document> source = mongoTemplate.getCollection(collection);
+            var stream = source.watch(List.of(Aggregates.match(
+                    Filters.in("operationType", "insert", "update", "replace"))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP);
+            BsonDocument offset = loadOffset();
+            BsonDocument token = offset != null && offset.isDocument("token") ? offset.getDocument("token") : null;
+            if (token != null) {
+                stream = stream.resumeAfter(token);
+            }
+            if (resumedFrom != null) {
+                resumedFrom.accept(token != null ? checkpointTime(offset) : Instant.now());
+            }
+            try (var opened = stream.cursor()) {
+                cursor = opened;
+                log.debug("Tailing {} change stream ({})", collection, token != null ? "resumed" : "from now");
+                while (running) {
+                    ChangeStreamDocument<Document> change = opened.tryNext();
+                    if (change == null) {
+                        checkpointIfDue(); // idle: don't leave handled events unsaved
+                        continue;
+                    }
+                    try {
+                        handler.accept(change);
+                    } catch (Exception e) {
+                        // One bad document must not stall the stream
+                        log.warn("Failed to relay {} change {}: {}", collection, change.getDocumentKey(), e.getMessage());
+                    }
+                    pendingToken = change.getResumeToken();
+                    pendingTime = changeTime(change);
+                    pendingEvents++;
+                    checkpointIfDue();
+                }
+            } finally {
+                cursor = null;
+                checkpoint(); // best effort on stop or error, so handled events are not replayed
+            }
+        }
+
+        private boolean isAuditLog() {
+            return collection.equals(mongoTemplate.getCollectionName(RepairStatusChange.class));
+        }
+
+        private BsonDocument loadOffset() {
+            pendingToken = null;
+            pendingEvents = 0;
+            return mongoTemplate.getCollection(OFFSETS_COLLECTION)
+                .withDocumentClass(BsonDocument.class)
+                .find(Filters.eq("_id", offsetId))
+                .first();
+        }
+
+        /** When the checkpointed change happened; offsets saved before that was stored fall back to the save time. */
+        private Instant checkpointTime(BsonDocument offset) {
+            String field = offset.isDateTime("changeTime") ? "changeTime" : "updatedAt";
+            return offset.isDateTime(field) ? Instant.ofEpochMilli(offset.getDateTime(field).getValue()) : Instant.now();
+        }
+
+        private void checkpointIfDue() {
+            if (pendingToken != null && (pendingEvents >= CHECKPOINT_EVERY
+                    || System.currentTimeMillis() - lastCheckpointAt >= CHECKPOINT_INTERVAL_MS)) {
+                checkpoint();
+            }
+        }
+
+        private void checkpoint() {
+            if (pendingToken == null) return;
+            try {
+                mongoTemplate.getCollection(OFFSETS_COLLECTION).replaceOne(
+                    Filters.eq("_id", offsetId),
+                    new Document("_id", offsetId).append("token", pendingToken)
+                        .append("changeTime", Date.from(pendingTime)).append("updatedAt", new Date()),
+                    new ReplaceOptions().upsert(true));
+                pendingToken = null;
+                pendingEvents = 0;
+                lastCheckpointAt = System.currentTimeMillis();
+            } catch (Exception e) {
+                log.warn("Could not checkpoint the {} change stream: {}", collection, e.getMessage());
+            }
+        }
+
+        private static Instant changeTime(ChangeStreamDocument<Document> change) {
+            if (change.getWallTime() != null) {
+                return Instant.ofEpochMilli(change.getWallTime().getValue());
+            }
+            if (change.getClusterTime() != null) {
+                return Instant.ofEpochSecond(change.getClusterTime().getTime()); // servers before 6.0
+            }
+            return Instant.now();
+        }
+
+        private void clearResumeToken() {
+            mongoTemplate.getCollection(OFFSETS_COLLECTION).deleteOne(Filters.eq("_id", offsetId));
+        }
+
+        private long sleep(long backoffMs) {
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Math.min(backoffMs * 2, 30_000);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.repairo.service;
+
+import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.dto.CustomerSearchResult;
+import com.repairo.model.Customer;
+import com.repairo.search.BlindIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Search over the encrypted customer fields through their blind index tokens: the query is hashed,
+ * MongoDB matches the tokens through a multikey index, and only the matching customers are decrypted.
+ */
+@Service
+public class CustomerSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchService.class);
+
+    public static final int MAX_RESULTS = 100;
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoEncryptionConfig encryptionConfig;
+
+    @Autowired
+    private BlindIndex blindIndex;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    /**
+     * Customers whose phone number ends in {@code phoneSuffix} and/or whose issue mentions every
+     * keyword of {@code issueQuery}, most recently active first. Throws IllegalArgumentException when
+     * neither criterion leaves anything to look up.
+     */
+    public List<CustomerSearchResult> search(String phoneSuffix, String issueQuery, int limit) {
+        Criteria criteria = new Criteria();
+        boolean any = false;
+        if (phoneSuffix != null && !phoneSuffix.isBlank()) {
+            String token = blindIndex.phoneQueryToken(phoneSuffix);
+            if (token == null) {
+                throw new IllegalArgumentException("Phone search needs at least " + blindIndex.minPhoneSuffix() + " digits");
+            }
+            criteria.and("phoneTokens").is(token);
+            any = true;
+        }
+        if (issueQuery != null && !issueQuery.isBlank()) {
+            List<String> tokens = blindIndex.issueQueryTokens(issueQuery);
+            if (tokens.isEmpty()) {
+                throw new IllegalArgumentException("The issue query has no searchable keywords");
+            }
+            criteria.and("issueTokens").all(tokens);
+            any = true;
+        }
+        if (!any) {
+            throw new IllegalArgumentException("Provide a phone suffix or issue keywords");
+        }
+        Query query = Query.query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "lastInteraction"))
+            .limit(Math.max(1, Math.min(limit, MAX_RESULTS)));
+        query.fields().include("name", "phone", "phoneModel", "repairStatus", "lastInteraction");
+
+        return mongoTemplate.find(query, Customer.class).stream().map(customer -> {
+            CustomerSearchResult result = new CustomerSearchResult();
+            result.setCustomerId(customer.getCustomerId());
+            result.setName(customer.getName());
+            result.setPhone(encryptionConfig.decryptSensitiveField(customer.getPhone(), "phone"));
+            result.setPhoneModel(customer.getPhoneModel());
+            result.setRepairStatus(customer.getRepairStatus());
+            result.setLastInteraction(customer.getLastInteraction());
+            return result;
+        }).toList();
+    }
+
+    /**
+     * Re-tokenizes every customer not tokenized under the current key id (new customers of older
+     * releases, or all of them after a key change). Each update is conditional on the key id it read,
+     * so a customer re-tokenized by a concurrent write is left alone. Runs at startup; idempotent.
+     */
+    public Map<String, Object> rebuildBlindTokens() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("A blind index rebuild is already running");
+        }
+        try {
+            String keyId = blindIndex.keyId();
+            Query stale = new Query(Criteria.where("blindKeyId").ne(keyId)
+                .orOperator(Criteria.where("phone").exists(true), Criteria.where("issue").exists(true)));
+            stale.fields().include("phone", "issue", "blindKeyId");
+
+            long scanned = 0;
+            long updated = 0;
+            BulkOperations ops = null;
+            int pending = 0;
+            try (Stream<Customer> customers = mongoTemplate.stream(stale, Customer.class)) {
+                for (Customer customer : (Iterable<Customer>) customers::iterator) {
+                    scanned++;
+                    String phone = encryptionConfig.decryptSensitiveField(customer.getPhone(), "phone");
+                    String issue = encryptionConfig.decryptSensitiveField(customer.getIssue(), "issue");
+                    Criteria unchanged = Criteria.where("_id").is(customer.getCustomerId());
+                    unchanged = customer.getBlindKeyId() == null
+                        ? unchanged.and("blindKeyId").exists(false)
+                        : unchanged.and("blindKeyId").is(customer.getBlindKeyId());
+                    if (ops == null) {
+                        ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class);
+                    }
+                    ops.updateOne(Query.query(unchanged), new Update()
+                        .set("phoneTokens", phone != null ? blindIndex.phoneTokens(phone) : List.of())
+                        .set("issueTokens", issue != null ? blindIndex.issueTokens(issue) : List.of())
+                        .set("blindKeyId", keyId));
+                    if (++pending == BATCH_SIZE) {
+                        updated += ops.execute().getModifiedCount();
+                        ops = null;
+                        pending = 0;
+                    }
+                }
+            }
+            if (ops != null) {
+                updated += ops.execute().getModifiedCount();
+            }
+            if (scanned > 0) {
+                logger.info("Blind index rebuild under key {}: {} customer(s) re-tokenized of {} stale", keyId, updated, scanned);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("keyId", keyId);
+            result.put("stale", scanned);
+            result.put("updated", updated);
+            return result;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+}
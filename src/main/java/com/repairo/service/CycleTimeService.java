@@ -0,0 +1,217 @@
+package com.repairo.service;
+
+import com.repairo.analytics.QuantileSketch;
+import com.repairo.dto.CycleTimeStats;
+import com.repairo.model.Customer;
+import com.repairo.model.RepairStatus;
+import com.repairo.model.RepairStatusChange;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * How long devices sit in each repair status, overall and per phone model, served from memory.
+ * Every audit record is a sample for its {@code fromStatus} (the time spent there); samples go into
+ * {@link QuantileSketch}es, one per status and one per status and model, so p50/p90/p99 need no query.
+ *
+ * Records arrive from {@link StatusAuditService} on the writing node, or from the change stream relay
+ * on every node in cluster mode. {@link #rebuild} replaces all sketches from {@code repair_status_changes}
+ * in one streamed pass; it runs once after startup.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.analytics.cycle-times", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CycleTimeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CycleTimeService.class);
+
+    static final String UNKNOWN_MODEL = "unknown";
+    static final String OTHER_MODELS = "other";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.analytics.cycle-times.relative-accuracy:0.01}")
+    private double relativeAccuracy;
+
+    @Value("${app.analytics.cycle-times.max-phone-models:500}")
+    private int maxPhoneModels;
+
+    private volatile Sketches current;
+    private volatile LocalDateTime rebuiltAt;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private List<RepairStatusChange> arrivedDuringRebuild; // guarded by this
+
+    /** Per-status and per-status-and-model sketches for one generation. */
+    final class Sketches {
+        final Map<RepairStatus, QuantileSketch> byStatus = new EnumMap<>(RepairStatus.class);
+        final Map<String, Map<RepairStatus, QuantileSketch>> byModel = new ConcurrentHashMap<>();
+
+        Sketches() {
+            for (RepairStatus status : RepairStatus.values()) {
+                byStatus.put(status, new QuantileSketch(relativeAccuracy));
+            }
+        }
+
+        void add(RepairStatusChange change, String phoneModel) {
+            if (change.getFromStatus() == null || change.getDurationMs() == null || change.getDurationMs() < 0
+                    || change.getFromStatus() == change.getToStatus()) {
+                return;
+            }
+            byStatus.get(change.getFromStatus()).add(change.getDurationMs());
+            String model = normalizeModel(phoneModel);
+            if (!byModel.containsKey(model) && byModel.size() >= maxPhoneModels) {
+                model = OTHER_MODELS; // bounds memory when models are free text
+            }
+            byModel.computeIfAbsent(model, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(change.getFromStatus(), status -> new QuantileSketch(relativeAccuracy))
+                .add(change.getDurationMs());
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        current = new Sketches(); // after injection, so the configured accuracy applies
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHistory() {
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.warn("Could not load cycle times from the audit log: {}", e.getMessage());
+            }
+        }, "cycle-time-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Adds one audit record. Synchronized so a record cannot slip between buffering and the swap. */
+    public synchronized void accept(RepairStatusChange change) {
+        if (arrivedDuringRebuild != null) {
+            arrivedDuringRebuild.add(change);
+        }
+        current.add(change, change.getPhoneModel());
+    }
+
+    public Map<RepairStatus, CycleTimeStats> byStatus() {
+        Map<RepairStatus, CycleTimeStats> result = new EnumMap<>(RepairStatus.class);
+        current.byStatus.forEach((status, sketch) -> result.put(status, CycleTimeStats.of(sketch)));
+        return result;
+    }
+
+    /** Time in {@code status} per phone model, models with the most samples first. */
+    public Map<String, CycleTimeStats> byPhoneModel(RepairStatus status, int limit) {
+        Map<String, CycleTimeStats> result = new LinkedHashMap<>();
+        current.byModel.entrySet().stream()
+            .filter(entry -> entry.getValue().containsKey(status))
+            .map(entry -> Map.entry(entry.getKey(), CycleTimeStats.of(entry.getValue().get(status))))
+            .sorted(Comparator.comparingLong((Map.Entry<String, CycleTimeStats> entry) -> entry.getValue().getCount()).reversed())
+            .limit(limit)
+            .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    public double getRelativeAccuracy() { return relativeAccuracy; }
+    public LocalDateTime getRebuiltAt() { return rebuiltAt; }
+
+    /**
+     * Replays the audit log in time order into fresh sketches and swaps them in. Records written
+     * before durations and phone models were stored get them from the previous record of the same
+     * customer and from the customer's current model. Records arriving meanwhile are added to both
+     * generations; those after the cutoff are carried over.
+     */
+    public Map<String, Object> rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("A cycle-time rebuild is already running");
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now();
+            synchronized (this) {
+                arrivedDuringRebuild = new ArrayList<>();
+            }
+            Sketches fresh = new Sketches();
+            Map<String, String> currentModels = null;
+            Map<String, LocalDateTime> lastChangeAt = new HashMap<>();
+            long read = 0;
+            Query query = Query.query(Criteria.where("changedAt").lt(cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "changedAt"));
+            try (Stream<RepairStatusChange> changes = mongoTemplate.stream(query, RepairStatusChange.class)) {
+                for (RepairStatusChange change : (Iterable<RepairStatusChange>) changes::iterator) {
+                    read++;
+                    StatusAuditService.deriveDuration(change, lastChangeAt);
+                    String model = change.getPhoneModel();
+                    if (model == null) {
+                        if (currentModels == null) {
+                            currentModels = loadPhoneModels(); // only needed for legacy records
+                        }
+                        model = currentModels.get(change.getCustomerId());
+                    }
+                    fresh.add(change, model);
+                }
+            }
+            synchronized (this) {
+                for (RepairStatusChange change : arrivedDuringRebuild) {
+                    if (!change.getChangedAt().isBefore(cutoff)) {
+                        fresh.add(change, change.getPhoneModel());
+                    }
+                }
+                arrivedDuringRebuild = null;
+                current = fresh;
+            }
+            rebuiltAt = cutoff;
+            logger.info("Cycle times rebuilt from {} audit records ({} phone models)", read, fresh.byModel.size());
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("changesRead", read);
+            result.put("phoneModels", fresh.byModel.size());
+            result.put("rebuiltAt", cutoff);
+            return result;
+        } finally {
+            synchronized (this) {
+                arrivedDuringRebuild = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    private Map<String, String> loadPhoneModels() {
+        Query query = new Query(Criteria.where("phoneModel").ne(null));
+        query.fields().include("phoneModel");
+        Map<String, String> models = new HashMap<>();
+        try (Stream<Customer> customers = mongoTemplate.stream(query, Customer.class)) {
+            customers.forEach(customer -> models.put(customer.getCustomerId(), customer.getPhoneModel()));
+        }
+        return models;
+    }
+
+    static String normalizeModel(String phoneModel) {
+        if (phoneModel == null || phoneModel.isBlank()) {
+            return UNKNOWN_MODEL;
+        }
+        return phoneModel.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,67 @@
+package com.repairo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Fixed-size ring buffer of recently published WebSocket events, keyed by a monotonic sequence.
+ * Lets a reconnecting client ask for everything after its last seen sequence; if that sequence has
+ * already been overwritten the caller is told to resync instead of getting a partial replay.
+ *
+ * Not distributed (single node local memory), same as the simple broker it sits next to.
+ */
+public class EventReplayBuffer {
+
+    public record BufferedEvent(long seq, String destination, Object payload) {}
+
+    public record ReplayResult(boolean resyncRequired, long latestSequence, List<BufferedEvent> events) {}
+
+    private final BufferedEvent[] ring;
+    private long latestSeq = 0; // sequence of the newest event, 0 = nothing published yet
+
+    public EventReplayBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Replay buffer capacity must be positive: " + capacity);
+        }
+        this.ring = new BufferedEvent[capacity];
+    }
+
+    /**
+     * Assigns the next sequence number and stores the event built for it.
+     */
+    public synchronized BufferedEvent append(String destination, LongFunction<Object> payloadForSeq) {
+        long seq = ++latestSeq;
+        BufferedEvent event = new BufferedEvent(seq, destination, payloadForSeq.apply(seq));
+        ring[(int) ((seq - 1) % ring.length)] = event;
+        return event;
+    }
+
+    /**
+     * Events published after {@code sinceSeq}. A sequence ahead of ours (e.g. server restart) or one
+     * that has fallen out of the buffer yields {@code resyncRequired=true} and no events.
+     */
+    public synchronized ReplayResult since(long sinceSeq) {
+        if (sinceSeq > latestSeq || sinceSeq < 0) {
+            return new ReplayResult(true, latestSeq, Collections.emptyList());
+        }
+        long oldestAvailable = Math.max(1, latestSeq - ring.length + 1);
+        if (sinceSeq + 1 < oldestAvailable) {
+            return new ReplayResult(true, latestSeq, Collections.emptyList());
+        }
+        List<BufferedEvent> events = new ArrayList<>((int) (latestSeq - sinceSeq));
+        for (long seq = sinceSeq + 1; seq <= latestSeq; seq++) {
+            events.add(ring[(int) ((seq - 1) % ring.length)]);
+        }
+        return new ReplayResult(false, latestSeq, events);
+    }
+
+    public synchronized long latestSequence() {
+        return latestSeq;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+}
@@ -0,0 +1,260 @@
+package com.repairo.service;
+
+import com.repairo.config.IndexCatalog;
+import com.repairo.dto.IndexReport;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the database's indexes in line with the {@link IndexCatalog}. After startup, declared indexes
+ * missing from the database are built on a background thread, so the application serves requests
+ * meanwhile (MongoDB 4.2+ builds only lock the collection briefly at start and end). Indexes are
+ * matched by key pattern, so an existing index under another name is not rebuilt. Nothing is dropped
+ * except indexes the catalog lists as superseded, once every declared index of the collection exists.
+ *
+ * {@link #report} shows missing, undeclared and unused indexes ({@code $indexStats}) and explains
+ * every catalog probe to flag queries answered by a collection scan or an in-memory sort.
+ */
+@Service
+public class IndexProvisioningService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexProvisioningService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private IndexCatalog catalog;
+
+    @Value("${app.indexes.provision-on-startup:true}")
+    private boolean provisionOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void provisionInBackground() {
+        if (!provisionOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                provision();
+                logFindings(report());
+            } catch (Exception e) {
+                logger.warn("Index provisioning failed: {}", e.getMessage());
+            }
+        }, "index-provisioning");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Builds every declared index that has no counterpart in the database, then drops superseded ones
+     * whose replacements are in place. Idempotent.
+     */
+    public synchronized Map<String, Object> provision() {
+        List<String> created = new ArrayList<>();
+        List<String> dropped = new ArrayList<>();
+        Map<String, String> failed = new LinkedHashMap<>();
+        for (Class<?> entity : catalog.entities()) {
+            String collection = catalog.collectionOf(entity);
+            List<Document> existing = liveIndexes(collection);
+            int failures = failed.size();
+            for (IndexDefinition definition : catalog.declared(entity)) {
+                if (existing.stream().anyMatch(index -> sameKeys(index.get("key", Document.class), definition.getIndexKeys()))) {
+                    continue;
+                }
+                String name = collection + "." + nameOf(definition);
+                try {
+                    long started = System.currentTimeMillis();
+                    mongoTemplate.indexOps(entity).ensureIndex(definition);
+                    created.add(name);
+                    logger.info("Built index {} {} in {} ms", name, definition.getIndexKeys().toJson(),
+                        System.currentTimeMillis() - started);
+                } catch (Exception e) {
+                    failed.put(name, e.getMessage());
+                    logger.warn("Could not build index {}: {}", name, e.getMessage());
+                }
+            }
+            if (failed.size() == failures) {
+                for (String index : supersededPresent(existing, catalog.superseded(entity))) {
+                    try {
+                        mongoTemplate.indexOps(entity).dropIndex(index);
+                        dropped.add(collection + "." + index);
+                        logger.info("Dropped superseded index {}.{}", collection, index);
+                    } catch (Exception e) {
+                        failed.put(collection + "." + index, e.getMessage());
+                        logger.warn("Could not drop superseded index {}.{}: {}", collection, index, e.getMessage());
+                    }
+                }
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("created", created);
+        result.put("dropped", dropped);
+        result.put("failed", failed);
+        result.put("checkedAt", LocalDateTime.now());
+        return result;
+    }
+
+    public IndexReport report() {
+        IndexReport report = new IndexReport();
+        for (Class<?> entity : catalog.entities()) {
+            String collection = catalog.collectionOf(entity);
+            List<Document> live = liveIndexes(collection);
+            List<IndexDefinition> declared = catalog.declared(entity);
+
+            IndexReport.CollectionIndexes indexes = new IndexReport.CollectionIndexes();
+            indexes.setCollection(collection);
+            for (IndexDefinition definition : declared) {
+                if (live.stream().noneMatch(index -> sameKeys(index.get("key", Document.class), definition.getIndexKeys()))) {
+                    indexes.getMissing().add(nameOf(definition));
+                }
+            }
+            for (Document index : live) {
+                if (!"_id_".equals(index.getString("name"))
+                        && declared.stream().noneMatch(definition -> sameKeys(index.get("key", Document.class), definition.getIndexKeys()))) {
+                    indexes.getUndeclared().add(index.getString("name"));
+                }
+            }
+            try {
+                for (Document stats : mongoTemplate.getCollection(collection)
+                        .aggregate(List.of(new Document("$indexStats", new Document())))) {
+                    String name = stats.getString("name");
+                    Document accesses = stats.get("accesses", Document.class);
+                    long ops = ((Number) accesses.get("ops")).longValue();
+                    indexes.getOperations().put(name, ops);
+                    if (ops == 0 && !"_id_".equals(name)) {
+                        indexes.getUnused().add(name);
+                    }
+                    Date since = accesses.getDate("since");
+                    if (indexes.getStatsSince() == null || (since != null && since.before(indexes.getStatsSince()))) {
+                        indexes.setStatsSince(since);
+                    }
+                }
+            } catch (Exception e) {
+                indexes.setStatsError(e.getMessage()); // e.g. missing indexStats privilege
+            }
+            report.getCollections().add(indexes);
+        }
+        for (IndexCatalog.Probe probe : catalog.probes()) {
+            report.getPlans().add(explain(probe));
+        }
+        return report;
+    }
+
+    private IndexReport.QueryPlan explain(IndexCatalog.Probe probe) {
+        IndexReport.QueryPlan plan = new IndexReport.QueryPlan();
+        plan.setProbe(probe.getName());
+        plan.setCollection(catalog.collectionOf(probe.getEntity()));
+        Document find = new Document("find", plan.getCollection()).append("filter", probe.getFilter()).append("limit", 20);
+        if (probe.getSort() != null) {
+            find.append("sort", probe.getSort());
+        }
+        try {
+            Document explained = mongoTemplate.getDb()
+                .runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+            Document planner = explained.get("queryPlanner", Document.class);
+            plan.setStages(planStages(planner != null ? planner.get("winningPlan") : null));
+            plan.setCollectionScan(plan.getStages().contains("COLLSCAN"));
+            plan.setInMemorySort(plan.getStages().contains("SORT"));
+        } catch (Exception e) {
+            plan.setError(e.getMessage());
+        }
+        return plan;
+    }
+
+    private void logFindings(IndexReport report) {
+        for (IndexReport.CollectionIndexes indexes : report.getCollections()) {
+            if (!indexes.getMissing().isEmpty()) {
+                logger.warn("Collection {} is missing declared indexes {}", indexes.getCollection(), indexes.getMissing());
+            }
+        }
+        for (IndexReport.QueryPlan plan : report.getPlans()) {
+            if (plan.isCollectionScan() || plan.isInMemorySort()) {
+                logger.warn("Query {} is not served by an index: {}", plan.getProbe(), plan.getStages());
+            }
+        }
+    }
+
+    private List<Document> liveIndexes(String collection) {
+        List<Document> indexes = new ArrayList<>();
+        mongoTemplate.getCollection(collection).listIndexes().into(indexes);
+        return indexes;
+    }
+
+    private static String nameOf(IndexDefinition definition) {
+        Object name = definition.getIndexOptions().get("name");
+        return name != null ? name.toString() : definition.getIndexKeys().toJson();
+    }
+
+    /** Names of the superseded indexes present in {@code live}, matched by name and key pattern. */
+    static List<String> supersededPresent(List<Document> live, List<IndexCatalog.Superseded> superseded) {
+        List<String> names = new ArrayList<>();
+        for (IndexCatalog.Superseded index : superseded) {
+            if (live.stream().anyMatch(existing -> index.name().equals(existing.getString("name"))
+                    && sameKeys(existing.get("key", Document.class), index.keys()))) {
+                names.add(index.name());
+            }
+        }
+        return names;
+    }
+
+    /** Same fields in the same order with the same direction or type; 1 and 1.0 are equal. */
+    static boolean sameKeys(Document live, Document declared) {
+        if (live == null || live.size() != declared.size()) {
+            return false;
+        }
+        Iterator<Map.Entry<String, Object>> a = live.entrySet().iterator();
+        Iterator<Map.Entry<String, Object>> b = declared.entrySet().iterator();
+        while (a.hasNext()) {
+            Map.Entry<String, Object> left = a.next();
+            Map.Entry<String, Object> right = b.next();
+            if (!left.getKey().equals(right.getKey())) {
+                return false;
+            }
+            Object x = left.getValue();
+            Object y = right.getValue();
+            boolean equal = x instanceof Number && y instanceof Number
+                ? ((Number) x).doubleValue() == ((Number) y).doubleValue()
+                : Objects.equals(x, y);
+            if (!equal) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Every {@code stage} in an explain plan tree, depth first (covers classic and SBE plan layouts). */
+    static List<String> planStages(Object node) {
+        List<String> stages = new ArrayList<>();
+        collectStages(node, stages);
+        return stages;
+    }
+
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document doc) {
+            if (doc.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            doc.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
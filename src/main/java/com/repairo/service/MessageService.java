@@ -1,16 +1,20 @@
 package com.repairo.service;
 
+import com.repairo.config.FeatureProperties;
 import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.dto.ConversationMessage;
 import com.repairo.model.Customer;
 import com.repairo.model.Message;
-import com.repairo.model.OnboardingState;
-import com.repairo.model.RepairStatus;
+import com.repairo.model.OutboundMessage;
+import com.repairo.onboarding.OnboardingFlow;
 import com.repairo.repository.CustomerRepository;
+import com.repairo.search.BlindIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,8 +32,27 @@ public class MessageService {
     @Autowired
     private WhatsAppService whatsAppService;
 
+    @Autowired(required = false)
+    private WebSocketEventPublisher webSocketEventPublisher;
+
+    @Autowired(required = false)
+    private FeatureProperties featureProperties;
+
+    @Autowired(required = false)
+    private OutboxService outboxService; // absent with app.outbox.enabled=false: send on the calling thread
+
+    @Autowired(required = false)
+    private OnboardingFlow onboardingFlow;
+
+    @Autowired(required = false)
+    private StatusCounterService statusCounters;
+
+    @Autowired(required = false)
+    private BlindIndex blindIndex;
+
     public void processIncomingMessage(String phoneNumber, String messageText) {
         Customer customer = findOrCreateCustomer(phoneNumber);
+        StatusCounterService.Snapshot before = customer.isNew() ? null : StatusCounterService.Snapshot.of(customer);
         
         // Encrypt message text before storing (only sensitive field)
         Message message = new Message();
@@ -38,9 +61,16 @@ public class MessageService {
         
         customer.addMessage(message);
         
-        handleOnboardingFlow(customer, messageText);
+        List<OutboundMessage> outbound = new ArrayList<>();
+        handleOnboardingFlow(customer, messageText, outbound);
         
-        customerRepository.save(customer);
+        if (outboxService != null) {
+            outboxService.saveWithOutbox(customer, outbound);
+        } else {
+            customerRepository.save(customer);
+        }
+        recordCounters(before, customer);
+        publishConversationMessage(customer, message, messageText);
     }
 
     private Customer findOrCreateCustomer(String phoneNumber) {
@@ -57,50 +87,60 @@ public class MessageService {
         // Create new customer
         Customer customer = new Customer();
         customer.setPhone(encryptedPhone);
+        if (blindIndex != null) {
+            blindIndex.applyPhone(customer, phoneNumber);
+        }
         return customer;
     }
 
-    private void handleOnboardingFlow(Customer customer, String messageText) {
-        OnboardingState state = customer.getOnboardingState();
-        String decryptedPhone = encryptionConfig.decryptSensitiveField(customer.getPhone(), "phone");
-
-        try {
-            switch (state) {
-                case NEW:
-                    if (messageText.toLowerCase().contains("hi") || messageText.toLowerCase().contains("hello")) {
-                        whatsAppService.sendMessage(decryptedPhone, "Hello! Welcome to our repair service. What's your name?");
-                        customer.setOnboardingState(OnboardingState.AWAITING_NAME);
-                    }
-                    break;
-                    
-                case AWAITING_NAME:
-                    customer.setName(messageText); // Name is not encrypted
-                    whatsAppService.sendMessage(decryptedPhone, "Nice to meet you, " + messageText + "! Please describe the issue with your device.");
-                    customer.setOnboardingState(OnboardingState.AWAITING_ISSUE);
-                    break;
-                    
-                case AWAITING_ISSUE:
+    private void handleOnboardingFlow(Customer customer, String messageText, List<OutboundMessage> outbound) {
+        OnboardingFlow.Transition transition = onboardingFlow().next(customer.getOnboardingState(), messageText);
+        if (transition == null) {
+            return;
+        }
+        if (transition.getCapture() != null) {
+            switch (transition.getCapture()) {
+                case NAME -> customer.setName(messageText); // Name is not encrypted
+                case ISSUE -> {
                     customer.setIssue(encryptionConfig.encryptSensitiveField(messageText, "issue"));
-                    whatsAppService.sendMessage(decryptedPhone, "Got it! What's your phone model?");
-                    customer.setOnboardingState(OnboardingState.AWAITING_PHONE_MODEL);
-                    break;
-                    
-                case AWAITING_PHONE_MODEL:
-                    customer.setPhoneModel(messageText); // Phone model is not encrypted
-                    customer.setRepairStatus(RepairStatus.PENDING);
-                    customer.setOnboardingState(OnboardingState.COMPLETED);
-                    whatsAppService.sendMessage(decryptedPhone, "Thank you! We've received your repair request. You can check your status anytime by typing 'status'.");
-                    break;
-                    
-                case COMPLETED:
-                    if (messageText.toLowerCase().contains("status")) {
-                        whatsAppService.sendMessage(decryptedPhone, "Your repair status: " + customer.getRepairStatus());
+                    if (blindIndex != null) {
+                        blindIndex.applyIssue(customer, messageText);
                     }
-                    break;
+                }
+                case PHONE_MODEL -> customer.setPhoneModel(messageText); // Phone model is not encrypted
+            }
+        }
+        if (transition.getRepairStatus() != null) {
+            customer.setRepairStatus(transition.getRepairStatus());
+        }
+
+        try {
+            if (transition.hasReply()) {
+                reply(customer, transition.renderReply(customer, messageText), outbound);
+            }
+            if (transition.getNext() != null) {
+                customer.setOnboardingState(transition.getNext());
             }
         } catch (Exception e) {
-            logger.error("Failed to send WhatsApp message during onboarding flow for phone {}: {}", decryptedPhone, e.getMessage());
-            // Continue processing even if message sending fails
+            // Without the outbox a failed send keeps the state, so the customer's next message retries the step
+            logger.error("Failed to send WhatsApp message during onboarding flow for customer {}: {}",
+                customer.getCustomerId(), e.getMessage());
+        }
+    }
+
+    private OnboardingFlow onboardingFlow() {
+        return onboardingFlow != null ? onboardingFlow : OnboardingFlow.DEFAULT;
+    }
+
+    /**
+     * Automated onboarding reply: queued in the outbox with the customer update, or sent right away
+     * when the outbox is disabled. The phone is only decrypted for an immediate send.
+     */
+    private void reply(Customer customer, String text, List<OutboundMessage> outbound) {
+        if (outboxService != null) {
+            outbound.add(outboxService.prepare(customer, null, text, OutboxService.SOURCE_ONBOARDING));
+        } else {
+            whatsAppService.sendMessage(encryptionConfig.decryptSensitiveField(customer.getPhone(), "phone"), text);
         }
     }
 
@@ -111,6 +151,22 @@ public class MessageService {
         }
         
         Customer customer = optionalCustomer.get();
+        StatusCounterService.Snapshot before = StatusCounterService.Snapshot.of(customer);
+
+        if (outboxService != null) {
+            // Stored and queued together; delivery (and retries) happen off the request thread
+            Message adminMessage = new Message();
+            adminMessage.setText(encryptionConfig.encryptSensitiveField(messageText, "message"));
+            adminMessage.setFrom("admin");
+            customer.addMessage(adminMessage);
+            OutboundMessage outbound = outboxService.prepare(customer, adminMessage, messageText, OutboxService.SOURCE_REPLY);
+            outboxService.saveWithOutbox(customer, List.of(outbound));
+            recordCounters(before, customer);
+            logger.info("Queued WhatsApp reply message {} for customer {}", adminMessage.getMessageId(), customerId);
+            publishConversationMessage(customer, adminMessage, messageText);
+            return;
+        }
+
         String decryptedPhone = encryptionConfig.decryptSensitiveField(customer.getPhone(), "phone");
         
         try {
@@ -130,5 +186,46 @@ public class MessageService {
         customer.addMessage(adminMessage);
         
         customerRepository.save(customer);
+        recordCounters(before, customer);
+        publishConversationMessage(customer, adminMessage, messageText);
+    }
+
+    /**
+     * Returns the decrypted conversation of a customer, optionally only messages after the given
+     * 1-based sequence (used by clients to fill a gap detected on the conversation topic).
+     */
+    public List<ConversationMessage> getConversation(String customerId, int afterSequence) {
+        Customer customer = customerRepository.findById(customerId)
+            .orElseThrow(() -> new RuntimeException("Customer not found: " + customerId));
+        List<ConversationMessage> result = new ArrayList<>();
+        List<Message> messages = customer.getMessages();
+        if (messages == null) {
+            return result;
+        }
+        for (int i = Math.max(0, afterSequence); i < messages.size(); i++) {
+            Message message = messages.get(i);
+            String text = encryptionConfig.decryptSensitiveField(message.getText(), "message");
+            result.add(ConversationMessage.of(message, text, i + 1));
+        }
+        return result;
+    }
+
+    private void recordCounters(StatusCounterService.Snapshot before, Customer customer) {
+        if (statusCounters != null) {
+            statusCounters.record(before, StatusCounterService.Snapshot.of(customer));
+        }
+    }
+
+    private void publishConversationMessage(Customer customer, Message message, String plainText) {
+        if (webSocketEventPublisher == null || (featureProperties != null && !featureProperties.isWebsockets())) {
+            return;
+        }
+        try {
+            int sequence = customer.getMessages().indexOf(message) + 1;
+            webSocketEventPublisher.publishConversationMessage(customer.getCustomerId(),
+                ConversationMessage.of(message, plainText, sequence));
+        } catch (Exception e) {
+            logger.warn("Failed to publish conversation message for customer {}: {}", customer.getCustomerId(), e.getMessage());
+        }
     }
 }
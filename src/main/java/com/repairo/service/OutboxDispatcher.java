@@ -0,0 +1,266 @@
+package com.repairo.service;
+
+import com.repairo.config.FeatureProperties;
+import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.config.OutboxProperties;
+import com.repairo.model.Customer;
+import com.repairo.model.OutboundMessage;
+import com.repairo.model.OutboundStatus;
+import com.repairo.ratelimit.OutboundThrottle;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the outbox: claims due messages with an atomic findAndModify (so several app nodes can run
+ * dispatchers side by side), sends them on the outbox worker pool and records the outcome. Failures
+ * are retried with exponential backoff and jitter until app.outbox.max-attempts, then dead-lettered.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WhatsAppService whatsAppService;
+
+    @Autowired
+    private MongoEncryptionConfig encryptionConfig;
+
+    @Autowired
+    private OutboxProperties properties;
+
+    @Autowired
+    @Qualifier("outboxExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    @Autowired(required = false)
+    private OutboundThrottle throttle;
+
+    @Autowired(required = false)
+    private WebSocketEventPublisher webSocketEventPublisher;
+
+    @Autowired(required = false)
+    private FeatureProperties featureProperties;
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(Math.max(1, properties.getWorkers()));
+    }
+
+    /**
+     * Triggers a drain right away instead of waiting for the next poll (used after enqueueing).
+     */
+    public void wakeUp() {
+        try {
+            executor.execute(this::dispatchDue);
+        } catch (TaskRejectedException e) {
+            // Pool saturated; the scheduled poll will pick the messages up
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void dispatchDue() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < properties.getBatchSize(); i++) {
+                if (!permits.tryAcquire()) {
+                    break;
+                }
+                OutboundMessage message = claimNext();
+                if (message == null) {
+                    permits.release();
+                    break;
+                }
+                try {
+                    executor.execute(() -> {
+                        try {
+                            deliver(message);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (TaskRejectedException e) {
+                    permits.release(); // lease expires and the message is claimed again
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Outbox drain failed: {}", e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /**
+     * Atomically claims the oldest due message, or one whose previous claim lease has expired
+     * (worker crashed mid-send).
+     */
+    OutboundMessage claimNext() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(new Criteria().orOperator(
+            Criteria.where("status").in(OutboundStatus.PENDING, OutboundStatus.FAILED).and("nextAttemptAt").lte(now),
+            Criteria.where("status").is(OutboundStatus.SENDING).and("lockedUntil").lt(now)
+        )).with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+        Update update = new Update()
+            .set("status", OutboundStatus.SENDING)
+            .set("lockedUntil", now.plus(Duration.ofMillis(properties.getLeaseMs())))
+            .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), OutboundMessage.class);
+    }
+
+    void deliver(OutboundMessage message) {
+        String phoneNumberId = whatsAppService.getPhoneNumberId();
+        // Recipient key is the encrypted phone (deterministic), so the throttle never sees plain numbers
+        if (throttle != null) {
+            long waitMs = throttle.reserve(phoneNumberId, message.getPhone());
+            if (waitMs > 0) {
+                defer(message, waitMs);
+                return;
+            }
+        }
+        try {
+            String phone = encryptionConfig.decryptSensitiveField(message.getPhone(), "phone");
+            String text = encryptionConfig.decryptSensitiveField(message.getText(), "message");
+            String providerId = whatsAppService.sendMessage(phone, text);
+            if (throttle != null) {
+                throttle.onSuccess(phoneNumberId);
+            }
+            markSent(message, providerId);
+        } catch (WhatsAppSendException e) {
+            if (throttle != null && WhatsAppService.isRateLimit(e.getStatusCode(), e.getErrorCode())) {
+                defer(message, throttle.onThrottled(phoneNumberId, message.getPhone(), e.getErrorCode()));
+                return;
+            }
+            String error = e.getStatusCode() > 0
+                ? "HTTP " + e.getStatusCode() + (e.getErrorCode() != null ? " (code " + e.getErrorCode() + ")" : "")
+                : String.valueOf(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            markFailed(message, e.isRetryable(), error);
+        } catch (Exception e) {
+            markFailed(message, true, e.getMessage());
+        }
+    }
+
+    /**
+     * Puts a claimed message back in the queue without spending an attempt: the send was held back
+     * (or rejected) by a messaging limit, not by a delivery failure.
+     */
+    private void defer(OutboundMessage message, long waitMs) {
+        Update update = new Update()
+            .set("status", message.getAttempts() > 1 ? OutboundStatus.FAILED : OutboundStatus.PENDING)
+            .set("nextAttemptAt", LocalDateTime.now().plus(Duration.ofMillis(Math.max(waitMs, 1))))
+            .inc("attempts", -1)
+            .unset("lockedUntil");
+        if (updateClaimed(message, update)) {
+            logger.debug("Outbound message {} deferred {} ms by messaging limits", message.getId(), waitMs);
+        }
+    }
+
+    private void markSent(OutboundMessage message, String providerId) {
+        Update update = new Update()
+            .set("status", OutboundStatus.SENT)
+            .set("sentAt", LocalDateTime.now())
+            .set("providerMessageId", providerId)
+            .unset("lockedUntil")
+            .unset("lastError");
+        if (updateClaimed(message, update)) {
+            logger.info("Outbound message {} delivered to customer {} (attempt {})",
+                message.getId(), message.getCustomerId(), message.getAttempts());
+            updateConversation(message, OutboundStatus.SENT);
+        }
+    }
+
+    private void markFailed(OutboundMessage message, boolean retryable, String error) {
+        boolean giveUp = !retryable || message.getAttempts() >= properties.getMaxAttempts();
+        OutboundStatus status = giveUp ? OutboundStatus.DEAD : OutboundStatus.FAILED;
+        Update update = new Update()
+            .set("status", status)
+            .set("lastError", error)
+            .unset("lockedUntil");
+        if (!giveUp) {
+            update.set("nextAttemptAt", LocalDateTime.now().plus(Duration.ofMillis(backoffMs(message.getAttempts()))));
+        }
+        if (!updateClaimed(message, update)) {
+            return;
+        }
+        if (giveUp) {
+            logger.error("Outbound message {} for customer {} dead-lettered after {} attempt(s): {}",
+                message.getId(), message.getCustomerId(), message.getAttempts(), error);
+        } else {
+            logger.warn("Outbound message {} attempt {} failed, retrying: {}", message.getId(), message.getAttempts(), error);
+        }
+        updateConversation(message, status);
+    }
+
+    /**
+     * Applies the outcome only if we still own the claim (same attempt, still SENDING); a worker
+     * whose lease expired must not overwrite the result of the one that took over.
+     */
+    private boolean updateClaimed(OutboundMessage message, Update update) {
+        Query query = new Query(Criteria.where("id").is(message.getId())
+            .and("status").is(OutboundStatus.SENDING)
+            .and("attempts").is(message.getAttempts()));
+        return mongoTemplate.updateFirst(query, update, OutboundMessage.class).getModifiedCount() == 1;
+    }
+
+    /**
+     * Mirrors the delivery state onto the conversation message and pushes it to open chats. The
+     * version is deliberately not bumped: this is display state and must not make a concurrent admin
+     * edit fail its optimistic lock (outbound_messages stays the source of truth).
+     */
+    private void updateConversation(OutboundMessage message, OutboundStatus status) {
+        if (message.getMessageId() == null) {
+            return;
+        }
+        String deliveryStatus = OutboxService.deliveryStatus(status);
+        try {
+            Query query = new Query(Criteria.where("customerId").is(message.getCustomerId())
+                .and("messages.messageId").is(message.getMessageId()));
+            mongoTemplate.updateFirst(query, new Update().set("messages.$.deliveryStatus", deliveryStatus), Customer.class);
+        } catch (Exception e) {
+            logger.warn("Failed to update delivery status of message {}: {}", message.getMessageId(), e.getMessage());
+        }
+        if (webSocketEventPublisher != null && (featureProperties == null || featureProperties.isWebsockets())) {
+            webSocketEventPublisher.publishDeliveryStatus(message.getCustomerId(), message.getMessageId(), deliveryStatus);
+        }
+    }
+
+    /**
+     * Exponential backoff with "equal jitter": half of the exponential delay is fixed, the other half
+     * random, so retries of messages that failed together spread out.
+     */
+    long backoffMs(int attempts) {
+        long exponential = properties.getInitialBackoffMs() << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(exponential, properties.getMaxBackoffMs());
+        long half = capped / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+}
@@ -0,0 +1,158 @@
+package com.repairo.service;
+
+import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.config.OutboxProperties;
+import com.repairo.model.Customer;
+import com.repairo.model.Message;
+import com.repairo.model.OutboundMessage;
+import com.repairo.model.OutboundStatus;
+import com.repairo.repository.CustomerRepository;
+import com.repairo.repository.OutboundMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Transactional outbox for WhatsApp messages. Callers add the conversation message to the customer
+ * and hand both to {@link #saveWithOutbox}; delivery happens asynchronously in {@link OutboxDispatcher}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    public static final String SOURCE_REPLY = "reply";
+    public static final String SOURCE_ONBOARDING = "onboarding";
+    public static final String SOURCE_BULK = "bulk";
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OutboundMessageRepository outboundMessageRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoEncryptionConfig encryptionConfig;
+
+    @Autowired
+    private OutboxProperties properties;
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired(required = false)
+    private MongoTransactionManager transactionManager; // only with app.outbox.transactional=true
+
+    /**
+     * Builds an outbox entry for the customer; {@code message} is the conversation message it delivers
+     * (marked pending here) or null for automated replies that are not stored in the conversation.
+     */
+    public OutboundMessage prepare(Customer customer, Message message, String plainText, String source) {
+        return prepare(customer.getCustomerId(), customer.getPhone(), message, plainText, source);
+    }
+
+    /**
+     * Same as {@link #prepare(Customer, Message, String, String)} for callers that only loaded the
+     * customer's id and (encrypted) phone.
+     */
+    public OutboundMessage prepare(String customerId, String encryptedPhone, Message message, String plainText, String source) {
+        if (message != null) {
+            message.setDeliveryStatus(deliveryStatus(OutboundStatus.PENDING));
+        }
+        return new OutboundMessage(customerId, message != null ? message.getMessageId() : null,
+            encryptedPhone, encryptionConfig.encryptSensitiveField(plainText, "message"), source);
+    }
+
+    /**
+     * Saves the customer and its pending outbound messages together, then wakes the dispatcher.
+     * With a transaction manager both writes commit atomically; without one the customer is written
+     * first so a failed save never leaves an orphan message to deliver.
+     */
+    public Customer saveWithOutbox(Customer customer, List<OutboundMessage> outbound) {
+        return writeWithOutbox(() -> {
+            Customer saved = customerRepository.save(customer);
+            for (OutboundMessage message : outbound) {
+                message.setCustomerId(saved.getCustomerId()); // new customers only get their id on save
+            }
+            return saved;
+        }, outbound);
+    }
+
+    /**
+     * Runs the customer-side write, then inserts the outbox entries in one insertMany, atomically
+     * when transactions are enabled.
+     */
+    public <T> T writeWithOutbox(Supplier<T> customerWrite, List<OutboundMessage> outbound) {
+        T result;
+        if (transactionManager != null && properties.isTransactional()) {
+            result = new TransactionTemplate(transactionManager).execute(status -> write(customerWrite, outbound));
+        } else {
+            result = write(customerWrite, outbound);
+        }
+        if (!outbound.isEmpty()) {
+            dispatcher.wakeUp();
+        }
+        return result;
+    }
+
+    private <T> T write(Supplier<T> customerWrite, List<OutboundMessage> outbound) {
+        T result = customerWrite.get();
+        if (!outbound.isEmpty()) {
+            mongoTemplate.insert(outbound, OutboundMessage.class);
+            logger.debug("Queued {} outbound message(s)", outbound.size());
+        }
+        return result;
+    }
+
+    public List<OutboundMessage> findForCustomer(String customerId) {
+        return outboundMessageRepository.findByCustomerIdOrderByCreatedAtDesc(customerId);
+    }
+
+    public Map<OutboundStatus, Long> countsByStatus() {
+        Map<OutboundStatus, Long> counts = new EnumMap<>(OutboundStatus.class);
+        for (OutboundStatus status : OutboundStatus.values()) {
+            counts.put(status, outboundMessageRepository.countByStatus(status));
+        }
+        return counts;
+    }
+
+    /**
+     * Puts a dead-lettered message back in the queue with a fresh attempt budget.
+     */
+    public boolean retry(String outboundId) {
+        Query query = new Query(Criteria.where("id").is(outboundId).and("status").is(OutboundStatus.DEAD));
+        Update update = new Update()
+            .set("status", OutboundStatus.PENDING)
+            .set("attempts", 0)
+            .set("nextAttemptAt", LocalDateTime.now())
+            .unset("lastError");
+        boolean requeued = mongoTemplate.updateFirst(query, update, OutboundMessage.class).getModifiedCount() == 1;
+        if (requeued) {
+            logger.info("Outbound message {} re-queued by admin", outboundId);
+            dispatcher.wakeUp();
+        }
+        return requeued;
+    }
+
+    static String deliveryStatus(OutboundStatus status) {
+        return status.name().toLowerCase();
+    }
+}
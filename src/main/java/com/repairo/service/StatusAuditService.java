@@ -0,0 +1,196 @@
+package com.repairo.service;
+
+import com.repairo.config.FeatureProperties;
+import com.repairo.model.Customer;
+import com.repairo.model.RepairStatus;
+import com.repairo.model.RepairStatusChange;
+import com.repairo.repository.RepairStatusChangeRepository;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the repair status audit log ({@code repair_status_changes}) and feeds every written record to
+ * the analytics rollups and cycle-time sketches. Each record carries the time the customer spent in the
+ * previous status and the customer's phone model.
+ *
+ * With {@link AuditLogWriter} enabled records are only queued here and inserted in batches off the
+ * request thread; the analytics are fed once a batch is stored.
+ */
+@Service
+public class StatusAuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatusAuditService.class);
+
+    @Autowired
+    private RepairStatusChangeRepository repairStatusChangeRepository;
+
+    @Autowired(required = false)
+    private FeatureProperties featureProperties;
+
+    @Autowired(required = false)
+    private StatusRollupService statusRollups;
+
+    @Autowired(required = false)
+    private CycleTimeService cycleTimes;
+
+    @Autowired(required = false)
+    private ChangeStreamEventRelay relay;
+
+    @Autowired(required = false)
+    private AuditLogWriter auditWriter;
+
+    @PostConstruct
+    void init() {
+        if (auditWriter != null) {
+            auditWriter.onWritten(this::written);
+        }
+    }
+
+    /**
+     * When the customer entered its current status: {@code statusChangedAt}, or for customers written
+     * before that field existed the last audit record, or else the customer's creation time.
+     */
+    public LocalDateTime statusSince(Customer customer) {
+        if (customer.getStatusChangedAt() != null) {
+            return customer.getStatusChangedAt();
+        }
+        if (customer.getCustomerId() == null) {
+            return null;
+        }
+        return repairStatusChangeRepository.findFirstByCustomerIdOrderByChangedAtDesc(customer.getCustomerId())
+            .map(RepairStatusChange::getChangedAt)
+            .orElseGet(() -> customerCreatedAt(customer.getCustomerId()));
+    }
+
+    /**
+     * {@link #statusSince} for many customers, keyed by customer id: customers without
+     * {@code statusChangedAt} are resolved with a single aggregation over the audit log instead of one
+     * query each. Customers with no known time are absent.
+     */
+    public Map<String, LocalDateTime> statusSince(Collection<Customer> customers) {
+        Map<String, LocalDateTime> since = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (Customer customer : customers) {
+            if (customer.getStatusChangedAt() != null) {
+                since.put(customer.getCustomerId(), customer.getStatusChangedAt());
+            } else if (customer.getCustomerId() != null) {
+                missing.add(customer.getCustomerId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, LocalDateTime> latest = repairStatusChangeRepository.findLatestChangedAt(missing);
+            for (String customerId : missing) {
+                LocalDateTime at = latest.containsKey(customerId) ? latest.get(customerId) : customerCreatedAt(customerId);
+                if (at != null) {
+                    since.put(customerId, at);
+                }
+            }
+        }
+        return since;
+    }
+
+    /**
+     * Records a status change that has already been saved on the customer (its current status is the
+     * new one). Returns the audit record (with the writer enabled, queued but not yet stored), or null
+     * when auditing is switched off (app.features.audit-status).
+     */
+    public RepairStatusChange record(Customer customer, RepairStatus from, String changedBy,
+                                     LocalDateTime statusSince, LocalDateTime changedAt) {
+        if (!auditing()) {
+            return null;
+        }
+        RepairStatusChange change = newChange(customer, from, changedBy, statusSince, changedAt);
+        logger.debug("Audited status change {} -> {} for customer {}", from, change.getToStatus(), change.getCustomerId());
+        if (auditWriter != null) {
+            auditWriter.submit(change);
+            return change;
+        }
+        RepairStatusChange saved = repairStatusChangeRepository.save(change);
+        written(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Bulk variant of {@link #record} for records built with {@link #newChange}: all are inserted with
+     * one insertMany (by the writer, or here when it is disabled) and applied to the rollups in one bulk
+     * write. Returns the records, or an empty list when auditing is switched off.
+     */
+    public List<RepairStatusChange> recordAll(List<RepairStatusChange> changes) {
+        if (!auditing() || changes.isEmpty()) {
+            return List.of();
+        }
+        logger.debug("Audited {} status changes", changes.size());
+        if (auditWriter != null) {
+            auditWriter.submitAll(changes);
+            return changes;
+        }
+        List<RepairStatusChange> saved = repairStatusChangeRepository.saveAll(changes); // all new: a single insert
+        written(saved);
+        return saved;
+    }
+
+    /** Feeds stored records to the analytics. */
+    private void written(List<RepairStatusChange> saved) {
+        if (statusRollups != null) {
+            if (saved.size() == 1) {
+                statusRollups.apply(saved.get(0));
+            } else {
+                statusRollups.applyAll(saved);
+            }
+        }
+        if (cycleTimes != null && (relay == null || !relay.tailsAuditLog())) {
+            saved.forEach(cycleTimes::accept); // while the relay tails the audit log every node is fed from it instead
+        }
+    }
+
+    /** An unsaved audit record for a customer whose current status is the new one. */
+    public static RepairStatusChange newChange(Customer customer, RepairStatus from, String changedBy,
+                                               LocalDateTime statusSince, LocalDateTime changedAt) {
+        RepairStatusChange change = new RepairStatusChange(customer.getCustomerId(), from, customer.getRepairStatus(), changedBy);
+        change.setChangedAt(changedAt);
+        change.setPhoneModel(customer.getPhoneModel());
+        if (statusSince != null && !statusSince.isAfter(changedAt)) {
+            change.setDurationMs(Duration.between(statusSince, changedAt).toMillis());
+        }
+        return change;
+    }
+
+    private boolean auditing() {
+        return featureProperties == null || featureProperties.isAuditStatus();
+    }
+
+    /**
+     * For replaying audit records in time order: fills in the duration of records written before it
+     * was stored, from the customer's previous record (tracked in {@code lastChangeAt}) or creation time.
+     */
+    static void deriveDuration(RepairStatusChange change, Map<String, LocalDateTime> lastChangeAt) {
+        LocalDateTime previous = lastChangeAt.put(change.getCustomerId(), change.getChangedAt());
+        if (change.getDurationMs() == null) {
+            LocalDateTime since = previous != null ? previous : customerCreatedAt(change.getCustomerId());
+            if (since != null && !since.isAfter(change.getChangedAt())) {
+                change.setDurationMs(Duration.between(since, change.getChangedAt()).toMillis());
+            }
+        }
+    }
+
+    /** Creation time encoded in the customer's ObjectId, or null for ids that are not ObjectIds. */
+    static LocalDateTime customerCreatedAt(String customerId) {
+        if (customerId == null || !ObjectId.isValid(customerId)) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(new ObjectId(customerId).getDate().toInstant(), ZoneId.systemDefault());
+    }
+}
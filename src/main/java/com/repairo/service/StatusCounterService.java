@@ -0,0 +1,296 @@
+package com.repairo.service;
+
+import com.repairo.model.Customer;
+import com.repairo.model.Message;
+import com.repairo.model.OnboardingState;
+import com.repairo.model.RepairStatus;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Customer counters (total, per repair status, per onboarding state, conversations awaiting a reply)
+ * kept in one {@code stat_counters} document and updated with {@code $inc} whenever a customer is
+ * created or changes state, so nobody has to count the collection on a page load. Reads come from an
+ * in-memory mirror of that document.
+ *
+ * The mirror is refreshed from MongoDB every few seconds to pick up other nodes' changes, and a
+ * scheduled reconcile compares the document with real counts, logs any drift and corrects it.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.counters", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StatusCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatusCounterService.class);
+
+    static final String COLLECTION = "stat_counters";
+    static final String DOC_ID = "customers";
+    public static final String TOTAL = "total";
+    public static final String PENDING_CONVERSATIONS = "pendingConversations";
+    private static final Duration RECONCILE_LEASE = Duration.ofMinutes(5);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Fixed key set, so reads never lock or allocate
+    private final Map<String, AtomicLong> counters;
+    private volatile Map<String, Long> lastDrift = Collections.emptyMap();
+    private volatile LocalDateTime lastReconciledAt;
+
+    public StatusCounterService() {
+        Map<String, AtomicLong> keys = new LinkedHashMap<>();
+        keys.put(TOTAL, new AtomicLong());
+        keys.put(PENDING_CONVERSATIONS, new AtomicLong());
+        for (RepairStatus status : RepairStatus.values()) {
+            keys.put(key(status), new AtomicLong());
+        }
+        for (OnboardingState state : OnboardingState.values()) {
+            keys.put(key(state), new AtomicLong());
+        }
+        this.counters = Collections.unmodifiableMap(keys);
+    }
+
+    /**
+     * The counter-relevant state of a customer before or after a change.
+     */
+    public record Snapshot(RepairStatus repairStatus, OnboardingState onboardingState, boolean awaitingReply) {
+        public static Snapshot of(Customer customer) {
+            List<Message> messages = customer.getMessages();
+            boolean awaitingReply = messages != null && !messages.isEmpty()
+                && "customer".equals(messages.get(messages.size() - 1).getFrom());
+            return new Snapshot(customer.getRepairStatus(), customer.getOnboardingState(), awaitingReply);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            if (!refresh()) {
+                logger.info("No {} document yet, counting customers once to initialise it", COLLECTION);
+                reconcile();
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load status counters: {}", e.getMessage());
+        }
+    }
+
+    public long total() { return counters.get(TOTAL).get(); }
+    public long pendingConversations() { return counters.get(PENDING_CONVERSATIONS).get(); }
+    public long count(RepairStatus status) { return counters.get(key(status)).get(); }
+    public long count(OnboardingState state) { return counters.get(key(state)).get(); }
+
+    /** All counters, keyed like the persisted document (e.g. "repairStatus.PENDING"). */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        counters.forEach((key, value) -> values.put(key, value.get()));
+        return values;
+    }
+
+    public Map<String, Long> getLastDrift() { return lastDrift; }
+    public LocalDateTime getLastReconciledAt() { return lastReconciledAt; }
+
+    /**
+     * Applies the difference between two states of one customer; {@code before} is null for a
+     * customer that was just created. Failures are logged only: the next reconcile repairs them.
+     */
+    public void record(Snapshot before, Snapshot after) {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        if (before == null) {
+            deltas.put(TOTAL, 1L);
+        }
+        if (before == null || before.repairStatus() != after.repairStatus()) {
+            addDelta(deltas, before != null ? key(before.repairStatus()) : null, after.repairStatus() != null ? key(after.repairStatus()) : null);
+        }
+        if (before == null || before.onboardingState() != after.onboardingState()) {
+            addDelta(deltas, before != null ? key(before.onboardingState()) : null, after.onboardingState() != null ? key(after.onboardingState()) : null);
+        }
+        boolean wasAwaiting = before != null && before.awaitingReply();
+        if (wasAwaiting != after.awaitingReply()) {
+            deltas.put(PENDING_CONVERSATIONS, after.awaitingReply() ? 1L : -1L);
+        }
+        increment(deltas);
+    }
+
+    /**
+     * Bulk variant of {@link #record} for repair status changes only: {@code moved} counts the customers
+     * that left each previous status for {@code to}. One write for the whole batch.
+     */
+    public void recordStatusMoves(Map<RepairStatus, Integer> moved, RepairStatus to) {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        moved.forEach((from, customers) -> {
+            if (from != to) {
+                addDelta(deltas, from != null ? key(from) : null, key(to), customers);
+            }
+        });
+        increment(deltas);
+    }
+
+    /** Bulk variant for operations that only answer conversations (e.g. bulk notifications). */
+    public void recordAnswered(int conversations) {
+        if (conversations > 0) {
+            Map<String, Long> deltas = new LinkedHashMap<>();
+            deltas.put(PENDING_CONVERSATIONS, (long) -conversations);
+            increment(deltas);
+        }
+    }
+
+    private void increment(Map<String, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            Update update = new Update();
+            deltas.forEach(update::inc);
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(DOC_ID)), update, COLLECTION);
+        } catch (Exception e) {
+            logger.warn("Failed to persist counter change {}: {}", deltas, e.getMessage());
+        }
+        deltas.forEach((key, delta) -> {
+            AtomicLong counter = counters.get(key);
+            if (counter != null) counter.addAndGet(delta);
+        });
+    }
+
+    /**
+     * Reloads the mirror from the persisted document, picking up increments made by other nodes.
+     * A local increment racing with the reload is only missing until the next one, since it is
+     * always written to MongoDB first. Returns false when the document does not exist yet.
+     */
+    public boolean refresh() {
+        Document doc = mongoTemplate.getCollection(COLLECTION).find(new Document("_id", DOC_ID)).first();
+        if (doc == null) {
+            return false;
+        }
+        counters.forEach((key, counter) -> counter.set(read(doc, key)));
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.refresh-ms:5000}", initialDelayString = "${app.counters.refresh-ms:5000}")
+    public void refreshMirror() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.debug("Status counter refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recounts customers in one aggregation and corrects the persisted counters by the drift. Only
+     * one node reconciles at a time (lease on the counter document), and a round is skipped when
+     * counters moved while it was counting, since the comparison would not be meaningful.
+     */
+    @Scheduled(fixedDelayString = "${app.counters.reconcile-ms:600000}", initialDelayString = "${app.counters.reconcile-ms:600000}")
+    public void reconcile() {
+        LocalDateTime now = LocalDateTime.now();
+        Query counterDoc = Query.query(Criteria.where("_id").is(DOC_ID));
+        mongoTemplate.upsert(counterDoc, new Update().setOnInsert(TOTAL, 0L), COLLECTION);
+        Document lease = mongoTemplate.findAndModify(
+            Query.query(Criteria.where("_id").is(DOC_ID).orOperator(
+                Criteria.where("reconcileLockUntil").exists(false),
+                Criteria.where("reconcileLockUntil").lt(now))),
+            new Update().set("reconcileLockUntil", now.plus(RECONCILE_LEASE)),
+            Document.class, COLLECTION);
+        if (lease == null) {
+            return; // another node is reconciling
+        }
+        try {
+            Document before = mongoTemplate.getCollection(COLLECTION).find(new Document("_id", DOC_ID)).first();
+            Map<String, Long> actual = countActual();
+            Document after = mongoTemplate.getCollection(COLLECTION).find(new Document("_id", DOC_ID)).first();
+
+            Map<String, Long> drift = new LinkedHashMap<>();
+            for (String key : counters.keySet()) {
+                long persistedBefore = before != null ? read(before, key) : 0;
+                long persistedAfter = after != null ? read(after, key) : 0;
+                if (persistedBefore != persistedAfter) {
+                    logger.debug("Counters changed during reconcile, skipping this round");
+                    return;
+                }
+                long difference = actual.getOrDefault(key, 0L) - persistedAfter;
+                if (difference != 0) {
+                    drift.put(key, difference);
+                }
+            }
+            if (!drift.isEmpty()) {
+                logger.warn("Status counter drift corrected: {}", drift);
+                Update update = new Update();
+                drift.forEach(update::inc);
+                mongoTemplate.updateFirst(counterDoc, update, COLLECTION);
+            }
+            mongoTemplate.updateFirst(counterDoc, new Update().set("reconciledAt", now), COLLECTION);
+            lastDrift = Collections.unmodifiableMap(drift);
+            lastReconciledAt = now;
+            refresh();
+        } finally {
+            mongoTemplate.updateFirst(counterDoc, new Update().unset("reconcileLockUntil"), COLLECTION);
+        }
+    }
+
+    Map<String, Long> countActual() {
+        TypedAggregation<Customer> aggregation = Aggregation.newAggregation(Customer.class,
+            Aggregation.project("repairStatus", "onboardingState")
+                .and(ArrayOperators.ArrayElemAt.arrayOf("messages.from").elementAt(-1)).as("lastFrom"),
+            Aggregation.facet(Aggregation.count().as("n")).as(TOTAL)
+                .and(Aggregation.match(Criteria.where("lastFrom").is("customer")), Aggregation.count().as("n")).as(PENDING_CONVERSATIONS)
+                .and(Aggregation.group("repairStatus").count().as("n")).as("repairStatus")
+                .and(Aggregation.group("onboardingState").count().as("n")).as("onboardingState"));
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        Map<String, Long> actual = new LinkedHashMap<>();
+        if (result == null) {
+            return actual;
+        }
+        for (String single : List.of(TOTAL, PENDING_CONVERSATIONS)) {
+            List<Document> rows = result.getList(single, Document.class, List.of());
+            actual.put(single, rows.isEmpty() ? 0L : ((Number) rows.get(0).get("n")).longValue());
+        }
+        for (String grouped : List.of("repairStatus", "onboardingState")) {
+            for (Document row : result.getList(grouped, Document.class, List.of())) {
+                if (row.get("_id") != null) {
+                    actual.put(grouped + "." + row.get("_id"), ((Number) row.get("n")).longValue());
+                }
+            }
+        }
+        return actual;
+    }
+
+    private static void addDelta(Map<String, Long> deltas, String from, String to) {
+        addDelta(deltas, from, to, 1);
+    }
+
+    private static void addDelta(Map<String, Long> deltas, String from, String to, long customers) {
+        if (from != null) deltas.merge(from, -customers, Long::sum);
+        if (to != null) deltas.merge(to, customers, Long::sum);
+    }
+
+    private static long read(Document doc, String key) {
+        Object value = doc;
+        for (String part : key.split("\\.")) {
+            value = value instanceof Document d ? d.get(part) : null;
+        }
+        return value instanceof Number n ? n.longValue() : 0;
+    }
+
+    static String key(RepairStatus status) { return "repairStatus." + status.name(); }
+    static String key(OnboardingState state) { return "onboardingState." + state.name(); }
+}
@@ -0,0 +1,306 @@
+package com.repairo.service;
+
+import com.repairo.analytics.DurationHistogram;
+import com.repairo.dto.StatusTransitionPoint;
+import com.repairo.model.RepairStatus;
+import com.repairo.model.RepairStatusChange;
+import com.repairo.model.StatusTransitionRollup;
+import com.repairo.model.StatusTransitionRollup.Granularity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Hourly and daily rollups of repair status transitions ({@code status_transition_rollups}), so charts
+ * never scan the audit log. Each audit record written by {@link StatusAuditService} is applied as one
+ * {@code $inc} upsert per granularity; {@link #rebuild} recomputes completed days from
+ * {@code repair_status_changes} in a single streamed pass.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.analytics.rollups", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StatusRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatusRollupService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.analytics.rollups.max-hourly-range-days:31}")
+    private int maxHourlyRangeDays;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private volatile LocalDateTime rebuildCutoff; // set while a rebuild runs
+    private final Map<String, RepairStatusChange> heldBack = new LinkedHashMap<>(); // guarded by itself
+
+    /**
+     * Adds one audit record to its hour and day buckets in a single round trip. Failures are logged
+     * only; a rebuild recomputes the affected days.
+     */
+    public void apply(RepairStatusChange change) {
+        if (change.getFromStatus() == null || change.getToStatus() == null || change.getFromStatus() == change.getToStatus()) {
+            return;
+        }
+        if (rebuildCutoff != null && withoutHeldBack(List.of(change)).isEmpty()) {
+            return;
+        }
+        try {
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StatusTransitionRollup.class);
+            for (Granularity granularity : Granularity.values()) {
+                LocalDateTime bucket = bucketStart(granularity, change.getChangedAt());
+                String id = StatusTransitionRollup.idOf(granularity, bucket, change.getFromStatus(), change.getToStatus());
+                ops.upsert(Query.query(Criteria.where("_id").is(id)), increment(granularity, bucket, change));
+            }
+            ops.execute();
+        } catch (Exception e) {
+            logger.warn("Failed to update status rollups for customer {}: {}", change.getCustomerId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Applies a batch of audit records: increments for the same bucket are merged first, then every
+     * bucket is upserted in one bulk write. Failures are logged only, as in {@link #apply}.
+     */
+    public void applyAll(List<RepairStatusChange> changes) {
+        Map<String, StatusTransitionRollup> buckets = new LinkedHashMap<>();
+        withoutHeldBack(changes).forEach(change -> accumulate(buckets, change));
+        if (buckets.isEmpty()) {
+            return;
+        }
+        try {
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StatusTransitionRollup.class);
+            buckets.values().forEach(delta -> ops.upsert(Query.query(Criteria.where("_id").is(delta.getId())), increment(delta)));
+            ops.execute();
+        } catch (Exception e) {
+            logger.warn("Failed to update status rollups for {} changes: {}", changes.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * While a rebuild runs, takes records of the days it recomputes out of the live path (the async
+     * audit writer delivers late batches and spill replays for past days). The rebuild drops those it
+     * reads and applies the rest when it finishes. Returns the records to apply now.
+     */
+    private List<RepairStatusChange> withoutHeldBack(List<RepairStatusChange> changes) {
+        if (rebuildCutoff == null) {
+            return changes;
+        }
+        synchronized (heldBack) {
+            LocalDateTime cutoff = rebuildCutoff;
+            if (cutoff == null) {
+                return changes;
+            }
+            List<RepairStatusChange> live = new ArrayList<>(changes.size());
+            for (RepairStatusChange change : changes) {
+                if (change.getId() != null && change.getChangedAt() != null && change.getChangedAt().isBefore(cutoff)) {
+                    heldBack.put(change.getId(), change);
+                } else {
+                    live.add(change);
+                }
+            }
+            return live;
+        }
+    }
+
+    static Update increment(StatusTransitionRollup delta) {
+        Update update = new Update()
+            .setOnInsert("granularity", delta.getGranularity())
+            .setOnInsert("bucketStart", delta.getBucketStart())
+            .setOnInsert("fromStatus", delta.getFromStatus())
+            .setOnInsert("toStatus", delta.getToStatus())
+            .inc("count", delta.getCount());
+        if (delta.getTimedCount() > 0) {
+            update.inc("timedCount", delta.getTimedCount())
+                .inc("durationSumMs", delta.getDurationSumMs())
+                .max("durationMaxMs", delta.getDurationMaxMs());
+            delta.getDurationHistogram().forEach((bucket, count) -> update.inc("durationHistogram." + bucket, count));
+        }
+        return update;
+    }
+
+    static Update increment(Granularity granularity, LocalDateTime bucket, RepairStatusChange change) {
+        Update update = new Update()
+            .setOnInsert("granularity", granularity)
+            .setOnInsert("bucketStart", bucket)
+            .setOnInsert("fromStatus", change.getFromStatus())
+            .setOnInsert("toStatus", change.getToStatus())
+            .inc("count", 1);
+        Long duration = change.getDurationMs();
+        if (duration != null && duration >= 0) {
+            update.inc("timedCount", 1)
+                .inc("durationSumMs", duration)
+                .max("durationMaxMs", duration)
+                .inc("durationHistogram." + DurationHistogram.bucketOf(duration), 1);
+        }
+        return update;
+    }
+
+    /**
+     * Chart data for [from, to), oldest bucket first. Status filters are optional. Hourly ranges are
+     * capped at app.analytics.rollups.max-hourly-range-days.
+     */
+    public List<StatusTransitionPoint> range(Granularity granularity, LocalDateTime from, LocalDateTime to,
+                                             RepairStatus fromStatus, RepairStatus toStatus) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (granularity == Granularity.HOUR && Duration.between(from, to).toDays() > maxHourlyRangeDays) {
+            throw new IllegalArgumentException("Hourly range is limited to " + maxHourlyRangeDays + " days, use DAY");
+        }
+        Criteria criteria = Criteria.where("granularity").is(granularity)
+            .and("bucketStart").gte(bucketStart(granularity, from)).lt(to);
+        if (fromStatus != null) criteria.and("fromStatus").is(fromStatus);
+        if (toStatus != null) criteria.and("toStatus").is(toStatus);
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "bucketStart"));
+        return mongoTemplate.find(query, StatusTransitionRollup.class).stream()
+            .map(StatusTransitionPoint::of)
+            .toList();
+    }
+
+    /** Transitions into COMPLETED during the given day, from the daily rollups. */
+    public long completedOn(LocalDate day) {
+        Query query = Query.query(Criteria.where("granularity").is(Granularity.DAY)
+            .and("bucketStart").is(day.atStartOfDay())
+            .and("toStatus").is(RepairStatus.COMPLETED));
+        query.fields().include("count");
+        return mongoTemplate.find(query, StatusTransitionRollup.class).stream()
+            .mapToLong(StatusTransitionRollup::getCount)
+            .sum();
+    }
+
+    /**
+     * Recomputes all rollups for days before {@code until} (truncated to the day) from the audit log;
+     * today's buckets are left alone. Past days can still receive increments (late audit writer
+     * batches, spill replays): on this node those are held back while the rebuild runs and applied
+     * afterwards unless the rebuild read them. Rebuilt buckets are written as upserting replacements,
+     * so an increment from another node cannot make the write fail. Changes are streamed in time order
+     * and each finished day is written before the next one is read, so memory holds one day of buckets
+     * plus the last change time per customer (used to derive durations for records written before they
+     * were stored).
+     *
+     * Rollups of the rebuilt days are removed first and are incomplete until the run finishes.
+     */
+    public Map<String, Object> rebuild(LocalDateTime until) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("A rollup rebuild is already running");
+        }
+        LocalDateTime cutoff = until.truncatedTo(ChronoUnit.DAYS);
+        synchronized (heldBack) {
+            rebuildCutoff = cutoff;
+        }
+        try {
+            long removed = mongoTemplate.remove(Query.query(Criteria.where("bucketStart").lt(cutoff)),
+                StatusTransitionRollup.class).getDeletedCount();
+
+            Map<String, LocalDateTime> lastChangeAt = new HashMap<>();
+            Map<String, StatusTransitionRollup> day = new LinkedHashMap<>();
+            LocalDateTime currentDay = null;
+            long read = 0;
+            long written = 0;
+            Query query = Query.query(Criteria.where("changedAt").lt(cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "changedAt"));
+            try (Stream<RepairStatusChange> changes = mongoTemplate.stream(query, RepairStatusChange.class)) {
+                for (RepairStatusChange change : (Iterable<RepairStatusChange>) changes::iterator) {
+                    read++;
+                    LocalDateTime changeDay = change.getChangedAt().truncatedTo(ChronoUnit.DAYS);
+                    if (currentDay != null && !changeDay.equals(currentDay)) {
+                        written += flush(day);
+                    }
+                    currentDay = changeDay;
+
+                    synchronized (heldBack) {
+                        heldBack.remove(change.getId()); // counted here, not applied afterwards
+                    }
+                    StatusAuditService.deriveDuration(change, lastChangeAt);
+                    accumulate(day, change);
+                }
+            }
+            written += flush(day);
+            logger.info("Rebuilt status rollups before {}: {} audit records, {} rollups written, {} removed",
+                cutoff, read, written, removed);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("until", cutoff);
+            result.put("changesRead", read);
+            result.put("rollupsWritten", written);
+            result.put("rollupsRemoved", removed);
+            return result;
+        } finally {
+            List<RepairStatusChange> missed;
+            synchronized (heldBack) {
+                rebuildCutoff = null;
+                missed = new ArrayList<>(heldBack.values());
+                heldBack.clear();
+            }
+            if (!missed.isEmpty()) {
+                applyAll(missed);
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    static void accumulate(Map<String, StatusTransitionRollup> buckets, RepairStatusChange change) {
+        if (change.getFromStatus() == null || change.getToStatus() == null || change.getFromStatus() == change.getToStatus()) {
+            return;
+        }
+        for (Granularity granularity : Granularity.values()) {
+            LocalDateTime bucket = bucketStart(granularity, change.getChangedAt());
+            String id = StatusTransitionRollup.idOf(granularity, bucket, change.getFromStatus(), change.getToStatus());
+            StatusTransitionRollup rollup = buckets.computeIfAbsent(id, key -> {
+                StatusTransitionRollup created = new StatusTransitionRollup();
+                created.setId(key);
+                created.setGranularity(granularity);
+                created.setBucketStart(bucket);
+                created.setFromStatus(change.getFromStatus());
+                created.setToStatus(change.getToStatus());
+                return created;
+            });
+            rollup.setCount(rollup.getCount() + 1);
+            Long duration = change.getDurationMs();
+            if (duration != null && duration >= 0) {
+                rollup.setTimedCount(rollup.getTimedCount() + 1);
+                rollup.setDurationSumMs(rollup.getDurationSumMs() + duration);
+                rollup.setDurationMaxMs(Math.max(rollup.getDurationMaxMs(), duration));
+                rollup.getDurationHistogram().merge(String.valueOf(DurationHistogram.bucketOf(duration)), 1L, Long::sum);
+            }
+        }
+    }
+
+    private int flush(Map<String, StatusTransitionRollup> buckets) {
+        if (buckets.isEmpty()) {
+            return 0;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StatusTransitionRollup.class);
+        buckets.values().forEach(rollup ->
+            ops.replaceOne(Query.query(Criteria.where("_id").is(rollup.getId())), rollup, FindAndReplaceOptions.options().upsert()));
+        ops.execute();
+        int written = buckets.size();
+        buckets.clear();
+        return written;
+    }
+
+    static LocalDateTime bucketStart(Granularity granularity, LocalDateTime time) {
+        return time.truncatedTo(granularity == Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+    }
+}
@@ -1,17 +1,27 @@
 package com.repairo.service;
 
+import com.repairo.dto.ConversationMessage;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Publishes WebSocket events to STOMP topics for real-time admin updates.
+ * Every event carries a monotonic {@code seq} plus the publisher {@code epoch} and is kept in a
+ * bounded replay buffer so reconnecting clients can fetch just the events they missed.
+ *
+ * With app.cluster.change-streams.enabled the public publish methods are no-ops: every node learns
+ * about changes from {@link ChangeStreamEventRelay} instead, so events written on any node reach the
+ * clients of all nodes exactly once.
  */
 @Component
 public class WebSocketEventPublisher {
@@ -21,20 +31,100 @@ public class WebSocketEventPublisher {
     @Autowired(required = false)
     private SimpMessagingTemplate messagingTemplate; // optional when WS disabled
 
+    @Value("${app.websocket.replay.buffer-size:1000}")
+    private int replayBufferSize;
+
+    @Value("${app.cluster.change-streams.enabled:false}")
+    private boolean clusterFanOut;
+
+    // Changes on every restart so clients can tell a reset sequence from a gap
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Object sendLock = new Object(); // keeps delivery in sequence order
+
+    private EventReplayBuffer replayBuffer;
+
+    @PostConstruct
+    void initReplayBuffer() {
+        replayBuffer = new EventReplayBuffer(replayBufferSize);
+        log.debug("WebSocket replay buffer initialized (capacity {}, epoch {})", replayBufferSize, epoch);
+    }
+
     private boolean available() { return messagingTemplate != null; }
 
+    // Local publishes are skipped in cluster mode; the change stream relay emits them on every node
+    private boolean publishLocally() { return available() && !clusterFanOut; }
+
     public void publishNewMessage(String customerId, String preview) {
+        if (!publishLocally()) return;
+        emitNewMessage(customerId, preview);
+    }
+
+    void emitNewMessage(String customerId, String preview) {
         if (!available()) return;
         Map<String, Object> payload = new HashMap<>();
         payload.put("type", "NEW_MESSAGE");
         payload.put("customerId", customerId);
         payload.put("preview", preview);
         payload.put("timestamp", LocalDateTime.now().toString());
-        messagingTemplate.convertAndSend("/topic/admin/new-messages", payload);
+        send("/topic/admin/new-messages", payload);
         log.debug("Published NEW_MESSAGE event for {}", customerId);
     }
 
+    /**
+     * Pushes the full (decrypted) message to the per-conversation topic so an open chat can append it
+     * locally, and a short preview to the shared admin topic for notifications.
+     */
+    public void publishConversationMessage(String customerId, ConversationMessage message) {
+        if (!publishLocally()) return;
+        emitConversationMessage(customerId, message);
+    }
+
+    void emitConversationMessage(String customerId, ConversationMessage message) {
+        if (!available()) return;
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "CONVERSATION_MESSAGE");
+        payload.put("customerId", customerId);
+        payload.put("message", message);
+        payload.put("timestamp", LocalDateTime.now().toString());
+        send(conversationTopic(customerId), payload);
+        log.debug("Published CONVERSATION_MESSAGE #{} for {}", message.getSequence(), customerId);
+
+        String preview = message.getText() != null ? message.getText() : "";
+        if (preview.length() > 40) preview = preview.substring(0, 40) + "...";
+        emitNewMessage(customerId, preview);
+    }
+
+    /**
+     * Delivery progress of an outbound message, on the conversation topic so the open chat can update
+     * the bubble in place.
+     */
+    public void publishDeliveryStatus(String customerId, String messageId, String deliveryStatus) {
+        if (!publishLocally()) return;
+        emitDeliveryStatus(customerId, messageId, deliveryStatus);
+    }
+
+    void emitDeliveryStatus(String customerId, String messageId, String deliveryStatus) {
+        if (!available()) return;
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "DELIVERY_STATUS");
+        payload.put("customerId", customerId);
+        payload.put("messageId", messageId);
+        payload.put("deliveryStatus", deliveryStatus);
+        payload.put("timestamp", LocalDateTime.now().toString());
+        send(conversationTopic(customerId), payload);
+        log.debug("Published DELIVERY_STATUS {} for message {} of {}", deliveryStatus, messageId, customerId);
+    }
+
+    public static String conversationTopic(String customerId) {
+        return "/topic/conversations/" + customerId;
+    }
+
     public void publishStatusChange(String customerId, String oldStatus, String newStatus) {
+        if (!publishLocally()) return;
+        emitStatusChange(customerId, oldStatus, newStatus);
+    }
+
+    void emitStatusChange(String customerId, String oldStatus, String newStatus) {
         if (!available()) return;
         Map<String, Object> payload = new HashMap<>();
         payload.put("type", "STATUS_CHANGE");
@@ -42,7 +132,64 @@ public class WebSocketEventPublisher {
         payload.put("oldStatus", oldStatus);
         payload.put("newStatus", newStatus);
         payload.put("timestamp", LocalDateTime.now().toString());
-        messagingTemplate.convertAndSend("/topic/admin/status-updates", payload);
+        send("/topic/admin/status-updates", payload);
         log.debug("Published STATUS_CHANGE event for {} {}->{}", customerId, oldStatus, newStatus);
     }
+
+    /**
+     * One event for a bulk status update instead of one per customer; {@code changes} holds the
+     * customerId and oldStatus of every customer moved to {@code newStatus}. In cluster mode the relay
+     * still emits one STATUS_CHANGE per audit record.
+     */
+    public void publishBulkStatusChange(String newStatus, List<Map<String, String>> changes) {
+        if (!publishLocally()) return;
+        emitBulkStatusChange(newStatus, changes);
+    }
+
+    void emitBulkStatusChange(String newStatus, List<Map<String, String>> changes) {
+        if (!available()) return;
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "BULK_STATUS_CHANGE");
+        payload.put("newStatus", newStatus);
+        payload.put("changes", changes);
+        payload.put("count", changes.size());
+        payload.put("timestamp", LocalDateTime.now().toString());
+        send("/topic/admin/status-updates", payload);
+        log.debug("Published BULK_STATUS_CHANGE event for {} customers -> {}", changes.size(), newStatus);
+    }
+
+    /**
+     * Events published after {@code sinceSeq}. A different epoch means the server restarted since the
+     * client last connected, so its sequence is meaningless and a full resync is required.
+     */
+    public EventReplayBuffer.ReplayResult replaySince(long sinceSeq, String clientEpoch) {
+        if (clientEpoch != null && !clientEpoch.isEmpty() && !epoch.equals(clientEpoch)) {
+            return new EventReplayBuffer.ReplayResult(true, replayBuffer.latestSequence(), List.of());
+        }
+        return replayBuffer.since(sinceSeq);
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /** Sequence of the newest published event, 0 when nothing was published yet. */
+    public long latestSequence() {
+        return replayBuffer.latestSequence();
+    }
+
+    /**
+     * Numbers, buffers and sends the event in one critical section, so concurrent publishers cannot
+     * deliver seq N+1 before seq N and make clients request a replay they don't need.
+     */
+    private void send(String destination, Map<String, Object> payload) {
+        synchronized (sendLock) {
+            EventReplayBuffer.BufferedEvent event = replayBuffer.append(destination, seq -> {
+                payload.put("seq", seq);
+                payload.put("epoch", epoch);
+                return payload;
+            });
+            messagingTemplate.convertAndSend(destination, event.payload());
+        }
+    }
 }
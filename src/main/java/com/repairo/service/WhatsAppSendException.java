@@ -0,0 +1,24 @@
+package com.repairo.service;
+
+/**
+ * Raised when a message could not be handed to the WhatsApp Graph API. {@code retryable} tells the
+ * outbox whether another attempt can succeed (network errors, 5xx, 429) or the message is doomed
+ * (bad recipient, invalid payload, ...).
+ */
+public class WhatsAppSendException extends RuntimeException {
+
+    private final boolean retryable;
+    private final int statusCode;   // HTTP status, 0 when no response was received
+    private final Integer errorCode; // Graph API error.code when present
+
+    public WhatsAppSendException(String message, Throwable cause, boolean retryable, int statusCode, Integer errorCode) {
+        super(message, cause);
+        this.retryable = retryable;
+        this.statusCode = statusCode;
+        this.errorCode = errorCode;
+    }
+
+    public boolean isRetryable() { return retryable; }
+    public int getStatusCode() { return statusCode; }
+    public Integer getErrorCode() { return errorCode; }
+}
@@ -1,11 +1,17 @@
 package com.repairo.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 @Service
@@ -25,16 +31,26 @@ public class WhatsAppService {
     @Value("${whatsapp.test.mode:true}")
     private boolean isTestMode;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${whatsapp.api.url:https://graph.facebook.com}")
+    private String apiUrl;
+
+    @Autowired
+    @Qualifier("whatsAppRestTemplate")
+    private RestTemplate restTemplate; // pooled HTTP/2 client with timeouts, see WhatsAppClientConfig
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     public void handleIncomingMessage(String phoneNumber, String messageText) {
         // This will be handled by MessageService in the controller
         System.out.println("Received message from " + phoneNumber + ": " + messageText);
     }
 
-    public void sendMessage(String phoneNumber, String message) {
+    /**
+     * Sends a text message and returns the WhatsApp message id (wamid) when the API reports one.
+     * Failures are raised as {@link WhatsAppSendException} flagged retryable or not.
+     */
+    public String sendMessage(String phoneNumber, String message) {
         try {
-            String url = "https://graph.facebook.com/" + apiVersion + "/" + phoneNumberId + "/messages";
+            String url = apiUrl + "/" + apiVersion + "/" + phoneNumberId + "/messages";
 
             String payload = String.format("""
                 {
@@ -59,6 +75,7 @@ public class WhatsAppService {
             
             ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
             logger.info("WhatsApp message sent successfully. Response: {}", response.getBody());
+            return extractMessageId(response.getBody());
 
         } catch (HttpClientErrorException e) {
             logger.error("Failed to send WhatsApp message to {}: {} {}", phoneNumber, e.getStatusCode(), e.getResponseBodyAsString());
@@ -78,11 +95,56 @@ public class WhatsAppService {
                 }
             }
             
-            // Re-throw or handle as needed - for now we'll log and continue
-            throw new RuntimeException("WhatsApp message sending failed", e);
+            // Rate limits (429 and the throughput / pair limit codes) and 408 can succeed later;
+            // other 4xx will fail the same way again
+            int status = e.getStatusCode().value();
+            Integer errorCode = extractErrorCode(e.getResponseBodyAsString());
+            throw new WhatsAppSendException("WhatsApp message sending failed", e,
+                status == 408 || isRateLimit(status, errorCode), status, errorCode);
+        } catch (HttpServerErrorException e) {
+            logger.error("WhatsApp API error sending to {}: {} {}", phoneNumber, e.getStatusCode(), e.getResponseBodyAsString());
+            throw new WhatsAppSendException("WhatsApp message sending failed", e,
+                true, e.getStatusCode().value(), extractErrorCode(e.getResponseBodyAsString()));
+        } catch (ResourceAccessException e) {
+            logger.error("WhatsApp API unreachable sending to {}: {}", phoneNumber, e.getMessage());
+            throw new WhatsAppSendException("WhatsApp message sending failed", e, true, 0, null);
         } catch (Exception e) {
             logger.error("Unexpected error sending WhatsApp message to {}: {}", phoneNumber, e.getMessage(), e);
-            throw new RuntimeException("WhatsApp message sending failed", e);
+            throw new WhatsAppSendException("WhatsApp message sending failed", e, true, 0, null);
+        }
+    }
+
+    /**
+     * True for responses that mean "slow down": HTTP 429, throughput (130429, 80007, 4) and pair
+     * rate limit (131056) error codes.
+     */
+    public static boolean isRateLimit(int status, Integer errorCode) {
+        if (status == 429) return true;
+        if (errorCode == null) return false;
+        return errorCode == 130429 || errorCode == 131056 || errorCode == 80007 || errorCode == 4;
+    }
+
+    public String getPhoneNumberId() {
+        return phoneNumberId;
+    }
+
+    private String extractMessageId(String body) {
+        if (body == null || body.isEmpty()) return null;
+        try {
+            JsonNode id = objectMapper.readTree(body).path("messages").path(0).path("id");
+            return id.isTextual() ? id.asText() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private Integer extractErrorCode(String body) {
+        if (body == null || body.isEmpty()) return null;
+        try {
+            JsonNode code = objectMapper.readTree(body).path("error").path("code");
+            return code.isInt() ? code.asInt() : null;
+        } catch (Exception e) {
+            return null;
         }
     }
 }
@@ -0,0 +1,194 @@
+package com.repairo.websocket;
+
+import com.repairo.config.WebSocketProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the outbound backlog of every WebSocket session and applies the configured slow-consumer
+ * policy before one slow client can back up broker fan-out.
+ *
+ * Backlog = messages accepted on clientOutboundChannel for the session minus frames actually written
+ * to its socket, i.e. executor queue plus Spring's per-session send buffer. Frames Spring writes
+ * outside the channel (e.g. STOMP ERROR) make it an approximation, which is fine for a guard.
+ *
+ * Registered both as an outbound channel interceptor and as a WebSocket handler decorator.
+ */
+public class SlowConsumerGuard implements ChannelInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowConsumerGuard.class);
+
+    private final WebSocketProperties.SlowConsumer settings;
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private final DistributionSummary backlogSummary;
+    private final Timer sendTimer;
+    private final Counter droppedMessages;
+    private final Counter terminatedByGuard;
+    private final Counter terminatedBySendLimit;
+
+    public SlowConsumerGuard(WebSocketProperties.SlowConsumer settings, MeterRegistry registry) {
+        this.settings = settings;
+        Gauge.builder("repairo.websocket.sessions", sessions, Map::size)
+            .description("Open WebSocket sessions")
+            .register(registry);
+        Gauge.builder("repairo.websocket.session.backlog.max", this, SlowConsumerGuard::maxBacklog)
+            .description("Largest outbound backlog (messages) of any session")
+            .register(registry);
+        Gauge.builder("repairo.websocket.session.backlog.total", this, SlowConsumerGuard::totalBacklog)
+            .description("Outbound messages queued across all sessions")
+            .register(registry);
+        this.backlogSummary = DistributionSummary.builder("repairo.websocket.session.backlog")
+            .description("Per-session outbound backlog observed when a message is queued")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+        this.sendTimer = Timer.builder("repairo.websocket.send")
+            .description("Time to write one frame to a client socket")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+        this.droppedMessages = Counter.builder("repairo.websocket.messages.dropped")
+            .description("Broadcasts skipped for sessions over the backlog limit (DROP policy)")
+            .register(registry);
+        this.terminatedByGuard = Counter.builder("repairo.websocket.sessions.dropped")
+            .tag("reason", "backlog")
+            .description("Sessions closed as slow consumers")
+            .register(registry);
+        this.terminatedBySendLimit = Counter.builder("repairo.websocket.sessions.dropped")
+            .tag("reason", "send-limit")
+            .description("Sessions closed as slow consumers")
+            .register(registry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SessionState state = sessionId != null ? sessions.get(sessionId) : null;
+        if (state == null) {
+            return message;
+        }
+        int backlog = state.queued.get();
+        boolean broadcast = SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE;
+        if (broadcast && settings.getMaxQueuedMessages() > 0 && backlog >= settings.getMaxQueuedMessages()) {
+            switch (settings.getPolicy()) {
+                case DROP:
+                    droppedMessages.increment();
+                    return null;
+                case TERMINATE:
+                    terminate(state, backlog);
+                    return null;
+                default:
+                    break;
+            }
+        }
+        backlogSummary.record(state.queued.incrementAndGet());
+        return message;
+    }
+
+    /**
+     * Decorates the sub-protocol handler so every session is tracked and its socket writes are
+     * counted and timed (the session handed down is wrapped before Spring's own buffering decorator).
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionState state = new SessionState(session);
+                sessions.put(session.getId(), state);
+                super.afterConnectionEstablished(new MeteredSession(session, state));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                SessionState state = sessions.remove(session.getId());
+                if (state != null && !state.terminated.get() && closeStatus.equalsCode(CloseStatus.SESSION_NOT_RELIABLE)) {
+                    // Spring closes with SESSION_NOT_RELIABLE when send-time or send-buffer limits are exceeded
+                    terminatedBySendLimit.increment();
+                    log.warn("WebSocket session {} closed after exceeding send limits", session.getId());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private void terminate(SessionState state, int backlog) {
+        if (!state.terminated.compareAndSet(false, true)) {
+            return;
+        }
+        terminatedByGuard.increment();
+        log.warn("Closing slow WebSocket session {} (backlog {} messages)", state.session.getId(), backlog);
+        try {
+            state.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Error closing slow session {}: {}", state.session.getId(), e.getMessage());
+        }
+    }
+
+    int maxBacklog() {
+        int max = 0;
+        for (SessionState state : sessions.values()) {
+            max = Math.max(max, state.queued.get());
+        }
+        return max;
+    }
+
+    long totalBacklog() {
+        long total = 0;
+        for (SessionState state : sessions.values()) {
+            total += state.queued.get();
+        }
+        return total;
+    }
+
+    private static final class SessionState {
+        final WebSocketSession session;
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicBoolean terminated = new AtomicBoolean(false);
+
+        SessionState(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+
+    private final class MeteredSession extends WebSocketSessionDecorator {
+        private final SessionState state;
+
+        MeteredSession(WebSocketSession delegate, SessionState state) {
+            super(delegate);
+            this.state = state;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            long start = System.nanoTime();
+            try {
+                super.sendMessage(message);
+            } finally {
+                sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                state.queued.updateAndGet(n -> n > 0 ? n - 1 : 0);
+            }
+        }
+    }
+}
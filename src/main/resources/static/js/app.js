@@ -6,6 +6,8 @@
    - CSRF-aware POST helper
    - Debounce utility
    - Page modules: DashboardPage, MessagesPage, CustomersPage, RepairsPage
+   - Per-conversation STOMP subscriptions (message deltas appended locally)
+   - Reconnect-with-resume: missed events replayed by sequence, resync on gaps
    - Client-side pagination for customers
    ========================================================================== */
 
@@ -64,7 +66,7 @@
       .then(async r => {
         let data = null;
         try { data = await r.json(); } catch(_){ /* ignore parse errors */ }
-        return { ok: r.ok, json: data };
+        return { ok: r.ok, status: r.status, json: data };
       });
   }
 
@@ -175,20 +177,45 @@
   // Real-time coordination state
   const realTimeState = {
     lastActivity: Date.now(),
-    ws: { connected: false, reconnects: 0, client: null }
+    ws: { connected: false, reconnects: 0, client: null, everConnected: false },
+    connectListeners: [],
+    resyncHandlers: [],
+    conversationHandlers: [],
+    // Resume bookkeeping (sequence + server epoch from WebSocketEventPublisher)
+    lastSeq: 0,
+    epoch: null,
+    seenSeqs: new Set()
   };
 
+  // Register a callback for when missed events can't be replayed; without any handler the page reloads
+  function onWsResync(fn) {
+    realTimeState.resyncHandlers.push(fn);
+  }
+
+  // Register a callback invoked on every (re)connect; runs immediately if already connected
+  function onWsConnected(fn) {
+    realTimeState.connectListeners.push(fn);
+    if (realTimeState.ws.connected && realTimeState.ws.client) fn(realTimeState.ws.client);
+  }
+
   /* ------------------ DASHBOARD PAGE ------------------ */
   const DashboardPage = (() => {
     let polling;
-    let lastChecked = new Date().toISOString();
+    let lastPending = null;
+    const STATS = {
+      'total-customers': 'totalCustomers',
+      'active-repairs': 'activeRepairs',
+      'pending-messages': 'pendingMessages',
+      'completed-today': 'completedToday'
+    };
     function init() {
       const root = qs('[data-page="dashboard"]');
       if (!root) return;
       const intervalMeta = qs('meta[name="poll.dashboard.interval"]');
       const dashInterval = intervalMeta ? parseInt(intervalMeta.content,10) : 10000;
+      // One aggregated stats call per tick instead of scanning customers via check-new-messages
       polling = new Poller({
-        url: `/admin/check-new-messages?lastChecked=${encodeURIComponent(lastChecked)}`,
+        url: '/admin/stats',
         interval: dashInterval,
         onData: handleData,
         onError: () => {}
@@ -197,11 +224,11 @@
     function handleData(resp) {
       const data = resp && resp.data ? resp.data : resp; // unwrap ApiResponse
       if (!data) return;
-      if (data.timestamp) lastChecked = data.timestamp;
-      if (data.hasNewMessages && data.newMessageCount > 0) {
-        notifyNewMessages(data.newMessageCount);
-        updatePendingMessages(data.newMessageCount);
+      if (lastPending !== null && data.pendingMessages > lastPending) {
+        notifyNewMessages(data.pendingMessages - lastPending);
       }
+      lastPending = data.pendingMessages;
+      Object.keys(STATS).forEach(key => updateStat(key, data[STATS[key]]));
     }
     function notifyNewMessages(count) {
       Toast.show(`${count} new message${count>1?'s':''}. Click to view.`, 'success', {
@@ -209,11 +236,11 @@
         icon: '<i class="fas fa-comments"></i>'
       }).addEventListener('click', () => { window.location.href='/admin/messages'; });
     }
-    function updatePendingMessages(delta) {
-      const el = qs('[data-stat="pending-messages"] .stat-number');
-      if (!el) return;
-      const current = parseInt(el.textContent) || 0;
-      el.textContent = current + delta;
+    function updateStat(key, value) {
+      const el = qs(`[data-stat="${key}"] .stat-number`);
+      if (!el || value === undefined || value === null) return;
+      if (el.textContent === String(value)) return;
+      el.textContent = value;
       el.classList.add('updated');
       setTimeout(()=> el.classList.remove('updated'), 1200);
     }
@@ -230,6 +257,7 @@
     };
     let els = {};
     let messagesPoller = null;
+    let conversationSub = null;
     function init() {
       if (!qs('[data-page="messages"]')) return;
       cache();
@@ -240,6 +268,14 @@
         selectFirst();
         startPoller();
       });
+      // (Re)subscribe to the open conversation whenever the socket (re)connects
+      onWsConnected(() => subscribeConversation(state.currentCustomerId));
+      realTimeState.conversationHandlers.push(applyConversationMessage);
+      onWsResync(() => {
+        fetchOnce(true).finally(() => {
+          if (state.currentCustomerId) fetchConversation(state.currentCustomerId, 0);
+        });
+      });
       // Safety: visibility resume if poller somehow inactive
       document.addEventListener('visibilitychange', () => {
         if (!document.hidden && messagesPoller && !messagesPoller.active) {
@@ -335,8 +371,8 @@
               if (existing.customerId === state.currentCustomerId) {
                 const currentCount = (existing.messages || []).length;
                 if (incoming.messageCount > currentCount) {
-                  // Fetch full messages for this single customer (fallback: full refresh call)
-                  fetchFullMessagesForCustomer(existing.customerId);
+                  // Fetch only the missing tail of this conversation
+                  fetchConversation(existing.customerId, confirmedCount(existing));
                 }
               }
               // Update meta fields
@@ -386,27 +422,103 @@
       }
     }
 
-    async function fetchFullMessagesForCustomer(customerId) {
+    function confirmedCount(customer) {
+      return (customer.messages || []).filter(m => !m.optimistic).length;
+    }
+
+    function toLocalMessage(msg) {
+      return { messageId: msg.id, from: msg.from, text: msg.text, timestamp: msg.timestamp, deliveryStatus: msg.deliveryStatus };
+    }
+
+    // Loads a single conversation (or only messages after `after`) instead of refetching every customer
+    async function fetchConversation(customerId, after=0) {
       try {
-        // Leverage existing endpoint without diff to get fresh full payload for one customer (filter client-side)
-        const resp = await fetch(`/admin/check-new-messages?lastChecked=${encodeURIComponent(state.lastChecked)}`);
+        const resp = await fetch(`/admin/conversations/${encodeURIComponent(customerId)}/messages?after=${after}`,
+          { headers: { 'Accept':'application/json' } });
         const json = await resp.json();
-        const data = json && json.data ? json.data : json;
-        if (data && data.customers) {
-          const fresh = data.customers.find(c => c.customerId === customerId);
-          if (fresh) {
-            const idx = state.customers.findIndex(c => c.customerId === customerId);
-            if (idx >= 0) {
-              state.customers[idx].messages = fresh.messages || [];
-              if (state.currentCustomerId === customerId) {
-                renderMessages(state.customers[idx], { force:true });
-              }
-            }
-          }
+        const list = json && json.data ? json.data : null;
+        if (!list) return;
+        const customer = state.customers.find(c => c.customerId === customerId);
+        if (!customer) return;
+        if (after > 0) {
+          const confirmed = (customer.messages || []).filter(m => !m.optimistic);
+          // Local state moved on while the request was in flight; reload the whole conversation
+          if (confirmed.length !== after) return fetchConversation(customerId, 0);
+          customer.messages = confirmed.concat(list.map(toLocalMessage));
+        } else {
+          customer.messages = list.map(toLocalMessage);
+        }
+        if (state.currentCustomerId === customerId) {
+          renderMessages(customer, { force:true });
         }
+        refreshCustomerList();
       } catch(e){ /* ignore */ }
     }
 
+    function subscribeConversation(customerId) {
+      if (conversationSub) {
+        try { conversationSub.unsubscribe(); } catch(_){}
+        conversationSub = null;
+      }
+      const client = realTimeState.ws.client;
+      if (!customerId || !client || !realTimeState.ws.connected) return;
+      const destination = `/topic/conversations/${customerId}`;
+      conversationSub = client.subscribe(destination, frame => {
+        try { dispatchWsEvent(destination, JSON.parse(frame.body)); } catch(_){}
+      });
+    }
+
+    function applyConversationMessage(evt) {
+      if (evt && evt.type === 'DELIVERY_STATUS') return applyDeliveryStatus(evt);
+      if (!evt || !evt.message) return;
+      const customer = state.customers.find(c => c.customerId === evt.customerId);
+      if (!customer) return;
+      const msg = evt.message;
+      customer.messages = customer.messages || [];
+      if (msg.id && customer.messages.some(m => m.messageId === msg.id)) return;
+      // Our own reply comes back on the topic: confirm the optimistic bubble instead of duplicating it
+      const pendingIdx = customer.messages.findIndex(m => m.optimistic && m.from === msg.from && m.text === msg.text);
+      if (pendingIdx >= 0) {
+        customer.messages[pendingIdx] = toLocalMessage(msg);
+        return;
+      }
+      if (msg.sequence && msg.sequence !== confirmedCount(customer) + 1) {
+        fetchConversation(customer.customerId, confirmedCount(customer));
+        return;
+      }
+      const local = toLocalMessage(msg);
+      customer.messages.push(local);
+      if (customer.customerId === state.currentCustomerId) {
+        appendMessages(customer, [local]);
+      }
+      refreshCustomerList();
+    }
+
+    // Outbox progress for an admin reply; updates the bubble in place
+    function applyDeliveryStatus(evt) {
+      const customer = state.customers.find(c => c.customerId === evt.customerId);
+      const msg = customer && (customer.messages || []).find(m => m.messageId === evt.messageId);
+      if (!msg) return;
+      msg.deliveryStatus = evt.deliveryStatus;
+      if (customer.customerId !== state.currentCustomerId || !els.messages) return;
+      const el = els.messages.querySelector(`[data-message-id="${CSS.escape(evt.messageId)}"] .message-delivery`);
+      if (el) {
+        el.textContent = deliveryLabel(evt.deliveryStatus);
+        el.dataset.status = evt.deliveryStatus;
+      }
+    }
+
+    function deliveryLabel(status) {
+      switch (status) {
+        case 'sent': return 'Sent';
+        case 'failed': return 'Retrying';
+        case 'dead': return 'Not delivered';
+        case 'pending':
+        case 'sending': return 'Sending';
+        default: return '';
+      }
+    }
+
     function refreshCustomerList() {
       if (!els.customerList) return;
       els.customerList.innerHTML = '';
@@ -454,6 +566,7 @@
     function selectFirst() {
       if (state.customers.length > 0) {
         state.currentCustomerId = state.customers[0].customerId;
+        subscribeConversation(state.currentCustomerId);
         refreshCustomerList();
         renderMessages(state.customers[0]);
         showChatInterface(state.customers[0]);
@@ -464,6 +577,7 @@
       qsa('.customer-item').forEach(i=> i.classList.remove('active'));
       el.classList.add('active');
       state.currentCustomerId = el.dataset.customerId;
+      subscribeConversation(state.currentCustomerId);
       const c = state.customers.find(cc => cc.customerId === state.currentCustomerId);
       if (c) {
         showChatInterface(c);
@@ -505,10 +619,13 @@
       const bub = document.createElement('div');
       bub.className = 'message-bubble ' + (m.from === 'customer' ? 'message-customer' : 'message-admin');
       const time = new Date(m.timestamp).toLocaleTimeString([], {hour:'2-digit', minute:'2-digit'});
+      if (m.messageId) bub.dataset.messageId = m.messageId;
+      const delivery = m.from === 'admin' && m.deliveryStatus
+        ? ` <span class="message-delivery" data-status="${escapeHtml(m.deliveryStatus)}">${deliveryLabel(m.deliveryStatus)}</span>` : '';
       bub.innerHTML = `
         <div class="message-sender">${m.from === 'admin' ? 'You' : escapeHtml(customer.name || 'Customer')}</div>
         <div class="message-text">${escapeHtml(m.text)}</div>
-        <div class="message-time">${time}</div>`;
+        <div class="message-time">${time}${delivery}</div>`;
       return bub;
     }
 
@@ -562,7 +679,8 @@
               customer.messages.push({
                 from:'admin',
                 text: val,
-                timestamp: new Date().toISOString()
+                timestamp: new Date().toISOString(),
+                optimistic: true // confirmed when the delta arrives on the conversation topic
               });
               renderMessages(customer);
               refreshCustomerList(); // update last message snippet
@@ -683,12 +801,114 @@
   })();
 
   /* ------------------ REPAIRS PAGE ------------------ */
+  // Kanban board: every column pages through /admin/repairs/column with keyset cursors, loading the
+  // next page when its sentinel scrolls into view. Collapsed columns (COMPLETED) load nothing until opened.
   const RepairsPage = (() => {
+    const columns = new Map();
+    let observer, pageSize = 20;
     function init() {
       if (!qs('[data-page="repairs"]')) return;
-      // Nothing heavy yet — status updates handled by inline events replaced by delegation optionally.
+      const board = qs('.kanban-board');
+      if (!board) return;
+      pageSize = parseInt(board.getAttribute('data-page-size'), 10) || pageSize;
+      observer = new IntersectionObserver(entries => {
+        entries.forEach(entry => {
+          if (entry.isIntersecting) loadMore(entry.target.closest('.kanban-column').getAttribute('data-status'));
+        });
+      }, { rootMargin: '200px' });
+      qsa('.kanban-column', board).forEach(el => {
+        const status = el.getAttribute('data-status');
+        columns.set(status, { el, after: null, done: false, loading: false, loaded: false });
+        qs('.kanban-toggle', el).addEventListener('click', () => toggle(status));
+        if (!el.classList.contains('collapsed')) observe(status);
+      });
       delegateStatusUpdates();
     }
+    function observe(status) {
+      const col = columns.get(status);
+      if (!col.done) observer.observe(qs('.kanban-sentinel', col.el));
+    }
+    function toggle(status) {
+      const col = columns.get(status);
+      const collapsed = col.el.classList.toggle('collapsed');
+      const button = qs('.kanban-toggle', col.el);
+      button.textContent = collapsed ? 'Show' : 'Hide';
+      button.setAttribute('aria-expanded', String(!collapsed));
+      if (collapsed) observer.unobserve(qs('.kanban-sentinel', col.el));
+      else observe(status);
+    }
+    function loadMore(status) {
+      const col = columns.get(status);
+      if (!col || col.loading || col.done) return;
+      col.loading = true;
+      const params = new URLSearchParams({ status, size: pageSize });
+      if (col.after) params.set('after', col.after);
+      fetch(`/admin/repairs/column?${params}`, { headers: { 'Accept': 'application/json' } })
+        .then(r => r.json())
+        .then(res => {
+          if (!res || !res.success) throw new Error(res && res.error);
+          const cards = qs('.kanban-cards', col.el);
+          res.data.content.forEach(card => cards.appendChild(renderCard(card)));
+          col.after = res.data.nextCursor;
+          col.loaded = true;
+          if (!col.after) {
+            col.done = true;
+            observer.unobserve(qs('.kanban-sentinel', col.el));
+          }
+          updateEmpty(col);
+        })
+        .catch(() => Toast.show('Could not load repairs','danger'))
+        .finally(() => {
+          col.loading = false;
+          // A short page may leave the sentinel visible; the observer only fires on changes
+          if (!col.done && !col.el.classList.contains('collapsed')) {
+            const sentinel = qs('.kanban-sentinel', col.el);
+            observer.unobserve(sentinel);
+            observer.observe(sentinel);
+          }
+        });
+    }
+    function renderCard(card) {
+      const el = document.createElement('div');
+      el.className = 'repair-card';
+      el.setAttribute('data-customer-id', card.customerId);
+      el.setAttribute('data-version', card.version ?? '');
+      const initial = card.name ? card.name.substring(0,1).toUpperCase() : 'U';
+      const updated = card.lastInteraction
+        ? new Date(card.lastInteraction).toLocaleString([], { month:'short', day:'2-digit', year:'numeric', hour:'2-digit', minute:'2-digit' })
+        : 'Recently';
+      el.innerHTML = `
+        <div class="repair-card-header">
+          <div class="profile">
+            <div class="repair-avatar"><span>${escapeHtml(initial)}</span></div>
+            <h5 class="mb-0 fw-semibold text-truncate" style="max-width:160px;">${escapeHtml(card.name || 'Unknown Customer')}</h5>
+          </div>
+          <span class="status-badge"><span class="${classFor(card.repairStatus)}">${label(card.repairStatus)}</span></span>
+        </div>
+        <div class="repair-card-body">
+          <div class="field-block">
+            <label>Device Model</label>
+            <p>${escapeHtml(card.phoneModel || 'Not specified')}</p>
+          </div>
+          <div class="field-block" style="flex-grow:1;">
+            <label>Issue Description</label>
+            <p>${escapeHtml(card.issue || 'No issue described')}</p>
+          </div>
+          <div class="last-update"><i class="fas fa-clock"></i><span>${escapeHtml(updated)}</span></div>
+          <div class="field-block">
+            <label>Update Status</label>
+            <select class="repair-status-select" data-customer-id="${escapeHtml(card.customerId)}">
+              ${['PENDING','IN_PROGRESS','COMPLETED'].map(s =>
+                `<option value="${s}"${s === card.repairStatus ? ' selected' : ''}>${label(s)}</option>`).join('')}
+            </select>
+          </div>
+        </div>`;
+      return el;
+    }
+    function updateEmpty(col) {
+      const empty = qs('.kanban-empty', col.el);
+      if (empty) empty.hidden = !(col.loaded && col.done && !qs('.repair-card', col.el));
+    }
     function delegateStatusUpdates() {
       document.addEventListener('change', e => {
         if (e.target.matches('.repair-status-select')) {
@@ -698,24 +918,48 @@
     }
     function updateRepairStatus(selectEl) {
       const customerId = selectEl.getAttribute('data-customer-id');
+      const card = selectEl.closest('.repair-card');
+      const from = card.closest('.kanban-column')?.getAttribute('data-status');
       const status = selectEl.value;
       selectEl.disabled = true;
-      postJson('/admin/update-status', { customerId, status })
+      postJson('/admin/update-status', { customerId, status, version: card.dataset.version || null })
         .then(res => {
           const success = !!(res.json && res.json.success);
           if (success) {
+            if (res.json.data != null) card.dataset.version = res.json.data;
             updateBadge(selectEl, status);
-            recalcStats();
-            flash(selectEl.closest('.repair-card'));
+            moveCard(card, from, status);
+            flash(card);
             Toast.show('Status updated','success',{timeout:2500});
           } else {
-            const errMsg = (res.json && (res.json.message || res.json.error)) || 'Update failed';
-            Toast.show(errMsg,'danger');
+            selectEl.value = from;
+            if (res.status === 409) {
+              Toast.show('Changed by someone else – refresh the board','warning');
+            } else {
+              const errMsg = (res.json && (res.json.message || res.json.error)) || 'Update failed';
+              Toast.show(errMsg,'danger');
+            }
           }
         })
         .catch(()=> Toast.show('Error updating','danger'))
         .finally(()=> selectEl.disabled=false);
     }
+    function moveCard(card, from, to) {
+      if (from === to) return;
+      adjustCount(from, -1);
+      adjustCount(to, +1);
+      const target = columns.get(to);
+      // A column that has not loaded yet will fetch the card itself, newest first
+      if (target && target.loaded) qs('.kanban-cards', target.el).prepend(card);
+      else card.remove();
+      if (columns.get(from)) updateEmpty(columns.get(from));
+      if (target) updateEmpty(target);
+    }
+    function adjustCount(status, delta) {
+      qsa(`[data-count-for="${status}"]`).forEach(el => {
+        el.textContent = Math.max(0, (parseInt(el.textContent, 10) || 0) + delta);
+      });
+    }
     function updateBadge(root, status) {
       const badgeSpan = root.closest('.repair-card').querySelector('.status-badge span');
       if (!badgeSpan) return;
@@ -738,17 +982,6 @@
         default: return 'status-pending';
       }
     }
-    function recalcStats() {
-      const counts = { pending:0, progress:0, completed:0 };
-      qsa('.repair-card .status-badge span').forEach(el => {
-        if (el.classList.contains('status-pending')) counts.pending++;
-        else if (el.classList.contains('status-in-progress')) counts.progress++;
-        else if (el.classList.contains('status-completed')) counts.completed++;
-      });
-      const p = qs('#countPending'); if (p) p.textContent = counts.pending;
-      const i = qs('#countProgress'); if (i) i.textContent = counts.progress;
-      const c = qs('#countCompleted'); if (c) c.textContent = counts.completed;
-    }
     function flash(card) {
       if (!card) return;
       card.classList.remove('status-updated');
@@ -766,11 +999,12 @@
         const customerId = selectEl.getAttribute('data-customer-id');
         const status = selectEl.value;
         selectEl.disabled = true;
-        const version = selectEl.getAttribute('data-version');
+        const version = selectEl.getAttribute('data-version') || null;
         postJson('/admin/update-status', { customerId, status, version })
           .then(res => {
             const success = !!(res.json && res.json.success);
             if (success) {
+              if (res.json.data != null) selectEl.setAttribute('data-version', res.json.data);
               Toast.show('Status updated','success',{timeout:2000});
               const row = selectEl.closest('tr');
               if (row) {
@@ -872,12 +1106,20 @@
       client.heartbeat.incoming = 10000;
       client.heartbeat.outgoing = 10000;
       client.connect({}, () => {
+        // Capture resume point before live events start moving it
+        const resumeFrom = realTimeState.lastSeq;
+        const resumeEpoch = realTimeState.epoch;
+        const isReconnect = realTimeState.ws.everConnected;
         realTimeState.ws.connected = true;
+        realTimeState.ws.everConnected = true;
         realTimeState.ws.reconnects = 0;
         realTimeState.ws.client = client;
         realTimeState.lastActivity = Date.now();
-        client.subscribe('/topic/admin/new-messages', frame => { safeHandleWs(frame); });
-        client.subscribe('/topic/admin/status-updates', frame => { safeHandleWs(frame); });
+        client.subscribe('/topic/admin/new-messages', frame => { safeHandleWs(frame, '/topic/admin/new-messages'); });
+        client.subscribe('/topic/admin/status-updates', frame => { safeHandleWs(frame, '/topic/admin/status-updates'); });
+        realTimeState.connectListeners.forEach(fn => { try { fn(client); } catch(_){} });
+        if (isReconnect) resumeAfterReconnect(resumeFrom, resumeEpoch);
+        else loadResumePoint();
       }, () => {
         realTimeState.ws.connected = false;
         scheduleWsReconnect();
@@ -888,9 +1130,78 @@
     }
   }
 
-  function safeHandleWs(frame) {
-    try { handleWsEvent(JSON.parse(frame.body)); } catch(_){}
+  function safeHandleWs(frame, destination) {
+    try { dispatchWsEvent(destination, JSON.parse(frame.body)); } catch(_){}
+  }
+
+  // Single entry for live and replayed events; drops anything already seen by sequence
+  function dispatchWsEvent(destination, evt) {
     realTimeState.lastActivity = Date.now();
+    if (!acceptEvent(evt)) return;
+    if (destination && destination.indexOf('/topic/conversations/') === 0) {
+      realTimeState.conversationHandlers.forEach(fn => { try { fn(evt); } catch(_){} });
+    } else {
+      handleWsEvent(evt);
+    }
+  }
+
+  function acceptEvent(evt) {
+    if (!evt || typeof evt.seq !== 'number') return true;
+    if (evt.epoch && realTimeState.epoch && evt.epoch !== realTimeState.epoch) {
+      // Server restarted and its sequence with it
+      realTimeState.seenSeqs.clear();
+      realTimeState.lastSeq = 0;
+    }
+    if (evt.epoch) realTimeState.epoch = evt.epoch;
+    if (realTimeState.seenSeqs.has(evt.seq)) return false;
+    realTimeState.seenSeqs.add(evt.seq);
+    if (realTimeState.seenSeqs.size > 2000) {
+      realTimeState.seenSeqs.delete(realTimeState.seenSeqs.values().next().value);
+    }
+    if (evt.seq > realTimeState.lastSeq) realTimeState.lastSeq = evt.seq;
+    return true;
+  }
+
+  // First connect: take the server's current position, so a later reconnect can resume from it
+  // even when no event arrived in between
+  function loadResumePoint() {
+    fetch('/admin/events/position', { headers: { 'Accept':'application/json' } })
+      .then(r => r.json())
+      .then(resp => {
+        const data = resp && resp.data ? resp.data : null;
+        if (!data || !data.epoch) return;
+        if (realTimeState.epoch && realTimeState.epoch !== data.epoch) return; // a live event already set it
+        realTimeState.epoch = data.epoch;
+        realTimeState.lastSeq = Math.max(realTimeState.lastSeq, data.latestSequence || 0);
+      })
+      .catch(() => {});
+  }
+
+  function resumeAfterReconnect(since, epoch) {
+    if (!epoch) { triggerResync(); return; } // no resume point (position never loaded): events may be missed
+    fetch(`/admin/events/replay?since=${since}&epoch=${encodeURIComponent(epoch)}`, { headers: { 'Accept':'application/json' } })
+      .then(r => r.json())
+      .then(resp => {
+        const data = resp && resp.data ? resp.data : null;
+        if (!data) return;
+        if (data.resyncRequired) {
+          realTimeState.seenSeqs.clear();
+          realTimeState.epoch = data.epoch;
+          realTimeState.lastSeq = data.latestSequence;
+          triggerResync();
+          return;
+        }
+        (data.events || []).forEach(e => dispatchWsEvent(e.destination, e.payload));
+      })
+      .catch(() => {});
+  }
+
+  function triggerResync() {
+    if (realTimeState.resyncHandlers.length === 0) {
+      window.location.reload();
+      return;
+    }
+    realTimeState.resyncHandlers.forEach(fn => { try { fn(); } catch(_){} });
   }
 
   function scheduleWsReconnect() {
@@ -909,6 +1220,13 @@
       if (sel && sel.tagName === 'SELECT') {
         sel.value = evt.newStatus;
       }
+    } else if (evt.type === 'BULK_STATUS_CHANGE') {
+      (evt.changes || []).forEach(change => {
+        const sel = document.querySelector(`[data-customer-id="${change.customerId}"]`);
+        if (sel && sel.tagName === 'SELECT') {
+          sel.value = evt.newStatus;
+        }
+      });
     }
     realTimeState.lastActivity = Date.now();
   }
@@ -0,0 +1,40 @@
+package com.repairo.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurationHistogramTest {
+
+    @Test
+    void testBucketOf() {
+        assertEquals(0, DurationHistogram.bucketOf(0));
+        assertEquals(0, DurationHistogram.bucketOf(Duration.ofMinutes(1).toMillis()));
+        assertEquals(1, DurationHistogram.bucketOf(Duration.ofMinutes(1).toMillis() + 1));
+        assertEquals(DurationHistogram.BUCKETS - 1, DurationHistogram.bucketOf(Duration.ofDays(90).toMillis()));
+    }
+
+    @Test
+    void testPercentileInterpolatesWithinBucket() {
+        // Given: 10 samples between 1h and 2h (bucket 5), 10 between 1d and 2d (bucket 10)
+        Map<String, Long> histogram = Map.of("5", 10L, "10", 10L);
+        long max = Duration.ofHours(40).toMillis();
+
+        // When
+        Long p50 = DurationHistogram.percentile(histogram, 50, max);
+        Long p99 = DurationHistogram.percentile(histogram, 99, max);
+
+        // Then
+        assertEquals(Duration.ofHours(2).toMillis(), p50);
+        assertTrue(p99 > Duration.ofDays(1).toMillis() && p99 <= max);
+    }
+
+    @Test
+    void testPercentileOfEmptyHistogram() {
+        assertNull(DurationHistogram.percentile(Map.of(), 50, 0));
+        assertNull(DurationHistogram.percentile(null, 50, 0));
+    }
+}
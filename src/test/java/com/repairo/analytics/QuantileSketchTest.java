@@ -0,0 +1,67 @@
+package com.repairo.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void testQuantilesWithinRelativeAccuracy() {
+        // Given: log-normally distributed durations, roughly minutes to days
+        Random random = new Random(42);
+        double[] values = new double[20_000];
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(15 + 2 * random.nextGaussian());
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        // When & Then
+        for (double q : new double[] {0.5, 0.9, 0.99}) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertEquals(exact, sketch.quantile(q), exact * 0.01, "q=" + q);
+        }
+        assertEquals(values.length, sketch.count());
+        assertTrue(sketch.binCount() < 1_000);
+    }
+
+    @Test
+    void testMergeEqualsSingleSketch() {
+        // Given
+        QuantileSketch all = new QuantileSketch(0.02);
+        QuantileSketch left = new QuantileSketch(0.02);
+        QuantileSketch right = new QuantileSketch(0.02);
+        for (int i = 1; i <= 1_000; i++) {
+            all.add(i * 1_000);
+            (i % 2 == 0 ? left : right).add(i * 1_000);
+        }
+
+        // When
+        left.merge(right);
+
+        // Then
+        assertEquals(all.count(), left.count());
+        assertEquals(all.quantile(0.5), left.quantile(0.5));
+        assertEquals(all.quantile(0.99), left.quantile(0.99));
+        assertEquals(1_000_000, left.max());
+    }
+
+    @Test
+    void testEdgeCases() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+
+        sketch.add(0);
+        sketch.add(500);
+        assertEquals(0, sketch.quantile(0));
+        assertEquals(500, sketch.quantile(1), 5);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.add(-1));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new QuantileSketch(0.05)));
+    }
+}
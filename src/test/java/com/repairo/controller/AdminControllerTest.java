@@ -1,14 +1,23 @@
 package com.repairo.controller;
 
 import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.dto.BulkStatusResult;
+import com.repairo.dto.CursorPage;
+import com.repairo.dto.DashboardStats;
 import com.repairo.model.Customer;
 import com.repairo.model.RepairStatus;
 import com.repairo.repository.CustomerRepository;
+import com.repairo.repository.CustomerSortField;
+import com.repairo.service.BulkStatusService;
 import com.repairo.service.MessageService;
+import com.repairo.service.StatusAuditService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -38,14 +47,18 @@ class AdminControllerTest {
     @MockBean
     private MongoEncryptionConfig encryptionConfig;
 
+    @MockBean
+    private StatusAuditService statusAuditService;
+
+    @MockBean
+    private BulkStatusService bulkStatusService;
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void testDashboard() throws Exception {
         // Given
-        when(customerRepository.count()).thenReturn(10L);
-        when(customerRepository.countByRepairStatus(RepairStatus.IN_PROGRESS)).thenReturn(3L);
-        when(customerRepository.countCustomersWithPendingMessages()).thenReturn(2L);
-        when(customerRepository.findByLastInteractionAfter(any(LocalDateTime.class))).thenReturn(Arrays.asList());
+        when(customerRepository.dashboardStats(any(LocalDateTime.class), any(LocalDateTime.class), anyInt(), anyBoolean()))
+                .thenReturn(dashboardStats());
 
         // When & Then
         mockMvc.perform(get("/admin/dashboard"))
@@ -53,7 +66,41 @@ class AdminControllerTest {
                 .andExpect(view().name("admin/dashboard"))
                 .andExpect(model().attribute("totalCustomers", 10L))
                 .andExpect(model().attribute("activeRepairs", 3L))
-                .andExpect(model().attribute("pendingMessages", 2L));
+                .andExpect(model().attribute("pendingMessages", 2L))
+                .andExpect(model().attribute("completedToday", 1L));
+        verify(customerRepository, never()).findAll();
+        verify(customerRepository, never()).findByLastInteractionAfter(any(LocalDateTime.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testStats() throws Exception {
+        // Given
+        when(customerRepository.dashboardStats(any(LocalDateTime.class), any(LocalDateTime.class), anyInt(), anyBoolean()))
+                .thenReturn(dashboardStats());
+        when(encryptionConfig.decryptSensitiveField("encrypted-phone", "phone")).thenReturn("1234567890");
+
+        // When & Then
+        mockMvc.perform(get("/admin/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalCustomers").value(10))
+                .andExpect(jsonPath("$.data.pendingMessages").value(2))
+                .andExpect(jsonPath("$.data.recentCustomers[0].phone").value("1234567890"));
+    }
+
+    private static DashboardStats dashboardStats() {
+        DashboardStats stats = new DashboardStats();
+        stats.setTotalCustomers(10);
+        stats.setActiveRepairs(3);
+        stats.setPendingMessages(2);
+        stats.setCompletedToday(1);
+        DashboardStats.RecentCustomer recent = new DashboardStats.RecentCustomer();
+        recent.setCustomerId("test-id");
+        recent.setName("John Doe");
+        recent.setPhone("encrypted-phone");
+        recent.setRepairStatus(RepairStatus.IN_PROGRESS);
+        stats.getRecentCustomers().add(recent);
+        return stats;
     }
 
     @Test
@@ -65,7 +112,9 @@ class AdminControllerTest {
         customer.setPhone("encrypted-phone");
         customer.setIssue("encrypted-issue");
         
-        when(customerRepository.findAll()).thenReturn(Arrays.asList(customer));
+        when(customerRepository.findPage(eq(CustomerSortField.LAST_INTERACTION), eq(Sort.Direction.DESC), isNull(), isNull(), eq(20)))
+                .thenReturn(new CursorPage<>(Arrays.asList(customer), "next-cursor", null));
+        when(customerRepository.estimatedTotal()).thenReturn(1L);
         when(encryptionConfig.decrypt("encrypted-phone")).thenReturn("1234567890");
         when(encryptionConfig.decrypt("encrypted-issue")).thenReturn("Screen broken");
 
@@ -73,7 +122,24 @@ class AdminControllerTest {
         mockMvc.perform(get("/admin/customers"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin/customers"))
-                .andExpect(model().attributeExists("customers"));
+                .andExpect(model().attributeExists("customers", "cursorPage"))
+                .andExpect(model().attribute("totalElements", 1L));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testCustomersIgnoresUnsortableFieldAndBadCursor() throws Exception {
+        // Given
+        when(customerRepository.findPage(any(), any(), eq("garbage"), isNull(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Malformed page cursor"));
+        when(customerRepository.findPage(any(), any(), isNull(), isNull(), anyInt()))
+                .thenReturn(new CursorPage<>(Arrays.asList(), null, null));
+
+        // When & Then
+        mockMvc.perform(get("/admin/customers").param("sortBy", "issue").param("after", "garbage"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("sortBy", "lastInteraction"));
+        verify(customerRepository).findPage(CustomerSortField.LAST_INTERACTION, Sort.Direction.DESC, null, null, 20);
     }
 
     @Test
@@ -83,7 +149,8 @@ class AdminControllerTest {
         Customer customer = new Customer();
         customer.setName("John Doe");
         
-        when(customerRepository.findByNameContainingIgnoreCase("John")).thenReturn(Arrays.asList(customer));
+        when(customerRepository.searchByName(eq("John"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Arrays.asList(customer)));
         when(encryptionConfig.decrypt(any())).thenReturn("decrypted");
 
         // When & Then
@@ -91,6 +158,7 @@ class AdminControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin/customers"))
                 .andExpect(model().attribute("search", "John"));
+        verify(customerRepository, never()).findByNameContainingIgnoreCase(anyString(), any(Pageable.class));
     }
 
     @Test
@@ -110,49 +178,146 @@ class AdminControllerTest {
     @WithMockUser(roles = "ADMIN")
     void testRepairs() throws Exception {
         // Given
-        when(customerRepository.findAll()).thenReturn(Arrays.asList());
+        when(customerRepository.countByRepairStatus(RepairStatus.PENDING)).thenReturn(3L);
 
         // When & Then
         mockMvc.perform(get("/admin/repairs"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin/repairs"))
-                .andExpect(model().attributeExists("customers"))
+                .andExpect(model().attributeExists("statusCounts"))
                 .andExpect(model().attributeExists("repairStatuses"));
+        verify(customerRepository, never()).findAll();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
-    void testUpdateRepairStatus() throws Exception {
+    void testRepairColumnDecryptsOnlyTheLoadedPage() throws Exception {
         // Given
         Customer customer = new Customer();
-        customer.setCustomerId("test-id");
-        when(customerRepository.findById("test-id")).thenReturn(Optional.of(customer));
-        when(customerRepository.save(any(Customer.class))).thenReturn(customer);
+        customer.setCustomerId("c1");
+        customer.setName("Jane");
+        customer.setIssue("encrypted-issue");
+        when(customerRepository.findByRepairStatus(RepairStatus.PENDING, null, 20))
+                .thenReturn(new CursorPage<>(Arrays.asList(customer), "next-cursor", null));
+        when(encryptionConfig.decryptSensitiveField("encrypted-issue", "issue")).thenReturn("Screen broken");
+
+        // When & Then
+        mockMvc.perform(get("/admin/repairs/column").param("status", "PENDING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].issue").value("Screen broken"))
+                .andExpect(jsonPath("$.data.nextCursor").value("next-cursor"));
+        verify(encryptionConfig, times(1)).decryptSensitiveField(any(), eq("issue"));
+        verify(encryptionConfig, never()).decryptSensitiveField(any(), eq("phone"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testRepairColumnRejectsBadCursor() throws Exception {
+        when(customerRepository.findByRepairStatus(eq(RepairStatus.COMPLETED), eq("garbage"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Malformed page cursor"));
+
+        mockMvc.perform(get("/admin/repairs/column").param("status", "COMPLETED").param("after", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testUpdateRepairStatus() throws Exception {
+        // Given: the repository returns the previous state from the atomic update
+        Customer previous = new Customer();
+        previous.setCustomerId("test-id");
+        previous.setRepairStatus(RepairStatus.PENDING);
+        previous.setVersion(2L);
+        when(customerRepository.updateRepairStatus(eq("test-id"), eq(2L), eq(RepairStatus.IN_PROGRESS), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(previous));
 
         // When & Then
         mockMvc.perform(post("/admin/update-status")
                 .with(csrf())
-                .param("customerId", "test-id")
-                .param("status", "IN_PROGRESS"))
+                .contentType("application/json")
+                .content("{\"customerId\":\"test-id\",\"status\":\"IN_PROGRESS\",\"version\":2}"))
                 .andExpect(status().isOk())
-                .andExpect(content().string("success"));
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data").value(3));
+
+        verify(statusAuditService).record(argThat(c -> c.getRepairStatus() == RepairStatus.IN_PROGRESS),
+                eq(RepairStatus.PENDING), anyString(), any(), any(LocalDateTime.class));
+        verify(customerRepository, never()).findById(anyString());
+        verify(customerRepository, never()).save(any(Customer.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testUpdateRepairStatus_VersionConflict() throws Exception {
+        // Given: the pre-image carries a newer version than the client had
+        Customer current = new Customer();
+        current.setCustomerId("test-id");
+        current.setRepairStatus(RepairStatus.IN_PROGRESS);
+        current.setVersion(3L);
+        when(customerRepository.updateRepairStatus(eq("test-id"), eq(1L), eq(RepairStatus.COMPLETED), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(current));
+
+        // When & Then
+        mockMvc.perform(post("/admin/update-status")
+                .with(csrf())
+                .contentType("application/json")
+                .content("{\"customerId\":\"test-id\",\"status\":\"COMPLETED\",\"version\":1}"))
+                .andExpect(status().isConflict());
 
-        verify(customerRepository).save(customer);
+        verifyNoInteractions(statusAuditService);
+        verify(customerRepository, never()).existsById(anyString());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testUpdateRepairStatus_CustomerNotFound() throws Exception {
         // Given
-        when(customerRepository.findById("non-existent")).thenReturn(Optional.empty());
+        when(customerRepository.updateRepairStatus(eq("non-existent"), isNull(), eq(RepairStatus.IN_PROGRESS), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
 
         // When & Then
         mockMvc.perform(post("/admin/update-status")
                 .with(csrf())
-                .param("customerId", "non-existent")
-                .param("status", "IN_PROGRESS"))
+                .contentType("application/json")
+                .content("{\"customerId\":\"non-existent\",\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+
+        verify(customerRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void testBulkUpdateRepairStatus() throws Exception {
+        // Given
+        BulkStatusResult result = new BulkStatusResult(RepairStatus.COMPLETED);
+        result.add(new BulkStatusResult.Item("c1", BulkStatusResult.Outcome.UPDATED, RepairStatus.IN_PROGRESS, 4L));
+        result.add(new BulkStatusResult.Item("c2", BulkStatusResult.Outcome.CONFLICT, RepairStatus.PENDING, 7L));
+        when(bulkStatusService.apply(eq(RepairStatus.COMPLETED), anyList(), eq("admin"))).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(post("/admin/update-status/bulk")
+                .with(csrf())
+                .contentType("application/json")
+                .content("{\"status\":\"COMPLETED\",\"items\":[{\"customerId\":\"c1\",\"version\":3},{\"customerId\":\"c2\",\"version\":5}]}"))
                 .andExpect(status().isOk())
-                .andExpect(content().string("error"));
+                .andExpect(jsonPath("$.data.updated").value(1))
+                .andExpect(jsonPath("$.data.conflicts").value(1))
+                .andExpect(jsonPath("$.data.items[1].outcome").value("CONFLICT"))
+                .andExpect(jsonPath("$.data.items[1].version").value(7));
+        verify(customerRepository, never()).save(any(Customer.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBulkUpdateRepairStatusRejectsEmptyItems() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/admin/update-status/bulk")
+                .with(csrf())
+                .contentType("application/json")
+                .content("{\"status\":\"COMPLETED\",\"items\":[]}"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bulkStatusService);
     }
 
     @Test
@@ -0,0 +1,41 @@
+package com.repairo.onboarding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordMatcherTest {
+
+    @Test
+    void testFindsOverlappingKeywordsInOnePass() {
+        // Given: classic Aho-Corasick example with shared suffixes
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("he", "she", "his", "hers"));
+
+        // When
+        BitSet found = matcher.match("ushers");
+
+        // Then
+        assertTrue(found.get(0));
+        assertTrue(found.get(1));
+        assertFalse(found.get(2));
+        assertTrue(found.get(3));
+    }
+
+    @Test
+    void testMatchingIsCaseInsensitiveSubstring() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("status", "Hello"));
+
+        assertEquals(2, matcher.match("HELLO, what's my Status?").cardinality());
+        assertTrue(matcher.match("statuses").get(0));
+        assertTrue(matcher.match("nothing here").isEmpty());
+        assertTrue(matcher.match(null).isEmpty());
+    }
+
+    @Test
+    void testEmptyKeywordRejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeywordMatcher.of(List.of("ok", "")));
+    }
+}
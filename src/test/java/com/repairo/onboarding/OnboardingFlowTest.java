@@ -0,0 +1,85 @@
+package com.repairo.onboarding;
+
+import com.repairo.config.OnboardingProperties;
+import com.repairo.model.Customer;
+import com.repairo.model.OnboardingState;
+import com.repairo.model.RepairStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OnboardingFlowTest {
+
+    @Test
+    void testDefaultFlowGreetingNeedsKeyword() {
+        // When
+        OnboardingFlow.Transition greeting = OnboardingFlow.DEFAULT.next(OnboardingState.NEW, "Hello there");
+        OnboardingFlow.Transition noise = OnboardingFlow.DEFAULT.next(OnboardingState.NEW, "ok");
+
+        // Then
+        assertNotNull(greeting);
+        assertEquals(OnboardingState.AWAITING_NAME, greeting.getNext());
+        assertNull(noise);
+    }
+
+    @Test
+    void testDefaultFlowCapturesAndRendersReply() {
+        // Given
+        Customer customer = new Customer();
+        customer.setName("Ravi");
+
+        // When
+        OnboardingFlow.Transition transition = OnboardingFlow.DEFAULT.next(OnboardingState.AWAITING_NAME, "Ravi");
+
+        // Then
+        assertEquals(OnboardingFlow.Capture.NAME, transition.getCapture());
+        assertEquals("Nice to meet you, Ravi! Please describe the issue with your device.",
+            transition.renderReply(customer, "Ravi"));
+    }
+
+    @Test
+    void testDefaultFlowStatusReply() {
+        Customer customer = new Customer();
+        customer.setRepairStatus(RepairStatus.IN_PROGRESS);
+
+        OnboardingFlow.Transition transition = OnboardingFlow.DEFAULT.next(OnboardingState.COMPLETED, "STATUS?");
+
+        assertEquals("Your repair status: IN_PROGRESS", transition.renderReply(customer, "STATUS?"));
+        assertNull(transition.getNext());
+    }
+
+    @Test
+    void testFirstMatchingRuleWins() {
+        // Given: a keyword rule before a catch-all
+        OnboardingProperties.Rule cancel = new OnboardingProperties.Rule();
+        cancel.setKeywords(List.of("cancel", "stop"));
+        cancel.setReply("Cancelled, {name}.");
+        cancel.setNext(OnboardingState.NEW);
+        OnboardingProperties.Rule any = new OnboardingProperties.Rule();
+        any.setCapture("issue");
+        any.setReply("Got it!");
+        any.setNext(OnboardingState.AWAITING_PHONE_MODEL);
+        OnboardingFlow flow = OnboardingFlow.compile(Map.of(OnboardingState.AWAITING_ISSUE, List.of(cancel, any)));
+
+        // Then
+        assertEquals(OnboardingState.NEW, flow.next(OnboardingState.AWAITING_ISSUE, "please STOP").getNext());
+        assertEquals(OnboardingState.AWAITING_PHONE_MODEL, flow.next(OnboardingState.AWAITING_ISSUE, "cracked screen").getNext());
+        assertNull(flow.next(OnboardingState.COMPLETED, "anything"));
+    }
+
+    @Test
+    void testInvalidConfigurationFailsAtCompile() {
+        OnboardingProperties.Rule badPlaceholder = new OnboardingProperties.Rule();
+        badPlaceholder.setReply("Hi {nmae}");
+        OnboardingProperties.Rule badCapture = new OnboardingProperties.Rule();
+        badCapture.setCapture("email");
+
+        assertThrows(IllegalArgumentException.class,
+            () -> OnboardingFlow.compile(Map.of(OnboardingState.NEW, List.of(badPlaceholder))));
+        assertThrows(IllegalArgumentException.class,
+            () -> OnboardingFlow.compile(Map.of(OnboardingState.NEW, List.of(badCapture))));
+    }
+}
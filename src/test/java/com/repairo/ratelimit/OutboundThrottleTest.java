@@ -0,0 +1,93 @@
+package com.repairo.ratelimit;
+
+import com.repairo.config.OutboxProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundThrottleTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private OutboxProperties.Throttle settings;
+    private OutboundThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        settings = new OutboxProperties.Throttle();
+        settings.setNumberRatePerSecond(10);
+        settings.setNumberBurst(2);
+        settings.setRecipientRatePerMinute(6);
+        settings.setRecipientBurst(1);
+        settings.setPairCooldownMs(30_000);
+        throttle = new OutboundThrottle(settings, now::get);
+    }
+
+    @Test
+    void testNumberBucketQueuesBeyondBurst() {
+        // Given: burst of 2 at 10/s, three different recipients
+        assertEquals(0, throttle.reserve("num", "a"));
+        assertEquals(0, throttle.reserve("num", "b"));
+
+        // When
+        long wait = throttle.reserve("num", "c");
+
+        // Then: one token refills in 100ms
+        assertEquals(100, wait);
+        now.addAndGet(100);
+        assertEquals(0, throttle.reserve("num", "c"));
+    }
+
+    @Test
+    void testRecipientBucketLimitsPairOnly() {
+        // Given: 6/min to one recipient = one every 10s
+        assertEquals(0, throttle.reserve("num", "a"));
+
+        // When
+        long sameRecipient = throttle.reserve("num", "a");
+        long otherRecipient = throttle.reserve("num", "b");
+
+        // Then
+        assertEquals(10_000, sameRecipient);
+        assertEquals(0, otherRecipient);
+    }
+
+    @Test
+    void testThroughputErrorHalvesRateAndSuccessRecovers() {
+        // Given
+        throttle.reserve("num", "a");
+
+        // When
+        throttle.onThrottled("num", "a", null);
+
+        // Then
+        assertEquals(5.0, throttle.currentRate("num"), 0.001);
+        for (int i = 0; i < 100; i++) {
+            throttle.onSuccess("num");
+        }
+        assertEquals(10.0, throttle.currentRate("num"), 0.001);
+    }
+
+    @Test
+    void testRateNeverDropsBelowFloor() {
+        throttle.reserve("num", "a");
+        for (int i = 0; i < 20; i++) {
+            throttle.onThrottled("num", "a", 130429);
+        }
+        assertEquals(1.0, throttle.currentRate("num"), 0.001);
+    }
+
+    @Test
+    void testPairRateLimitCoolsDownRecipient() {
+        // When
+        long wait = throttle.onThrottled("num", "a", OutboundThrottle.PAIR_RATE_LIMIT);
+
+        // Then: recipient blocked for the cooldown, sender unaffected
+        assertEquals(30_000, wait);
+        assertEquals(30_000, throttle.reserve("num", "a"));
+        assertEquals(0, throttle.reserve("num", "b"));
+        assertEquals(10.0, throttle.currentRate("num"), 0.001);
+    }
+}
@@ -0,0 +1,49 @@
+package com.repairo.repository;
+
+import com.repairo.model.RepairStatus;
+import com.repairo.model.RepairStatusChange;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditCursorTest {
+
+    @Test
+    void testSeekContinuesAfterTheLastRow() {
+        // Given
+        RepairStatusChange change = new RepairStatusChange("c1", RepairStatus.PENDING, RepairStatus.COMPLETED, "admin");
+        change.setId(new ObjectId().toHexString());
+        change.setChangedAt(LocalDateTime.of(2026, 10, 18, 9, 30));
+
+        // When
+        AuditCursor decoded = AuditCursor.decode(AuditCursor.at(change).encode());
+
+        // Then: older rows, or rows at the same instant with a smaller _id
+        Date changedAt = Date.from(change.getChangedAt().atZone(ZoneId.systemDefault()).toInstant());
+        List<?> or = decoded.seek().getCriteriaObject().getList("$or", Object.class);
+        assertEquals(new Document("changedAt", new Document("$lt", changedAt)), or.get(0));
+        assertEquals(new Document("changedAt", changedAt).append("_id", new Document("$lt", new ObjectId(change.getId()))), or.get(1));
+    }
+
+    @Test
+    void testRejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> AuditCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> AuditCursor.decode(
+            java.util.Base64.getUrlEncoder().encodeToString("{\"t\": 1}".getBytes())));
+    }
+
+    @Test
+    void testFilterRejectsEmptyRange() {
+        LocalDateTime at = LocalDateTime.of(2026, 10, 18, 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> new AuditFilter(null, null, at, at));
+        assertEquals(new Document("changedBy", "admin").append("changedAt", new Document("$gte", at)),
+            new AuditFilter(" ", "admin", at, null).criteria().getCriteriaObject());
+    }
+}
@@ -0,0 +1,73 @@
+package com.repairo.repository;
+
+import com.repairo.model.Customer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void testRoundTripKeepsDateAndObjectId() {
+        // Given
+        Customer customer = new Customer();
+        customer.setCustomerId(new ObjectId().toHexString());
+        customer.setLastInteraction(LocalDateTime.of(2025, 3, 1, 10, 30));
+
+        // When
+        String token = PageCursor.at(CustomerSortField.LAST_INTERACTION, Sort.Direction.DESC, customer).encode();
+        PageCursor decoded = PageCursor.decode(token, CustomerSortField.LAST_INTERACTION, Sort.Direction.DESC);
+
+        // Then
+        assertInstanceOf(Date.class, decoded.value());
+        assertEquals(CustomerSortField.LAST_INTERACTION.storedValue(customer), decoded.value());
+        assertEquals(new ObjectId(customer.getCustomerId()), decoded.id());
+    }
+
+    @Test
+    void testRejectsCursorOfAnotherSortOrderOrMalformed() {
+        Customer customer = new Customer();
+        customer.setCustomerId(new ObjectId().toHexString());
+        customer.setName("Ann");
+        String token = PageCursor.at(CustomerSortField.NAME, Sort.Direction.ASC, customer).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token, CustomerSortField.NAME, Sort.Direction.DESC));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token, CustomerSortField.REPAIR_STATUS, Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor!", CustomerSortField.NAME, Sort.Direction.ASC));
+    }
+
+    @Test
+    void testSeekDescendingIncludesNullsAfterValues() {
+        // Given
+        ObjectId id = new ObjectId();
+        PageCursor cursor = new PageCursor(CustomerSortField.NAME, Sort.Direction.DESC, "Bob", id);
+
+        // When
+        Document seek = cursor.seek(Sort.Direction.DESC).getCriteriaObject();
+
+        // Then
+        List<?> branches = seek.getList("$or", Document.class);
+        assertEquals(3, branches.size());
+        assertEquals(new Document("name", new Document("$lt", "Bob")), branches.get(0));
+        assertEquals(new Document("name", "Bob").append("_id", new Document("$lt", id)), branches.get(1));
+        assertEquals(new Document("name", null), branches.get(2));
+    }
+
+    @Test
+    void testSeekAscendingFromNullContinuesIntoValues() {
+        ObjectId id = new ObjectId();
+        Document seek = new PageCursor(CustomerSortField.NAME, Sort.Direction.ASC, null, id)
+            .seek(Sort.Direction.ASC).getCriteriaObject();
+
+        List<?> branches = seek.getList("$or", Document.class);
+        assertEquals(new Document("name", null).append("_id", new Document("$gt", id)), branches.get(0));
+        assertEquals(new Document("name", new Document("$ne", null)), branches.get(1));
+    }
+}
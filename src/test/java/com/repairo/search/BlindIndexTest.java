@@ -0,0 +1,71 @@
+package com.repairo.search;
+
+import com.repairo.config.BlindIndexProperties;
+import com.repairo.config.MongoEncryptionConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class BlindIndexTest {
+
+    private BlindIndexProperties properties;
+    private BlindIndex blindIndex;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BlindIndexProperties();
+        blindIndex = new BlindIndex(properties, mock(MongoEncryptionConfig.class));
+    }
+
+    @Test
+    void testPhoneSuffixQueryMatchesStoredToken() {
+        // Given
+        List<String> tokens = blindIndex.phoneTokens("+1 (555) 010-4321");
+
+        // When & Then
+        assertTrue(tokens.contains(blindIndex.phoneQueryToken("4321")));
+        assertTrue(tokens.contains(blindIndex.phoneQueryToken("010-4321")));
+        assertFalse(tokens.contains(blindIndex.phoneQueryToken("5550")));
+        assertNull(blindIndex.phoneQueryToken("321"));
+        assertEquals(11 - properties.getMinPhoneSuffix() + 1, tokens.size());
+    }
+
+    @Test
+    void testIssueKeywordsAreStemmedConsistently() {
+        // Given
+        List<String> tokens = blindIndex.issueTokens("Screen cracked and it is not charging anymore");
+
+        // When & Then
+        assertTrue(tokens.containsAll(blindIndex.issueQueryTokens("cracks screens")));
+        assertTrue(tokens.containsAll(blindIndex.issueQueryTokens("Charge")));
+        assertFalse(tokens.containsAll(blindIndex.issueQueryTokens("battery")));
+        assertEquals(List.of("screen", "crack", "charg", "anymor"),
+            BlindIndex.keywords("Screen cracked and it is not charging anymore"));
+    }
+
+    @Test
+    void testStopwordsAndShortWordsAreNotIndexed() {
+        assertTrue(BlindIndex.keywords("the phone is my").isEmpty());
+        assertTrue(blindIndex.issueQueryTokens("it is").isEmpty());
+    }
+
+    @Test
+    void testTokensDependOnKeyAndDoNotLeakPlaintext() {
+        // Given
+        BlindIndexProperties rotated = new BlindIndexProperties();
+        rotated.setKey("anotherBlindIndexKey");
+        BlindIndex other = new BlindIndex(rotated, mock(MongoEncryptionConfig.class));
+
+        // When
+        String token = blindIndex.phoneQueryToken("4321");
+
+        // Then
+        assertNotEquals(token, other.phoneQueryToken("4321"));
+        assertFalse(token.contains("4321"));
+        assertNotEquals(token, blindIndex.issueQueryTokens("4321").get(0)); // fields are hashed in separate domains
+    }
+}
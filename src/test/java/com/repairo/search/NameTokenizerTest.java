@@ -0,0 +1,45 @@
+package com.repairo.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameTokenizerTest {
+
+    @Test
+    void testNormalizeStripsAccentsAndPunctuation() {
+        assertEquals("jose o brien", NameTokenizer.normalize("  Jos\u00e9 O'Brien "));
+        assertEquals("", NameTokenizer.normalize(null));
+        assertEquals(List.of("ravi", "kumar"), NameTokenizer.words("Ravi-Kumar"));
+    }
+
+    @Test
+    void testIndexTokensCoverWordsPrefixesAndTrigrams() {
+        // When
+        List<String> tokens = NameTokenizer.indexTokens("Asha Rao");
+
+        // Then
+        assertTrue(tokens.containsAll(List.of("w:asha", "w:rao", "p:a", "p:as", "p:ash", "p:asha", "p:r", "p:ra")));
+        assertTrue(tokens.containsAll(List.of("t:ash", "t:sha", "t:rao")));
+        assertFalse(tokens.contains("p:asha rao"));
+        assertEquals(tokens.size(), tokens.stream().distinct().count());
+    }
+
+    @Test
+    void testLongWordsAreCapped() {
+        String word = "a".repeat(50);
+
+        List<String> tokens = NameTokenizer.indexTokens(word);
+
+        assertTrue(tokens.contains("w:" + "a".repeat(NameTokenizer.MAX_WORD_LENGTH)));
+        assertTrue(tokens.size() <= 2 * NameTokenizer.MAX_WORD_LENGTH);
+    }
+
+    @Test
+    void testTrigrams() {
+        assertEquals(List.of("t:ume", "t:mes", "t:esh"), NameTokenizer.trigrams("umesh"));
+        assertTrue(NameTokenizer.trigrams("ab").isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.repairo.service;
+
+import com.repairo.model.RepairStatus;
+import com.repairo.model.RepairStatusChange;
+import com.repairo.repository.AuditFilter;
+import com.repairo.repository.RepairStatusChangeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditExportServiceTest {
+
+    @Mock
+    private RepairStatusChangeRepository repairStatusChangeRepository;
+
+    @InjectMocks
+    private AuditExportService exportService;
+
+    @Test
+    void testCsvExportStreamsEveryRowAndClosesTheCursor() throws Exception {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(repairStatusChangeRepository.streamAudit(any(AuditFilter.class))).thenReturn(
+            IntStream.range(0, 1_200).mapToObj(i -> change("c" + i, i)).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exportService.export(new AuditFilter(null, null, null, null), AuditExportService.Format.CSV, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(1_200, rows);
+        assertEquals(1_201, lines.length);
+        assertEquals(String.join(",", AuditExportService.COLUMNS), lines[0]);
+        assertTrue(lines[1].contains(",c0,PENDING,COMPLETED,admin,0,"));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void testNdjsonExportWritesOneObjectPerLine() throws Exception {
+        // Given
+        when(repairStatusChangeRepository.streamAudit(any(AuditFilter.class)))
+            .thenReturn(Stream.of(change("c1", 5), change("c2", 6)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.export(new AuditFilter("c1", null, null, null), AuditExportService.Format.NDJSON, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":null,\"changedAt\":\"2026-10-18T09:00\",\"customerId\":\"c1\""));
+        assertTrue(lines[1].contains("\"durationMs\":6"));
+    }
+
+    @Test
+    void testCsvLineQuotesAndNeutralisesFormulas() {
+        assertEquals("a,\"b,c\",\"say \"\"hi\"\"\",,'=SUM(A1),-3\r\n",
+            AuditExportService.csvLine(Arrays.asList("a", "b,c", "say \"hi\"", null, "=SUM(A1)", -3L)));
+    }
+
+    @Test
+    void testFormatParam() {
+        assertEquals(AuditExportService.Format.NDJSON, AuditExportService.Format.fromParam(" ndjson "));
+        assertThrows(IllegalArgumentException.class, () -> AuditExportService.Format.fromParam("xml"));
+    }
+
+    private static RepairStatusChange change(String customerId, long durationMs) {
+        RepairStatusChange change = new RepairStatusChange(customerId, RepairStatus.PENDING, RepairStatus.COMPLETED, "admin");
+        change.setChangedAt(LocalDateTime.of(2026, 10, 18, 9, 0));
+        change.setDurationMs(durationMs);
+        return change;
+    }
+}
@@ -0,0 +1,247 @@
+package com.repairo.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.repairo.config.AuditWriterProperties;
+import com.repairo.model.RepairStatus;
+import com.repairo.model.RepairStatusChange;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> collection = mock(MongoCollection.class);
+    private final AuditWriterProperties properties = new AuditWriterProperties();
+    private final List<RepairStatusChange> stored = new CopyOnWriteArrayList<>();
+    private AuditLogWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            ReflectionTestUtils.setField(writer, "running", false);
+        }
+    }
+
+    @Test
+    void testFlushesWhenBatchSizeIsReached() {
+        // Given: the flush interval alone would not trigger within the test
+        properties.setBatchSize(3);
+        properties.setFlushIntervalMs(60_000);
+        start();
+
+        // When
+        writer.submitAll(List.of(change(), change(), change()));
+
+        // Then
+        verify(collection, timeout(2_000)).insertMany(argThat(documents -> documents.size() == 3), any(InsertManyOptions.class));
+        await(() -> stored.size() == 3);
+    }
+
+    @Test
+    void testFlushesWhenOldestRecordHasWaitedTheInterval() {
+        // Given
+        properties.setBatchSize(100);
+        properties.setFlushIntervalMs(50);
+        start();
+
+        // When
+        writer.submit(change());
+        writer.submit(change());
+
+        // Then
+        verify(collection, timeout(2_000)).insertMany(argThat(documents -> documents.size() == 2), any(InsertManyOptions.class));
+        await(() -> stored.size() == 2);
+    }
+
+    @Test
+    void testFullBufferSpillsOnTheCallersThread() throws Exception {
+        // Given: the flusher is stuck inserting the first record and the buffer holds one more
+        properties.setBufferCapacity(1);
+        properties.setBatchSize(1);
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockFirstInsert(inserting, release);
+        start();
+        writer.submit(change());
+        assertTrue(inserting.await(2, TimeUnit.SECONDS));
+        writer.submit(change());
+
+        // When
+        writer.submit(change());
+
+        // Then
+        assertEquals(1, writer.spillPending());
+        assertEquals(1, writer.buffered());
+        release.countDown();
+    }
+
+    @Test
+    void testBatchesGoStraightToSpillFileDuringRetryWindow() {
+        // Given: MongoDB fails once and the retry window is long
+        properties.setBatchSize(1);
+        properties.setFlushIntervalMs(20);
+        properties.setRetryIntervalMs(60_000);
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class))).thenThrow(new MongoException("down"));
+        start();
+
+        // When
+        writer.submit(change());
+        await(() -> writer.spillPending() == 1);
+        writer.submit(change());
+
+        // Then: the second batch is spilled without trying MongoDB
+        await(() -> writer.spillPending() == 2);
+        verify(collection, times(1)).insertMany(anyList(), any(InsertManyOptions.class));
+        assertTrue(stored.isEmpty());
+    }
+
+    @Test
+    void testDuplicateKeyRowsAreNotReportedAsWritten() {
+        // Given: the second record was stored by an earlier attempt
+        properties.setBatchSize(3);
+        properties.setFlushIntervalMs(60_000);
+        RepairStatusChange first = change();
+        RepairStatusChange duplicate = change();
+        RepairStatusChange third = change();
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class)))
+            .thenThrow(bulkWriteException(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)));
+        start();
+
+        // When
+        writer.submitAll(List.of(first, duplicate, third));
+
+        // Then
+        await(() -> stored.size() == 2);
+        assertEquals(List.of(first, third), stored);
+        assertEquals(0, writer.spillPending());
+    }
+
+    @Test
+    void testOtherWriteErrorsSpillTheBatch() {
+        // Given
+        properties.setBatchSize(2);
+        properties.setFlushIntervalMs(60_000);
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class)))
+            .thenThrow(bulkWriteException(new BulkWriteError(121, "validation failed", new BsonDocument(), 0)));
+        start();
+
+        // When
+        writer.submitAll(List.of(change(), change()));
+
+        // Then
+        await(() -> writer.spillPending() == 2);
+        assertTrue(stored.isEmpty());
+    }
+
+    @Test
+    void testStopDrainsTheBuffer() throws Exception {
+        // Given: two records are still buffered behind a slow insert
+        properties.setBatchSize(1);
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockFirstInsert(inserting, release);
+        start();
+        writer.submit(change());
+        assertTrue(inserting.await(2, TimeUnit.SECONDS));
+        writer.submit(change());
+        writer.submit(change());
+
+        // When
+        Thread stopping = new Thread(writer::stop);
+        stopping.start();
+        await(() -> !(Boolean) ReflectionTestUtils.getField(writer, "running"));
+        release.countDown();
+        stopping.join(10_000);
+
+        // Then
+        assertEquals(3, stored.size());
+        assertEquals(0, writer.buffered());
+        verify(collection, times(3)).insertMany(anyList(), any(InsertManyOptions.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void start() {
+        properties.setSpillFile(dir.resolve("audit-spill.ndjson").toString());
+        MongoConverter converter = mock(MongoConverter.class);
+        doAnswer(invocation -> {
+            ((Document) invocation.getArgument(1)).put("_id", ((RepairStatusChange) invocation.getArgument(0)).getId());
+            return null;
+        }).when(converter).write(any(), any(Bson.class));
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(RepairStatusChange.class)).thenReturn("repair_status_changes");
+        when(mongoTemplate.getCollection("repair_status_changes")).thenReturn(collection);
+        ObjectProvider<MeterRegistry> registry = mock(ObjectProvider.class);
+        when(registry.getIfAvailable(any())).thenReturn(new SimpleMeterRegistry());
+
+        writer = new AuditLogWriter();
+        ReflectionTestUtils.setField(writer, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(writer, "properties", properties);
+        ReflectionTestUtils.setField(writer, "meterRegistry", registry);
+        writer.onWritten(stored::addAll);
+        writer.start();
+    }
+
+    private void blockFirstInsert(CountDownLatch inserting, CountDownLatch release) {
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class)))
+            .thenAnswer(invocation -> {
+                inserting.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return null;
+            })
+            .thenReturn(null);
+    }
+
+    private static MongoBulkWriteException bulkWriteException(BulkWriteError error) {
+        return new MongoBulkWriteException(mock(BulkWriteResult.class), List.of(error), null,
+            new ServerAddress(), Set.of());
+    }
+
+    private static RepairStatusChange change() {
+        return new RepairStatusChange("c1", RepairStatus.PENDING, RepairStatus.IN_PROGRESS, "admin");
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.repairo.service;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditSpillFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReplayReturnsRecordsExactlyAndDeletesTheFile() throws Exception {
+        // Given
+        AuditSpillFile spill = new AuditSpillFile(dir.resolve("spill/audit.ndjson"));
+        List<Document> records = records(5);
+        spill.append(records.subList(0, 3));
+        spill.append(records.subList(3, 5));
+        assertEquals(5, spill.pending());
+
+        // When
+        List<List<Document>> batches = new ArrayList<>();
+        long replayed = spill.replay(2, batch -> batches.add(new ArrayList<>(batch)));
+
+        // Then: ids, dates and longs survive the round trip
+        assertEquals(5, replayed);
+        assertEquals(List.of(2, 2, 1), batches.stream().map(List::size).toList());
+        assertEquals(records, batches.stream().flatMap(List::stream).toList());
+        assertEquals(0, spill.pending());
+        assertFalse(spill.hasPending());
+    }
+
+    @Test
+    void testFailedReplayKeepsRecordsAndNewSpillsGoToAFreshFile() throws Exception {
+        // Given
+        Path file = dir.resolve("audit.ndjson");
+        AuditSpillFile spill = new AuditSpillFile(file);
+        spill.append(records(3));
+
+        // When: the writer fails on the second batch, and a record is spilled meanwhile
+        List<Document> seen = new ArrayList<>();
+        assertThrows(IllegalStateException.class, () -> spill.replay(2, batch -> {
+            if (!seen.isEmpty()) {
+                throw new IllegalStateException("mongo down");
+            }
+            seen.addAll(batch);
+        }));
+        spill.append(records(1));
+
+        // Then: the next replay writes the moved file again, then the new one
+        assertEquals(4, spill.pending());
+        List<Document> retried = new ArrayList<>();
+        assertEquals(3, spill.replay(10, retried::addAll));
+        assertEquals(3, retried.size());
+        assertEquals(1, spill.replay(10, batch -> {}));
+        assertFalse(Files.exists(file));
+        assertEquals(0, spill.pending());
+    }
+
+    @Test
+    void testPendingSurvivesRestartAndTornLinesAreSkipped() throws Exception {
+        // Given
+        Path file = dir.resolve("audit.ndjson");
+        new AuditSpillFile(file).append(records(2));
+        Files.writeString(file, "{\"customerId\": \"c", java.nio.file.StandardOpenOption.APPEND);
+
+        // When
+        AuditSpillFile reopened = new AuditSpillFile(file);
+        List<Document> replayed = new ArrayList<>();
+        reopened.replay(10, replayed::addAll);
+
+        // Then
+        assertEquals(2, replayed.size());
+        assertEquals(0, reopened.pending());
+    }
+
+    private static List<Document> records(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> new Document("_id", new ObjectId())
+                .append("customerId", "c" + i)
+                .append("toStatus", "COMPLETED")
+                .append("changedAt", new Date(1_760_000_000_000L + i))
+                .append("durationMs", 90_000L + i))
+            .toList();
+    }
+}
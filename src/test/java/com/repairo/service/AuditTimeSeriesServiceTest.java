@@ -0,0 +1,217 @@
+package com.repairo.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.ListCollectionsIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.result.UpdateResult;
+import com.repairo.config.AuditTimeSeriesProperties;
+import com.repairo.model.RepairStatusChange;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditTimeSeriesServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> target = mock(MongoCollection.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> legacy = mock(MongoCollection.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> migrations = mock(MongoCollection.class);
+    private final AuditTimeSeriesProperties properties = new AuditTimeSeriesProperties();
+    private final AuditTimeSeriesService service = new AuditTimeSeriesService();
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "properties", properties);
+        when(mongoTemplate.getCollectionName(RepairStatusChange.class)).thenReturn("repair_status_changes");
+        when(mongoTemplate.getCollection("repair_status_changes")).thenReturn(target);
+        when(mongoTemplate.getCollection("repair_status_changes_legacy")).thenReturn(legacy);
+        when(mongoTemplate.getCollection("migrations")).thenReturn(migrations);
+        when(migrations.updateOne(any(Bson.class), any(Bson.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    @Test
+    void testCreateOptionsWithRetention() {
+        // Given
+        AuditTimeSeriesProperties properties = new AuditTimeSeriesProperties();
+        properties.setGranularity("Hours");
+        properties.setRetentionDays(30);
+
+        // When
+        CreateCollectionOptions options = AuditTimeSeriesService.createOptions(properties);
+
+        // Then
+        assertEquals("changedAt", options.getTimeSeriesOptions().getTimeField());
+        assertEquals("changedBy", options.getTimeSeriesOptions().getMetaField());
+        assertEquals(TimeSeriesGranularity.HOURS, options.getTimeSeriesOptions().getGranularity());
+        assertEquals(30, options.getExpireAfter(TimeUnit.DAYS));
+    }
+
+    @Test
+    void testCreateOptionsWithoutRetention() {
+        CreateCollectionOptions options = AuditTimeSeriesService.createOptions(new AuditTimeSeriesProperties());
+
+        assertEquals(TimeSeriesGranularity.MINUTES, options.getTimeSeriesOptions().getGranularity());
+        assertNull(options.getExpireAfter(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testInvalidGranularityRejected() {
+        assertThrows(IllegalArgumentException.class, () -> AuditTimeSeriesService.granularity("weeks"));
+    }
+
+    @Test
+    void testIsTimeSeriesFromCollectionInfo() {
+        assertTrue(AuditTimeSeriesService.isTimeSeries(new Document("name", "repair_status_changes").append("type", "timeseries")));
+        assertFalse(AuditTimeSeriesService.isTimeSeries(new Document("name", "repair_status_changes").append("type", "collection")));
+        assertFalse(AuditTimeSeriesService.isTimeSeries((Document) null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCopyResumesAfterCheckpointWithoutDuplicates() {
+        // Given: records 1 and 2 were checkpointed; 3 was inserted just before the interruption
+        properties.setMigrationBatchSize(2);
+        Document d3 = record(3);
+        Document d4 = record(4);
+        Document d5 = record(5);
+        when(migrations.find(any(Bson.class))).thenReturn(iterable(List.of(
+            new Document("_id", "repair_status_changes.timeseries").append("lastId", id(2)).append("copied", 2L))));
+        when(legacy.find(any(Bson.class))).thenReturn(iterable(List.of(d3, d4, d5)));
+        FindIterable<Document> stored = iterable(List.of(new Document("_id", id(3))));
+        when(target.find(any(Bson.class))).thenReturn(stored);
+
+        // When
+        AuditTimeSeriesService.CopyResult result = service.copy("repair_status_changes_legacy", "repair_status_changes");
+
+        // Then: only the batch right after the checkpoint is checked against the target
+        verify(target).insertMany(eq(List.of(d4)), any(InsertManyOptions.class));
+        verify(target).insertMany(eq(List.of(d5)), any(InsertManyOptions.class));
+        verify(target, times(1)).find(any(Bson.class));
+        assertEquals(new AuditTimeSeriesService.CopyResult(4, 0), result);
+    }
+
+    @Test
+    void testCopyCountsRecordsWithoutChangedAt() {
+        // Given: a fresh migration with records the time-series collection cannot take
+        when(migrations.find(any(Bson.class))).thenReturn(iterable(List.of()));
+        when(legacy.find(any(Bson.class))).thenReturn(iterable(List.of(record(1))));
+        when(legacy.countDocuments(any(Bson.class))).thenReturn(3L);
+
+        // When
+        AuditTimeSeriesService.CopyResult result = service.copy("repair_status_changes_legacy", "repair_status_changes");
+
+        // Then
+        assertEquals(new AuditTimeSeriesService.CopyResult(1, 3), result);
+        verify(target, never()).find(any(Bson.class));
+    }
+
+    @Test
+    void testCopyStopsWhenLeaseIsLost() {
+        // Given: another node took over the checkpoint document
+        when(migrations.find(any(Bson.class))).thenReturn(iterable(List.of()));
+        when(migrations.updateOne(any(Bson.class), any(Bson.class))).thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(legacy.find(any(Bson.class))).thenReturn(iterable(List.of(record(1), record(2))));
+        properties.setMigrationBatchSize(1);
+
+        // When & Then: no further batch is written
+        assertThrows(IllegalStateException.class, () -> service.copy("repair_status_changes_legacy", "repair_status_changes"));
+        verify(target, times(1)).insertMany(anyList(), any(InsertManyOptions.class));
+    }
+
+    @Test
+    void testWithoutStoredDropsRecordsAlreadyInTarget() {
+        // Given
+        Document d1 = record(1);
+        Document d2 = record(2);
+        FindIterable<Document> stored = iterable(List.of(new Document("_id", id(1))));
+        when(target.find(any(Bson.class))).thenReturn(stored);
+
+        // When & Then
+        assertEquals(List.of(d2), AuditTimeSeriesService.withoutStored(target, List.of(d1, d2)));
+        assertTrue(AuditTimeSeriesService.withoutStored(target, List.of()).isEmpty());
+        verify(target, times(1)).find(any(Bson.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateMovesStrayRegularCollectionToLegacy() {
+        // Given: an audit insert recreated a regular collection between the rename and the create
+        MongoDatabase db = mock(MongoDatabase.class);
+        when(mongoTemplate.getDb()).thenReturn(db);
+        doThrow(new MongoCommandException(new BsonDocument("ok", new BsonDouble(0)).append("code", new BsonInt32(48))
+                .append("errmsg", new BsonString("Collection already exists")), new ServerAddress()))
+            .doNothing()
+            .when(db).createCollection(eq("repair_status_changes"), any(CreateCollectionOptions.class));
+        ListCollectionsIterable<Document> collections = mock(ListCollectionsIterable.class, RETURNS_SELF);
+        when(db.listCollections()).thenReturn(collections);
+        when(collections.first()).thenReturn(new Document("name", "repair_status_changes").append("type", "collection"));
+        Document stray = record(9);
+        FindIterable<Document> strayRecords = iterable(List.of(stray));
+        when(target.find()).thenReturn(strayRecords);
+
+        // When
+        service.createTimeSeries("repair_status_changes");
+
+        // Then
+        verify(legacy).insertMany(eq(List.of(stray)), any(InsertManyOptions.class));
+        verify(target).drop();
+        verify(db, times(2)).createCollection(eq("repair_status_changes"), any(CreateCollectionOptions.class));
+        assertTrue(service.isTimeSeries());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FindIterable<Document> iterable(List<Document> documents) {
+        FindIterable<Document> iterable = mock(FindIterable.class, RETURNS_SELF);
+        when(iterable.first()).thenReturn(documents.isEmpty() ? null : documents.get(0));
+        when(iterable.into(any())).thenAnswer(invocation -> {
+            Collection<Document> target = invocation.getArgument(0);
+            target.addAll(documents);
+            return target;
+        });
+        Iterator<Document> remaining = documents.iterator();
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> remaining.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> remaining.next());
+        when(iterable.iterator()).thenReturn(cursor);
+        return iterable;
+    }
+
+    private static Document record(int n) {
+        return new Document("_id", id(n)).append("changedAt", new Date(1_700_000_000_000L + n * 60_000L))
+            .append("changedBy", "admin").append("customerId", "c" + n);
+    }
+
+    private static ObjectId id(int n) {
+        return new ObjectId(String.format("%024x", n));
+    }
+}
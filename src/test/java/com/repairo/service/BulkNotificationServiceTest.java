@@ -0,0 +1,112 @@
+package com.repairo.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.dto.BulkNotificationRequest;
+import com.repairo.model.Customer;
+import com.repairo.model.Message;
+import com.repairo.model.NotificationJob;
+import com.repairo.model.OutboundMessage;
+import com.repairo.model.RepairStatus;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkNotificationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private MongoEncryptionConfig encryptionConfig;
+
+    @InjectMocks
+    private BulkNotificationService notificationService;
+
+    @Test
+    void testRenderFillsPlaceholders() {
+        BulkNotificationService.Recipient recipient = new BulkNotificationService.Recipient();
+        recipient.name = "Asha";
+        recipient.phoneModel = "Pixel 7";
+        recipient.repairStatus = "IN_PROGRESS";
+
+        String text = BulkNotificationService.render("Hi {name}, your {phoneModel} is {status}.", recipient);
+
+        assertEquals("Hi Asha, your Pixel 7 is in progress.", text);
+    }
+
+    @Test
+    void testCreateJob_RequiresExactlyOneSelection() {
+        BulkNotificationRequest request = new BulkNotificationRequest();
+        request.setTemplate("Hello");
+
+        assertThrows(IllegalArgumentException.class, () -> notificationService.createJob(request, "admin"));
+
+        request.setCustomerIds(List.of("a"));
+        request.setStatus(RepairStatus.COMPLETED);
+        assertThrows(IllegalArgumentException.class, () -> notificationService.createJob(request, "admin"));
+        verifyNoInteractions(mongoTemplate, outboxService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateJob_QueuesFoundCustomersAndReportsMissing() {
+        // Given: two ids requested, one exists
+        ObjectId found = new ObjectId();
+        String missing = new ObjectId().toHexString();
+        Document row = new Document("_id", found).append("name", "Asha").append("phone", "enc-phone")
+            .append("phoneModel", "Pixel 7").append("repairStatus", "COMPLETED").append("messageCount", 3);
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+            .thenReturn(new AggregationResults<>(List.of(row), new Document()));
+        when(encryptionConfig.encryptSensitiveField(anyString(), eq("message"))).thenAnswer(inv -> "enc:" + inv.getArgument(0));
+        when(outboxService.prepare(anyString(), anyString(), any(Message.class), anyString(), eq(OutboxService.SOURCE_BULK)))
+            .thenAnswer(inv -> new OutboundMessage(inv.getArgument(0), ((Message) inv.getArgument(2)).getMessageId(),
+                inv.getArgument(1), "enc", OutboxService.SOURCE_BULK));
+        when(outboxService.writeWithOutbox(any(Supplier.class), anyList()))
+            .thenAnswer(inv -> ((Supplier<?>) inv.getArgument(0)).get());
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class)).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        BulkNotificationRequest request = new BulkNotificationRequest();
+        request.setCustomerIds(List.of(found.toHexString(), missing, found.toHexString()));
+        request.setTemplate("Hi {name}, your {phoneModel} is {status}.");
+
+        // When
+        NotificationJob job = notificationService.createJob(request, "admin");
+
+        // Then
+        assertEquals(1, job.getQueued());
+        assertEquals(List.of(missing), job.getMissingCustomerIds());
+        ArgumentCaptor<List<OutboundMessage>> outbound = ArgumentCaptor.forClass(List.class);
+        verify(outboxService).writeWithOutbox(any(Supplier.class), outbound.capture());
+        assertEquals(1, outbound.getValue().size());
+        assertEquals(job.getId(), outbound.getValue().get(0).getJobId());
+        assertEquals(found.toHexString(), outbound.getValue().get(0).getCustomerId());
+        verify(encryptionConfig).encryptSensitiveField("Hi Asha, your Pixel 7 is completed.", "message");
+        verify(bulkOps, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(mongoTemplate).insert(job);
+    }
+}
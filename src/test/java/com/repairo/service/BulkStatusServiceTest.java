@@ -0,0 +1,151 @@
+package com.repairo.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.repairo.dto.BulkStatusResult;
+import com.repairo.dto.BulkStatusResult.Outcome;
+import com.repairo.dto.BulkStatusUpdateRequest;
+import com.repairo.model.Customer;
+import com.repairo.model.RepairStatus;
+import com.repairo.model.RepairStatusChange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkStatusServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private StatusAuditService statusAuditService;
+
+    @Mock
+    private StatusCounterService statusCounters;
+
+    @Mock
+    private WebSocketEventPublisher webSocketEventPublisher;
+
+    @InjectMocks
+    private BulkStatusService bulkStatusService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAppliesOneBulkWriteAndReportsEachItem() {
+        // Given
+        when(mongoTemplate.find(any(Query.class), eq(Customer.class))).thenReturn(List.of(
+            customer("c1", RepairStatus.PENDING, 3L),
+            customer("c2", RepairStatus.PENDING, 6L),
+            customer("c4", RepairStatus.COMPLETED, 1L)));
+        BulkOperations ops = mock(BulkOperations.class);
+        BulkWriteResult written = mock(BulkWriteResult.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class)).thenReturn(ops);
+        when(ops.execute()).thenReturn(written);
+        when(written.getModifiedCount()).thenReturn(1);
+
+        // When
+        BulkStatusResult result = bulkStatusService.apply(RepairStatus.COMPLETED, List.of(
+            new BulkStatusUpdateRequest.Item("c1", 3L),
+            new BulkStatusUpdateRequest.Item("c2", 5L),
+            new BulkStatusUpdateRequest.Item("c3", null),
+            new BulkStatusUpdateRequest.Item("c4", null),
+            new BulkStatusUpdateRequest.Item("c1", 3L)), "admin");
+
+        // Then: duplicates collapse, only c1 is written, everything else is reported
+        assertEquals(List.of(Outcome.UPDATED, Outcome.CONFLICT, Outcome.NOT_FOUND, Outcome.UNCHANGED),
+            result.getItems().stream().map(BulkStatusResult.Item::getOutcome).toList());
+        assertEquals(4L, result.getItems().get(0).getVersion());
+        assertEquals(6L, result.getItems().get(1).getVersion());
+        verify(ops, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(ops, times(1)).execute();
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Customer.class));
+
+        ArgumentCaptor<List<RepairStatusChange>> changes = ArgumentCaptor.forClass(List.class);
+        verify(statusAuditService).recordAll(changes.capture());
+        assertEquals(1, changes.getValue().size());
+        assertEquals(RepairStatus.PENDING, changes.getValue().get(0).getFromStatus());
+        assertEquals(RepairStatus.COMPLETED, changes.getValue().get(0).getToStatus());
+        verify(statusCounters).recordStatusMoves(Map.of(RepairStatus.PENDING, 1), RepairStatus.COMPLETED);
+        verify(webSocketEventPublisher).publishBulkStatusChange(eq("COMPLETED"), argThat(list -> list.size() == 1));
+    }
+
+    @Test
+    void testLostRaceIsReportedAsConflict() {
+        // Given: the customer is changed by someone else between the read and the bulk write
+        when(mongoTemplate.find(any(Query.class), eq(Customer.class))).thenReturn(
+            List.of(customer("c1", RepairStatus.PENDING, 3L)),
+            List.of(customer("c1", RepairStatus.IN_PROGRESS, 4L)));
+        BulkOperations ops = mock(BulkOperations.class);
+        BulkWriteResult written = mock(BulkWriteResult.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class)).thenReturn(ops);
+        when(ops.execute()).thenReturn(written);
+        when(written.getModifiedCount()).thenReturn(0);
+
+        // When
+        BulkStatusResult result = bulkStatusService.apply(RepairStatus.COMPLETED,
+            List.of(new BulkStatusUpdateRequest.Item("c1", null)), "admin");
+
+        // Then
+        BulkStatusResult.Item item = result.getItems().get(0);
+        assertEquals(Outcome.CONFLICT, item.getOutcome());
+        assertEquals(RepairStatus.IN_PROGRESS, item.getOldStatus());
+        assertEquals(1, result.getConflicts());
+        verify(statusAuditService, never()).recordAll(anyList());
+        verifyNoInteractions(statusCounters, webSocketEventPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStatusSinceResolvedOnceForAllCandidates() {
+        // Given: two customers written before statusChangedAt existed
+        when(mongoTemplate.find(any(Query.class), eq(Customer.class))).thenReturn(List.of(
+            customer("c1", RepairStatus.PENDING, 1L),
+            customer("c2", RepairStatus.IN_PROGRESS, 2L)));
+        BulkOperations ops = mock(BulkOperations.class);
+        BulkWriteResult written = mock(BulkWriteResult.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class)).thenReturn(ops);
+        when(ops.execute()).thenReturn(written);
+        when(written.getModifiedCount()).thenReturn(2);
+        LocalDateTime since = LocalDateTime.now().minusHours(2);
+        when(statusAuditService.statusSince(anyCollection())).thenReturn(Map.of("c1", since));
+
+        // When
+        bulkStatusService.apply(RepairStatus.COMPLETED, List.of(
+            new BulkStatusUpdateRequest.Item("c1", null),
+            new BulkStatusUpdateRequest.Item("c2", null)), "admin");
+
+        // Then: one lookup for both, and the audit record of c1 carries the time spent
+        ArgumentCaptor<Collection<Customer>> looked = ArgumentCaptor.forClass(Collection.class);
+        verify(statusAuditService, times(1)).statusSince(looked.capture());
+        verify(statusAuditService, never()).statusSince(any(Customer.class));
+        assertEquals(2, looked.getValue().size());
+        ArgumentCaptor<List<RepairStatusChange>> changes = ArgumentCaptor.forClass(List.class);
+        verify(statusAuditService).recordAll(changes.capture());
+        assertNotNull(changes.getValue().get(0).getDurationMs());
+        assertNull(changes.getValue().get(1).getDurationMs());
+    }
+
+    private static Customer customer(String id, RepairStatus status, Long version) {
+        Customer customer = new Customer();
+        customer.setCustomerId(id);
+        customer.setRepairStatus(status);
+        customer.setVersion(version);
+        return customer;
+    }
+}
@@ -0,0 +1,100 @@
+package com.repairo.service;
+
+import com.repairo.config.AuditTimeSeriesProperties;
+import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.model.Customer;
+import com.repairo.model.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ChangeStreamEventRelayTest {
+
+    private ChangeStreamEventRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        relay = new ChangeStreamEventRelay(mock(MongoTemplate.class), mock(WebSocketEventPublisher.class),
+            mock(MongoEncryptionConfig.class), "test-node", mock(ObjectProvider.class), new AuditTimeSeriesProperties());
+    }
+
+    @Test
+    void testNewMessageIndexes_AfterLastRelayedMessage() {
+        // Given: first change seen for a customer with one fresh message
+        Customer customer = customer("c1");
+        customer.addMessage(new Message("hi", "customer"));
+        assertEquals(List.of(0), relay.newMessageIndexes(customer, Instant.now()));
+
+        // When: two more messages arrive in later changes
+        customer.addMessage(new Message("reply", "admin"));
+        customer.addMessage(new Message("thanks", "customer"));
+        List<Integer> indexes = relay.newMessageIndexes(customer, Instant.now());
+
+        // Then
+        assertEquals(List.of(1, 2), indexes);
+    }
+
+    @Test
+    void testNewMessageIndexes_StatusOnlyChangeRelaysNothing() {
+        // Given
+        Customer customer = customer("c2");
+        customer.addMessage(new Message("hi", "customer"));
+        relay.newMessageIndexes(customer, Instant.now());
+
+        // When: same messages, e.g. a repair status update
+        List<Integer> indexes = relay.newMessageIndexes(customer, Instant.now());
+
+        // Then
+        assertTrue(indexes.isEmpty());
+    }
+
+    @Test
+    void testNewMessageIndexes_UnknownCustomerWithOldMessagesRelaysNothing() {
+        // Given: first change after startup, last message written long before the checkpoint
+        Customer customer = customer("c3");
+        Message old = new Message("hello", "customer");
+        old.setTimestamp(LocalDateTime.now().minusHours(2));
+        customer.addMessage(old);
+
+        // When
+        List<Integer> indexes = relay.newMessageIndexes(customer, Instant.now());
+
+        // Then
+        assertTrue(indexes.isEmpty());
+    }
+
+    @Test
+    void testNewMessageIndexes_UnknownCustomerRelaysMessagesSinceCheckpoint() {
+        // Given: resumed from a checkpoint an hour old; three messages arrived while the node was down
+        Customer customer = customer("c4");
+        Message before = new Message("hello", "customer");
+        before.setTimestamp(LocalDateTime.now().minusHours(2));
+        customer.addMessage(before);
+        for (int minutesAgo : new int[] {40, 20, 1}) {
+            Message missed = new Message("missed " + minutesAgo, "customer");
+            missed.setTimestamp(LocalDateTime.now().minusMinutes(minutesAgo));
+            customer.addMessage(missed);
+        }
+
+        // When
+        List<Integer> indexes = relay.newMessageIndexes(customer, Instant.now().minusSeconds(3_600));
+
+        // Then: all missed messages, not just the last one
+        assertEquals(List.of(1, 2, 3), indexes);
+    }
+
+    private static Customer customer(String id) {
+        Customer customer = new Customer();
+        customer.setCustomerId(id);
+        return customer;
+    }
+}
@@ -0,0 +1,64 @@
+package com.repairo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventReplayBufferTest {
+
+    @Test
+    void testReplaySinceReturnsOnlyTheGap() {
+        // Given
+        EventReplayBuffer buffer = new EventReplayBuffer(4);
+        for (int i = 0; i < 3; i++) {
+            buffer.append("/topic/admin/status-updates", seq -> Map.of("seq", seq));
+        }
+
+        // When
+        EventReplayBuffer.ReplayResult result = buffer.since(1);
+
+        // Then
+        assertFalse(result.resyncRequired());
+        assertEquals(3, result.latestSequence());
+        assertEquals(2, result.events().size());
+        assertEquals(2, result.events().get(0).seq());
+        assertEquals(3, result.events().get(1).seq());
+    }
+
+    @Test
+    void testReplayUpToDateClientGetsNothing() {
+        EventReplayBuffer buffer = new EventReplayBuffer(4);
+        buffer.append("/topic/admin/new-messages", seq -> "a");
+
+        EventReplayBuffer.ReplayResult result = buffer.since(1);
+
+        assertFalse(result.resyncRequired());
+        assertTrue(result.events().isEmpty());
+    }
+
+    @Test
+    void testReplayRequiresResyncWhenGapWasOverwritten() {
+        // Given: capacity 3, six events -> only 4..6 retained
+        EventReplayBuffer buffer = new EventReplayBuffer(3);
+        for (int i = 0; i < 6; i++) {
+            buffer.append("/topic/admin/new-messages", seq -> seq);
+        }
+
+        // Then
+        assertTrue(buffer.since(2).resyncRequired());
+        EventReplayBuffer.ReplayResult fromThree = buffer.since(3);
+        assertFalse(fromThree.resyncRequired());
+        assertEquals(3, fromThree.events().size());
+        assertEquals(4L, fromThree.events().get(0).payload());
+    }
+
+    @Test
+    void testReplayRequiresResyncWhenClientIsAhead() {
+        EventReplayBuffer buffer = new EventReplayBuffer(3);
+        buffer.append("/topic/admin/new-messages", seq -> seq);
+
+        assertTrue(buffer.since(10).resyncRequired());
+    }
+}
@@ -0,0 +1,59 @@
+package com.repairo.service;
+
+import com.repairo.config.IndexCatalog;
+import com.repairo.model.RepairStatusChange;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexProvisioningServiceTest {
+
+    @Test
+    void testSameKeysComparesOrderAndDirection() {
+        Document declared = new Document("customerId", 1).append("changedAt", -1);
+
+        assertTrue(IndexProvisioningService.sameKeys(new Document("customerId", 1.0).append("changedAt", -1L), declared));
+        assertFalse(IndexProvisioningService.sameKeys(new Document("changedAt", -1).append("customerId", 1), declared));
+        assertFalse(IndexProvisioningService.sameKeys(new Document("customerId", 1).append("changedAt", 1), declared));
+        assertFalse(IndexProvisioningService.sameKeys(new Document("customerId", 1), declared));
+        assertFalse(IndexProvisioningService.sameKeys(null, declared));
+    }
+
+    @Test
+    void testSupersededIndexesMatchedByNameAndKeys() {
+        // Given: the old customer index, and an index reusing the old changed_at name with other keys
+        List<Document> live = List.of(
+            new Document("name", "_id_").append("key", new Document("_id", 1)),
+            new Document("name", "customer_changed_at").append("key", new Document("customerId", 1).append("changedAt", -1)),
+            new Document("name", "changed_at").append("key", new Document("changedAt", -1).append("_id", -1)));
+        List<IndexCatalog.Superseded> superseded = List.of(
+            new IndexCatalog.Superseded(RepairStatusChange.class, "customer_changed_at", new Document("customerId", 1).append("changedAt", -1)),
+            new IndexCatalog.Superseded(RepairStatusChange.class, "changed_at", new Document("changedAt", 1)),
+            new IndexCatalog.Superseded(RepairStatusChange.class, "changed_by_changed_at", new Document("changedBy", 1).append("changedAt", -1)));
+
+        // When & Then
+        assertEquals(List.of("customer_changed_at"), IndexProvisioningService.supersededPresent(live, superseded));
+    }
+
+    @Test
+    void testPlanStagesFindsCollectionScanAndSort() {
+        // Given: a classic plan, a sort over a collection scan
+        Document classic = new Document("stage", "SORT")
+            .append("inputStage", new Document("stage", "COLLSCAN").append("direction", "forward"));
+        // and an SBE plan, where the tree sits under queryPlan
+        Document sbe = new Document("queryPlan", new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "IXSCAN").append("indexName", "phone")))
+            .append("slotBasedPlan", new Document("stages", "[1] ixseek ..."));
+        Document or = new Document("stage", "SUBPLAN").append("inputStage", new Document("stage", "OR")
+            .append("inputStages", List.of(new Document("stage", "IXSCAN"), new Document("stage", "IXSCAN"))));
+
+        // When & Then
+        assertEquals(List.of("SORT", "COLLSCAN"), IndexProvisioningService.planStages(classic));
+        assertEquals(List.of("FETCH", "IXSCAN"), IndexProvisioningService.planStages(sbe));
+        assertEquals(List.of("SUBPLAN", "OR", "IXSCAN", "IXSCAN"), IndexProvisioningService.planStages(or));
+        assertTrue(IndexProvisioningService.planStages(null).isEmpty());
+    }
+}
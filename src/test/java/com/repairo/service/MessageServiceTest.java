@@ -1,8 +1,11 @@
 package com.repairo.service;
 
 import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.dto.ConversationMessage;
 import com.repairo.model.Customer;
+import com.repairo.model.Message;
 import com.repairo.model.OnboardingState;
+import com.repairo.model.OutboundMessage;
 import com.repairo.model.RepairStatus;
 import com.repairo.repository.CustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -236,4 +240,44 @@ class MessageServiceTest {
         
         verify(whatsAppService, never()).sendMessage(anyString(), anyString());
     }
+
+    @Test
+    void testSendReplyMessage_QueuedInOutbox() {
+        // Given
+        OutboxService outboxService = mock(OutboxService.class);
+        ReflectionTestUtils.setField(messageService, "outboxService", outboxService);
+        when(customerRepository.findById("test-id")).thenReturn(Optional.of(testCustomer));
+        when(encryptionConfig.encryptSensitiveField(anyString(), eq("message"))).thenReturn("encrypted-text");
+        when(outboxService.prepare(any(Customer.class), any(Message.class), eq("On its way"), eq(OutboxService.SOURCE_REPLY)))
+                .thenReturn(new OutboundMessage());
+
+        // When
+        messageService.sendReplyMessage("test-id", "On its way");
+
+        // Then: stored and queued together, nothing sent on the request thread
+        verify(outboxService).saveWithOutbox(eq(testCustomer), argThat(list -> list.size() == 1));
+        verify(whatsAppService, never()).sendMessage(anyString(), anyString());
+        verify(customerRepository, never()).save(any(Customer.class));
+        assertEquals("admin", testCustomer.getMessages().get(0).getFrom());
+    }
+
+    @Test
+    void testGetConversation_AfterSequence() {
+        // Given
+        testCustomer.addMessage(new Message("encrypted-1", "customer"));
+        testCustomer.addMessage(new Message("encrypted-2", "admin"));
+        when(customerRepository.findById("test-id")).thenReturn(Optional.of(testCustomer));
+        when(encryptionConfig.decryptSensitiveField(anyString(), eq("message")))
+                .thenAnswer(invocation -> "plain-" + invocation.getArgument(0));
+
+        // When
+        List<ConversationMessage> result = messageService.getConversation("test-id", 1);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getSequence());
+        assertEquals("admin", result.get(0).getFrom());
+        assertEquals("plain-encrypted-2", result.get(0).getText());
+        assertNotNull(result.get(0).getId());
+    }
 }
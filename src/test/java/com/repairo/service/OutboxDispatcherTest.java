@@ -0,0 +1,121 @@
+package com.repairo.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.repairo.config.MongoEncryptionConfig;
+import com.repairo.config.OutboxProperties;
+import com.repairo.model.OutboundMessage;
+import com.repairo.model.OutboundStatus;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WhatsAppService whatsAppService;
+
+    @Mock
+    private MongoEncryptionConfig encryptionConfig;
+
+    @InjectMocks
+    private OutboxDispatcher dispatcher;
+
+    private final OutboxProperties properties = new OutboxProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setInitialBackoffMs(1000);
+        properties.setMaxBackoffMs(60_000);
+        properties.setMaxAttempts(3);
+        ReflectionTestUtils.setField(dispatcher, "properties", properties);
+    }
+
+    @Test
+    void testBackoffGrowsExponentiallyWithJitterAndIsCapped() {
+        for (int i = 0; i < 50; i++) {
+            long first = dispatcher.backoffMs(1);
+            long third = dispatcher.backoffMs(3);
+            long huge = dispatcher.backoffMs(30);
+            assertTrue(first >= 500 && first <= 1000, "attempt 1: " + first);
+            assertTrue(third >= 2000 && third <= 4000, "attempt 3: " + third);
+            assertTrue(huge >= 30_000 && huge <= 60_000, "capped: " + huge);
+        }
+    }
+
+    @Test
+    void testDeliver_RetryableErrorSchedulesRetry() {
+        // Given
+        OutboundMessage message = claimed(1);
+        when(whatsAppService.sendMessage(any(), any()))
+                .thenThrow(new WhatsAppSendException("WhatsApp message sending failed", null, true, 503, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboundMessage.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // When
+        dispatcher.deliver(message);
+
+        // Then
+        assertEquals(OutboundStatus.FAILED, capturedUpdate().getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void testDeliver_NonRetryableErrorDeadLetters() {
+        // Given: recipient not allowed (400 / 131030) will never succeed
+        OutboundMessage message = claimed(1);
+        when(whatsAppService.sendMessage(any(), any()))
+                .thenThrow(new WhatsAppSendException("WhatsApp message sending failed", null, false, 400, 131030));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboundMessage.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // When
+        dispatcher.deliver(message);
+
+        // Then
+        assertEquals(OutboundStatus.DEAD, capturedUpdate().getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void testDeliver_AttemptsExhaustedDeadLetters() {
+        OutboundMessage message = claimed(3);
+        when(whatsAppService.sendMessage(any(), any()))
+                .thenThrow(new WhatsAppSendException("WhatsApp message sending failed", null, true, 0, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboundMessage.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        dispatcher.deliver(message);
+
+        assertEquals(OutboundStatus.DEAD, capturedUpdate().getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    private OutboundMessage claimed(int attempts) {
+        OutboundMessage message = new OutboundMessage("c1", null, "enc-phone", "enc-text", OutboxService.SOURCE_REPLY);
+        message.setId("o1");
+        message.setStatus(OutboundStatus.SENDING);
+        message.setAttempts(attempts);
+        when(encryptionConfig.decryptSensitiveField(anyString(), anyString())).thenAnswer(i -> i.getArgument(0));
+        return message;
+    }
+
+    private Update capturedUpdate() {
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), captor.capture(), eq(OutboundMessage.class));
+        return captor.getValue();
+    }
+}
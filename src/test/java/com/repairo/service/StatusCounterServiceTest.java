@@ -0,0 +1,95 @@
+package com.repairo.service;
+
+import com.repairo.model.OnboardingState;
+import com.repairo.model.RepairStatus;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatusCounterServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private StatusCounterService statusCounters;
+
+    @Test
+    void testRecordNewCustomer() {
+        // Given
+        StatusCounterService.Snapshot after =
+            new StatusCounterService.Snapshot(RepairStatus.PENDING, OnboardingState.AWAITING_NAME, true);
+
+        // When
+        statusCounters.record(null, after);
+
+        // Then
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(StatusCounterService.COLLECTION));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(1L, inc.get(StatusCounterService.TOTAL));
+        assertEquals(1L, inc.get("repairStatus.PENDING"));
+        assertEquals(1L, inc.get("onboardingState.AWAITING_NAME"));
+        assertEquals(1L, inc.get(StatusCounterService.PENDING_CONVERSATIONS));
+        assertEquals(1, statusCounters.total());
+        assertEquals(1, statusCounters.count(RepairStatus.PENDING));
+        assertEquals(1, statusCounters.pendingConversations());
+    }
+
+    @Test
+    void testRecordStatusChangeMovesOneCount() {
+        // Given
+        StatusCounterService.Snapshot before =
+            new StatusCounterService.Snapshot(RepairStatus.PENDING, OnboardingState.COMPLETED, false);
+        StatusCounterService.Snapshot after =
+            new StatusCounterService.Snapshot(RepairStatus.IN_PROGRESS, OnboardingState.COMPLETED, false);
+
+        // When
+        statusCounters.record(before, after);
+
+        // Then
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(StatusCounterService.COLLECTION));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(2, inc.size());
+        assertEquals(-1L, inc.get("repairStatus.PENDING"));
+        assertEquals(1L, inc.get("repairStatus.IN_PROGRESS"));
+        assertEquals(1, statusCounters.count(RepairStatus.IN_PROGRESS));
+    }
+
+    @Test
+    void testRecordWithoutChangeWritesNothing() {
+        StatusCounterService.Snapshot same =
+            new StatusCounterService.Snapshot(RepairStatus.COMPLETED, OnboardingState.COMPLETED, false);
+
+        statusCounters.record(same, same);
+        statusCounters.recordAnswered(0);
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testRecordAnsweredDecrementsPendingConversations() {
+        // When
+        statusCounters.recordAnswered(3);
+
+        // Then
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(StatusCounterService.COLLECTION));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(-3L, inc.get(StatusCounterService.PENDING_CONVERSATIONS));
+        assertEquals(-3, statusCounters.pendingConversations());
+    }
+}
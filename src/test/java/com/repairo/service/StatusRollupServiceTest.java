@@ -0,0 +1,152 @@
+package com.repairo.service;
+
+import com.repairo.model.RepairStatus;
+import com.repairo.model.RepairStatusChange;
+import com.repairo.model.StatusTransitionRollup;
+import com.repairo.model.StatusTransitionRollup.Granularity;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StatusRollupServiceTest {
+
+    @Test
+    void testIncrementForTimedChange() {
+        // Given
+        RepairStatusChange change = change("c1", RepairStatus.PENDING, RepairStatus.IN_PROGRESS,
+            LocalDateTime.of(2026, 10, 18, 14, 25));
+        change.setDurationMs(90 * 60_000L);
+
+        // When
+        Update update = StatusRollupService.increment(Granularity.HOUR,
+            StatusRollupService.bucketStart(Granularity.HOUR, change.getChangedAt()), change);
+
+        // Then
+        Document doc = update.getUpdateObject();
+        Document inc = (Document) doc.get("$inc");
+        assertEquals(1, inc.get("count"));
+        assertEquals(1, inc.get("timedCount"));
+        assertEquals(90 * 60_000L, inc.get("durationSumMs"));
+        assertEquals(1, inc.get("durationHistogram.5"));
+        assertEquals(LocalDateTime.of(2026, 10, 18, 14, 0), ((Document) doc.get("$setOnInsert")).get("bucketStart"));
+    }
+
+    @Test
+    void testIncrementWithoutDurationOnlyCounts() {
+        RepairStatusChange change = change("c1", RepairStatus.PENDING, RepairStatus.COMPLETED, LocalDateTime.now());
+
+        Update update = StatusRollupService.increment(Granularity.DAY, change.getChangedAt(), change);
+
+        Document inc = (Document) update.getUpdateObject().get("$inc");
+        assertEquals(1, inc.size());
+        assertNull(update.getUpdateObject().get("$max"));
+    }
+
+    @Test
+    void testAccumulateFillsHourAndDayBuckets() {
+        // Given
+        Map<String, StatusTransitionRollup> buckets = new LinkedHashMap<>();
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 18, 9, 10);
+        RepairStatusChange first = change("c1", RepairStatus.PENDING, RepairStatus.IN_PROGRESS, morning);
+        first.setDurationMs(1_000L);
+        RepairStatusChange second = change("c2", RepairStatus.PENDING, RepairStatus.IN_PROGRESS, morning.plusHours(3));
+        second.setDurationMs(5_000L);
+
+        // When
+        StatusRollupService.accumulate(buckets, first);
+        StatusRollupService.accumulate(buckets, second);
+        StatusRollupService.accumulate(buckets, change("c3", RepairStatus.COMPLETED, RepairStatus.COMPLETED, morning));
+
+        // Then: two hour buckets and one day bucket; same-status records are ignored
+        assertEquals(3, buckets.size());
+        StatusTransitionRollup day = buckets.get(StatusTransitionRollup.idOf(Granularity.DAY,
+            morning.toLocalDate().atStartOfDay(), RepairStatus.PENDING, RepairStatus.IN_PROGRESS));
+        assertEquals(2, day.getCount());
+        assertEquals(6_000L, day.getDurationSumMs());
+        assertEquals(5_000L, day.getDurationMaxMs());
+        assertEquals(2L, day.getDurationHistogram().get("0"));
+    }
+
+    @Test
+    void testMergedIncrementCarriesBatchTotals() {
+        // Given: two timed changes in the same hour, merged as applyAll does
+        Map<String, StatusTransitionRollup> buckets = new LinkedHashMap<>();
+        LocalDateTime at = LocalDateTime.of(2026, 10, 18, 9, 10);
+        RepairStatusChange first = change("c1", RepairStatus.PENDING, RepairStatus.COMPLETED, at);
+        first.setDurationMs(1_000L);
+        RepairStatusChange second = change("c2", RepairStatus.PENDING, RepairStatus.COMPLETED, at.plusMinutes(1));
+        second.setDurationMs(4_000L);
+        StatusRollupService.accumulate(buckets, first);
+        StatusRollupService.accumulate(buckets, second);
+
+        // When
+        Update update = StatusRollupService.increment(buckets.get(StatusTransitionRollup.idOf(Granularity.HOUR,
+            at.withMinute(0), RepairStatus.PENDING, RepairStatus.COMPLETED)));
+
+        // Then
+        Document doc = update.getUpdateObject();
+        Document inc = (Document) doc.get("$inc");
+        assertEquals(2L, ((Number) inc.get("count")).longValue());
+        assertEquals(2L, ((Number) inc.get("timedCount")).longValue());
+        assertEquals(5_000L, ((Number) inc.get("durationSumMs")).longValue());
+        assertEquals(2L, ((Number) inc.get("durationHistogram.0")).longValue());
+        assertEquals(4_000L, ((Number) ((Document) doc.get("$max")).get("durationMaxMs")).longValue());
+    }
+
+    private static RepairStatusChange change(String customerId, RepairStatus from, RepairStatus to, LocalDateTime at) {
+        RepairStatusChange change = new RepairStatusChange(customerId, from, to, "admin");
+        change.setChangedAt(at);
+        return change;
+    }
+
+    @Test
+    void testRebuildHoldsBackLiveUpdatesForRebuiltDays() {
+        // Given: record a is in the audit log; the async writer delivers a (already read) and b
+        // (stored after the rebuild passed its time) while the rebuild runs
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StatusTransitionRollup.class)).thenReturn(ops);
+        when(mongoTemplate.remove(any(Query.class), eq(StatusTransitionRollup.class))).thenReturn(DeleteResult.acknowledged(0));
+        StatusRollupService service = new StatusRollupService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        LocalDateTime yesterday = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusHours(12);
+        RepairStatusChange a = change("a", yesterday);
+        RepairStatusChange b = change("b", yesterday.plusMinutes(1));
+        when(mongoTemplate.stream(any(Query.class), eq(RepairStatusChange.class)))
+            .thenReturn(Stream.of(a).peek(read -> service.applyAll(List.of(a, b))));
+
+        // When
+        service.rebuild(LocalDateTime.now());
+
+        // Then: a is only in the rebuilt buckets (replaced, not inserted), b is applied afterwards
+        verify(ops, times(Granularity.values().length))
+            .replaceOne(any(Query.class), any(StatusTransitionRollup.class), any(FindAndReplaceOptions.class));
+        verify(ops, times(Granularity.values().length)).upsert(any(Query.class), any(Update.class));
+        verify(mongoTemplate, never()).insert(anyList(), eq(StatusTransitionRollup.class));
+    }
+
+    private static RepairStatusChange change(String id, LocalDateTime changedAt) {
+        RepairStatusChange change = new RepairStatusChange("c1", RepairStatus.PENDING, RepairStatus.IN_PROGRESS, "admin");
+        change.setId(id);
+        change.setChangedAt(changedAt);
+        change.setDurationMs(60_000L);
+        return change;
+    }
+}
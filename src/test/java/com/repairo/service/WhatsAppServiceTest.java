@@ -38,6 +38,7 @@ class WhatsAppServiceTest {
     void setUp() {
         ReflectionTestUtils.setField(whatsAppService, "accessToken", "test_token");
         ReflectionTestUtils.setField(whatsAppService, "phoneNumberId", "test_phone_id");
+        ReflectionTestUtils.setField(whatsAppService, "apiUrl", "https://graph.facebook.com");
         ReflectionTestUtils.setField(whatsAppService, "restTemplate", restTemplate);
         
         System.setOut(new PrintStream(outputStream));
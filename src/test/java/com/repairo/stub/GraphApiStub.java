@@ -0,0 +1,265 @@
+package com.repairo.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the WhatsApp Cloud API send endpoint ({@code POST /{version}/{phoneNumberId}/messages})
+ * built on the JDK HTTP server, so WhatsAppService, the outbox and the onboarding flow can be driven at
+ * full speed without network access or a Meta account. Latency and error mix are configurable; point
+ * {@code whatsapp.api.url} at {@link #baseUrl()}.
+ *
+ * Embedded in a test:
+ * <pre>
+ *   try (GraphApiStub stub = GraphApiStub.builder().latency(LatencyDistribution.fixed(50))
+ *           .error(StubError.RATE_LIMITED, 0.05).start()) { ... }
+ * </pre>
+ * or standalone with {@link #main}: {@code ./gradlew graphApiStub -PstubArgs="--port=8089 --error-429=0.02"}.
+ */
+public final class GraphApiStub implements AutoCloseable {
+
+    private static final Pattern SEND_PATH = Pattern.compile("^/[^/]+/[^/]+/messages/?$");
+    private static final Pattern TO_FIELD = Pattern.compile("\"to\"\\s*:\\s*\"([^\"]*)\"");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyDistribution latency;
+    private final Map<StubError, Double> errorRates;
+    private final String accessToken;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLongArray injected = new AtomicLongArray(StubError.values().length);
+
+    private GraphApiStub(Builder builder) throws IOException {
+        this.latency = builder.latency;
+        this.errorRates = new EnumMap<>(builder.errorRates);
+        this.accessToken = builder.accessToken;
+        this.server = HttpServer.create(new InetSocketAddress(builder.host, builder.port), 512);
+        // Latency is simulated by sleeping, so the pool must be wide enough for the target concurrency
+        this.executor = Executors.newFixedThreadPool(builder.threads, runnable -> {
+            Thread thread = new Thread(runnable, "graph-api-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Value for {@code whatsapp.api.url}. */
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    public long deliveredCount() {
+        return delivered.get();
+    }
+
+    public long injectedCount(StubError error) {
+        return injected.get(error.ordinal());
+    }
+
+    /** Counters for reporting: requests, delivered and one entry per injected error. */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.get());
+        stats.put("delivered", delivered.get());
+        for (StubError error : StubError.values()) {
+            stats.put(error.name().toLowerCase(), injected.get(error.ordinal()));
+        }
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body = readBody(exchange.getRequestBody());
+            if (!"POST".equals(exchange.getRequestMethod()) || !SEND_PATH.matcher(exchange.getRequestURI().getPath()).matches()) {
+                respond(exchange, 404, "{\"error\":{\"message\":\"Unsupported path\",\"code\":100}}");
+                return;
+            }
+            requests.incrementAndGet();
+            sleep(latency.sampleMillis(ThreadLocalRandom.current()));
+
+            String traceId = UUID.randomUUID().toString().replace("-", "").substring(0, 11);
+            if (accessToken != null && !("Bearer " + accessToken).equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                injected.incrementAndGet(StubError.UNAUTHORIZED.ordinal());
+                respond(exchange, 401, StubError.UNAUTHORIZED.body(traceId));
+                return;
+            }
+            StubError error = pickError(ThreadLocalRandom.current());
+            if (error != null) {
+                injected.incrementAndGet(error.ordinal());
+                respond(exchange, error.status, error.body(traceId));
+                return;
+            }
+
+            Matcher to = TO_FIELD.matcher(body);
+            String recipient = to.find() ? to.group(1) : "";
+            delivered.incrementAndGet();
+            respond(exchange, 200, "{\"messaging_product\":\"whatsapp\",\"contacts\":[{\"input\":\"" + recipient
+                + "\",\"wa_id\":\"" + recipient + "\"}],\"messages\":[{\"id\":\"wamid.STUB" + traceId + "\"}]}");
+        }
+    }
+
+    private StubError pickError(Random random) {
+        double roll = random.nextDouble();
+        double cumulative = 0;
+        for (Map.Entry<StubError, Double> entry : errorRates.entrySet()) {
+            cumulative += entry.getValue();
+            if (roll < cumulative) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static final class Builder {
+        private String host = "127.0.0.1";
+        private int port = 0;
+        private int threads = 200;
+        private LatencyDistribution latency = LatencyDistribution.none();
+        private final Map<StubError, Double> errorRates = new EnumMap<>(StubError.class);
+        private String accessToken;
+
+        private Builder() {}
+
+        public Builder host(String host) { this.host = host; return this; }
+
+        /** 0 picks a free port. */
+        public Builder port(int port) { this.port = port; return this; }
+
+        public Builder threads(int threads) { this.threads = threads; return this; }
+
+        public Builder latency(LatencyDistribution latency) { this.latency = latency; return this; }
+
+        /** Fraction (0..1) of send requests answered with the given error. */
+        public Builder error(StubError error, double rate) {
+            if (rate < 0 || rate > 1) throw new IllegalArgumentException("Error rate must be within 0..1");
+            errorRates.put(error, rate);
+            return this;
+        }
+
+        /** When set, requests with another bearer token get a 401 (in addition to injected ones). */
+        public Builder accessToken(String accessToken) { this.accessToken = accessToken; return this; }
+
+        public GraphApiStub start() throws IOException {
+            double total = errorRates.values().stream().mapToDouble(Double::doubleValue).sum();
+            if (total > 1) throw new IllegalArgumentException("Error rates add up to more than 1");
+            GraphApiStub stub = new GraphApiStub(this);
+            stub.server.start();
+            return stub;
+        }
+    }
+
+    /**
+     * Standalone stub, optionally firing webhooks at the app. Options (all --key=value): host, port,
+     * threads, latency, token, error-401, error-131030, error-429, error-500, error-503,
+     * webhook-target, webhook-rate, webhook-duration-s, senders, report-interval-s.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        Builder builder = builder()
+            .host(options.getOrDefault("host", "127.0.0.1"))
+            .port(Integer.parseInt(options.getOrDefault("port", "8089")))
+            .threads(Integer.parseInt(options.getOrDefault("threads", "200")))
+            .latency(LatencyDistribution.parse(options.getOrDefault("latency", "lognormal:120:0.5")))
+            .accessToken(options.get("token"));
+        Map<String, StubError> errorOptions = Map.of(
+            "error-401", StubError.UNAUTHORIZED,
+            "error-131030", StubError.RECIPIENT_NOT_ALLOWED,
+            "error-429", StubError.RATE_LIMITED,
+            "error-500", StubError.SERVER_ERROR,
+            "error-503", StubError.UNAVAILABLE);
+        errorOptions.forEach((key, error) -> {
+            if (options.containsKey(key)) builder.error(error, Double.parseDouble(options.get(key)));
+        });
+
+        try (GraphApiStub stub = builder.start()) {
+            System.out.println("Graph API stub listening on " + stub.baseUrl()
+                + " (set WHATSAPP_API_URL=" + stub.baseUrl() + ")");
+            long reportEvery = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("report-interval-s", "10")));
+
+            if (options.containsKey("webhook-target")) {
+                WebhookFirer firer = new WebhookFirer(URI.create(options.get("webhook-target")),
+                    Integer.parseInt(options.getOrDefault("senders", "500")));
+                WebhookFirer.Report report = firer.fire(
+                    Double.parseDouble(options.getOrDefault("webhook-rate", "20")),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("webhook-duration-s", "60"))));
+                System.out.println("Webhooks: " + report);
+                System.out.println("Stub: " + stub.stats());
+                return;
+            }
+            while (true) {
+                Thread.sleep(reportEvery);
+                System.out.println("Stub: " + stub.stats());
+            }
+        }
+    }
+}
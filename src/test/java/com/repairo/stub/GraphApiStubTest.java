@@ -0,0 +1,105 @@
+package com.repairo.stub;
+
+import com.repairo.service.WhatsAppSendException;
+import com.repairo.service.WhatsAppService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the real WhatsAppService over HTTP against the stub, no network needed.
+ */
+class GraphApiStubTest {
+
+    private GraphApiStub stub;
+
+    @AfterEach
+    void tearDown() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    void testSendMessage_ReturnsWamidFromStub() throws Exception {
+        // Given
+        stub = GraphApiStub.builder().accessToken("test_token").start();
+        WhatsAppService service = serviceFor(stub, "test_token");
+
+        // When
+        String wamid = service.sendMessage("919000000001", "Your phone is ready");
+
+        // Then
+        assertNotNull(wamid);
+        assertTrue(wamid.startsWith("wamid."));
+        assertEquals(1, stub.deliveredCount());
+    }
+
+    @Test
+    void testSendMessage_InjectedRateLimitIsRetryable() throws Exception {
+        // Given
+        stub = GraphApiStub.builder().error(StubError.RATE_LIMITED, 1.0).start();
+        WhatsAppService service = serviceFor(stub, "test_token");
+
+        // When
+        WhatsAppSendException e = assertThrows(WhatsAppSendException.class,
+            () -> service.sendMessage("919000000001", "Hello"));
+
+        // Then
+        assertEquals(429, e.getStatusCode());
+        assertEquals(130429, e.getErrorCode());
+        assertTrue(e.isRetryable());
+        assertEquals(1, stub.injectedCount(StubError.RATE_LIMITED));
+    }
+
+    @Test
+    void testSendMessage_WrongTokenIsUnauthorized() throws Exception {
+        // Given
+        stub = GraphApiStub.builder().accessToken("expected").start();
+        WhatsAppService service = serviceFor(stub, "expired");
+
+        // When
+        WhatsAppSendException e = assertThrows(WhatsAppSendException.class,
+            () -> service.sendMessage("919000000001", "Hello"));
+
+        // Then
+        assertEquals(401, e.getStatusCode());
+        assertFalse(e.isRetryable());
+    }
+
+    @Test
+    void testLatencySpecParsing() {
+        assertEquals(80, LatencyDistribution.parse("fixed:80").sampleMillis(new java.util.Random(1)));
+        long sample = LatencyDistribution.parse("uniform:10:20").sampleMillis(new java.util.Random(1));
+        assertTrue(sample >= 10 && sample <= 20);
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("gamma:1"));
+    }
+
+    @Test
+    void testWebhookPayloadWalksOnboardingConversation() {
+        // Given: two senders
+        WebhookFirer firer = new WebhookFirer(java.net.URI.create("http://localhost/webhook"), 2);
+
+        // When
+        String first = firer.nextPayload();
+        firer.nextPayload();
+        String third = firer.nextPayload();
+
+        // Then: same sender, next onboarding step
+        assertTrue(first.contains("\"from\":\"919000000000\"") && first.contains("\"body\":\"Hi\""));
+        assertTrue(third.contains("\"from\":\"919000000000\"") && third.contains("\"body\":\"Ravi Kumar\""));
+    }
+
+    private static WhatsAppService serviceFor(GraphApiStub stub, String token) {
+        WhatsAppService service = new WhatsAppService();
+        ReflectionTestUtils.setField(service, "restTemplate", new RestTemplate());
+        ReflectionTestUtils.setField(service, "apiUrl", stub.baseUrl());
+        ReflectionTestUtils.setField(service, "apiVersion", "v23.0");
+        ReflectionTestUtils.setField(service, "accessToken", token);
+        ReflectionTestUtils.setField(service, "phoneNumberId", "STUB_PHONE_ID");
+        return service;
+    }
+}
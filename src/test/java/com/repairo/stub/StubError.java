@@ -0,0 +1,30 @@
+package com.repairo.stub;
+
+/**
+ * Graph API failures {@link GraphApiStub} can inject, with the status and error body the real API
+ * returns for them.
+ */
+public enum StubError {
+    UNAUTHORIZED(401, 190, "OAuthException", "Error validating access token: Session has expired"),
+    RECIPIENT_NOT_ALLOWED(400, 131030, "OAuthException", "Recipient phone number not in allowed list"),
+    RATE_LIMITED(429, 130429, "OAuthException", "Rate limit hit"),
+    SERVER_ERROR(500, 131000, "OAuthException", "Something went wrong"),
+    UNAVAILABLE(503, 131016, "OAuthException", "Service unavailable");
+
+    final int status;
+    final int code;
+    final String type;
+    final String message;
+
+    StubError(int status, int code, String type, String message) {
+        this.status = status;
+        this.code = code;
+        this.type = type;
+        this.message = message;
+    }
+
+    String body(String traceId) {
+        return "{\"error\":{\"message\":\"(#" + code + ") " + message + "\",\"type\":\"" + type
+            + "\",\"code\":" + code + ",\"fbtrace_id\":\"" + traceId + "\"}}";
+    }
+}
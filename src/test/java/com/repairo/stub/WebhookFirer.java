@@ -0,0 +1,129 @@
+package com.repairo.stub;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Posts WhatsApp Cloud API style inbound message webhooks to the app's {@code /webhook} at a fixed
+ * rate. Requests are scheduled open-loop (the next one does not wait for the previous response), and
+ * latency is measured from the intended send time, so a slow server shows up as latency rather than
+ * as a silently lower rate.
+ *
+ * Senders cycle through a pool of phone numbers and walk through the onboarding conversation, so a
+ * run exercises customer creation, onboarding steps and plain messages to onboarded customers.
+ */
+public final class WebhookFirer {
+
+    private static final List<String> CONVERSATION = List.of(
+        "Hi", "Ravi Kumar", "Samsung Galaxy S21", "Screen flickers after a fall", "Any update on my phone?");
+
+    private final URI target;
+    private final int senders;
+    private final HttpClient http;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public WebhookFirer(URI target, int senders) {
+        this.target = target;
+        this.senders = Math.max(1, senders);
+        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    /**
+     * Fires webhooks at {@code perSecond} for {@code duration} and waits for the outstanding responses.
+     */
+    public Report fire(double perSecond, Duration duration) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong ok = new AtomicLong();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduled = intended;
+            HttpRequest request = HttpRequest.newBuilder(target)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(nextPayload()))
+                .build();
+            inFlight.add(http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    latencies.add(System.nanoTime() - scheduled);
+                    if (error == null && response.statusCode() == 200) ok.incrementAndGet();
+                }));
+            if (inFlight.size() >= 10_000) {
+                inFlight.removeIf(CompletableFuture::isDone);
+            }
+        }
+        try {
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // Responses still missing after the grace period count as failed below
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        long sent = sequence.get();
+        return new Report(sent, ok.get(), sent - ok.get(), sent * 1e9 / elapsed, sorted);
+    }
+
+    /** Next webhook body; sender i sends the steps of {@link #CONVERSATION} in order. */
+    String nextPayload() {
+        long n = sequence.getAndIncrement();
+        long sender = n % senders;
+        String phone = String.valueOf(919_000_000_000L + sender);
+        String text = CONVERSATION.get((int) Math.min(n / senders, CONVERSATION.size() - 1));
+        String timestamp = String.valueOf(Instant.now().getEpochSecond());
+        return "{\"object\":\"whatsapp_business_account\",\"entry\":[{\"id\":\"STUB_WABA\",\"changes\":[{\"value\":{"
+            + "\"messaging_product\":\"whatsapp\","
+            + "\"metadata\":{\"display_phone_number\":\"15550000000\",\"phone_number_id\":\"STUB_PHONE_ID\"},"
+            + "\"contacts\":[{\"profile\":{\"name\":\"Load " + sender + "\"},\"wa_id\":\"" + phone + "\"}],"
+            + "\"messages\":[{\"from\":\"" + phone + "\",\"id\":\"wamid.IN" + UUID.randomUUID().toString().replace("-", "")
+            + "\",\"timestamp\":\"" + timestamp + "\",\"type\":\"text\",\"text\":{\"body\":\"" + text + "\"}}]"
+            + "},\"field\":\"messages\"}]}]}";
+    }
+
+    public static final class Report {
+        public final long sent;
+        public final long ok;
+        public final long failed;
+        public final double achievedPerSecond;
+        private final long[] sortedLatencyNanos;
+
+        Report(long sent, long ok, long failed, double achievedPerSecond, long[] sortedLatencyNanos) {
+            this.sent = sent;
+            this.ok = ok;
+            this.failed = failed;
+            this.achievedPerSecond = achievedPerSecond;
+            this.sortedLatencyNanos = sortedLatencyNanos;
+        }
+
+        public double percentileMillis(double p) {
+            if (sortedLatencyNanos.length == 0) return 0;
+            int index = (int) Math.min(sortedLatencyNanos.length - 1, Math.ceil(p / 100 * sortedLatencyNanos.length) - 1);
+            return sortedLatencyNanos[Math.max(0, index)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("sent=%d ok=%d failed=%d rate=%.1f/s p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                sent, ok, failed, achievedPerSecond, percentileMillis(50), percentileMillis(95), percentileMillis(99),
+                sortedLatencyNanos.length > 0 ? sortedLatencyNanos[sortedLatencyNanos.length - 1] / 1e6 : 0.0);
+        }
+    }
+}